@@ -0,0 +1,94 @@
+package com.example.payflow_backend.benchmark;
+
+import com.example.payflow_backend.dto.CTCSalaryRow;
+import com.example.payflow_backend.model.CTC;
+import com.example.payflow_backend.model.Employee;
+import com.example.payflow_backend.model.Payroll;
+import com.example.payflow_backend.model.PayrollStatus;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic employees, CTCs and payrolls shared by the benchmarks, so runs are comparable.
+ */
+final class BenchmarkData {
+
+    static final String MONTH = "2025-06";
+
+    private static final String[] DEPARTMENTS = {"Engineering", "Finance", "HR", "Sales", "Operations"};
+    private static final String[] DESIGNATIONS = {"Associate", "Engineer", "Senior Engineer", "Lead", "Manager"};
+
+    private BenchmarkData() {
+    }
+
+    static Employee employee(int i) {
+        return Employee.builder()
+                .fullName("Employee " + i)
+                .email("employee" + i + "@payflow.test")
+                .department(DEPARTMENTS[i % DEPARTMENTS.length])
+                .designation(DESIGNATIONS[i % DESIGNATIONS.length])
+                .extraLeavesThisMonth(i % 4)
+                .isActive(true)
+                .onboardedAt(LocalDateTime.of(2024, 1, 1, 9, 0))
+                .build();
+    }
+
+    // CTC amounts in realistic rupee ranges with paise, seeded per index
+    static CTC ctc(Employee employee, int i) {
+        Random random = new Random(i);
+        BigDecimal basic = BigDecimal.valueOf(300_000_00L + random.nextInt(2_400_000_00), 2);
+        BigDecimal allowances = BigDecimal.valueOf(random.nextInt(300_000_00), 2);
+        BigDecimal bonuses = BigDecimal.valueOf(random.nextInt(200_000_00), 2);
+        BigDecimal pf = basic.multiply(BigDecimal.valueOf(12)).movePointLeft(2).setScale(2, RoundingMode.HALF_UP);
+        BigDecimal gratuity = BigDecimal.valueOf(random.nextInt(60_000_00), 2);
+        return CTC.builder()
+                .employee(employee)
+                .effectiveFrom(LocalDate.of(2025, 1, 1))
+                .basicSalary(basic)
+                .allowances(allowances)
+                .bonuses(bonuses)
+                .pfContribution(pf)
+                .gratuity(gratuity)
+                .totalCtc(basic.add(allowances).add(bonuses).add(pf).add(gratuity))
+                .build();
+    }
+
+    static CTCSalaryRow salaryRow(CTC ctc, long employeeId) {
+        return new CTCSalaryRow(employeeId, employeeId, ctc.getTotalCtc(), ctc.getPfContribution(), ctc.getGratuity());
+    }
+
+    // Saved-looking payrolls with IDs and timestamps, as a month listing returns them
+    static List<Payroll> payrolls(int count) {
+        List<Payroll> payrolls = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Employee employee = employee(i);
+            employee.setEmployeeId((long) i + 1);
+            BigDecimal gross = ctc(employee, i).getNetMonthlySalary();
+            int unpaidLeaves = employee.getExtraLeavesThisMonth();
+            BigDecimal perDay = gross.divide(BigDecimal.valueOf(30), 2, RoundingMode.HALF_UP);
+            BigDecimal deduction = perDay.multiply(BigDecimal.valueOf(unpaidLeaves));
+            payrolls.add(Payroll.builder()
+                    .id((long) i + 1)
+                    .employee(employee)
+                    .month(MONTH)
+                    .grossSalary(gross)
+                    .leaveDeduction(deduction)
+                    .netSalary(gross.subtract(deduction))
+                    .perDaySalary(perDay)
+                    .totalWorkingDays(30)
+                    .unpaidLeaves(unpaidLeaves)
+                    .status(PayrollStatus.PROCESSED)
+                    .processedBy("system")
+                    .createdAt(LocalDateTime.of(2025, 7, 1, 2, 0))
+                    .updatedAt(LocalDateTime.of(2025, 7, 1, 2, 0))
+                    .build());
+        }
+        return payrolls;
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.payflow_backend.benchmark;
+
+import com.example.payflow_backend.dto.CTCSalaryRow;
+import com.example.payflow_backend.model.CTC;
+import com.example.payflow_backend.model.CTCHistory;
+import com.example.payflow_backend.model.Employee;
+import com.example.payflow_backend.model.Payroll;
+import com.example.payflow_backend.service.PayrollCalculator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-employee CTC and payroll arithmetic, without a database.
+ * Inputs cycle through a fixed set of CTCs so nothing constant-folds.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class PayrollCalculationBenchmark {
+
+    private static final int INPUTS = 1024;
+
+    private final PayrollCalculator payrollCalculator = new PayrollCalculator();
+
+    private Employee[] employees;
+    private CTC[] ctcs;
+    private CTCSalaryRow[] salaryRows;
+    private BigDecimal[] grossSalaries;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        employees = new Employee[INPUTS];
+        ctcs = new CTC[INPUTS];
+        salaryRows = new CTCSalaryRow[INPUTS];
+        grossSalaries = new BigDecimal[INPUTS];
+        for (int i = 0; i < INPUTS; i++) {
+            employees[i] = BenchmarkData.employee(i);
+            employees[i].setEmployeeId((long) i + 1);
+            ctcs[i] = BenchmarkData.ctc(employees[i], i);
+            salaryRows[i] = BenchmarkData.salaryRow(ctcs[i], i + 1);
+            grossSalaries[i] = ctcs[i].getNetMonthlySalary();
+        }
+    }
+
+    private int nextIndex() {
+        return next = (next + 1) & (INPUTS - 1);
+    }
+
+    @Benchmark
+    public BigDecimal ctcMonthlySalary() {
+        return ctcs[nextIndex()].getMonthlySalary();
+    }
+
+    @Benchmark
+    public BigDecimal ctcNetMonthlySalary() {
+        return ctcs[nextIndex()].getNetMonthlySalary();
+    }
+
+    @Benchmark
+    public CTCHistory ctcHistoryFromCtc() {
+        return CTCHistory.fromCTC(ctcs[nextIndex()], CTCHistory.CTCActionType.UPDATED, "benchmark", null);
+    }
+
+    // The per-employee path behind PayrollService.calculateAndSavePayroll, minus the save
+    @Benchmark
+    public Payroll buildPayrollFromGross() {
+        int i = nextIndex();
+        return payrollCalculator.buildPayroll(employees[i], BenchmarkData.MONTH, grossSalaries[i],
+                employees[i].getExtraLeavesThisMonth());
+    }
+
+    // The bulk generation path: net salary and payroll in long paise
+    @Benchmark
+    public Payroll buildPayrollFromSalaryRow() {
+        int i = nextIndex();
+        return payrollCalculator.buildPayroll(employees[i], BenchmarkData.MONTH, 30, salaryRows[i],
+                employees[i].getExtraLeavesThisMonth());
+    }
+}
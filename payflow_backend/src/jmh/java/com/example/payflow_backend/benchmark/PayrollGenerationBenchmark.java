@@ -0,0 +1,126 @@
+package com.example.payflow_backend.benchmark;
+
+import com.example.payflow_backend.PayflowBackendApplication;
+import com.example.payflow_backend.dto.PayrollGenerationResult;
+import com.example.payflow_backend.model.CTC;
+import com.example.payflow_backend.model.Employee;
+import com.example.payflow_backend.model.Payroll;
+import com.example.payflow_backend.repository.CTCRepository;
+import com.example.payflow_backend.repository.EmployeeRepository;
+import com.example.payflow_backend.service.PayrollBulkService;
+import com.example.payflow_backend.service.PayrollService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Payroll generation through the real services against an embedded H2 database in MySQL mode.
+ * Absolute numbers are not comparable with MySQL; use them to compare builds on the same machine.
+ */
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PayrollGenerationBenchmark {
+
+    @Param({"2000"})
+    private int employees;
+
+    private ConfigurableApplicationContext context;
+    private PayrollBulkService payrollBulkService;
+    private PayrollService payrollService;
+    private JdbcTemplate jdbcTemplate;
+    private List<Long> employeeIds;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        // Command-line arguments, so they take precedence over application.properties
+        context = new SpringApplicationBuilder(PayflowBackendApplication.class).run(
+                "--spring.datasource.url=jdbc:h2:mem:payflow-benchmark;MODE=MySQL;DATABASE_TO_LOWER=TRUE;"
+                        + "NON_KEYWORDS=MONTH,VALUE,YEAR,USER;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                "--spring.jpa.show-sql=false",
+                "--spring.jpa.properties.hibernate.format_sql=false",
+                "--spring.jpa.properties.hibernate.use_sql_comments=false",
+                "--spring.devtools.restart.enabled=false",
+                "--server.port=0",
+                "--logging.level.root=WARN");
+        payrollBulkService = context.getBean(PayrollBulkService.class);
+        payrollService = context.getBean(PayrollService.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+        EmployeeRepository employeeRepository = context.getBean(EmployeeRepository.class);
+        CTCRepository ctcRepository = context.getBean(CTCRepository.class);
+        List<Employee> saved = new ArrayList<>(employees);
+        for (int i = 0; i < employees; i++) {
+            saved.add(BenchmarkData.employee(i));
+        }
+        saved = employeeRepository.saveAll(saved);
+        List<CTC> ctcs = new ArrayList<>(employees);
+        employeeIds = new ArrayList<>(employees);
+        for (int i = 0; i < saved.size(); i++) {
+            ctcs.add(BenchmarkData.ctc(saved.get(i), i));
+            employeeIds.add(saved.get(i).getEmployeeId());
+        }
+        ctcRepository.saveAll(ctcs);
+        // One payroll per employee so the per-employee benchmark always regenerates an existing row
+        payrollBulkService.generateForMonth(BenchmarkData.MONTH);
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    @State(Scope.Benchmark)
+    public static class EmptyMonth {
+
+        static final String MONTH = "2025-07";
+
+        @Setup(Level.Invocation)
+        public void clear(PayrollGenerationBenchmark benchmark) {
+            benchmark.jdbcTemplate.update("DELETE FROM payroll WHERE month = ?", MONTH);
+            benchmark.jdbcTemplate.update("DELETE FROM payroll_month_summary WHERE month = ?", MONTH);
+        }
+    }
+
+    // Whole-month bulk generation, one month of all employees per invocation
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 3, batchSize = 1)
+    @Measurement(iterations = 10, batchSize = 1)
+    public PayrollGenerationResult generateMonth(EmptyMonth month) {
+        return payrollBulkService.generateForMonth(EmptyMonth.MONTH);
+    }
+
+    // PayrollService.calculateAndSavePayroll for one employee, replacing the existing row
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Payroll regenerateEmployeePayroll() {
+        next = (next + 1) % employeeIds.size();
+        return payrollService.regeneratePayrollForEmployee(employeeIds.get(next), BenchmarkData.MONTH);
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.payflow_backend.benchmark;
+
+import com.example.payflow_backend.model.Payroll;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON serialization of Payroll lists as the month and employee listings return them,
+ * with the nested employee and the ObjectMapper defaults Spring Boot applies.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PayrollJsonBenchmark {
+
+    @Param({"100", "10000"})
+    private int payrolls;
+
+    private ObjectMapper objectMapper;
+    private List<Payroll> payrollList;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        payrollList = BenchmarkData.payrolls(payrolls);
+    }
+
+    @Benchmark
+    public byte[] serializePayrollList() throws Exception {
+        return objectMapper.writeValueAsBytes(payrollList);
+    }
+}
@@ -1,16 +1,27 @@
 package com.example.payflow_backend.controller;
 
+import com.example.payflow_backend.dto.CTCTimelineCacheStats;
 import com.example.payflow_backend.model.CTC;
 import com.example.payflow_backend.model.CTCHistory;
 import com.example.payflow_backend.service.CTCService;
 import com.example.payflow_backend.service.CTCHistoryService;
+import com.example.payflow_backend.service.CTCImportService;
+import com.example.payflow_backend.service.CTCSnapshotService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
+import java.security.Principal;
 import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -26,6 +37,12 @@ public class CTCController {
     @Autowired
     private CTCHistoryService ctcHistoryService;
 
+    @Autowired
+    private CTCSnapshotService ctcSnapshotService;
+
+    @Autowired
+    private CTCImportService ctcImportService;
+
     /**
      * Create a new CTC record for an employee
      */
@@ -124,6 +141,55 @@ public class CTCController {
         ));
     }
 
+    /**
+     * Size and hit rate of the in-memory CTC timeline cache
+     */
+    @GetMapping("/cache/stats")
+    public ResponseEntity<CTCTimelineCacheStats> getTimelineCacheStats() {
+        return ResponseEntity.ok(ctcService.getTimelineCacheStats());
+    }
+
+    /**
+     * Stream the CTC effective on a date for every employee (optionally one department) as CSV
+     */
+    @GetMapping("/snapshot")
+    public ResponseEntity<?> getCTCSnapshot(
+            @RequestParam String asOf,
+            @RequestParam(required = false) String department,
+            @RequestParam(defaultValue = "true") boolean activeOnly) {
+        LocalDate asOfDate;
+        try {
+            asOfDate = LocalDate.parse(asOf);
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", "Invalid asOf date. Use YYYY-MM-DD"));
+        }
+        StreamingResponseBody body = out -> ctcSnapshotService.writeCsv(asOfDate, department, activeOnly, out);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"ctc-snapshot-" + asOfDate + ".csv\"")
+                .contentType(MediaType.parseMediaType("text/csv"))
+                .body(body);
+    }
+
+    /**
+     * Import CTC records from a CSV file (employeeId,effectiveFrom,basicSalary plus optional allowances,
+     * bonuses,pfContribution,gratuity,totalCtc). Valid rows are imported; the rest are reported per line.
+     */
+    @PostMapping("/import")
+    public ResponseEntity<?> importCTC(@RequestParam("file") MultipartFile file,
+                                       @RequestParam(defaultValue = "false") boolean dryRun,
+                                       Principal principal) {
+        try (InputStream in = file.getInputStream()) {
+            return ResponseEntity.ok(ctcImportService.importCsv(in, dryRun, principal != null ? principal.getName() : "system"));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", e.getMessage()));
+        } catch (IOException e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Could not read the uploaded file: " + e.getMessage()));
+        }
+    }
+
     /**
      * Get all CTC records
      */
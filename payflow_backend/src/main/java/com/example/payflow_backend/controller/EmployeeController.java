@@ -1,5 +1,6 @@
 package com.example.payflow_backend.controller;
 
+import com.example.payflow_backend.dto.EmployeeListItem;
 import com.example.payflow_backend.model.Employee;
 import com.example.payflow_backend.model.PastExperience;
 import com.example.payflow_backend.model.User;
@@ -67,6 +68,8 @@ public class EmployeeController {
             employee.setGrade((String) employeeData.get("grade"));
             employee.setDesignation((String) employeeData.get("designation"));
             employee.setDepartment((String) employeeData.get("department"));
+            employee.setBankAccountNumber((String) employeeData.get("bankAccountNumber"));
+            employee.setBankIfsc((String) employeeData.get("bankIfsc"));
             employee.setTotalLeaves(((Number) employeeData.get("totalLeaves")).intValue());
             employee.setRemLeaves(((Number) employeeData.get("totalLeaves")).intValue());
             employee.setTotalExperience(((Number) employeeData.get("totalExperience")).intValue());
@@ -148,7 +151,7 @@ public class EmployeeController {
     }
 
     @GetMapping("/getAll")
-    public ResponseEntity<List<Employee>> getAllEmployees(Authentication authentication) {
+    public ResponseEntity<List<EmployeeListItem>> getAllEmployees(Authentication authentication) {
         // Check if the user is a manager
         if (authentication != null) {
             String email = authentication.getName();
@@ -156,13 +159,13 @@ public class EmployeeController {
             
             if (currentUser != null && "MANAGER".equals(currentUser.getRole())) {
                 // Manager can only see their own employees
-                List<Employee> managedEmployees = employeeRepo.findByManagerUserIdAndIsActiveTrue(currentUser.getUserId());
+                List<EmployeeListItem> managedEmployees = service.getListItemsByManager(currentUser.getUserId());
                 return ResponseEntity.ok(managedEmployees);
             }
         }
         
         // HR and ADMIN can see all employees
-        List<Employee> employees = service.getAll();
+        List<EmployeeListItem> employees = service.getAllListItems();
         return ResponseEntity.ok(employees);
     }
 
@@ -360,6 +363,18 @@ public class EmployeeController {
         return ResponseEntity.ok(employee);
     }
 
+    // Salary account used in bank disbursement files
+    @PutMapping("/{employeeId}/bank-details")
+    @PreAuthorize("hasAnyRole('HR','MANAGER')")
+    public ResponseEntity<Employee> updateBankDetails(@PathVariable Long employeeId, @RequestBody Map<String, String> body) {
+        Employee employee = employeeRepo.findById(employeeId)
+                .orElseThrow(() -> new RuntimeException("Employee not found"));
+        employee.setBankAccountNumber(body.get("bankAccountNumber"));
+        employee.setBankIfsc(body.get("bankIfsc"));
+        employeeRepo.save(employee);
+        return ResponseEntity.ok(employee);
+    }
+
     // ✅ Admin endpoint to reset extra leaves for all employees (for testing/monthly reset)
     @PostMapping("/reset-extra-leaves")
     @PreAuthorize("hasRole('HR')")
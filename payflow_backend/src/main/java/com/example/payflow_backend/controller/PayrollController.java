@@ -1,18 +1,53 @@
 package com.example.payflow_backend.controller;
 
+import com.example.payflow_backend.dto.PayrollGenerationResult;
+import com.example.payflow_backend.dto.PayrollListFilter;
+import com.example.payflow_backend.dto.PayrollListItem;
+import com.example.payflow_backend.dto.PayrollRecomputeResult;
+import com.example.payflow_backend.dto.PayrollStatusTransitionRequest;
+import com.example.payflow_backend.dto.PayrollSummaryGroup;
+import com.example.payflow_backend.dto.PayrollSummaryMismatch;
 import com.example.payflow_backend.model.Payroll;
+import com.example.payflow_backend.model.PayrollBackfillRun;
+import com.example.payflow_backend.model.PayrollDirtyMark;
+import com.example.payflow_backend.model.PayrollRun;
 import com.example.payflow_backend.model.PayrollStatus;
+import com.example.payflow_backend.service.PayrollArchiveService;
+import com.example.payflow_backend.service.PayrollBackfillService;
+import com.example.payflow_backend.service.PayrollDirtyTracker;
+import com.example.payflow_backend.service.PayrollDisbursementService;
+import com.example.payflow_backend.service.PayrollExportService;
+import com.example.payflow_backend.service.PayrollLatestService;
+import com.example.payflow_backend.service.PayrollLedgerService;
+import com.example.payflow_backend.service.PayrollMonthSummaryService;
+import com.example.payflow_backend.service.PayrollRecomputeService;
+import com.example.payflow_backend.service.PayrollRollupService;
+import com.example.payflow_backend.service.PayrollRunEventStream;
+import com.example.payflow_backend.service.PayrollRunService;
 import com.example.payflow_backend.service.PayrollService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.Principal;
+import java.time.LocalDateTime;
 import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/payroll")
@@ -22,6 +57,42 @@ public class PayrollController {
     @Autowired
     private PayrollService payrollService;
 
+    @Autowired
+    private PayrollRunService payrollRunService;
+
+    @Autowired
+    private PayrollRunEventStream payrollRunEventStream;
+
+    @Autowired
+    private PayrollRecomputeService payrollRecomputeService;
+
+    @Autowired
+    private PayrollDirtyTracker payrollDirtyTracker;
+
+    @Autowired
+    private PayrollMonthSummaryService payrollMonthSummaryService;
+
+    @Autowired
+    private PayrollRollupService payrollRollupService;
+
+    @Autowired
+    private PayrollExportService payrollExportService;
+
+    @Autowired
+    private PayrollDisbursementService payrollDisbursementService;
+
+    @Autowired
+    private PayrollBackfillService payrollBackfillService;
+
+    @Autowired
+    private PayrollLatestService payrollLatestService;
+
+    @Autowired
+    private PayrollArchiveService payrollArchiveService;
+
+    @Autowired
+    private PayrollLedgerService payrollLedgerService;
+
     /**
      * Generate payroll for a specific employee and month
      */
@@ -42,18 +113,17 @@ public class PayrollController {
     }
 
     /**
-     * Generate payroll for all employees for a specific month
+     * Generate payroll for all employees for a specific month.
+     * Runs in the background; poll statusUrl or subscribe to eventsUrl for progress.
      */
     @PostMapping("/generate/all")
-    public ResponseEntity<?> generatePayrollForAllEmployees(@RequestParam String month) {
+    public ResponseEntity<?> generatePayrollForAllEmployees(@RequestParam String month, Principal principal) {
         try {
-            List<Payroll> payrolls = payrollService.generatePayrollForAllEmployees(month);
-            return ResponseEntity.status(HttpStatus.CREATED).body(Map.of(
-                    "message", "Payroll generated successfully",
-                    "month", month,
-                    "employeesProcessed", payrolls.size(),
-                    "payrolls", payrolls
-            ));
+            PayrollRun run = payrollRunService.submitRun(month, principal != null ? principal.getName() : "api");
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(jobAccepted(run, "Payroll generation started"));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(Map.of("error", "Failed to generate payroll for all employees: " + e.getMessage()));
@@ -66,15 +136,15 @@ public class PayrollController {
     @PostMapping("/generate/previous-month")
     public ResponseEntity<?> generatePayrollForPreviousMonth() {
         try {
-            List<Payroll> payrolls = payrollService.generatePayrollForPreviousMonth();
+            PayrollGenerationResult result = payrollService.generatePayrollForPreviousMonth();
             YearMonth previousMonth = YearMonth.now().minusMonths(1);
             String monthStr = previousMonth.format(DateTimeFormatter.ofPattern("yyyy-MM"));
             
             return ResponseEntity.status(HttpStatus.CREATED).body(Map.of(
                     "message", "Payroll generated for previous month",
                     "month", monthStr,
-                    "employeesProcessed", payrolls.size(),
-                    "payrolls", payrolls
+                    "employeesProcessed", result.getGenerated(),
+                    "result", result
             ));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -82,6 +152,155 @@ public class PayrollController {
         }
     }
 
+    /**
+     * Backfill payroll for a range of months (inclusive) in the background, skipping employee-months that already have one
+     */
+    @PostMapping("/backfill")
+    public ResponseEntity<?> backfillPayroll(@RequestParam String from, @RequestParam String to, Principal principal) {
+        try {
+            PayrollBackfillRun run = payrollBackfillService.submitBackfill(from, to,
+                    principal != null ? principal.getName() : "api");
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(Map.of(
+                    "message", "Payroll backfill started",
+                    "jobId", run.getId(),
+                    "fromMonth", run.getFromMonth(),
+                    "toMonth", run.getToMonth(),
+                    "status", run.getStatus(),
+                    "statusUrl", "/api/payroll/backfill/" + run.getId()
+            ));
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", "Invalid month format. Use YYYY-MM"));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Get a payroll backfill job: its status, partition progress and, once finished, its counts
+     */
+    @GetMapping("/backfill/{jobId}")
+    public ResponseEntity<?> getPayrollBackfill(@PathVariable Long jobId) {
+        try {
+            return ResponseEntity.ok(payrollBackfillService.getBackfillRun(jobId));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Start a checkpointed payroll run for a month in the background (resumes the month's unfinished run, if any)
+     */
+    @PostMapping("/runs")
+    public ResponseEntity<?> startPayrollRun(@RequestParam String month, Principal principal) {
+        try {
+            PayrollRun run = payrollRunService.submitRun(month, principal != null ? principal.getName() : "api");
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(jobAccepted(run, "Payroll run started"));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Pause a running payroll run after its current wave
+     */
+    @PostMapping("/runs/{runId}/pause")
+    public ResponseEntity<?> pausePayrollRun(@PathVariable Long runId) {
+        try {
+            return ResponseEntity.ok(payrollRunService.pauseRun(runId));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Resume a paused, failed or interrupted payroll run from its checkpoint
+     */
+    @PostMapping("/runs/{runId}/resume")
+    public ResponseEntity<?> resumePayrollRun(@PathVariable Long runId) {
+        try {
+            PayrollRun run = payrollRunService.submitResume(runId);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(jobAccepted(run, "Payroll run resumed"));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Get a payroll run and its checkpoint
+     */
+    @GetMapping("/runs/{runId}")
+    public ResponseEntity<?> getPayrollRun(@PathVariable Long runId) {
+        try {
+            return ResponseEntity.ok(payrollRunService.getRun(runId));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Get the progress of a payroll run (job): counts, percentage and ETA
+     */
+    @GetMapping("/runs/{runId}/progress")
+    public ResponseEntity<?> getPayrollRunProgress(@PathVariable Long runId) {
+        try {
+            return ResponseEntity.ok(payrollRunService.getProgress(runId));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Stream progress of a payroll run as server-sent events until it stops
+     */
+    @GetMapping(value = "/runs/{runId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamPayrollRunProgress(@PathVariable Long runId) {
+        return payrollRunEventStream.subscribe(runId, () -> payrollRunService.getProgress(runId));
+    }
+
+    /**
+     * Get all payroll runs for a month
+     */
+    @GetMapping("/runs")
+    public ResponseEntity<List<PayrollRun>> getPayrollRunsForMonth(@RequestParam String month) {
+        return ResponseEntity.ok(payrollRunService.getRunsForMonth(month));
+    }
+
+    /**
+     * Recompute payrolls whose CTC or leave inputs changed after generation.
+     * Without a month every pending month is processed.
+     */
+    @PostMapping("/recompute")
+    public ResponseEntity<?> recomputeDirtyPayrolls(@RequestParam(required = false) String month) {
+        try {
+            PayrollRecomputeResult result = month != null
+                    ? payrollRecomputeService.recomputeDirty(month)
+                    : payrollRecomputeService.recomputeDirty();
+            return ResponseEntity.ok(result);
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", "Invalid month format. Use YYYY-MM"));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Failed to recompute payrolls: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Get payrolls waiting to be recomputed
+     */
+    @GetMapping("/dirty")
+    public ResponseEntity<List<PayrollDirtyMark>> getDirtyPayrolls() {
+        return ResponseEntity.ok(payrollDirtyTracker.getPendingMarks());
+    }
+
     /**
      * Get payroll by ID
      */
@@ -97,7 +316,7 @@ public class PayrollController {
     }
 
     /**
-     * Get payroll for specific employee and month
+     * Get payroll for specific employee and month, from the archive if the month has been archived
      */
     @GetMapping("/employee/{employeeId}/month/{month}")
     public ResponseEntity<?> getPayrollByEmployeeAndMonth(
@@ -106,6 +325,10 @@ public class PayrollController {
         Optional<Payroll> payroll = payrollService.getPayrollByEmployeeAndMonth(employeeId, month);
         if (payroll.isPresent()) {
             return ResponseEntity.ok(payroll.get());
+        }
+        Optional<PayrollListItem> archived = payrollService.getArchivedPayroll(employeeId, month);
+        if (archived.isPresent()) {
+            return ResponseEntity.ok(archived.get());
         } else {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body(Map.of("error", "Payroll not found for employee " + employeeId + " for month " + month));
@@ -113,30 +336,143 @@ public class PayrollController {
     }
 
     /**
-     * Get all payroll records for an employee
+     * Get an employee's most recent payroll
+     */
+    @GetMapping("/employee/{employeeId}/latest")
+    public ResponseEntity<?> getLatestPayrollForEmployee(@PathVariable Long employeeId) {
+        Optional<Payroll> payroll = payrollService.getLatestPayrollForEmployee(employeeId);
+        if (payroll.isPresent()) {
+            return ResponseEntity.ok(payroll.get());
+        } else {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("error", "No payroll found for employee " + employeeId));
+        }
+    }
+
+    /**
+     * Get all payroll records for an employee.
+     * With any of cursor, limit or the filters the result is a keyset page instead of the full list.
      */
     @GetMapping("/employee/{employeeId}")
-    public ResponseEntity<List<Payroll>> getPayrollByEmployee(@PathVariable Long employeeId) {
-        List<Payroll> payrolls = payrollService.getPayrollByEmployee(employeeId);
-        return ResponseEntity.ok(payrolls);
+    public ResponseEntity<?> getPayrollByEmployee(
+            @PathVariable Long employeeId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) PayrollStatus status,
+            @RequestParam(required = false) String department,
+            @RequestParam(required = false) BigDecimal minNetSalary,
+            @RequestParam(required = false) BigDecimal maxNetSalary) {
+        PayrollListFilter filter = PayrollListFilter.builder()
+                .employeeId(employeeId)
+                .status(status)
+                .department(department)
+                .minNetSalary(minNetSalary)
+                .maxNetSalary(maxNetSalary)
+                .cursor(cursor)
+                .limit(limit)
+                .build();
+        if (!isPaged(filter)) {
+            return ResponseEntity.ok(payrollService.getPayrollByEmployee(employeeId));
+        }
+        return payrollPage(filter);
     }
 
     /**
-     * Get all payroll records for a specific month
+     * Get all payroll records for a specific month.
+     * With any of cursor, limit or the filters the result is a keyset page instead of the full list.
      */
     @GetMapping("/month/{month}")
-    public ResponseEntity<List<Payroll>> getPayrollByMonth(@PathVariable String month) {
-        List<Payroll> payrolls = payrollService.getPayrollByMonth(month);
-        return ResponseEntity.ok(payrolls);
+    public ResponseEntity<?> getPayrollByMonth(
+            @PathVariable String month,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) PayrollStatus status,
+            @RequestParam(required = false) String department,
+            @RequestParam(required = false) BigDecimal minNetSalary,
+            @RequestParam(required = false) BigDecimal maxNetSalary) {
+        PayrollListFilter filter = PayrollListFilter.builder()
+                .month(month)
+                .status(status)
+                .department(department)
+                .minNetSalary(minNetSalary)
+                .maxNetSalary(maxNetSalary)
+                .cursor(cursor)
+                .limit(limit)
+                .build();
+        if (!isPaged(filter)) {
+            return ResponseEntity.ok(payrollService.getPayrollByMonth(month));
+        }
+        return payrollPage(filter);
     }
 
     /**
-     * Get all payroll records
+     * Get payroll records one keyset page at a time, newest month first; follow nextCursor for more
      */
     @GetMapping("/all")
-    public ResponseEntity<List<Payroll>> getAllPayroll() {
-        List<Payroll> payrolls = payrollService.getAllPayroll();
-        return ResponseEntity.ok(payrolls);
+    public ResponseEntity<?> getAllPayroll(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String month,
+            @RequestParam(required = false) PayrollStatus status,
+            @RequestParam(required = false) String department,
+            @RequestParam(required = false) BigDecimal minNetSalary,
+            @RequestParam(required = false) BigDecimal maxNetSalary) {
+        return payrollPage(PayrollListFilter.builder()
+                .month(month)
+                .status(status)
+                .department(department)
+                .minNetSalary(minNetSalary)
+                .maxNetSalary(maxNetSalary)
+                .cursor(cursor)
+                .limit(limit)
+                .build());
+    }
+
+    /**
+     * Get payroll records for months from..to (YYYY-MM, inclusive), newest month first
+     */
+    @GetMapping("/range")
+    public ResponseEntity<?> getPayrollByMonthRange(@RequestParam String from, @RequestParam String to) {
+        try {
+            return ResponseEntity.ok(payrollService.getPayrollByMonthRange(from, to));
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", "Invalid month format. Use YYYY-MM"));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Get each employee's most recent payroll record
+     */
+    @GetMapping("/latest")
+    public ResponseEntity<?> getLatestPayrolls() {
+        return ResponseEntity.ok(payrollService.getLatestPayrolls());
+    }
+
+    /**
+     * Rebuild the latest-payroll pointers from payroll history
+     */
+    @PostMapping("/latest/repair")
+    public ResponseEntity<?> repairLatestPayrolls() {
+        return ResponseEntity.ok(payrollLatestService.repair());
+    }
+
+    private ResponseEntity<?> payrollPage(PayrollListFilter filter) {
+        try {
+            return ResponseEntity.ok(payrollService.getPayrollPage(filter));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // Existing callers of the per-month and per-employee listings get the full list unless they ask for a page
+    private static boolean isPaged(PayrollListFilter filter) {
+        return filter.getCursor() != null || filter.getLimit() != null || filter.getStatus() != null
+                || filter.getDepartment() != null || filter.getMinNetSalary() != null || filter.getMaxNetSalary() != null;
     }
 
     /**
@@ -149,12 +485,34 @@ public class PayrollController {
         try {
             Payroll updatedPayroll = payrollService.updatePayrollStatus(payrollId, status);
             return ResponseEntity.ok(updatedPayroll);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("error", e.getMessage()));
         } catch (RuntimeException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body(Map.of("error", e.getMessage()));
         }
     }
 
+    /**
+     * Move a month's payrolls (optionally one department or a list of payroll IDs) from one status to another
+     */
+    @PostMapping("/status/bulk")
+    public ResponseEntity<?> transitionPayrollStatus(@RequestBody PayrollStatusTransitionRequest request) {
+        try {
+            return ResponseEntity.ok(payrollService.transitionStatus(request));
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", "Invalid month format. Use YYYY-MM"));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Failed to update payroll status: " + e.getMessage()));
+        }
+    }
+
     /**
      * Delete payroll record
      */
@@ -182,19 +540,292 @@ public class PayrollController {
                     "message", "Payroll regenerated successfully",
                     "payroll", payroll
             ));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(Map.of("error", "Failed to regenerate payroll: " + e.getMessage()));
         }
     }
 
+    /**
+     * Regenerate every payroll of a month, rewriting only rows whose amounts changed.
+     * With dryRun=true the old and new amounts are reported without writing anything.
+     */
+    @PostMapping("/regenerate/month/{month}")
+    public ResponseEntity<?> regeneratePayrollForMonth(
+            @PathVariable String month,
+            @RequestParam(defaultValue = "false") boolean dryRun) {
+        try {
+            return ResponseEntity.ok(payrollRecomputeService.regenerateMonth(month, dryRun));
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", "Invalid month format. Use YYYY-MM"));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Failed to regenerate payrolls: " + e.getMessage()));
+        }
+    }
+
     /**
      * Get payroll summary for a month
      */
     @GetMapping("/summary/month/{month}")
-    public ResponseEntity<PayrollService.PayrollSummary> getPayrollSummaryForMonth(@PathVariable String month) {
+    public ResponseEntity<?> getPayrollSummaryForMonth(
+            @PathVariable String month,
+            @RequestParam(required = false) List<String> groupBy) {
         PayrollService.PayrollSummary summary = payrollService.getPayrollSummaryForMonth(month);
-        return ResponseEntity.ok(summary);
+        if (groupBy == null || groupBy.isEmpty()) {
+            return ResponseEntity.ok(summary);
+        }
+
+        // groupBy=department, groupBy=status or both, e.g. groupBy=department,status
+        boolean byDepartment = false;
+        boolean byStatus = false;
+        for (String dimension : groupBy) {
+            switch (dimension.trim().toLowerCase()) {
+                case "department" -> byDepartment = true;
+                case "status" -> byStatus = true;
+                default -> {
+                    return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                            .body(Map.of("error", "Unsupported groupBy: " + dimension + ". Use department and/or status"));
+                }
+            }
+        }
+        List<PayrollSummaryGroup> groups = payrollService.getPayrollSummaryBreakdown(month, byDepartment, byStatus);
+        return ResponseEntity.ok(Map.of("summary", summary, "groups", groups));
+    }
+
+    /**
+     * Recompute the materialized monthly summary from the payroll rows.
+     * Without a month every month is rebuilt.
+     */
+    @PostMapping("/summary/rebuild")
+    public ResponseEntity<?> rebuildPayrollSummary(@RequestParam(required = false) String month) {
+        try {
+            if (month != null) {
+                YearMonth.parse(month);
+                return ResponseEntity.ok(List.of(payrollMonthSummaryService.rebuild(month)));
+            }
+            return ResponseEntity.ok(payrollMonthSummaryService.rebuildAll());
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", "Invalid month format. Use YYYY-MM"));
+        }
+    }
+
+    /**
+     * List months whose materialized summary disagrees with the payroll rows
+     */
+    @GetMapping("/summary/check")
+    public ResponseEntity<?> checkPayrollSummary() {
+        List<PayrollSummaryMismatch> mismatches = payrollMonthSummaryService.check();
+        return ResponseEntity.ok(Map.of("consistent", mismatches.isEmpty(), "mismatches", mismatches));
+    }
+
+    /**
+     * Payroll totals over a month range from the department x designation x month rollup,
+     * e.g. ?from=2024-01&to=2025-12&groupBy=department,month
+     */
+    @GetMapping("/rollup")
+    public ResponseEntity<?> getPayrollRollup(
+            @RequestParam String from,
+            @RequestParam String to,
+            @RequestParam(required = false) List<String> groupBy,
+            @RequestParam(required = false) String department,
+            @RequestParam(required = false) String designation) {
+        try {
+            Set<PayrollRollupService.Dimension> dimensions = EnumSet.noneOf(PayrollRollupService.Dimension.class);
+            if (groupBy == null) {
+                dimensions.add(PayrollRollupService.Dimension.MONTH);
+            } else {
+                for (String dimension : groupBy) {
+                    dimensions.add(PayrollRollupService.Dimension.valueOf(dimension.trim().toUpperCase()));
+                }
+            }
+            return ResponseEntity.ok(payrollRollupService.query(from, to, dimensions, department, designation));
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", "Invalid month format. Use YYYY-MM"));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", "Invalid rollup query: " + e.getMessage() + ". groupBy takes month, department and/or designation"));
+        }
+    }
+
+    /**
+     * Stream payrolls for a month (or a from/to month range) as CSV or XLSX, optionally gzipped.
+     * columns takes names like employeeId,netSalary; see PayrollExportService.Column.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<?> exportPayroll(
+            @RequestParam(required = false) String month,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) List<String> columns,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        String fromMonth = month != null ? month : from;
+        String toMonth = month != null ? month : to;
+        if (fromMonth == null || toMonth == null) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", "Provide month, or both from and to"));
+        }
+        PayrollExportService.Format exportFormat;
+        List<PayrollExportService.Column> exportColumns;
+        try {
+            if (YearMonth.parse(fromMonth).isAfter(YearMonth.parse(toMonth))) {
+                throw new IllegalArgumentException("from must not be after to");
+            }
+            exportFormat = PayrollExportService.Format.valueOf(format.trim().toUpperCase());
+            exportColumns = columns == null || columns.isEmpty()
+                    ? PayrollExportService.DEFAULT_COLUMNS
+                    : columns.stream().map(PayrollExportService.Column::fromHeader).toList();
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", "Invalid month format. Use YYYY-MM"));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", "Invalid export request: " + e.getMessage()));
+        }
+
+        String filename = "payroll-" + (fromMonth.equals(toMonth) ? fromMonth : fromMonth + "_" + toMonth)
+                + "." + exportFormat.getExtension() + (gzip ? ".gz" : "");
+        StreamingResponseBody body = out ->
+                payrollExportService.export(fromMonth, toMonth, exportFormat, exportColumns, gzip, out);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .contentType(MediaType.parseMediaType(gzip ? "application/gzip" : exportFormat.getContentType()))
+                .body(body);
+    }
+
+    /**
+     * Write the bank disbursement file for a month's PROCESSED payrolls and mark them COMPLETED
+     */
+    @PostMapping("/disbursement")
+    public ResponseEntity<?> generateDisbursementFile(
+            @RequestParam String month,
+            @RequestParam(defaultValue = "fixed") String format) {
+        try {
+            PayrollDisbursementService.Format fileFormat = PayrollDisbursementService.Format.valueOf(format.trim().toUpperCase());
+            return ResponseEntity.ok(payrollDisbursementService.generate(month, fileFormat));
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", "Invalid month format. Use YYYY-MM"));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", "Invalid format: " + format + ". Use fixed or csv"));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Failed to generate disbursement file: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Download a generated disbursement file
+     */
+    @GetMapping("/disbursement/files/{fileName}")
+    public ResponseEntity<?> downloadDisbursementFile(@PathVariable String fileName) {
+        try {
+            Path file = payrollDisbursementService.resolveFile(fileName);
+            if (!Files.exists(file)) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(Map.of("error", "Disbursement file not found: " + fileName));
+            }
+            return ResponseEntity.ok()
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                    .contentType(MediaType.TEXT_PLAIN)
+                    .body(new FileSystemResource(file));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Move payroll months to the archive: the given month, or every finalized month older than the horizon
+     */
+    @PostMapping("/archive")
+    public ResponseEntity<?> archivePayrollMonths(@RequestParam(required = false) String month) {
+        try {
+            return ResponseEntity.ok(month != null
+                    ? payrollArchiveService.archiveMonth(month)
+                    : payrollArchiveService.archiveColdMonths());
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", "Invalid month format. Use YYYY-MM"));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * List archived payroll months
+     */
+    @GetMapping("/archive")
+    public ResponseEntity<?> getArchivedPayrollMonths() {
+        return ResponseEntity.ok(payrollArchiveService.getArchivedMonths());
+    }
+
+    /**
+     * An employee's payroll ledger events, oldest first, optionally for one month
+     */
+    @GetMapping("/ledger/employee/{employeeId}")
+    public ResponseEntity<?> getPayrollLedgerHistory(@PathVariable Long employeeId,
+                                                     @RequestParam(required = false) String month) {
+        try {
+            return ResponseEntity.ok(payrollLedgerService.getHistory(employeeId, month));
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", "Invalid month format. Use YYYY-MM"));
+        }
+    }
+
+    /**
+     * A month's payrolls rebuilt from the ledger, currently or as of a timestamp (e.g. 2025-03-31T18:00:00)
+     */
+    @GetMapping("/ledger/month/{month}")
+    public ResponseEntity<?> replayPayrollLedger(@PathVariable String month,
+                                                 @RequestParam(required = false) String asOf) {
+        LocalDateTime asOfTime;
+        try {
+            asOfTime = asOf != null ? LocalDateTime.parse(asOf) : null;
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", "Invalid asOf format. Use YYYY-MM-DDTHH:MM:SS"));
+        }
+        try {
+            return ResponseEntity.ok(payrollLedgerService.replayMonth(month, asOfTime));
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", "Invalid month format. Use YYYY-MM"));
+        }
+    }
+
+    /**
+     * Snapshot the payroll ledger: the given month, or every month with enough new entries
+     */
+    @PostMapping("/ledger/snapshot")
+    public ResponseEntity<?> snapshotPayrollLedger(@RequestParam(required = false) String month) {
+        try {
+            return ResponseEntity.ok(month != null
+                    ? payrollLedgerService.snapshotMonth(month)
+                    : payrollLedgerService.snapshotDueMonths());
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", "Invalid month format. Use YYYY-MM"));
+        }
     }
 
     /**
@@ -210,4 +841,16 @@ public class PayrollController {
                 "previousMonth", previousMonth.format(DateTimeFormatter.ofPattern("yyyy-MM"))
         ));
     }
+
+    // Response for a run accepted for background execution
+    private Map<String, Object> jobAccepted(PayrollRun run, String message) {
+        return Map.of(
+                "message", message,
+                "jobId", run.getId(),
+                "month", run.getMonth(),
+                "status", run.getStatus(),
+                "statusUrl", "/api/payroll/runs/" + run.getId() + "/progress",
+                "eventsUrl", "/api/payroll/runs/" + run.getId() + "/events"
+        );
+    }
 }
@@ -0,0 +1,24 @@
+package com.example.payflow_backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A CSV row that was not imported, and why.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CTCImportError {
+
+    // 1-based line in the file, the header being line 1
+    private long line;
+
+    // As written in the file, so rows with an unparsable ID can still be traced
+    private String employeeId;
+
+    private String error;
+}
@@ -0,0 +1,34 @@
+package com.example.payflow_backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk CTC import: what was written and a report of every rejected row.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CTCImportResult {
+
+    // Validate only; nothing was written
+    private boolean dryRun;
+
+    private long rows;
+
+    private long imported;
+
+    private long failed;
+
+    // Payroll (employee, month) pairs marked for recompute because their CTC changed
+    private long payrollsMarkedDirty;
+
+    private List<CTCImportError> errors;
+
+    private long durationMs;
+}
@@ -0,0 +1,60 @@
+package com.example.payflow_backend.dto;
+
+import com.example.payflow_backend.model.CTC;
+import com.example.payflow_backend.service.PaiseMath;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * The CTC columns needed to derive a net monthly salary, keyed by employee.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CTCSalaryRow {
+
+    private Long employeeId;
+
+    private Long ctcId;
+
+    private BigDecimal totalCtc;
+
+    private BigDecimal pfContribution;
+
+    private BigDecimal gratuity;
+
+    // Only selected by timeline queries that return every CTC version of an employee
+    private LocalDate effectiveFrom;
+
+    public CTCSalaryRow(Long employeeId, Long ctcId, BigDecimal totalCtc, BigDecimal pfContribution, BigDecimal gratuity) {
+        this(employeeId, ctcId, totalCtc, pfContribution, gratuity, null);
+    }
+
+    // Same rounding as CTC.getNetMonthlySalary, which it delegates to
+    public BigDecimal getNetMonthlySalary() {
+        return CTC.builder()
+                .totalCtc(totalCtc)
+                .pfContribution(pfContribution)
+                .gratuity(gratuity)
+                .build()
+                .getNetMonthlySalary();
+    }
+
+    // True when the amounts can take the long paise path of PaiseMath
+    public boolean isPaiseExact() {
+        return totalCtc != null
+                && PaiseMath.isExact(totalCtc)
+                && PaiseMath.isExact(pfContribution)
+                && PaiseMath.isExact(gratuity);
+    }
+
+    // Net monthly salary in paise without BigDecimal intermediates; requires isPaiseExact()
+    public long getNetMonthlySalaryPaise() {
+        return PaiseMath.netMonthlySalary(PaiseMath.toPaise(totalCtc),
+                PaiseMath.toPaise(pfContribution), PaiseMath.toPaise(gratuity));
+    }
+}
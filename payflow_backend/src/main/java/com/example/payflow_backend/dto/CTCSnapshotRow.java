@@ -0,0 +1,52 @@
+package com.example.payflow_backend.dto;
+
+import com.example.payflow_backend.model.CTC;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * The CTC effective for one employee on a snapshot date, with the employee columns reports group by.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CTCSnapshotRow {
+
+    private Long employeeId;
+
+    private String fullName;
+
+    private String department;
+
+    private String designation;
+
+    private Long ctcId;
+
+    private LocalDate effectiveFrom;
+
+    private BigDecimal basicSalary;
+
+    private BigDecimal allowances;
+
+    private BigDecimal bonuses;
+
+    private BigDecimal pfContribution;
+
+    private BigDecimal gratuity;
+
+    private BigDecimal totalCtc;
+
+    // Same rounding as CTC.getNetMonthlySalary, which it delegates to
+    public BigDecimal getNetMonthlySalary() {
+        return CTC.builder()
+                .totalCtc(totalCtc)
+                .pfContribution(pfContribution)
+                .gratuity(gratuity)
+                .build()
+                .getNetMonthlySalary();
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.payflow_backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Counters of the in-memory CTC timeline cache since startup.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CTCTimelineCacheStats {
+
+    // Employees with a cached timeline, and the CTC versions they hold
+    private int employees;
+
+    private long entries;
+
+    private int maxEmployees;
+
+    private long hits;
+
+    private long misses;
+
+    // Lookups served from the database because the caller's transaction changed that employee's CTC
+    private long bypasses;
+
+    private long invalidations;
+
+    // hits / (hits + misses), 0 before the first lookup
+    private double hitRate;
+}
@@ -0,0 +1,86 @@
+package com.example.payflow_backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * An employee as the employee list returns it: the profile columns and the manager and onboarding
+ * user, selected in one query. Past experiences, CTCs, the password hash and bank details are left
+ * out. Serializes with the same field names as Employee, so clients read it like the full entity.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmployeeListItem {
+
+    private Long employeeId;
+
+    private String fullName;
+
+    private String email;
+
+    private int age;
+
+    private String gender;
+
+    private String phone;
+
+    private String address;
+
+    private String department;
+
+    private String designation;
+
+    private int totalExperience;
+
+    private int totalLeaves;
+
+    private int remLeaves;
+
+    private int extraLeavesThisMonth;
+
+    private Boolean isActive;
+
+    private LocalDateTime onboardedAt;
+
+    private String degree;
+
+    private String university;
+
+    private String graduationYear;
+
+    private String grade;
+
+    private UserSummary manager;
+
+    private UserSummary onboardedBy;
+
+    // Flat constructor for JPQL constructor expressions; a missing manager or onboarding user stays null
+    public EmployeeListItem(Long employeeId, String fullName, String email, int age, String gender, String phone,
+                            String address, String department, String designation, int totalExperience,
+                            int totalLeaves, int remLeaves, int extraLeavesThisMonth, Boolean isActive,
+                            LocalDateTime onboardedAt, String degree, String university, String graduationYear,
+                            String grade, Long managerId, String managerUsername, String managerEmail,
+                            Long onboardedById, String onboardedByUsername, String onboardedByEmail) {
+        this(employeeId, fullName, email, age, gender, phone, address, department, designation, totalExperience,
+                totalLeaves, remLeaves, extraLeavesThisMonth, isActive, onboardedAt, degree, university,
+                graduationYear, grade,
+                managerId == null ? null : new UserSummary(managerId, managerUsername, managerEmail),
+                onboardedById == null ? null : new UserSummary(onboardedById, onboardedByUsername, onboardedByEmail));
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class UserSummary {
+
+        private Long userId;
+
+        private String username;
+
+        private String email;
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.payflow_backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One payroll whose recomputed amounts differ from the stored ones.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PayrollAmountChange {
+
+    private Long payrollId;
+
+    private Long employeeId;
+
+    private PayrollAmountsRow before;
+
+    private PayrollAmountsRow after;
+}
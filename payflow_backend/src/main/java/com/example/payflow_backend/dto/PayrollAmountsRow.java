@@ -0,0 +1,35 @@
+package com.example.payflow_backend.dto;
+
+import com.example.payflow_backend.model.PayrollStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * The stored amounts of a payroll row, selected without loading its employee.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PayrollAmountsRow {
+
+    private Long id;
+
+    private Long employeeId;
+
+    private BigDecimal grossSalary;
+
+    private BigDecimal leaveDeduction;
+
+    private BigDecimal netSalary;
+
+    private BigDecimal perDaySalary;
+
+    private Integer totalWorkingDays;
+
+    private Integer unpaidLeaves;
+
+    private PayrollStatus status;
+}
@@ -0,0 +1,28 @@
+package com.example.payflow_backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Outcome of moving cold payroll months to the archive.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PayrollArchiveResult {
+
+    private List<String> months;
+
+    // Payroll rows moved out of the payroll table
+    private long rows;
+
+    // Compressed size of the archive files written
+    private long bytes;
+
+    private long durationMs;
+}
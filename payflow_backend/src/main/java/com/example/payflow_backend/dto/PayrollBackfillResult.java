@@ -0,0 +1,41 @@
+package com.example.payflow_backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Outcome of a multi-month payroll backfill.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PayrollBackfillResult {
+
+    private String fromMonth;
+
+    private String toMonth;
+
+    // Active employees considered, and the employee-ID partitions they were processed in
+    private int employees;
+
+    private int partitions;
+
+    // Totals over all months
+    private int generated;
+
+    private int skippedExisting;
+
+    private int skippedNoCtc;
+
+    private int failed;
+
+    private long durationMs;
+
+    // Per-month counts in month order; durationMs there is compute plus write time for that month
+    private List<PayrollGenerationResult> months;
+}
@@ -0,0 +1,52 @@
+package com.example.payflow_backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Outcome of generating a bank disbursement file for a month.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PayrollDisbursementResult {
+
+    private String month;
+
+    private String format;
+
+    // File name inside the disbursement directory
+    private String fileName;
+
+    // Detail records written to the file
+    private int records;
+
+    // Sum of the amounts in the file
+    private BigDecimal controlTotal;
+
+    // Sum of the numeric account numbers modulo 10^18, for the bank's batch check
+    private long hashTotal;
+
+    // Payrolls moved from PROCESSED to COMPLETED, one per detail record
+    private int completed;
+
+    // Payrolls left PROCESSED because their net salary is zero, so there is nothing to pay
+    private int zeroAmount;
+
+    // First zero-amount payroll IDs, capped like the rejections
+    private List<Long> zeroAmountPayrollIds;
+
+    // Payrolls left PROCESSED because the employee has no usable bank account
+    private int rejected;
+
+    // First rejected payroll IDs, capped to keep the response small
+    private List<Long> rejectedPayrollIds;
+
+    private long durationMs;
+}
@@ -0,0 +1,22 @@
+package com.example.payflow_backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The employee columns payroll generation needs, selected without loading the full entity.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PayrollEmployeeRow {
+
+    private Long employeeId;
+
+    private int extraLeavesThisMonth;
+
+    private String department;
+
+    private String designation;
+}
@@ -0,0 +1,36 @@
+package com.example.payflow_backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Outcome of a month-wide payroll generation run.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PayrollGenerationResult {
+
+    private String month;
+
+    // Payroll rows inserted by this run
+    private int generated;
+
+    // Active employees that already had a payroll for the month
+    private int skippedExisting;
+
+    // Active employees without a CTC effective for the month
+    private int skippedNoCtc;
+
+    private int failed;
+
+    private long durationMs;
+
+    // Per-partition breakdown, only set for partitioned runs
+    private List<PayrollPartitionResult> partitions;
+}
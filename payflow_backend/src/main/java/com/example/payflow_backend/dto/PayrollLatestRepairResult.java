@@ -0,0 +1,30 @@
+package com.example.payflow_backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of rebuilding the latest-payroll pointers from payroll history.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PayrollLatestRepairResult {
+
+    // Employees that have at least one payroll
+    private int employees;
+
+    // Pointers created or moved forward to the newest month
+    private int advanced;
+
+    // Pointers moved back because their month no longer has a payroll
+    private int lowered;
+
+    // Pointers of employees with no payroll left
+    private int removed;
+
+    private long durationMs;
+}
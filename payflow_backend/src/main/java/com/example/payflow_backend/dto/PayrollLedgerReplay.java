@@ -0,0 +1,36 @@
+package com.example.payflow_backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * A month's payrolls rebuilt from the ledger, now or as of a point in time.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PayrollLedgerReplay {
+
+    private String month;
+
+    // Null for the current state
+    private LocalDateTime asOf;
+
+    // Snapshot the replay started from, null when it started from the first entry
+    private Long snapshotId;
+
+    private Long snapshotEntryId;
+
+    // Entries replayed on top of the snapshot
+    private int replayedEntries;
+
+    private List<PayrollLedgerState> payrolls;
+
+    private long durationMs;
+}
@@ -0,0 +1,46 @@
+package com.example.payflow_backend.dto;
+
+import com.example.payflow_backend.model.PayrollLedgerEvent;
+import com.example.payflow_backend.model.PayrollStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One employee's payroll for a month as rebuilt from the ledger.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PayrollLedgerState {
+
+    private Long employeeId;
+
+    private Long payrollId;
+
+    private String month;
+
+    private PayrollStatus status;
+
+    private BigDecimal grossSalary;
+
+    private BigDecimal leaveDeduction;
+
+    private BigDecimal netSalary;
+
+    private BigDecimal perDaySalary;
+
+    private Integer totalWorkingDays;
+
+    private Integer unpaidLeaves;
+
+    // Event that left the payroll in this state, and when
+    private PayrollLedgerEvent lastEvent;
+
+    private LocalDateTime recordedAt;
+}
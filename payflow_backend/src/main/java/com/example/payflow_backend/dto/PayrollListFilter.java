@@ -0,0 +1,37 @@
+package com.example.payflow_backend.dto;
+
+import com.example.payflow_backend.model.PayrollStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Filters and keyset position for a page of payroll records; unset fields do not filter.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PayrollListFilter {
+
+    private String month;
+
+    private Long employeeId;
+
+    private PayrollStatus status;
+
+    private String department;
+
+    // Inclusive net salary bounds
+    private BigDecimal minNetSalary;
+
+    private BigDecimal maxNetSalary;
+
+    // nextCursor of the previous page, absent for the first page
+    private String cursor;
+
+    private Integer limit;
+}
@@ -0,0 +1,73 @@
+package com.example.payflow_backend.dto;
+
+import com.example.payflow_backend.model.PayrollStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * A payroll row as list endpoints return it: the payroll columns plus the few employee columns
+ * the UI shows, selected in one query. Serializes with the same shape as Payroll
+ * (employee nested under "employee"), so clients read it like the full entity.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PayrollListItem {
+
+    private Long id;
+
+    private String month;
+
+    private PayrollStatus status;
+
+    private BigDecimal grossSalary;
+
+    private BigDecimal leaveDeduction;
+
+    private BigDecimal netSalary;
+
+    private BigDecimal perDaySalary;
+
+    private Integer totalWorkingDays;
+
+    private Integer unpaidLeaves;
+
+    private String processedBy;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime updatedAt;
+
+    private EmployeeSummary employee;
+
+    // Flat constructor for JPQL constructor expressions
+    public PayrollListItem(Long id, String month, PayrollStatus status, BigDecimal grossSalary,
+                           BigDecimal leaveDeduction, BigDecimal netSalary, BigDecimal perDaySalary,
+                           Integer totalWorkingDays, Integer unpaidLeaves, String processedBy,
+                           LocalDateTime createdAt, LocalDateTime updatedAt, Long employeeId,
+                           String fullName, String email, String department, String designation) {
+        this(id, month, status, grossSalary, leaveDeduction, netSalary, perDaySalary, totalWorkingDays,
+                unpaidLeaves, processedBy, createdAt, updatedAt,
+                new EmployeeSummary(employeeId, fullName, email, department, designation));
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class EmployeeSummary {
+
+        private Long employeeId;
+
+        private String fullName;
+
+        private String email;
+
+        private String department;
+
+        private String designation;
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.payflow_backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One keyset page of payroll records, newest month first.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PayrollPage {
+
+    private List<PayrollListItem> items;
+
+    private int limit;
+
+    // Pass back as cursor for the next page; null on the last page
+    private String nextCursor;
+}
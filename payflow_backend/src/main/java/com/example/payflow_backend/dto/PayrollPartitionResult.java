@@ -0,0 +1,37 @@
+package com.example.payflow_backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome and timing of one employee-ID partition of a partitioned payroll run.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PayrollPartitionResult {
+
+    private int partition;
+
+    // Inclusive employee ID bounds of the partition
+    private Long fromEmployeeId;
+    private Long toEmployeeId;
+
+    private int employees;
+
+    private int generated;
+
+    private int skippedExisting;
+
+    private int skippedNoCtc;
+
+    private int failed;
+
+    private long durationMs;
+
+    // Set when the partition transaction rolled back
+    private String error;
+}
@@ -0,0 +1,36 @@
+package com.example.payflow_backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Outcome of recomputing dirty (employee, month) payrolls.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PayrollRecomputeResult {
+
+    private List<String> months;
+
+    // Distinct (employee, month) pairs consumed
+    private int dirtyPairs;
+
+    // Rows whose amounts changed and were rewritten
+    private int updated;
+
+    private int unchanged;
+
+    // Rows left alone because they are already COMPLETED or CANCELLED
+    private int locked;
+
+    // Marked pairs with no payroll row or no effective CTC any more
+    private int skipped;
+
+    private long durationMs;
+}
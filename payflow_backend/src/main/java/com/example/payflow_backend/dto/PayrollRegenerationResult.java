@@ -0,0 +1,40 @@
+package com.example.payflow_backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Outcome of regenerating every payroll of a month, with old and new amounts of each changed row.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PayrollRegenerationResult {
+
+    private String month;
+
+    // True when nothing was written and the changes are only a preview
+    private boolean dryRun;
+
+    // Payrolls of the month that were recomputed
+    private int checked;
+
+    private int updated;
+
+    private int unchanged;
+
+    // Rows left alone because they are already COMPLETED or CANCELLED
+    private int locked;
+
+    // Payrolls whose employee or effective CTC no longer exists
+    private int skipped;
+
+    private List<PayrollAmountChange> changes;
+
+    private long durationMs;
+}
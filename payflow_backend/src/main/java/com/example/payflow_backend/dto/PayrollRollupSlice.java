@@ -0,0 +1,34 @@
+package com.example.payflow_backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Payroll totals for one slice of the rollup. Dimensions that were not grouped by are null.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PayrollRollupSlice {
+
+    private String month;
+
+    private String department;
+
+    private String designation;
+
+    private long employeeCount;
+
+    private BigDecimal totalGrossSalary;
+
+    private BigDecimal totalLeaveDeductions;
+
+    private BigDecimal totalNetSalary;
+
+    private long totalUnpaidLeaves;
+}
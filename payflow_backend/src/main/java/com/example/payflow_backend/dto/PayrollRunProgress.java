@@ -0,0 +1,50 @@
+package com.example.payflow_backend.dto;
+
+import com.example.payflow_backend.model.PayrollRunStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Compact progress view of a payroll run (job), used for polling, the SSE stream
+ * and as the final summary of a finished run.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PayrollRunProgress {
+
+    private Long jobId;
+
+    private String month;
+
+    private PayrollRunStatus status;
+
+    // True while the run is executing in this instance
+    private boolean executing;
+
+    private int totalEmployees;
+
+    private int processed;
+
+    private int generated;
+
+    private int skipped;
+
+    private int failed;
+
+    private double percentComplete;
+
+    // Estimated seconds left, from the throughput of the current execution; null when not executing
+    private Long etaSeconds;
+
+    private String lastError;
+
+    private LocalDateTime startedAt;
+
+    private LocalDateTime finishedAt;
+}
@@ -0,0 +1,30 @@
+package com.example.payflow_backend.dto;
+
+import com.example.payflow_backend.model.PayrollStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Bulk status change for a month's payrolls, optionally narrowed to a department and/or explicit payroll IDs.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PayrollStatusTransitionRequest {
+
+    private String month;
+
+    private PayrollStatus from;
+
+    private PayrollStatus to;
+
+    // Optional filters; when both are set a payroll must match both
+    private String department;
+
+    private List<Long> payrollIds;
+}
@@ -0,0 +1,37 @@
+package com.example.payflow_backend.dto;
+
+import com.example.payflow_backend.model.PayrollStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk payroll status transition.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PayrollStatusTransitionResult {
+
+    private String month;
+
+    private PayrollStatus from;
+
+    private PayrollStatus to;
+
+    private String department;
+
+    // Payroll IDs asked for, 0 when the whole month (or department) was targeted
+    private int requested;
+
+    private int updated;
+
+    // Requested IDs that were not moved: unknown, in another month or department, or not in the from status
+    private List<Long> rejectedIds;
+
+    private long durationMs;
+}
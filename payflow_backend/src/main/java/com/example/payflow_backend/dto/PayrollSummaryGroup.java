@@ -0,0 +1,55 @@
+package com.example.payflow_backend.dto;
+
+import com.example.payflow_backend.model.PayrollStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Payroll totals for a month, computed in the database. Department and status are set
+ * when the totals are broken down by them and null otherwise.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PayrollSummaryGroup {
+
+    private String department;
+
+    private PayrollStatus status;
+
+    private Long totalEmployees;
+
+    private BigDecimal totalGrossSalary;
+
+    private BigDecimal totalLeaveDeductions;
+
+    private BigDecimal totalNetSalary;
+
+    private Long totalUnpaidLeaves;
+
+    // Ungrouped totals; SUM over no rows is null, so fall back to zero
+    public PayrollSummaryGroup(Long totalEmployees, BigDecimal totalGrossSalary, BigDecimal totalLeaveDeductions,
+                               BigDecimal totalNetSalary, Long totalUnpaidLeaves) {
+        this(null, null, totalEmployees,
+                totalGrossSalary != null ? totalGrossSalary : BigDecimal.ZERO,
+                totalLeaveDeductions != null ? totalLeaveDeductions : BigDecimal.ZERO,
+                totalNetSalary != null ? totalNetSalary : BigDecimal.ZERO,
+                totalUnpaidLeaves != null ? totalUnpaidLeaves : 0L);
+    }
+
+    /**
+     * Add another group's totals into this one
+     */
+    public void add(PayrollSummaryGroup other) {
+        totalEmployees += other.totalEmployees;
+        totalGrossSalary = totalGrossSalary.add(other.totalGrossSalary);
+        totalLeaveDeductions = totalLeaveDeductions.add(other.totalLeaveDeductions);
+        totalNetSalary = totalNetSalary.add(other.totalNetSalary);
+        totalUnpaidLeaves += other.totalUnpaidLeaves;
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.payflow_backend.dto;
+
+import com.example.payflow_backend.model.PayrollMonthSummary;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A month whose materialized summary no longer matches its payroll rows.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PayrollSummaryMismatch {
+
+    private String month;
+
+    // What payroll_month_summary holds; null when the row is missing
+    private PayrollMonthSummary stored;
+
+    // Totals recomputed from the payroll table
+    private PayrollMonthSummary actual;
+}
@@ -9,7 +9,9 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "ctc_details")
+@Table(name = "ctc_details", indexes = {
+        @Index(name = "idx_ctc_employee_effective_from", columnList = "employee_id, effective_from")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
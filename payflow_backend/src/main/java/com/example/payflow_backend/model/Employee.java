@@ -59,6 +59,13 @@ public class Employee {
     private String department;
     private String designation;
 
+    // Salary account used for bank disbursement files
+    @Column(name = "bank_account_number", length = 34)
+    private String bankAccountNumber;
+
+    @Column(name = "bank_ifsc", length = 11)
+    private String bankIfsc;
+
     private String degree;
     private String university;
     private String graduationYear;
@@ -0,0 +1,32 @@
+package com.example.payflow_backend.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+
+/**
+ * Pointer to each employee's newest payroll month, kept by PayrollLatestService in the same
+ * transaction as every payroll insert and delete, so "latest payroll for everyone" is a join
+ * on (employee_id, month_key) instead of a MAX subquery per row.
+ */
+@Entity
+@Table(name = "employee_latest_payroll")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EmployeeLatestPayroll {
+
+    @Id
+    @Column(name = "employee_id")
+    private Long employeeId;
+
+    // Month of the employee's newest payroll, as yyyymm
+    @Column(name = "month_key", nullable = false)
+    @Convert(converter = YearMonthKeyConverter.class)
+    private YearMonth monthKey;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
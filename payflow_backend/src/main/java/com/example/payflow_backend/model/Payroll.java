@@ -1,13 +1,19 @@
 package com.example.payflow_backend.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import lombok.*;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
 
 @Entity
-@Table(name = "payroll")
+@Table(name = "payroll", indexes = {
+        @Index(name = "idx_payroll_month_id", columnList = "month, id"),
+        @Index(name = "idx_payroll_employee_month_key", columnList = "employee_id, month_key"),
+        @Index(name = "idx_payroll_month_key", columnList = "month_key")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -27,6 +33,20 @@ public class Payroll {
     @Column(name = "month", nullable = false, length = 7) // Format: YYYY-MM
     private String month;
 
+    // The employee's department and designation when the payroll was generated (empty if unset),
+    // so rollups of past months do not follow later transfers
+    @Column(name = "department")
+    private String department;
+
+    @Column(name = "designation")
+    private String designation;
+
+    // Same month as yyyymm for range scans and latest lookups; kept in step with month on every write
+    @Column(name = "month_key")
+    @Convert(converter = YearMonthKeyConverter.class)
+    @JsonIgnore
+    private YearMonth monthKey;
+
     @Column(name = "gross_salary", nullable = false, precision = 12, scale = 2)
     private BigDecimal grossSalary;
 
@@ -58,6 +78,11 @@ public class Payroll {
     @Column(name = "processed_by")
     private String processedBy; // Username of who processed the payroll
 
+    // Random per bulk insert call, so the call can read back which rows it inserted itself
+    @Column(name = "insert_token", length = 36)
+    @JsonIgnore
+    private String insertToken;
+
     @Column(name = "status", nullable = false)
     @Enumerated(EnumType.STRING)
     @Builder.Default
@@ -70,10 +95,12 @@ public class Payroll {
             createdAt = LocalDateTime.now();
         }
         updatedAt = LocalDateTime.now();
+        monthKey = month == null ? null : YearMonth.parse(month);
     }
 
     @PreUpdate
     protected void onUpdate() {
         updatedAt = LocalDateTime.now();
+        monthKey = month == null ? null : YearMonth.parse(month);
     }
 }
@@ -0,0 +1,46 @@
+package com.example.payflow_backend.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * A month whose payrolls were moved out of the payroll table into a compressed archive file
+ * by PayrollArchiveService. The month's summary and rollup rows stay as they were.
+ */
+@Entity
+@Table(name = "payroll_archive_month")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PayrollArchiveMonth {
+
+    @Id
+    @Column(name = "month", length = 7) // Format: YYYY-MM
+    private String month;
+
+    // File name inside the archive directory
+    @Column(name = "file_name", nullable = false)
+    private String fileName;
+
+    @Column(name = "row_count", nullable = false)
+    private Long rowCount;
+
+    @Column(name = "total_net_salary", nullable = false, precision = 18, scale = 2)
+    private BigDecimal totalNetSalary;
+
+    // Employee ID range in the file, so history lookups can skip files that cannot hold an employee
+    @Column(name = "min_employee_id", nullable = false)
+    private Long minEmployeeId;
+
+    @Column(name = "max_employee_id", nullable = false)
+    private Long maxEmployeeId;
+
+    @Column(name = "file_size", nullable = false)
+    private Long fileSize;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+}
@@ -0,0 +1,95 @@
+package com.example.payflow_backend.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * A multi-month payroll backfill executed in the background.
+ * Partitions are counted as their months are computed; the generated and skipped
+ * counts are filled in when the backfill finishes.
+ */
+@Entity
+@Table(name = "payroll_backfill_run", indexes = {
+        @Index(name = "idx_payroll_backfill_run_status", columnList = "status")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PayrollBackfillRun {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    @Column(name = "from_month", nullable = false, length = 7) // Format: YYYY-MM
+    private String fromMonth;
+
+    @Column(name = "to_month", nullable = false, length = 7)
+    private String toMonth;
+
+    @Column(name = "status", nullable = false)
+    @Enumerated(EnumType.STRING)
+    @Builder.Default
+    private PayrollRunStatus status = PayrollRunStatus.RUNNING;
+
+    @Column(name = "employees", nullable = false)
+    @Builder.Default
+    private Integer employees = 0;
+
+    @Column(name = "total_partitions", nullable = false)
+    @Builder.Default
+    private Integer totalPartitions = 0;
+
+    @Column(name = "processed_partitions", nullable = false)
+    @Builder.Default
+    private Integer processedPartitions = 0;
+
+    @Column(name = "generated_count", nullable = false)
+    @Builder.Default
+    private Integer generatedCount = 0;
+
+    @Column(name = "skipped_existing_count", nullable = false)
+    @Builder.Default
+    private Integer skippedExistingCount = 0;
+
+    @Column(name = "skipped_no_ctc_count", nullable = false)
+    @Builder.Default
+    private Integer skippedNoCtcCount = 0;
+
+    @Column(name = "failed_count", nullable = false)
+    @Builder.Default
+    private Integer failedCount = 0;
+
+    @Column(name = "triggered_by")
+    private String triggeredBy;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    @Column(name = "started_at", nullable = false)
+    @Builder.Default
+    private LocalDateTime startedAt = LocalDateTime.now();
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    // Lifecycle methods
+    @PrePersist
+    protected void onCreate() {
+        if (startedAt == null) {
+            startedAt = LocalDateTime.now();
+        }
+        updatedAt = LocalDateTime.now();
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.payflow_backend.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * An (employee, month) payroll that may be stale because one of its inputs changed
+ * after it was generated. Consumed by the incremental recompute stage.
+ */
+@Entity
+@Table(name = "payroll_dirty_mark", indexes = {
+        @Index(name = "idx_payroll_dirty_month_employee", columnList = "month, employee_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PayrollDirtyMark {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    @Column(name = "employee_id", nullable = false)
+    private Long employeeId;
+
+    @Column(name = "month", nullable = false, length = 7) // Format: YYYY-MM
+    private String month;
+
+    @Column(name = "reason", nullable = false)
+    @Enumerated(EnumType.STRING)
+    private DirtyReason reason;
+
+    @Column(name = "created_at", nullable = false)
+    @Builder.Default
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    // What invalidated the payroll
+    public enum DirtyReason {
+        CTC_CREATED,
+        CTC_UPDATED,
+        CTC_DELETED,
+        LEAVE_APPROVED
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.payflow_backend.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One append-only payroll ledger event. Every entry carries the complete state of the
+ * (employee, month) payroll after the event, so replaying a month is "last entry per employee
+ * wins, unless it is DELETED". Entries are never updated or deleted.
+ */
+@Entity
+@Table(name = "payroll_ledger", indexes = {
+        @Index(name = "idx_payroll_ledger_month_id", columnList = "month, id"),
+        @Index(name = "idx_payroll_ledger_employee_month_id", columnList = "employee_id, month, id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PayrollLedgerEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "month", nullable = false, length = 7) // Format: YYYY-MM
+    private String month;
+
+    @Column(name = "employee_id", nullable = false)
+    private Long employeeId;
+
+    @Column(name = "payroll_id", nullable = false)
+    private Long payrollId;
+
+    @Column(name = "event", nullable = false, length = 20)
+    @Enumerated(EnumType.STRING)
+    private PayrollLedgerEvent event;
+
+    @Column(name = "status", nullable = false)
+    @Enumerated(EnumType.STRING)
+    private PayrollStatus status;
+
+    @Column(name = "gross_salary", nullable = false, precision = 12, scale = 2)
+    private BigDecimal grossSalary;
+
+    @Column(name = "leave_deduction", nullable = false, precision = 12, scale = 2)
+    private BigDecimal leaveDeduction;
+
+    @Column(name = "net_salary", nullable = false, precision = 12, scale = 2)
+    private BigDecimal netSalary;
+
+    @Column(name = "per_day_salary", precision = 12, scale = 2)
+    private BigDecimal perDaySalary;
+
+    @Column(name = "total_working_days", nullable = false)
+    private Integer totalWorkingDays;
+
+    @Column(name = "unpaid_leaves", nullable = false)
+    private Integer unpaidLeaves;
+
+    @Column(name = "recorded_at", nullable = false)
+    private LocalDateTime recordedAt;
+}
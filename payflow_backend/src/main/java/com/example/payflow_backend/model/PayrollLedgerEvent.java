@@ -0,0 +1,9 @@
+package com.example.payflow_backend.model;
+
+public enum PayrollLedgerEvent {
+    GENERATED,
+    REGENERATED,
+    RECOMPUTED,
+    STATUS_CHANGED,
+    DELETED
+}
@@ -0,0 +1,37 @@
+package com.example.payflow_backend.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * State of every payroll of a month as of one ledger entry; its rows are in payroll_ledger_snapshot_row.
+ * Rebuilding the month only needs this snapshot plus the ledger entries after lastEntryId.
+ */
+@Entity
+@Table(name = "payroll_ledger_snapshot", indexes = {
+        @Index(name = "idx_payroll_ledger_snapshot_month", columnList = "month, last_entry_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PayrollLedgerSnapshot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "month", nullable = false, length = 7) // Format: YYYY-MM
+    private String month;
+
+    // Newest ledger entry of the month folded into this snapshot
+    @Column(name = "last_entry_id", nullable = false)
+    private Long lastEntryId;
+
+    @Column(name = "row_count", nullable = false)
+    private Integer rowCount;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,62 @@
+package com.example.payflow_backend.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One employee's payroll in a ledger snapshot, as left by the last entry before the snapshot.
+ */
+@Entity
+@Table(name = "payroll_ledger_snapshot_row", indexes = {
+        @Index(name = "idx_payroll_ledger_snapshot_row_snapshot", columnList = "snapshot_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PayrollLedgerSnapshotRow {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "snapshot_id", nullable = false)
+    private Long snapshotId;
+
+    @Column(name = "employee_id", nullable = false)
+    private Long employeeId;
+
+    @Column(name = "payroll_id", nullable = false)
+    private Long payrollId;
+
+    @Column(name = "last_event", nullable = false, length = 20)
+    @Enumerated(EnumType.STRING)
+    private PayrollLedgerEvent lastEvent;
+
+    @Column(name = "status", nullable = false)
+    @Enumerated(EnumType.STRING)
+    private PayrollStatus status;
+
+    @Column(name = "gross_salary", nullable = false, precision = 12, scale = 2)
+    private BigDecimal grossSalary;
+
+    @Column(name = "leave_deduction", nullable = false, precision = 12, scale = 2)
+    private BigDecimal leaveDeduction;
+
+    @Column(name = "net_salary", nullable = false, precision = 12, scale = 2)
+    private BigDecimal netSalary;
+
+    @Column(name = "per_day_salary", precision = 12, scale = 2)
+    private BigDecimal perDaySalary;
+
+    @Column(name = "total_working_days", nullable = false)
+    private Integer totalWorkingDays;
+
+    @Column(name = "unpaid_leaves", nullable = false)
+    private Integer unpaidLeaves;
+
+    @Column(name = "recorded_at", nullable = false)
+    private LocalDateTime recordedAt;
+}
@@ -0,0 +1,87 @@
+package com.example.payflow_backend.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Materialized payroll totals for one month, kept in step with the payroll table
+ * by PayrollMonthSummaryService in the same transaction as every payroll write.
+ */
+@Entity
+@Table(name = "payroll_month_summary")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PayrollMonthSummary {
+
+    @Id
+    @Column(name = "month", length = 7) // Format: YYYY-MM
+    private String month;
+
+    @Column(name = "total_employees", nullable = false)
+    @Builder.Default
+    private Long totalEmployees = 0L;
+
+    @Column(name = "total_gross_salary", nullable = false, precision = 18, scale = 2)
+    @Builder.Default
+    private BigDecimal totalGrossSalary = BigDecimal.ZERO;
+
+    @Column(name = "total_leave_deductions", nullable = false, precision = 18, scale = 2)
+    @Builder.Default
+    private BigDecimal totalLeaveDeductions = BigDecimal.ZERO;
+
+    @Column(name = "total_net_salary", nullable = false, precision = 18, scale = 2)
+    @Builder.Default
+    private BigDecimal totalNetSalary = BigDecimal.ZERO;
+
+    @Column(name = "total_unpaid_leaves", nullable = false)
+    @Builder.Default
+    private Long totalUnpaidLeaves = 0L;
+
+    // Payroll count per status
+    @Column(name = "pending_count", nullable = false)
+    @Builder.Default
+    private Long pendingCount = 0L;
+
+    @Column(name = "processed_count", nullable = false)
+    @Builder.Default
+    private Long processedCount = 0L;
+
+    @Column(name = "completed_count", nullable = false)
+    @Builder.Default
+    private Long completedCount = 0L;
+
+    @Column(name = "cancelled_count", nullable = false)
+    @Builder.Default
+    private Long cancelledCount = 0L;
+
+    // Bumped by every delta; lets derived stores tell whether the month changed since they read it
+    @Column(name = "change_count", nullable = false)
+    @Builder.Default
+    private Long changeCount = 0L;
+
+    // changeCount the payroll_rollup rows of this month were built from; null if never built
+    @Column(name = "rollup_change_count")
+    private Long rollupChangeCount;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    /**
+     * Whether both hold the same totals (amounts compared by value, timestamps ignored)
+     */
+    public boolean sameTotals(PayrollMonthSummary other) {
+        return totalEmployees.equals(other.totalEmployees)
+                && totalGrossSalary.compareTo(other.totalGrossSalary) == 0
+                && totalLeaveDeductions.compareTo(other.totalLeaveDeductions) == 0
+                && totalNetSalary.compareTo(other.totalNetSalary) == 0
+                && totalUnpaidLeaves.equals(other.totalUnpaidLeaves)
+                && pendingCount.equals(other.pendingCount)
+                && processedCount.equals(other.processedCount)
+                && completedCount.equals(other.completedCount)
+                && cancelledCount.equals(other.cancelledCount);
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.payflow_backend.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.math.BigDecimal;
+
+/**
+ * Pre-aggregated payroll totals for one (month, department, designation) cell.
+ * Missing department or designation is stored as an empty string so the cell key stays unique.
+ */
+@Entity
+@Table(name = "payroll_rollup", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_payroll_rollup_cell", columnNames = {"month", "department", "designation"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PayrollRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    @Column(name = "month", nullable = false, length = 7) // Format: YYYY-MM
+    private String month;
+
+    @Column(name = "department", nullable = false)
+    private String department;
+
+    @Column(name = "designation", nullable = false)
+    private String designation;
+
+    @Column(name = "employee_count", nullable = false)
+    private Long employeeCount;
+
+    @Column(name = "total_gross_salary", nullable = false, precision = 18, scale = 2)
+    private BigDecimal totalGrossSalary;
+
+    @Column(name = "total_leave_deductions", nullable = false, precision = 18, scale = 2)
+    private BigDecimal totalLeaveDeductions;
+
+    @Column(name = "total_net_salary", nullable = false, precision = 18, scale = 2)
+    private BigDecimal totalNetSalary;
+
+    @Column(name = "total_unpaid_leaves", nullable = false)
+    private Long totalUnpaidLeaves;
+}
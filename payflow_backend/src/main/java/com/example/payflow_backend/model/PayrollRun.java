@@ -0,0 +1,103 @@
+package com.example.payflow_backend.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * A month-wide payroll generation run and its checkpoint.
+ * Employees are processed in ascending ID order; cursorEmployeeId is the highest
+ * employee ID whose payroll is known to be committed, so a resumed run continues after it.
+ * openMonth holds the month until the run completes; its unique key allows one open run per month.
+ * A RUNNING run belongs to the owner instance while its heartbeat is fresh.
+ */
+@Entity
+@Table(name = "payroll_run", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_payroll_run_open_month", columnNames = {"open_month"})
+}, indexes = {
+        @Index(name = "idx_payroll_run_month_status", columnList = "month, status")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PayrollRun {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    @Column(name = "month", nullable = false, length = 7) // Format: YYYY-MM
+    private String month;
+
+    @Column(name = "status", nullable = false)
+    @Enumerated(EnumType.STRING)
+    @Builder.Default
+    private PayrollRunStatus status = PayrollRunStatus.RUNNING;
+
+    // Same as month while the run is unfinished, null once it completed
+    @Column(name = "open_month", length = 7)
+    private String openMonth;
+
+    @Column(name = "cursor_employee_id", nullable = false)
+    @Builder.Default
+    private Long cursorEmployeeId = 0L;
+
+    @Column(name = "total_employees", nullable = false)
+    @Builder.Default
+    private Integer totalEmployees = 0;
+
+    @Column(name = "processed_employees", nullable = false)
+    @Builder.Default
+    private Integer processedEmployees = 0;
+
+    @Column(name = "generated_count", nullable = false)
+    @Builder.Default
+    private Integer generatedCount = 0;
+
+    @Column(name = "skipped_count", nullable = false)
+    @Builder.Default
+    private Integer skippedCount = 0;
+
+    @Column(name = "failed_count", nullable = false)
+    @Builder.Default
+    private Integer failedCount = 0;
+
+    @Column(name = "triggered_by")
+    private String triggeredBy; // "scheduler" or the API caller
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    // Instance that claimed the run, and when it last confirmed it is still executing it
+    @Column(name = "owner_instance", length = 200)
+    private String owner;
+
+    @Column(name = "heartbeat_at")
+    private LocalDateTime heartbeatAt;
+
+    @Column(name = "started_at", nullable = false)
+    @Builder.Default
+    private LocalDateTime startedAt = LocalDateTime.now();
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    // Lifecycle methods
+    @PrePersist
+    protected void onCreate() {
+        if (startedAt == null) {
+            startedAt = LocalDateTime.now();
+        }
+        updatedAt = LocalDateTime.now();
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.payflow_backend.model;
+
+public enum PayrollRunStatus {
+    RUNNING,
+    PAUSED,
+    COMPLETED,
+    FAILED
+}
@@ -1,8 +1,28 @@
 package com.example.payflow_backend.model;
 
+import java.util.EnumSet;
+import java.util.Set;
+
 public enum PayrollStatus {
     PENDING,
     PROCESSED,
     COMPLETED,
-    CANCELLED
+    CANCELLED;
+
+    /**
+     * Statuses a payroll in this status may move to. COMPLETED (paid) is terminal;
+     * a cancelled payroll can only be reopened as PENDING.
+     */
+    public Set<PayrollStatus> allowedTransitions() {
+        return switch (this) {
+            case PENDING -> EnumSet.of(PROCESSED, CANCELLED);
+            case PROCESSED -> EnumSet.of(PENDING, COMPLETED, CANCELLED);
+            case COMPLETED -> EnumSet.noneOf(PayrollStatus.class);
+            case CANCELLED -> EnumSet.of(PENDING);
+        };
+    }
+
+    public boolean canTransitionTo(PayrollStatus target) {
+        return allowedTransitions().contains(target);
+    }
 }
@@ -0,0 +1,32 @@
+package com.example.payflow_backend.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.time.YearMonth;
+
+/**
+ * Stores a YearMonth as the integer yyyymm, so months sort and range-scan numerically.
+ */
+@Converter
+public class YearMonthKeyConverter implements AttributeConverter<YearMonth, Integer> {
+
+    @Override
+    public Integer convertToDatabaseColumn(YearMonth month) {
+        return toKey(month);
+    }
+
+    @Override
+    public YearMonth convertToEntityAttribute(Integer key) {
+        return key == null ? null : YearMonth.of(key / 100, key % 100);
+    }
+
+    public static Integer toKey(YearMonth month) {
+        return month == null ? null : month.getYear() * 100 + month.getMonthValue();
+    }
+
+    // Key of a yyyy-MM string, as the month column holds it
+    public static Integer toKey(String month) {
+        return month == null ? null : toKey(YearMonth.parse(month));
+    }
+}
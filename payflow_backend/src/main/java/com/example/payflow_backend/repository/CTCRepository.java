@@ -1,15 +1,22 @@
 package com.example.payflow_backend.repository;
 
+import com.example.payflow_backend.dto.CTCSalaryRow;
+import com.example.payflow_backend.dto.CTCSnapshotRow;
 import com.example.payflow_backend.model.CTC;
 import com.example.payflow_backend.model.Employee;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface CTCRepository extends JpaRepository<CTC, Long> {
@@ -21,9 +28,68 @@ public interface CTCRepository extends JpaRepository<CTC, Long> {
     List<CTC> findByEmployee_EmployeeIdOrderByEffectiveFromDesc(Long employeeId);
 
     // Find the current CTC for an employee (most recent effective date that's not in the future)
-    @Query("SELECT c FROM CTC c WHERE c.employee.employeeId = :employeeId AND c.effectiveFrom <= :currentDate ORDER BY c.effectiveFrom DESC")
+    // Ties on effective date resolve to the most recently created record
+    @Query("SELECT c FROM CTC c WHERE c.employee.employeeId = :employeeId AND c.effectiveFrom <= :currentDate ORDER BY c.effectiveFrom DESC, c.ctcId DESC LIMIT 1")
     Optional<CTC> findCurrentCTCByEmployeeId(@Param("employeeId") Long employeeId, @Param("currentDate") LocalDate currentDate);
 
+    // Effective CTC of every employee in an ID range as of a date (greatest effectiveFrom per employee).
+    // Several rows can share that date; callers keep the highest ctcId, matching findCurrentCTCByEmployeeId.
+    @Query("SELECT new com.example.payflow_backend.dto.CTCSalaryRow(c.employee.employeeId, c.ctcId, c.totalCtc, c.pfContribution, c.gratuity) " +
+           "FROM CTC c WHERE c.effectiveFrom = (SELECT MAX(c2.effectiveFrom) FROM CTC c2 " +
+           "WHERE c2.employee.employeeId = c.employee.employeeId AND c2.effectiveFrom <= :asOfDate) " +
+           "AND c.employee.employeeId BETWEEN :fromId AND :toId " +
+           "ORDER BY c.employee.employeeId, c.ctcId")
+    List<CTCSalaryRow> findEffectiveSalaryRowsAsOf(@Param("asOfDate") LocalDate asOfDate,
+                                                   @Param("fromId") Long fromId, @Param("toId") Long toId);
+
+    // Same as findEffectiveSalaryRowsAsOf for an explicit set of employees
+    @Query("SELECT new com.example.payflow_backend.dto.CTCSalaryRow(c.employee.employeeId, c.ctcId, c.totalCtc, c.pfContribution, c.gratuity) " +
+           "FROM CTC c WHERE c.effectiveFrom = (SELECT MAX(c2.effectiveFrom) FROM CTC c2 " +
+           "WHERE c2.employee.employeeId = c.employee.employeeId AND c2.effectiveFrom <= :asOfDate) " +
+           "AND c.employee.employeeId IN :employeeIds " +
+           "ORDER BY c.employee.employeeId, c.ctcId")
+    List<CTCSalaryRow> findEffectiveSalaryRowsAsOfForEmployees(@Param("asOfDate") LocalDate asOfDate,
+                                                               @Param("employeeIds") Collection<Long> employeeIds);
+
+    // Every CTC version effective by a date for an employee ID range, oldest first; the last row per
+    // employee with effectiveFrom <= a month's as-of date is that month's CTC (highest ctcId on ties)
+    @Query("SELECT new com.example.payflow_backend.dto.CTCSalaryRow(c.employee.employeeId, c.ctcId, c.totalCtc, " +
+           "c.pfContribution, c.gratuity, c.effectiveFrom) " +
+           "FROM CTC c WHERE c.effectiveFrom <= :asOfDate AND c.employee.employeeId BETWEEN :fromId AND :toId " +
+           "ORDER BY c.employee.employeeId, c.effectiveFrom, c.ctcId")
+    List<CTCSalaryRow> findSalaryTimelineRowsAsOf(@Param("asOfDate") LocalDate asOfDate,
+                                                  @Param("fromId") Long fromId, @Param("toId") Long toId);
+
+    // Every CTC version of one employee, oldest first (highest ctcId last on ties)
+    @Query("SELECT new com.example.payflow_backend.dto.CTCSalaryRow(c.employee.employeeId, c.ctcId, c.totalCtc, " +
+           "c.pfContribution, c.gratuity, c.effectiveFrom) " +
+           "FROM CTC c WHERE c.employee.employeeId = :employeeId ORDER BY c.effectiveFrom, c.ctcId")
+    List<CTCSalaryRow> findSalaryTimelineRows(@Param("employeeId") Long employeeId);
+
+    // Every CTC version of every employee, grouped by employee and oldest first within each; streamed through a cursor
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new com.example.payflow_backend.dto.CTCSalaryRow(c.employee.employeeId, c.ctcId, c.totalCtc, " +
+           "c.pfContribution, c.gratuity, c.effectiveFrom) " +
+           "FROM CTC c ORDER BY c.employee.employeeId, c.effectiveFrom, c.ctcId")
+    Stream<CTCSalaryRow> streamAllSalaryTimelineRows();
+
+    // The CTC effective on a date for every employee, optionally one department and/or active employees only.
+    // Greatest-per-group by anti-join: a version is kept when no later one (or same-day one with a higher
+    // ctcId) is effective by the date, so each employee yields exactly one row. Streamed through a cursor.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new com.example.payflow_backend.dto.CTCSnapshotRow(e.employeeId, e.fullName, e.department, " +
+           "e.designation, c.ctcId, c.effectiveFrom, c.basicSalary, c.allowances, c.bonuses, c.pfContribution, " +
+           "c.gratuity, c.totalCtc) " +
+           "FROM CTC c JOIN c.employee e WHERE c.effectiveFrom <= :asOfDate " +
+           "AND NOT EXISTS (SELECT 1 FROM CTC n WHERE n.employee = c.employee AND n.effectiveFrom <= :asOfDate " +
+           "AND (n.effectiveFrom > c.effectiveFrom OR (n.effectiveFrom = c.effectiveFrom AND n.ctcId > c.ctcId))) " +
+           "AND (:department IS NULL OR e.department = :department) " +
+           "AND (:activeOnly = false OR e.isActive = true) " +
+           "ORDER BY e.employeeId")
+    Stream<CTCSnapshotRow> streamEffectiveAsOf(@Param("asOfDate") LocalDate asOfDate,
+                                               @Param("department") String department,
+                                               @Param("activeOnly") boolean activeOnly);
+
     // Find the latest CTC record for an employee (regardless of effective date)
     Optional<CTC> findTopByEmployee_EmployeeIdOrderByEffectiveFromDesc(Long employeeId);
 
@@ -0,0 +1,9 @@
+package com.example.payflow_backend.repository;
+
+import com.example.payflow_backend.model.EmployeeLatestPayroll;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface EmployeeLatestPayrollRepository extends JpaRepository<EmployeeLatestPayroll, Long> {
+}
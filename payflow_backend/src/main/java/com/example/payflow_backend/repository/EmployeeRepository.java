@@ -1,11 +1,16 @@
 package com.example.payflow_backend.repository;
 
+import com.example.payflow_backend.dto.EmployeeListItem;
+import com.example.payflow_backend.dto.PayrollEmployeeRow;
 import com.example.payflow_backend.model.Employee;
 import com.example.payflow_backend.model.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -14,6 +19,47 @@ public interface EmployeeRepository extends JpaRepository<Employee, Long> {
     Optional<Employee> findByEmail(String email);
     List<Employee> findByManager(User manager);
     List<Employee> findByManagerUserIdAndIsActiveTrue(Long managerId);
+
+    String LIST_ITEM = "SELECT new com.example.payflow_backend.dto.EmployeeListItem(e.employeeId, e.fullName, e.email, " +
+            "e.age, e.gender, e.phone, e.address, e.department, e.designation, e.totalExperience, e.totalLeaves, " +
+            "e.remLeaves, e.extraLeavesThisMonth, e.isActive, e.onboardedAt, e.degree, e.university, " +
+            "e.graduationYear, e.grade, m.userId, m.username, m.email, o.userId, o.username, o.email) " +
+            "FROM Employee e LEFT JOIN e.manager m LEFT JOIN e.onboardedBy o ";
+
+    // All employees for listing, in one query without loading past experiences
+    @Query(LIST_ITEM + "ORDER BY e.employeeId")
+    List<EmployeeListItem> findListItems();
+
+    // A manager's active employees for listing
+    @Query(LIST_ITEM + "WHERE m.userId = :managerId AND e.isActive = true ORDER BY e.employeeId")
+    List<EmployeeListItem> findListItemsByManager(@Param("managerId") Long managerId);
+
+    /**
+     * Active employees with only the columns payroll generation needs,
+     * so bulk runs do not load past experiences and other profile data
+     */
+    @Query("SELECT new com.example.payflow_backend.dto.PayrollEmployeeRow(e.employeeId, e.extraLeavesThisMonth, " +
+           "e.department, e.designation) FROM Employee e WHERE e.isActive = true AND e.employeeId BETWEEN :fromId AND :toId ORDER BY e.employeeId")
+    List<PayrollEmployeeRow> findActivePayrollRows(@Param("fromId") Long fromId, @Param("toId") Long toId);
+
+    // Payroll inputs for specific employees (active or not)
+    @Query("SELECT new com.example.payflow_backend.dto.PayrollEmployeeRow(e.employeeId, e.extraLeavesThisMonth, " +
+           "e.department, e.designation) FROM Employee e WHERE e.employeeId IN :ids")
+    List<PayrollEmployeeRow> findPayrollRowsByIds(@Param("ids") Collection<Long> ids);
+
+    // Which of the given IDs belong to an employee (active or not)
+    @Query("SELECT e.employeeId FROM Employee e WHERE e.employeeId IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    // IDs of active employees in order, used to cut payroll runs into partitions
+    @Query("SELECT e.employeeId FROM Employee e WHERE e.isActive = true ORDER BY e.employeeId")
+    List<Long> findActiveEmployeeIds();
+
+    // Next page of active employee IDs after a checkpoint (keyset, no offset)
+    @Query("SELECT e.employeeId FROM Employee e WHERE e.isActive = true AND e.employeeId > :afterId ORDER BY e.employeeId")
+    List<Long> findActiveEmployeeIdsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    long countByIsActiveTrueAndEmployeeIdGreaterThan(Long employeeId);
     
     /**
      * Reset extraLeavesThisMonth to 0 for all employees
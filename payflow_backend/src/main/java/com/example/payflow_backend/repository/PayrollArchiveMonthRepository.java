@@ -0,0 +1,28 @@
+package com.example.payflow_backend.repository;
+
+import com.example.payflow_backend.model.PayrollArchiveMonth;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface PayrollArchiveMonthRepository extends JpaRepository<PayrollArchiveMonth, String> {
+
+    List<PayrollArchiveMonth> findAllByOrderByMonthAsc();
+
+    // Locking read, so a REPEATABLE READ writer sees an archive committed after its snapshot was taken
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("SELECT a FROM PayrollArchiveMonth a WHERE a.month = :month")
+    Optional<PayrollArchiveMonth> lockByMonth(@Param("month") String month);
+
+    // Archived months whose file may hold the employee, newest first
+    @Query("SELECT a FROM PayrollArchiveMonth a WHERE a.minEmployeeId <= :employeeId AND a.maxEmployeeId >= :employeeId " +
+           "ORDER BY a.month DESC")
+    List<PayrollArchiveMonth> findCoveringEmployee(@Param("employeeId") Long employeeId);
+}
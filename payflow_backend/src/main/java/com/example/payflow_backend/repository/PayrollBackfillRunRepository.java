@@ -0,0 +1,52 @@
+package com.example.payflow_backend.repository;
+
+import com.example.payflow_backend.model.PayrollBackfillRun;
+import com.example.payflow_backend.model.PayrollRunStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface PayrollBackfillRunRepository extends JpaRepository<PayrollBackfillRun, Long> {
+
+    List<PayrollBackfillRun> findByStatus(PayrollRunStatus status);
+
+    // Record how many employees and partitions the backfill covers once they are known
+    @Modifying
+    @Transactional
+    @Query("UPDATE PayrollBackfillRun r SET r.employees = :employees, r.totalPartitions = :partitions, " +
+           "r.updatedAt = :now WHERE r.id = :runId")
+    int start(@Param("runId") Long runId, @Param("employees") int employees, @Param("partitions") int partitions,
+              @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE PayrollBackfillRun r SET r.processedPartitions = r.processedPartitions + 1, r.updatedAt = :now " +
+           "WHERE r.id = :runId")
+    int advancePartition(@Param("runId") Long runId, @Param("now") LocalDateTime now);
+
+    // Finish a RUNNING backfill with its totals; returns 0 when it was already finished
+    @Modifying
+    @Transactional
+    @Query("UPDATE PayrollBackfillRun r SET r.status = com.example.payflow_backend.model.PayrollRunStatus.COMPLETED, " +
+           "r.generatedCount = :generated, r.skippedExistingCount = :skippedExisting, " +
+           "r.skippedNoCtcCount = :skippedNoCtc, r.failedCount = :failed, r.finishedAt = :now, r.updatedAt = :now " +
+           "WHERE r.id = :runId AND r.status = com.example.payflow_backend.model.PayrollRunStatus.RUNNING")
+    int complete(@Param("runId") Long runId, @Param("generated") int generated,
+                 @Param("skippedExisting") int skippedExisting, @Param("skippedNoCtc") int skippedNoCtc,
+                 @Param("failed") int failed, @Param("now") LocalDateTime now);
+
+    // Mark a RUNNING backfill as failed; returns 0 when it was already finished
+    @Modifying
+    @Transactional
+    @Query("UPDATE PayrollBackfillRun r SET r.status = com.example.payflow_backend.model.PayrollRunStatus.FAILED, " +
+           "r.lastError = :error, r.finishedAt = :now, r.updatedAt = :now " +
+           "WHERE r.id = :runId AND r.status = com.example.payflow_backend.model.PayrollRunStatus.RUNNING")
+    int fail(@Param("runId") Long runId, @Param("error") String error, @Param("now") LocalDateTime now);
+}
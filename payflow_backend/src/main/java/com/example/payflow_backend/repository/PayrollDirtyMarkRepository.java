@@ -0,0 +1,35 @@
+package com.example.payflow_backend.repository;
+
+import com.example.payflow_backend.model.PayrollDirtyMark;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface PayrollDirtyMarkRepository extends JpaRepository<PayrollDirtyMark, Long> {
+
+    // Months with pending marks, oldest first
+    @Query("SELECT DISTINCT m.month FROM PayrollDirtyMark m ORDER BY m.month")
+    List<String> findDirtyMonths();
+
+    // Distinct employees marked dirty for a month
+    @Query("SELECT DISTINCT m.employeeId FROM PayrollDirtyMark m WHERE m.month = :month")
+    List<Long> findDirtyEmployeeIds(@Param("month") String month);
+
+    List<PayrollDirtyMark> findAllByOrderByMonthAscEmployeeIdAsc();
+
+    // Marks a recompute is about to settle, read in the same snapshot as the inputs it uses
+    @Query("SELECT m.id FROM PayrollDirtyMark m WHERE m.month = :month AND m.employeeId IN :employeeIds")
+    List<Long> findIdsByMonthAndEmployeeIds(@Param("month") String month,
+                                            @Param("employeeIds") Collection<Long> employeeIds);
+
+    // Clear exactly the marks a recompute read; marks added meanwhile survive for the next pass
+    @Modifying
+    @Query("DELETE FROM PayrollDirtyMark m WHERE m.id IN :ids")
+    int deleteConsumed(@Param("ids") Collection<Long> ids);
+}
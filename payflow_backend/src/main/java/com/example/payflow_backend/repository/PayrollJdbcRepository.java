@@ -0,0 +1,192 @@
+package com.example.payflow_backend.repository;
+
+import com.example.payflow_backend.model.Payroll;
+import com.example.payflow_backend.model.PayrollStatus;
+import com.example.payflow_backend.model.YearMonthKeyConverter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Plain JDBC access to the payroll table for set-based writes that would be
+ * too slow through the JPA persistence context.
+ */
+@Repository
+public class PayrollJdbcRepository {
+
+    private static final String INSERT_COLUMNS =
+            "INSERT INTO payroll (employee_id, month, month_key, gross_salary, leave_deduction, net_salary, " +
+            "created_at, updated_at, total_working_days, unpaid_leaves, per_day_salary, processed_by, status, " +
+            "department, designation, insert_token) VALUES ";
+
+    private static final int ROW_COLUMNS = 16;
+
+    private static final String ROW_PLACEHOLDERS = "(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // No-op on a duplicate key. Unlike INSERT IGNORE, this does not also turn other errors
+    // (truncation, bad values, foreign keys) into warnings.
+    private static final String SKIP_DUPLICATES = " ON DUPLICATE KEY UPDATE id = id";
+
+    // Insert, or replace the computed columns of the existing (employee_id, month) row keeping its id,
+    // created_at and the department and designation it was first generated under
+    private static final String UPSERT_SQL =
+            "INSERT INTO payroll (employee_id, month, month_key, gross_salary, leave_deduction, net_salary, " +
+            "created_at, updated_at, total_working_days, unpaid_leaves, per_day_salary, processed_by, status, " +
+            "department, designation, insert_token) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE " +
+            "gross_salary = VALUES(gross_salary), leave_deduction = VALUES(leave_deduction), " +
+            "net_salary = VALUES(net_salary), updated_at = VALUES(updated_at), " +
+            "total_working_days = VALUES(total_working_days), unpaid_leaves = VALUES(unpaid_leaves), " +
+            "per_day_salary = VALUES(per_day_salary), processed_by = VALUES(processed_by), status = VALUES(status)";
+
+    private static final String UPDATE_AMOUNTS_SQL =
+            "UPDATE payroll SET gross_salary = ?, leave_deduction = ?, net_salary = ?, per_day_salary = ?, " +
+            "total_working_days = ?, unpaid_leaves = ?, updated_at = ? WHERE id = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${payflow.payroll.batch-size:500}")
+    private int batchSize;
+
+    /**
+     * Insert payroll rows, skipping any whose (employee, month) already has a payroll; the unique key
+     * resolves the conflict in the database. Rows go out as multi-row statements of batch-size rows.
+     * Returns the rows actually inserted. Only the employee id is read from each row's employee.
+     * The driver's row count cannot tell them apart (with found-rows reporting a skipped duplicate
+     * counts as 1, and batch rewriting merges the counts anyway), so every row carries a token unique
+     * to this call and the inserted ones are read back by it. A skipped duplicate keeps its own token.
+     */
+    public List<Payroll> insertIgnoringDuplicates(List<Payroll> payrolls) {
+        if (payrolls.isEmpty()) {
+            return payrolls;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        Timestamp stamp = Timestamp.valueOf(now);
+        String token = UUID.randomUUID().toString();
+        List<Payroll> inserted = new ArrayList<>(payrolls.size());
+        for (int from = 0; from < payrolls.size(); from += batchSize) {
+            List<Payroll> chunk = payrolls.subList(from, Math.min(from + batchSize, payrolls.size()));
+            StringBuilder sql = new StringBuilder(INSERT_COLUMNS);
+            Object[] args = new Object[chunk.size() * ROW_COLUMNS];
+            for (int i = 0; i < chunk.size(); i++) {
+                Payroll payroll = chunk.get(i);
+                payroll.setCreatedAt(now);
+                payroll.setUpdatedAt(now);
+                payroll.setInsertToken(token);
+                sql.append(i == 0 ? ROW_PLACEHOLDERS : ", " + ROW_PLACEHOLDERS);
+                bindRow(args, i * ROW_COLUMNS, payroll, stamp);
+            }
+            sql.append(SKIP_DUPLICATES);
+            if (jdbcTemplate.update(sql.toString(), args) > 0) {
+                inserted.addAll(insertedByThisCall(chunk, token));
+            }
+        }
+        return inserted;
+    }
+
+    /**
+     * Insert a payroll, or overwrite the amounts, status and processor of the existing row for its
+     * (employee, month). Returns true when a new row was inserted.
+     */
+    public boolean upsert(Payroll payroll) {
+        LocalDateTime now = LocalDateTime.now();
+        payroll.setCreatedAt(now);
+        payroll.setUpdatedAt(now);
+        Object[] args = new Object[ROW_COLUMNS];
+        bindRow(args, 0, payroll, Timestamp.valueOf(now));
+        // MySQL reports 1 for an inserted row and 2 for an updated one
+        return jdbcTemplate.update(UPSERT_SQL, args) == 1;
+    }
+
+    /**
+     * Rewrite the computed amounts of existing payroll rows (matched by id) with JDBC batching
+     */
+    public int batchUpdateAmounts(List<Payroll> payrolls) {
+        if (payrolls.isEmpty()) {
+            return 0;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(UPDATE_AMOUNTS_SQL, payrolls, batchSize, (ps, payroll) -> {
+            ps.setBigDecimal(1, payroll.getGrossSalary());
+            ps.setBigDecimal(2, payroll.getLeaveDeduction());
+            ps.setBigDecimal(3, payroll.getNetSalary());
+            ps.setBigDecimal(4, payroll.getPerDaySalary());
+            ps.setInt(5, payroll.getTotalWorkingDays());
+            ps.setInt(6, payroll.getUnpaidLeaves());
+            ps.setTimestamp(7, now);
+            ps.setLong(8, payroll.getId());
+        });
+        return payrolls.size();
+    }
+
+    /**
+     * Move the first count of ids from one status to another in one conditional UPDATE.
+     * Rows no longer in the from status are left alone; returns the number changed.
+     */
+    public int transitionStatus(long[] ids, int count, PayrollStatus from, PayrollStatus to) {
+        if (count == 0) {
+            return 0;
+        }
+        StringBuilder sql = new StringBuilder("UPDATE payroll SET status = ?, updated_at = ? WHERE status = ? AND id IN (");
+        Object[] args = new Object[count + 3];
+        args[0] = to.name();
+        args[1] = Timestamp.valueOf(LocalDateTime.now());
+        args[2] = from.name();
+        for (int i = 0; i < count; i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+            args[i + 3] = ids[i];
+        }
+        sql.append(')');
+        return jdbcTemplate.update(sql.toString(), args);
+    }
+
+    private static void bindRow(Object[] args, int offset, Payroll payroll, Timestamp now) {
+        args[offset] = payroll.getEmployee().getEmployeeId();
+        args[offset + 1] = payroll.getMonth();
+        args[offset + 2] = YearMonthKeyConverter.toKey(payroll.getMonth());
+        args[offset + 3] = payroll.getGrossSalary();
+        args[offset + 4] = payroll.getLeaveDeduction();
+        args[offset + 5] = payroll.getNetSalary();
+        args[offset + 6] = now;
+        args[offset + 7] = now;
+        args[offset + 8] = payroll.getTotalWorkingDays();
+        args[offset + 9] = payroll.getUnpaidLeaves();
+        args[offset + 10] = payroll.getPerDaySalary();
+        args[offset + 11] = payroll.getProcessedBy();
+        args[offset + 12] = payroll.getStatus().name();
+        args[offset + 13] = payroll.getDepartment();
+        args[offset + 14] = payroll.getDesignation();
+        args[offset + 15] = payroll.getInsertToken();
+    }
+
+    // Rows of a chunk that this call inserted, told apart from any other writer's rows by the call's token
+    private List<Payroll> insertedByThisCall(List<Payroll> chunk, String token) {
+        StringBuilder sql = new StringBuilder("SELECT employee_id, month FROM payroll WHERE insert_token = ? AND employee_id IN (");
+        Object[] args = new Object[chunk.size() + 1];
+        args[0] = token;
+        for (int i = 0; i < chunk.size(); i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+            args[i + 1] = chunk.get(i).getEmployee().getEmployeeId();
+        }
+        sql.append(')');
+        Set<String> ours = new HashSet<>(jdbcTemplate.query(sql.toString(),
+                (rs, rowNum) -> rs.getLong(1) + "|" + rs.getString(2), args));
+        List<Payroll> inserted = new ArrayList<>(ours.size());
+        for (Payroll payroll : chunk) {
+            if (ours.contains(payroll.getEmployee().getEmployeeId() + "|" + payroll.getMonth())) {
+                inserted.add(payroll);
+            }
+        }
+        return inserted;
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.payflow_backend.repository;
+
+import com.example.payflow_backend.model.PayrollLedgerEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface PayrollLedgerRepository extends JpaRepository<PayrollLedgerEntry, Long> {
+
+    // An employee's payroll events, oldest first; all months when month is null
+    @Query("SELECT l FROM PayrollLedgerEntry l WHERE l.employeeId = :employeeId " +
+           "AND (:month IS NULL OR l.month = :month) ORDER BY l.month, l.id")
+    List<PayrollLedgerEntry> findHistory(@Param("employeeId") Long employeeId, @Param("month") String month);
+}
@@ -0,0 +1,18 @@
+package com.example.payflow_backend.repository;
+
+import com.example.payflow_backend.model.PayrollLedgerSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface PayrollLedgerSnapshotRepository extends JpaRepository<PayrollLedgerSnapshot, Long> {
+
+    Optional<PayrollLedgerSnapshot> findFirstByMonthOrderByLastEntryIdDesc(String month);
+
+    // Newest snapshot taken by a point in time
+    Optional<PayrollLedgerSnapshot> findFirstByMonthAndCreatedAtLessThanEqualOrderByLastEntryIdDesc(String month,
+                                                                                                 LocalDateTime asOf);
+}
@@ -0,0 +1,67 @@
+package com.example.payflow_backend.repository;
+
+import com.example.payflow_backend.model.PayrollMonthSummary;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface PayrollMonthSummaryRepository extends JpaRepository<PayrollMonthSummary, String> {
+
+    List<PayrollMonthSummary> findAllByOrderByMonthAsc();
+
+    // Waits for writers still holding the month row, so their payrolls are committed once this returns
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM PayrollMonthSummary s WHERE s.month = :month")
+    Optional<PayrollMonthSummary> lockByMonth(@Param("month") String month);
+
+    // Finalized months (nothing PENDING or PROCESSED) before a month that are not archived yet, oldest first
+    @Query("SELECT s.month FROM PayrollMonthSummary s WHERE s.month < :beforeMonth AND s.totalEmployees > 0 " +
+           "AND s.pendingCount = 0 AND s.processedCount = 0 " +
+           "AND NOT EXISTS (SELECT a FROM PayrollArchiveMonth a WHERE a.month = s.month) ORDER BY s.month")
+    List<String> findArchivableMonths(@Param("beforeMonth") String beforeMonth);
+
+    // Months in a range whose payrolls changed since their rollup was built
+    @Query("SELECT s.month FROM PayrollMonthSummary s WHERE s.month BETWEEN :fromMonth AND :toMonth " +
+           "AND (s.rollupChangeCount IS NULL OR s.rollupChangeCount <> s.changeCount) ORDER BY s.month")
+    List<String> findMonthsWithStaleRollup(@Param("fromMonth") String fromMonth, @Param("toMonth") String toMonth);
+
+    /**
+     * Add a delta to a month's totals, creating the row on first use.
+     * A single atomic statement, so concurrent partitions never lose each other's updates;
+     * it also row-locks the month until the caller's transaction ends.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO payroll_month_summary (month, total_employees, total_gross_salary, " +
+            "total_leave_deductions, total_net_salary, total_unpaid_leaves, pending_count, processed_count, " +
+            "completed_count, cancelled_count, change_count, updated_at) " +
+            "VALUES (:month, :employees, :gross, :deductions, :net, :unpaidLeaves, :pending, :processed, " +
+            ":completed, :cancelled, 1, :now) " +
+            "ON DUPLICATE KEY UPDATE total_employees = total_employees + VALUES(total_employees), " +
+            "total_gross_salary = total_gross_salary + VALUES(total_gross_salary), " +
+            "total_leave_deductions = total_leave_deductions + VALUES(total_leave_deductions), " +
+            "total_net_salary = total_net_salary + VALUES(total_net_salary), " +
+            "total_unpaid_leaves = total_unpaid_leaves + VALUES(total_unpaid_leaves), " +
+            "pending_count = pending_count + VALUES(pending_count), " +
+            "processed_count = processed_count + VALUES(processed_count), " +
+            "completed_count = completed_count + VALUES(completed_count), " +
+            "cancelled_count = cancelled_count + VALUES(cancelled_count), " +
+            "change_count = change_count + 1, " +
+            "updated_at = VALUES(updated_at)",
+            nativeQuery = true)
+    int applyDelta(@Param("month") String month, @Param("employees") long employees,
+                   @Param("gross") BigDecimal gross, @Param("deductions") BigDecimal deductions,
+                   @Param("net") BigDecimal net, @Param("unpaidLeaves") long unpaidLeaves,
+                   @Param("pending") long pending, @Param("processed") long processed,
+                   @Param("completed") long completed, @Param("cancelled") long cancelled,
+                   @Param("now") LocalDateTime now);
+}
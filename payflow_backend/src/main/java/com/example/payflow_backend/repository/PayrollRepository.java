@@ -1,13 +1,29 @@
 package com.example.payflow_backend.repository;
 
+import com.example.payflow_backend.dto.PayrollAmountsRow;
+import com.example.payflow_backend.dto.PayrollListItem;
+import com.example.payflow_backend.dto.PayrollSummaryGroup;
 import com.example.payflow_backend.model.Payroll;
+import com.example.payflow_backend.model.PayrollStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface PayrollRepository extends JpaRepository<Payroll, Long> {
@@ -27,13 +43,161 @@ public interface PayrollRepository extends JpaRepository<Payroll, Long> {
     // Check if payroll exists for employee and month
     boolean existsByEmployee_EmployeeIdAndMonth(Long employeeId, String month);
     
-    // Get payroll records for a date range
-    @Query("SELECT p FROM Payroll p WHERE p.month BETWEEN :startMonth AND :endMonth ORDER BY p.month DESC")
-    List<Payroll> findByMonthRange(@Param("startMonth") String startMonth, @Param("endMonth") String endMonth);
+    // Employee IDs that already have a payroll for the month (bulk generation duplicate check)
+    @Query("SELECT p.employee.employeeId FROM Payroll p WHERE p.month = :month AND p.employee.employeeId BETWEEN :fromId AND :toId")
+    List<Long> findEmployeeIdsByMonth(@Param("month") String month, @Param("fromId") Long fromId, @Param("toId") Long toId);
     
-    // Get latest payroll record for each employee
-    @Query("SELECT p FROM Payroll p WHERE p.month = (SELECT MAX(p2.month) FROM Payroll p2 WHERE p2.employee.employeeId = p.employee.employeeId) ORDER BY p.employee.employeeId")
-    List<Payroll> findLatestPayrollForAllEmployees();
+    // Employee IDs with a payroll for the month, ascending
+    @Query("SELECT p.employee.employeeId FROM Payroll p WHERE p.month = :month ORDER BY p.employee.employeeId")
+    List<Long> findEmployeeIdsByMonth(@Param("month") String month);
+    
+    // Generated months for an employee from a month onwards (months affected by a CTC change)
+    @Query("SELECT p.month FROM Payroll p WHERE p.employee.employeeId = :employeeId AND p.monthKey >= :fromMonth ORDER BY p.monthKey")
+    List<String> findMonthsByEmployeeFrom(@Param("employeeId") Long employeeId, @Param("fromMonth") YearMonth fromMonth);
+    
+    // Stored amounts for some employees in a month, without loading the employees
+    @Query("SELECT new com.example.payflow_backend.dto.PayrollAmountsRow(p.id, p.employee.employeeId, p.grossSalary, " +
+           "p.leaveDeduction, p.netSalary, p.perDaySalary, p.totalWorkingDays, p.unpaidLeaves, p.status) " +
+           "FROM Payroll p WHERE p.month = :month AND p.employee.employeeId IN :employeeIds")
+    List<PayrollAmountsRow> findAmountsByMonthAndEmployeeIds(@Param("month") String month,
+                                                             @Param("employeeIds") Collection<Long> employeeIds);
+    
+    // Same, locked until the transaction ends
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT new com.example.payflow_backend.dto.PayrollAmountsRow(p.id, p.employee.employeeId, p.grossSalary, " +
+           "p.leaveDeduction, p.netSalary, p.perDaySalary, p.totalWorkingDays, p.unpaidLeaves, p.status) " +
+           "FROM Payroll p WHERE p.month = :month AND p.employee.employeeId IN :employeeIds")
+    List<PayrollAmountsRow> lockAmountsByMonthAndEmployeeIds(@Param("month") String month,
+                                                             @Param("employeeIds") Collection<Long> employeeIds);
+    
+    // Stored amounts of one employee's payroll for a month, locked until the transaction ends
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT new com.example.payflow_backend.dto.PayrollAmountsRow(p.id, p.employee.employeeId, p.grossSalary, " +
+           "p.leaveDeduction, p.netSalary, p.perDaySalary, p.totalWorkingDays, p.unpaidLeaves, p.status) " +
+           "FROM Payroll p WHERE p.employee.employeeId = :employeeId AND p.month = :month")
+    Optional<PayrollAmountsRow> lockAmountsByEmployeeAndMonth(@Param("employeeId") Long employeeId,
+                                                             @Param("month") String month);
+    
+    // Month totals aggregated in the database; always exactly one row
+    @Query("SELECT new com.example.payflow_backend.dto.PayrollSummaryGroup(COUNT(p), SUM(p.grossSalary), " +
+           "SUM(p.leaveDeduction), SUM(p.netSalary), SUM(p.unpaidLeaves)) FROM Payroll p WHERE p.month = :month")
+    PayrollSummaryGroup summarizeMonth(@Param("month") String month);
+    
+    // Month totals per department (as generated) and status, the finest grouping the summary offers
+    @Query("SELECT new com.example.payflow_backend.dto.PayrollSummaryGroup(NULLIF(p.department, ''), p.status, COUNT(p), " +
+           "SUM(p.grossSalary), SUM(p.leaveDeduction), SUM(p.netSalary), SUM(p.unpaidLeaves)) " +
+           "FROM Payroll p WHERE p.month = :month " +
+           "GROUP BY NULLIF(p.department, ''), p.status ORDER BY NULLIF(p.department, ''), p.status")
+    List<PayrollSummaryGroup> summarizeMonthByDepartmentAndStatus(@Param("month") String month);
+    
+    // Months that have at least one payroll
+    @Query("SELECT DISTINCT p.month FROM Payroll p ORDER BY p.month")
+    List<String> findDistinctMonths();
+    
+    // Months with payrolls but no materialized summary row yet
+    @Query("SELECT DISTINCT p.month FROM Payroll p WHERE NOT EXISTS " +
+           "(SELECT s FROM PayrollMonthSummary s WHERE s.month = p.month) ORDER BY p.month")
+    List<String> findMonthsWithoutSummary();
+    
+    
+    // Set-based status change for a whole month; only rows still in the from status move
+    @Modifying
+    @Query("UPDATE Payroll p SET p.status = :to, p.updatedAt = :now WHERE p.month = :month AND p.status = :from")
+    int transitionMonth(@Param("month") String month, @Param("from") PayrollStatus from,
+                        @Param("to") PayrollStatus to, @Param("now") LocalDateTime now);
+    
+    // Same, restricted to the payrolls generated under one department
+    @Modifying
+    @Query("UPDATE Payroll p SET p.status = :to, p.updatedAt = :now WHERE p.month = :month AND p.status = :from " +
+           "AND p.department = :department")
+    int transitionMonthForDepartment(@Param("month") String month, @Param("department") String department,
+                                     @Param("from") PayrollStatus from, @Param("to") PayrollStatus to,
+                                     @Param("now") LocalDateTime now);
+    
+    // Requested payroll IDs eligible for a transition, locked until the UPDATE commits
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p.id FROM Payroll p WHERE p.id IN :ids AND p.month = :month AND p.status = :from " +
+           "AND (:department IS NULL OR p.department = :department)")
+    List<Long> lockTransitionCandidates(@Param("ids") Collection<Long> ids, @Param("month") String month,
+                                        @Param("department") String department, @Param("from") PayrollStatus from);
+    
+    @Modifying
+    @Query("UPDATE Payroll p SET p.status = :to, p.updatedAt = :now WHERE p.id IN :ids AND p.status = :from")
+    int transitionIds(@Param("ids") Collection<Long> ids, @Param("from") PayrollStatus from,
+                      @Param("to") PayrollStatus to, @Param("now") LocalDateTime now);
+    
+    // Select list shared by the list projections below; department and designation as the payroll was generated
+    String LIST_ITEM = "SELECT new com.example.payflow_backend.dto.PayrollListItem(p.id, p.month, p.status, " +
+            "p.grossSalary, p.leaveDeduction, p.netSalary, p.perDaySalary, p.totalWorkingDays, p.unpaidLeaves, " +
+            "p.processedBy, p.createdAt, p.updatedAt, e.employeeId, e.fullName, e.email, " +
+            "NULLIF(p.department, ''), NULLIF(p.designation, '')) " +
+            "FROM Payroll p JOIN p.employee e ";
+    
+    // A month's payrolls for listing, in one query without loading employees
+    @Query(LIST_ITEM + "WHERE p.month = :month ORDER BY p.id")
+    List<PayrollListItem> findListItemsByMonth(@Param("month") String month);
+    
+    // A month's payrolls in employee order, streamed through a cursor
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query(LIST_ITEM + "WHERE p.month = :month ORDER BY e.employeeId")
+    Stream<PayrollListItem> streamListItemsByMonth(@Param("month") String month);
+    
+    // An employee's payrolls for listing, newest month first
+    @Query(LIST_ITEM + "WHERE e.employeeId = :employeeId ORDER BY p.month DESC")
+    List<PayrollListItem> findListItemsByEmployee(@Param("employeeId") Long employeeId);
+    
+    // Payroll rows for a range of months (inclusive), a range scan on the month key
+    @Query(LIST_ITEM + "WHERE p.monthKey BETWEEN :startMonth AND :endMonth ORDER BY p.monthKey DESC, p.id")
+    List<PayrollListItem> findByMonthRange(@Param("startMonth") YearMonth startMonth, @Param("endMonth") YearMonth endMonth);
+    
+    // Latest payroll row of each employee, joined through the maintained employee_latest_payroll pointers
+    @Query(LIST_ITEM + "JOIN EmployeeLatestPayroll l ON l.employeeId = e.employeeId AND l.monthKey = p.monthKey " +
+           "ORDER BY e.employeeId")
+    List<PayrollListItem> findLatestPayrollForAllEmployees();
+    
+    // An employee's most recent payroll
+    Optional<Payroll> findFirstByEmployee_EmployeeIdOrderByMonthKeyDesc(Long employeeId);
+    
+    // Newest month an employee has a payroll for, read from the (employee_id, month_key) index
+    @Query("SELECT MAX(p.monthKey) FROM Payroll p WHERE p.employee.employeeId = :employeeId")
+    YearMonth findLatestMonthKey(@Param("employeeId") Long employeeId);
+    
+    // Months of existing payrolls whose month key has not been filled in yet
+    @Query("SELECT DISTINCT p.month FROM Payroll p WHERE p.monthKey IS NULL")
+    List<String> findMonthsWithoutMonthKey();
+    
+    @Modifying
+    @Query("UPDATE Payroll p SET p.monthKey = :monthKey WHERE p.month = :month AND p.monthKey IS NULL")
+    int fillMonthKey(@Param("month") String month, @Param("monthKey") YearMonth monthKey);
+
+    // Months of payrolls written before department and designation were recorded on the row
+    @Query("SELECT DISTINCT p.month FROM Payroll p WHERE p.department IS NULL OR p.designation IS NULL")
+    List<String> findMonthsWithoutOrgSnapshot();
+
+    // Best available snapshot for those rows: the employee's department and designation now
+    @Modifying
+    @Query(value = "UPDATE payroll p SET " +
+            "department = COALESCE((SELECT e.department FROM employee e WHERE e.employee_id = p.employee_id), ''), " +
+            "designation = COALESCE((SELECT e.designation FROM employee e WHERE e.employee_id = p.employee_id), '') " +
+            "WHERE p.month = :month AND (p.department IS NULL OR p.designation IS NULL)",
+            nativeQuery = true)
+    int fillOrgSnapshot(@Param("month") String month);
+    
+    // Keyset page ordered by (month, id) descending; rows strictly after the cursor, unset filters ignored
+    @Query(LIST_ITEM +
+           "WHERE (:month IS NULL OR p.month = :month) " +
+           "AND (:employeeId IS NULL OR e.employeeId = :employeeId) " +
+           "AND (:status IS NULL OR p.status = :status) " +
+           "AND (:department IS NULL OR p.department = :department) " +
+           "AND (:minNet IS NULL OR p.netSalary >= :minNet) " +
+           "AND (:maxNet IS NULL OR p.netSalary <= :maxNet) " +
+           "AND (:cursorMonth IS NULL OR p.month < :cursorMonth OR (p.month = :cursorMonth AND p.id < :cursorId)) " +
+           "ORDER BY p.month DESC, p.id DESC")
+    List<PayrollListItem> findPage(@Param("month") String month, @Param("employeeId") Long employeeId,
+                           @Param("status") PayrollStatus status, @Param("department") String department,
+                           @Param("minNet") BigDecimal minNet, @Param("maxNet") BigDecimal maxNet,
+                           @Param("cursorMonth") String cursorMonth, @Param("cursorId") Long cursorId,
+                           Pageable pageable);
     
     // Find payroll records that need processing (PENDING status)
     List<Payroll> findByStatus(com.example.payflow_backend.model.PayrollStatus status);
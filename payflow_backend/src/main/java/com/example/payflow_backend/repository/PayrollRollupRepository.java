@@ -0,0 +1,58 @@
+package com.example.payflow_backend.repository;
+
+import com.example.payflow_backend.dto.PayrollRollupSlice;
+import com.example.payflow_backend.model.PayrollRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface PayrollRollupRepository extends JpaRepository<PayrollRollup, Long> {
+
+    // Cells in a month range, optionally restricted to one department and/or designation
+    @Query("SELECT r FROM PayrollRollup r WHERE r.month BETWEEN :fromMonth AND :toMonth " +
+           "AND (:department IS NULL OR r.department = :department) " +
+           "AND (:designation IS NULL OR r.designation = :designation) " +
+           "ORDER BY r.month, r.department, r.designation")
+    List<PayrollRollup> findCells(@Param("fromMonth") String fromMonth, @Param("toMonth") String toMonth,
+                                  @Param("department") String department, @Param("designation") String designation);
+
+    // Months that have cells but no longer have a month summary (all their payrolls are gone)
+    @Query("SELECT DISTINCT r.month FROM PayrollRollup r WHERE r.month BETWEEN :fromMonth AND :toMonth " +
+           "AND NOT EXISTS (SELECT s FROM PayrollMonthSummary s WHERE s.month = r.month)")
+    List<String> findOrphanedMonths(@Param("fromMonth") String fromMonth, @Param("toMonth") String toMonth);
+
+    @Modifying
+    @Query("DELETE FROM PayrollRollup r WHERE r.month = :month")
+    int deleteByMonth(@Param("month") String month);
+
+    /**
+     * Aggregate one month of payroll into its cells in a single set-based statement, by the
+     * department and designation each payroll was generated under
+     */
+    @Modifying
+    @Query(value = "INSERT INTO payroll_rollup (month, department, designation, employee_count, " +
+            "total_gross_salary, total_leave_deductions, total_net_salary, total_unpaid_leaves) " +
+            "SELECT p.month, COALESCE(p.department, ''), COALESCE(p.designation, ''), COUNT(*), " +
+            "SUM(p.gross_salary), SUM(p.leave_deduction), SUM(p.net_salary), SUM(p.unpaid_leaves) " +
+            "FROM payroll p WHERE p.month = :month " +
+            "GROUP BY p.month, COALESCE(p.department, ''), COALESCE(p.designation, '')",
+            nativeQuery = true)
+    int insertMonthFromPayrolls(@Param("month") String month);
+
+    // The same cells computed straight from the payroll rows, for months whose stored cells are stale
+    @Query("SELECT new com.example.payflow_backend.dto.PayrollRollupSlice(p.month, COALESCE(p.department, ''), " +
+           "COALESCE(p.designation, ''), COUNT(p), SUM(p.grossSalary), SUM(p.leaveDeduction), SUM(p.netSalary), " +
+           "SUM(p.unpaidLeaves)) FROM Payroll p WHERE p.month IN :months " +
+           "AND (:department IS NULL OR COALESCE(p.department, '') = :department) " +
+           "AND (:designation IS NULL OR COALESCE(p.designation, '') = :designation) " +
+           "GROUP BY p.month, COALESCE(p.department, ''), COALESCE(p.designation, '')")
+    List<PayrollRollupSlice> aggregateMonths(@Param("months") Collection<String> months,
+                                             @Param("department") String department,
+                                             @Param("designation") String designation);
+}
@@ -0,0 +1,105 @@
+package com.example.payflow_backend.repository;
+
+import com.example.payflow_backend.model.PayrollRun;
+import com.example.payflow_backend.model.PayrollRunStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface PayrollRunRepository extends JpaRepository<PayrollRun, Long> {
+
+    // All runs for a month, newest first
+    List<PayrollRun> findByMonthOrderByIdDesc(String month);
+
+    // Latest run for a month in one of the given states (used to resume instead of starting over)
+    Optional<PayrollRun> findFirstByMonthAndStatusInOrderByIdDesc(String month, Collection<PayrollRunStatus> statuses);
+
+    // RUNNING runs whose owner stopped sending heartbeats
+    @Query("SELECT r FROM PayrollRun r WHERE r.status = com.example.payflow_backend.model.PayrollRunStatus.RUNNING " +
+           "AND (r.heartbeatAt IS NULL OR r.heartbeatAt < :staleBefore)")
+    List<PayrollRun> findStaleRunning(@Param("staleBefore") LocalDateTime staleBefore);
+
+    /**
+     * Record a committed checkpoint. Only touches the cursor and counters,
+     * so a concurrent pause request is never overwritten.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE PayrollRun r SET r.cursorEmployeeId = :cursor, " +
+           "r.processedEmployees = r.processedEmployees + :processed, " +
+           "r.generatedCount = r.generatedCount + :generated, " +
+           "r.skippedCount = r.skippedCount + :skipped, " +
+           "r.failedCount = r.failedCount + :failed, " +
+           "r.updatedAt = :now WHERE r.id = :runId")
+    int advanceCheckpoint(@Param("runId") Long runId, @Param("cursor") Long cursor,
+                          @Param("processed") int processed, @Param("generated") int generated,
+                          @Param("skipped") int skipped, @Param("failed") int failed,
+                          @Param("now") LocalDateTime now);
+
+    // Conditional status change; returns 0 when the run was not in the expected state
+    @Modifying
+    @Transactional
+    @Query("UPDATE PayrollRun r SET r.status = :to, r.updatedAt = :now WHERE r.id = :runId AND r.status IN :from")
+    int transition(@Param("runId") Long runId, @Param("from") Collection<PayrollRunStatus> from,
+                   @Param("to") PayrollRunStatus to, @Param("now") LocalDateTime now);
+
+    // Flip a resumable run to RUNNING for an owner; returns 0 when it was not in one of the from states
+    @Modifying
+    @Transactional
+    @Query("UPDATE PayrollRun r SET r.status = com.example.payflow_backend.model.PayrollRunStatus.RUNNING, " +
+           "r.owner = :owner, r.heartbeatAt = :now, r.updatedAt = :now WHERE r.id = :runId AND r.status IN :from")
+    int claim(@Param("runId") Long runId, @Param("from") Collection<PayrollRunStatus> from,
+              @Param("owner") String owner, @Param("now") LocalDateTime now);
+
+    // Refresh the heartbeat of the owner's RUNNING runs among the given ones
+    @Modifying
+    @Transactional
+    @Query("UPDATE PayrollRun r SET r.heartbeatAt = :now WHERE r.id IN :runIds AND r.owner = :owner " +
+           "AND r.status = com.example.payflow_backend.model.PayrollRunStatus.RUNNING")
+    int heartbeat(@Param("runIds") Collection<Long> runIds, @Param("owner") String owner, @Param("now") LocalDateTime now);
+
+    /**
+     * Start an execution of a claimed run: re-count its remaining employees and clear the last error.
+     * Only applies while the run is RUNNING, so a pause that got in first is kept.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE PayrollRun r SET r.totalEmployees = r.processedEmployees + :remaining, r.lastError = null, " +
+           "r.updatedAt = :now WHERE r.id = :runId AND r.status = com.example.payflow_backend.model.PayrollRunStatus.RUNNING")
+    int startExecution(@Param("runId") Long runId, @Param("remaining") int remaining, @Param("now") LocalDateTime now);
+
+    // Finish a RUNNING run and release its month; returns 0 when it was paused in the meantime
+    @Modifying
+    @Transactional
+    @Query("UPDATE PayrollRun r SET r.status = com.example.payflow_backend.model.PayrollRunStatus.COMPLETED, " +
+           "r.lastError = null, r.openMonth = null, r.finishedAt = :now, r.updatedAt = :now " +
+           "WHERE r.id = :runId AND r.status = com.example.payflow_backend.model.PayrollRunStatus.RUNNING")
+    int complete(@Param("runId") Long runId, @Param("now") LocalDateTime now);
+
+    // Mark a RUNNING run as failed; returns 0 when it was paused in the meantime
+    @Modifying
+    @Transactional
+    @Query("UPDATE PayrollRun r SET r.status = com.example.payflow_backend.model.PayrollRunStatus.FAILED, " +
+           "r.lastError = :error, r.updatedAt = :now " +
+           "WHERE r.id = :runId AND r.status = com.example.payflow_backend.model.PayrollRunStatus.RUNNING")
+    int fail(@Param("runId") Long runId, @Param("error") String error, @Param("now") LocalDateTime now);
+
+    // Same, only while its heartbeat is still stale, so a run whose owner just checked in is left alone
+    @Modifying
+    @Transactional
+    @Query("UPDATE PayrollRun r SET r.status = com.example.payflow_backend.model.PayrollRunStatus.FAILED, " +
+           "r.lastError = :error, r.updatedAt = :now " +
+           "WHERE r.id = :runId AND r.status = com.example.payflow_backend.model.PayrollRunStatus.RUNNING " +
+           "AND (r.heartbeatAt IS NULL OR r.heartbeatAt < :staleBefore)")
+    int failStale(@Param("runId") Long runId, @Param("error") String error,
+                  @Param("staleBefore") LocalDateTime staleBefore, @Param("now") LocalDateTime now);
+}
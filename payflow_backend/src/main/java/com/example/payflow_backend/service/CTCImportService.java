@@ -0,0 +1,423 @@
+package com.example.payflow_backend.service;
+
+import com.example.payflow_backend.dto.CTCImportError;
+import com.example.payflow_backend.dto.CTCImportResult;
+import com.example.payflow_backend.model.CTC;
+import com.example.payflow_backend.model.CTCHistory.CTCActionType;
+import com.example.payflow_backend.model.PayrollDirtyMark.DirtyReason;
+import com.example.payflow_backend.repository.EmployeeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Imports CTC records in bulk from a CSV file, e.g. after an appraisal cycle. The file is read in
+ * chunks; each chunk is validated in parallel, then its valid rows are written with JDBC batches
+ * (CTC rows, then their CREATED history rows) in one transaction per chunk. Invalid rows are
+ * skipped and reported; a chunk that fails to write is reported row by row and the import goes on.
+ */
+@Service
+public class CTCImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CTCImportService.class);
+
+    /**
+     * CSV columns, matched case-insensitively against the header by their camelCase name
+     */
+    enum Field {
+        EMPLOYEE_ID("employeeId", true),
+        EFFECTIVE_FROM("effectiveFrom", true),
+        BASIC_SALARY("basicSalary", true),
+        ALLOWANCES("allowances", false),
+        BONUSES("bonuses", false),
+        PF_CONTRIBUTION("pfContribution", false),
+        GRATUITY("gratuity", false),
+        // Defaults to the sum of the components, as for a CTC created through the API
+        TOTAL_CTC("totalCtc", false);
+
+        private final String header;
+        private final boolean required;
+
+        Field(String header, boolean required) {
+            this.header = header;
+            this.required = required;
+        }
+    }
+
+    private static final String INSERT_CTC_SQL =
+            "INSERT INTO ctc_details (employee_id, effective_from, basic_salary, allowances, bonuses, pf_contribution, " +
+            "gratuity, total_ctc, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_HISTORY_SQL =
+            "INSERT INTO ctc_history (employee_id, ctc_id, effective_from, basic_salary, allowances, bonuses, " +
+            "pf_contribution, gratuity, total_ctc, monthly_salary, net_monthly_salary, action_type, created_at, " +
+            "created_by, remarks) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // Largest amount the precision 12, scale 2 columns hold
+    private static final int MAX_INTEGER_DIGITS = 10;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private PayrollDirtyTracker payrollDirtyTracker;
+
+    @Autowired
+    private CTCTimelineCache ctcTimelineCache;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    // Rows validated and committed together
+    @Value("${payflow.ctc.import-chunk-size:2000}")
+    private int chunkSize;
+
+    /**
+     * Import every row of a CSV file with a header line; with dryRun nothing is written
+     */
+    public CTCImportResult importCsv(InputStream in, boolean dryRun, String importedBy) throws IOException {
+        long start = System.currentTimeMillis();
+        CTCImportResult result = CTCImportResult.builder()
+                .dryRun(dryRun)
+                .errors(new ArrayList<>())
+                .build();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 64 * 1024)) {
+            String header = reader.readLine();
+            if (header == null) {
+                throw new IllegalArgumentException("The CSV file is empty");
+            }
+            Map<Field, Integer> columns = parseHeader(header.startsWith("\uFEFF") ? header.substring(1) : header);
+
+            List<RawLine> chunk = new ArrayList<>(chunkSize);
+            long lineNumber = 1;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                chunk.add(new RawLine(lineNumber, line));
+                if (chunk.size() == chunkSize) {
+                    importChunk(chunk, columns, dryRun, importedBy, result);
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+            importChunk(chunk, columns, dryRun, importedBy, result);
+        }
+        result.setDurationMs(System.currentTimeMillis() - start);
+        logger.info("CTC import{}: {} rows, {} imported, {} failed, {} payrolls marked for recompute in {} ms",
+                dryRun ? " (dry run)" : "", result.getRows(), result.getImported(), result.getFailed(),
+                result.getPayrollsMarkedDirty(), result.getDurationMs());
+        return result;
+    }
+
+    private void importChunk(List<RawLine> chunk, Map<Field, Integer> columns, boolean dryRun, String importedBy,
+                             CTCImportResult result) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        List<ParsedRow> parsed = chunk.parallelStream().map(line -> parse(line, columns)).toList();
+
+        Set<Long> employeeIds = new HashSet<>();
+        for (ParsedRow row : parsed) {
+            if (row.getError() == null) {
+                employeeIds.add(row.getEmployeeId());
+            }
+        }
+        Set<Long> existing = employeeIds.isEmpty() ? Set.of() : new HashSet<>(employeeRepository.findExistingIds(employeeIds));
+
+        List<ParsedRow> valid = new ArrayList<>(parsed.size());
+        for (ParsedRow row : parsed) {
+            if (row.getError() == null && !existing.contains(row.getEmployeeId())) {
+                row = row.withError("Employee not found with ID: " + row.getEmployeeId());
+            }
+            if (row.getError() != null) {
+                reject(result, row, row.getError());
+            } else {
+                valid.add(row);
+            }
+        }
+        result.setRows(result.getRows() + parsed.size());
+
+        if (dryRun || valid.isEmpty()) {
+            result.setImported(result.getImported() + valid.size());
+            return;
+        }
+        try {
+            long marked = transactionTemplate.execute(status -> write(valid, importedBy));
+            result.setImported(result.getImported() + valid.size());
+            result.setPayrollsMarkedDirty(result.getPayrollsMarkedDirty() + marked);
+        } catch (DataAccessException | IllegalStateException e) {
+            logger.error("CTC import chunk at lines {}..{} failed: {}", chunk.get(0).getNumber(),
+                    chunk.get(chunk.size() - 1).getNumber(), e.getMessage());
+            for (ParsedRow row : valid) {
+                reject(result, row, "Not imported: the batch containing this row failed to save");
+            }
+        }
+    }
+
+    /**
+     * Insert one chunk's CTC rows and their history; returns the payroll marks added
+     */
+    private long write(List<ParsedRow> rows, String importedBy) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(INSERT_CTC_SQL, new String[]{"ctc_id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        ParsedRow row = rows.get(i);
+                        CTC ctc = row.getCtc();
+                        ps.setLong(1, row.getEmployeeId());
+                        ps.setDate(2, Date.valueOf(ctc.getEffectiveFrom()));
+                        ps.setBigDecimal(3, ctc.getBasicSalary());
+                        ps.setBigDecimal(4, ctc.getAllowances());
+                        ps.setBigDecimal(5, ctc.getBonuses());
+                        ps.setBigDecimal(6, ctc.getPfContribution());
+                        ps.setBigDecimal(7, ctc.getGratuity());
+                        ps.setBigDecimal(8, ctc.getTotalCtc());
+                        ps.setTimestamp(9, now);
+                        ps.setTimestamp(10, now);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return rows.size();
+                    }
+                }, keys);
+        List<Map<String, Object>> keyList = keys.getKeyList();
+        if (keyList.size() != rows.size()) {
+            throw new IllegalStateException("Expected " + rows.size() + " generated CTC IDs but got " + keyList.size());
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_HISTORY_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ParsedRow row = rows.get(i);
+                CTC ctc = row.getCtc();
+                ps.setLong(1, row.getEmployeeId());
+                ps.setLong(2, ((Number) keyList.get(i).values().iterator().next()).longValue());
+                ps.setDate(3, Date.valueOf(ctc.getEffectiveFrom()));
+                ps.setBigDecimal(4, ctc.getBasicSalary());
+                ps.setBigDecimal(5, ctc.getAllowances());
+                ps.setBigDecimal(6, ctc.getBonuses());
+                ps.setBigDecimal(7, ctc.getPfContribution());
+                ps.setBigDecimal(8, ctc.getGratuity());
+                ps.setBigDecimal(9, ctc.getTotalCtc());
+                ps.setBigDecimal(10, ctc.getMonthlySalary());
+                ps.setBigDecimal(11, ctc.getNetMonthlySalary());
+                ps.setString(12, CTCActionType.CREATED.name());
+                ps.setTimestamp(13, now);
+                ps.setString(14, importedBy);
+                ps.setString(15, "Bulk CTC import");
+            }
+
+            @Override
+            public int getBatchSize() {
+                return rows.size();
+            }
+        });
+
+        // Earliest new effective date per employee decides which generated payrolls may change
+        Map<Long, LocalDate> effectiveFrom = new HashMap<>();
+        for (ParsedRow row : rows) {
+            effectiveFrom.merge(row.getEmployeeId(), row.getCtc().getEffectiveFrom(),
+                    (a, b) -> a.isBefore(b) ? a : b);
+        }
+        effectiveFrom.keySet().forEach(ctcTimelineCache::invalidate);
+        return payrollDirtyTracker.markCtcChanges(effectiveFrom, DirtyReason.CTC_CREATED);
+    }
+
+    static Map<Field, Integer> parseHeader(String header) {
+        List<String> names = splitLine(header);
+        Map<Field, Integer> columns = new EnumMap<>(Field.class);
+        for (int i = 0; i < names.size(); i++) {
+            String name = names.get(i).trim();
+            Field field = null;
+            for (Field candidate : Field.values()) {
+                if (candidate.header.equalsIgnoreCase(name)) {
+                    field = candidate;
+                }
+            }
+            if (field == null) {
+                throw new IllegalArgumentException("Unknown column: " + name);
+            }
+            if (columns.put(field, i) != null) {
+                throw new IllegalArgumentException("Duplicate column: " + name);
+            }
+        }
+        List<String> missing = new ArrayList<>();
+        for (Field field : Field.values()) {
+            if (field.required && !columns.containsKey(field)) {
+                missing.add(field.header);
+            }
+        }
+        if (!missing.isEmpty()) {
+            throw new IllegalArgumentException("Missing required column(s): " + String.join(", ", missing));
+        }
+        return columns;
+    }
+
+    static ParsedRow parse(RawLine line, Map<Field, Integer> columns) {
+        String employeeIdText = null;
+        try {
+            List<String> values = splitLine(line.getText());
+            Map<Field, String> fields = new EnumMap<>(Field.class);
+            columns.forEach((field, index) -> fields.put(field, index < values.size() ? values.get(index).trim() : ""));
+            employeeIdText = fields.get(Field.EMPLOYEE_ID);
+            if (values.size() != columns.size()) {
+                throw new IllegalArgumentException("Expected " + columns.size() + " columns but found " + values.size());
+            }
+            long employeeId;
+            try {
+                employeeId = Long.parseLong(employeeIdText);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid employeeId '" + employeeIdText + "'");
+            }
+            LocalDate effectiveFrom;
+            try {
+                effectiveFrom = LocalDate.parse(fields.get(Field.EFFECTIVE_FROM));
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("Invalid effectiveFrom '" + fields.get(Field.EFFECTIVE_FROM) + "'. Use YYYY-MM-DD");
+            }
+            CTC ctc = CTC.builder()
+                    .effectiveFrom(effectiveFrom)
+                    .basicSalary(amount(fields, Field.BASIC_SALARY))
+                    .allowances(amount(fields, Field.ALLOWANCES))
+                    .bonuses(amount(fields, Field.BONUSES))
+                    .pfContribution(amount(fields, Field.PF_CONTRIBUTION))
+                    .gratuity(amount(fields, Field.GRATUITY))
+                    .build();
+            ctc.setTotalCtc(fields.getOrDefault(Field.TOTAL_CTC, "").isEmpty()
+                    ? ctc.getBasicSalary().add(ctc.getAllowances()).add(ctc.getBonuses())
+                            .add(ctc.getPfContribution()).add(ctc.getGratuity())
+                    : amount(fields, Field.TOTAL_CTC));
+            // A derived total can outgrow the column even when every component fits
+            if (ctc.getTotalCtc().precision() - ctc.getTotalCtc().scale() > MAX_INTEGER_DIGITS) {
+                throw new IllegalArgumentException("totalCtc " + ctc.getTotalCtc().toPlainString() + " is too large");
+            }
+            return new ParsedRow(line.getNumber(), employeeIdText, employeeId, ctc, null);
+        } catch (IllegalArgumentException e) {
+            return new ParsedRow(line.getNumber(), employeeIdText, null, null, e.getMessage());
+        }
+    }
+
+    // Empty optional amounts are zero; amounts must fit the DECIMAL(12,2) columns
+    private static BigDecimal amount(Map<Field, String> fields, Field field) {
+        String text = fields.getOrDefault(field, "");
+        if (text.isEmpty()) {
+            if (field.required) {
+                throw new IllegalArgumentException(field.header + " is required");
+            }
+            return BigDecimal.ZERO;
+        }
+        BigDecimal value;
+        try {
+            value = new BigDecimal(text);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + field.header + " '" + text + "'");
+        }
+        if (value.signum() < 0) {
+            throw new IllegalArgumentException(field.header + " must not be negative");
+        }
+        if (value.scale() > 2 || value.precision() - value.scale() > MAX_INTEGER_DIGITS) {
+            throw new IllegalArgumentException(field.header + " '" + text + "' has more than 2 decimals or is too large");
+        }
+        return value;
+    }
+
+    // Comma-separated fields with RFC 4180 quoting within a single line
+    static List<String> splitLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static void reject(CTCImportResult result, ParsedRow row, String error) {
+        result.setFailed(result.getFailed() + 1);
+        result.getErrors().add(CTCImportError.builder()
+                .line(row.getLine())
+                .employeeId(row.getEmployeeIdText())
+                .error(error)
+                .build());
+    }
+
+    @lombok.Value
+    static class RawLine {
+        long number;
+        String text;
+    }
+
+    @lombok.Value
+    static class ParsedRow {
+        long line;
+        String employeeIdText;
+        Long employeeId;
+        // Unsaved; carries the validated amounts
+        CTC ctc;
+        String error;
+
+        ParsedRow withError(String message) {
+            return new ParsedRow(line, employeeIdText, employeeId, ctc, message);
+        }
+    }
+}
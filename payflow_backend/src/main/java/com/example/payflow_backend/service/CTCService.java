@@ -1,7 +1,10 @@
 package com.example.payflow_backend.service;
 
+import com.example.payflow_backend.dto.CTCSalaryRow;
+import com.example.payflow_backend.dto.CTCTimelineCacheStats;
 import com.example.payflow_backend.model.CTC;
 import com.example.payflow_backend.model.Employee;
+import com.example.payflow_backend.model.PayrollDirtyMark.DirtyReason;
 import com.example.payflow_backend.repository.CTCRepository;
 import com.example.payflow_backend.repository.EmployeeRepository;
 import com.example.payflow_backend.service.CTCHistoryService;
@@ -28,6 +31,12 @@ public class CTCService {
     @Autowired
     private CTCHistoryService ctcHistoryService;
 
+    @Autowired
+    private PayrollDirtyTracker payrollDirtyTracker;
+
+    @Autowired
+    private CTCTimelineCache ctcTimelineCache;
+
     /**
      * Create a new CTC record for an employee
      */
@@ -46,9 +55,12 @@ public class CTCService {
         }
 
         CTC savedCTC = ctcRepository.save(ctc);
+        ctcTimelineCache.invalidate(employeeId);
         
         // Save CTC history record for audit trail
         ctcHistoryService.saveCTCCreated(savedCTC, "system"); // TODO: Replace with actual user context
+
+        payrollDirtyTracker.markCtcChange(employeeId, savedCTC.getEffectiveFrom(), DirtyReason.CTC_CREATED);
         
         return savedCTC;
     }
@@ -63,6 +75,7 @@ public class CTCService {
         }
 
         CTC existingCTC = existingCTCOpt.get();
+        LocalDate previousEffectiveFrom = existingCTC.getEffectiveFrom();
         
         // Update fields
         existingCTC.setEffectiveFrom(updatedCTC.getEffectiveFrom());
@@ -75,9 +88,17 @@ public class CTCService {
         existingCTC.setUpdatedAt(LocalDateTime.now());
 
         CTC savedCTC = ctcRepository.save(existingCTC);
+        ctcTimelineCache.invalidate(savedCTC.getEmployee().getEmployeeId());
         
         // Save CTC history record for audit trail
         ctcHistoryService.saveCTCUpdated(savedCTC, "system"); // TODO: Replace with actual user context
+
+        // Months from the earlier of the old and new effective dates may resolve to a different CTC now
+        LocalDate affectedFrom = previousEffectiveFrom;
+        if (affectedFrom == null || (savedCTC.getEffectiveFrom() != null && savedCTC.getEffectiveFrom().isBefore(affectedFrom))) {
+            affectedFrom = savedCTC.getEffectiveFrom();
+        }
+        payrollDirtyTracker.markCtcChange(savedCTC.getEmployee().getEmployeeId(), affectedFrom, DirtyReason.CTC_UPDATED);
         
         return savedCTC;
     }
@@ -93,7 +114,16 @@ public class CTCService {
      * Get current active CTC for an employee
      */
     public Optional<CTC> getCurrentCTCByEmployeeId(Long employeeId) {
-        return ctcRepository.findCurrentCTCByEmployeeId(employeeId, LocalDate.now());
+        return getCTCAsOf(employeeId, LocalDate.now());
+    }
+
+    /**
+     * Get the CTC that was effective for an employee on a given date.
+     * The version is picked from the in-memory timeline, then loaded by ID.
+     */
+    public Optional<CTC> getCTCAsOf(Long employeeId, LocalDate date) {
+        return ctcTimelineCache.effectiveAt(employeeId, date)
+                .flatMap(row -> ctcRepository.findById(row.getCtcId()));
     }
 
     /**
@@ -117,6 +147,8 @@ public class CTCService {
             CTC ctc = ctcOpt.get();
             // Save deletion history before actual deletion
             ctcHistoryService.saveCTCDeactivated(ctc, "system"); // TODO: Replace with actual user context
+            payrollDirtyTracker.markCtcChange(ctc.getEmployee().getEmployeeId(), ctc.getEffectiveFrom(), DirtyReason.CTC_DELETED);
+            ctcTimelineCache.invalidate(ctc.getEmployee().getEmployeeId());
         }
         
         ctcRepository.deleteById(ctcId);
@@ -133,16 +165,24 @@ public class CTCService {
      * Calculate monthly salary for an employee
      */
     public BigDecimal getMonthlySlaryByEmployeeId(Long employeeId) {
-        Optional<CTC> currentCTC = getCurrentCTCByEmployeeId(employeeId);
-        return currentCTC.map(CTC::getMonthlySalary).orElse(BigDecimal.ZERO);
+        return ctcTimelineCache.effectiveAt(employeeId, LocalDate.now())
+                .map(row -> CTC.builder().totalCtc(row.getTotalCtc()).build().getMonthlySalary())
+                .orElse(BigDecimal.ZERO);
     }
 
     /**
      * Calculate net monthly salary for an employee (after PF deduction)
      */
     public BigDecimal getNetMonthlySalaryByEmployeeId(Long employeeId) {
-        Optional<CTC> currentCTC = getCurrentCTCByEmployeeId(employeeId);
-        return currentCTC.map(CTC::getNetMonthlySalary).orElse(BigDecimal.ZERO);
+        return getNetMonthlySalaryByEmployeeIdAsOf(employeeId, LocalDate.now());
+    }
+
+    /**
+     * Calculate net monthly salary for an employee from the CTC effective on a given date
+     */
+    public BigDecimal getNetMonthlySalaryByEmployeeIdAsOf(Long employeeId, LocalDate date) {
+        // Straight from the cached amounts, no entity load
+        return ctcTimelineCache.effectiveAt(employeeId, date).map(CTCSalaryRow::getNetMonthlySalary).orElse(BigDecimal.ZERO);
     }
 
     /**
@@ -170,6 +210,13 @@ public class CTCService {
         return revisionCTC;
     }
 
+    /**
+     * Hit rate and size of the CTC timeline cache
+     */
+    public CTCTimelineCacheStats getTimelineCacheStats() {
+        return ctcTimelineCache.getStats();
+    }
+
     /**
      * Get CTC records within a salary range
      */
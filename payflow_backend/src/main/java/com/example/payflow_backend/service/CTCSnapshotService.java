@@ -0,0 +1,113 @@
+package com.example.payflow_backend.service;
+
+import com.example.payflow_backend.dto.CTCSnapshotRow;
+import com.example.payflow_backend.repository.CTCRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Everyone's CTC as of one date, read with a single set-based query and handed on row by row,
+ * so memory use does not depend on the number of employees.
+ */
+@Service
+public class CTCSnapshotService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CTCSnapshotService.class);
+
+    private static final String[] CSV_HEADERS = {"employeeId", "employeeName", "department", "designation", "ctcId",
+            "effectiveFrom", "basicSalary", "allowances", "bonuses", "pfContribution", "gratuity", "totalCtc",
+            "netMonthlySalary"};
+
+    @Autowired
+    private CTCRepository ctcRepository;
+
+    /**
+     * Pass the CTC effective on asOf of every matching employee to action, in employee ID order.
+     * Employees without a CTC by then are left out. department may be null for all departments.
+     */
+    @Transactional(readOnly = true)
+    public long forEachAsOf(LocalDate asOf, String department, boolean activeOnly, Consumer<CTCSnapshotRow> action) {
+        long rows = 0;
+        try (Stream<CTCSnapshotRow> stream = ctcRepository.streamEffectiveAsOf(asOf, normalize(department), activeOnly)) {
+            for (CTCSnapshotRow row : (Iterable<CTCSnapshotRow>) stream::iterator) {
+                action.accept(row);
+                rows++;
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Write the snapshot to out as CSV; out is flushed but not closed
+     */
+    @Transactional(readOnly = true)
+    public long writeCsv(LocalDate asOf, String department, boolean activeOnly, OutputStream out) throws IOException {
+        long start = System.currentTimeMillis();
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        String[] values = new String[CSV_HEADERS.length];
+        long rows;
+        try {
+            writeCsvRow(writer, CSV_HEADERS);
+            rows = forEachAsOf(asOf, department, activeOnly, row -> {
+                values[0] = row.getEmployeeId().toString();
+                values[1] = row.getFullName();
+                values[2] = row.getDepartment();
+                values[3] = row.getDesignation();
+                values[4] = row.getCtcId().toString();
+                values[5] = row.getEffectiveFrom().toString();
+                values[6] = plain(row.getBasicSalary());
+                values[7] = plain(row.getAllowances());
+                values[8] = plain(row.getBonuses());
+                values[9] = plain(row.getPfContribution());
+                values[10] = plain(row.getGratuity());
+                values[11] = plain(row.getTotalCtc());
+                values[12] = plain(row.getNetMonthlySalary());
+                try {
+                    writeCsvRow(writer, values);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            writer.flush();
+        } catch (UncheckedIOException e) {
+            // Usually the client went away mid-download
+            throw e.getCause();
+        }
+        logger.info("Streamed CTC snapshot as of {}{} for {} employees in {} ms", asOf,
+                department != null ? " (" + department + ")" : "", rows, System.currentTimeMillis() - start);
+        return rows;
+    }
+
+    private static void writeCsvRow(Writer writer, String[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            PayrollExportService.writeCsvField(writer, values[i]);
+        }
+        writer.write("\r\n");
+    }
+
+    private static String plain(BigDecimal value) {
+        return value != null ? value.toPlainString() : null;
+    }
+
+    private static String normalize(String department) {
+        return department == null || department.isBlank() ? null : department.trim();
+    }
+}
@@ -0,0 +1,256 @@
+package com.example.payflow_backend.service;
+
+import com.example.payflow_backend.dto.CTCSalaryRow;
+import com.example.payflow_backend.dto.CTCTimelineCacheStats;
+import com.example.payflow_backend.repository.CTCRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Per-employee CTC timelines held in memory, sorted by effectiveFrom, so "CTC as of a date" is a
+ * binary search instead of a query. Timelines load lazily (and optionally all at once on startup)
+ * and are dropped per employee when a transaction that changed that employee's CTC completes.
+ */
+@Component
+public class CTCTimelineCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(CTCTimelineCache.class);
+
+    // Employees whose CTC the current transaction changed; they bypass the cache until it completes
+    private static final String CHANGED_RESOURCE = CTCTimelineCache.class.getName() + ".changed";
+
+    private final ConcurrentHashMap<Long, Timeline> timelines = new ConcurrentHashMap<>();
+
+    // Bumped on every invalidation; a load that raced one is not cached
+    private final AtomicLong generation = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder bypasses = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    @Autowired
+    private CTCRepository ctcRepository;
+
+    // Cached loads run in their own READ_COMMITTED transaction, begun after the generation is read,
+    // so they see every change committed before it; the caller's transaction may hold an older
+    // REPEATABLE READ snapshot. The caller keeps its connection, so a load briefly takes a second one.
+    private TransactionTemplate loadTransaction;
+
+    // Employees kept in memory; lookups for others go to the database
+    @Value("${payflow.ctc.timeline-cache.max-employees:200000}")
+    private int maxEmployees;
+
+    @Value("${payflow.ctc.timeline-cache.warm-on-startup:true}")
+    private boolean warmOnStartup;
+
+    @Autowired
+    void setTransactionManager(PlatformTransactionManager transactionManager) {
+        loadTransaction = new TransactionTemplate(transactionManager);
+        loadTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        loadTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+        loadTransaction.setReadOnly(true);
+    }
+
+    /**
+     * The CTC version effective for an employee on a date (highest ctcId when several start that day)
+     */
+    public Optional<CTCSalaryRow> effectiveAt(Long employeeId, LocalDate date) {
+        if (changedInCurrentTransaction(employeeId)) {
+            bypasses.increment();
+            return Optional.ofNullable(Timeline.of(ctcRepository.findSalaryTimelineRows(employeeId)).effectiveAt(date));
+        }
+        Timeline timeline = timelines.get(employeeId);
+        if (timeline != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+            long loadedAt = generation.get();
+            timeline = loadTransaction.execute(status -> Timeline.of(ctcRepository.findSalaryTimelineRows(employeeId)));
+            if (timelines.size() < maxEmployees && generation.get() == loadedAt
+                    && timelines.putIfAbsent(employeeId, timeline) == null && generation.get() != loadedAt) {
+                timelines.remove(employeeId, timeline); // invalidated between the check and the put
+            }
+        }
+        return Optional.ofNullable(timeline.effectiveAt(date));
+    }
+
+    /**
+     * Drop an employee's timeline once the current transaction completes; until then that
+     * transaction reads the employee's CTC from the database, uncommitted changes included
+     */
+    public void invalidate(Long employeeId) {
+        generation.incrementAndGet();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evict(Set.of(employeeId));
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        Set<Long> changed = (Set<Long>) TransactionSynchronizationManager.getResource(CHANGED_RESOURCE);
+        if (changed == null) {
+            Set<Long> pending = new HashSet<>();
+            changed = pending;
+            TransactionSynchronizationManager.bindResource(CHANGED_RESOURCE, pending);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(CHANGED_RESOURCE);
+                    // Committed or not, a load that ran meanwhile may have seen either version
+                    generation.incrementAndGet();
+                    evict(pending);
+                }
+            });
+        }
+        changed.add(employeeId);
+        // Anything read before this change in this transaction is already stale
+        evict(Set.of(employeeId));
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        invalidations.add(timelines.size());
+        timelines.clear();
+    }
+
+    public CTCTimelineCacheStats getStats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long entries = 0;
+        for (Timeline timeline : timelines.values()) {
+            entries += timeline.size();
+        }
+        return CTCTimelineCacheStats.builder()
+                .employees(timelines.size())
+                .entries(entries)
+                .maxEmployees(maxEmployees)
+                .hits(hitCount)
+                .misses(missCount)
+                .bypasses(bypasses.sum())
+                .invalidations(invalidations.sum())
+                .hitRate(hitCount + missCount == 0 ? 0 : (double) hitCount / (hitCount + missCount))
+                .build();
+    }
+
+    /**
+     * Load every employee's timeline in one streamed query, stopping once the size limit is reached
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warm() {
+        if (!warmOnStartup) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        long loadedAt = generation.get();
+        long[] counts = new long[2]; // employees cached, CTC versions read
+        loadTransaction.executeWithoutResult(status -> {
+            try (Stream<CTCSalaryRow> rows = ctcRepository.streamAllSalaryTimelineRows()) {
+                List<CTCSalaryRow> employeeRows = new ArrayList<>();
+                for (CTCSalaryRow row : (Iterable<CTCSalaryRow>) rows::iterator) {
+                    if (!employeeRows.isEmpty() && !employeeRows.get(0).getEmployeeId().equals(row.getEmployeeId())) {
+                        if (!warmOne(employeeRows, loadedAt, counts)) {
+                            return; // closing the stream stops reading
+                        }
+                        employeeRows.clear();
+                    }
+                    employeeRows.add(row);
+                    counts[1]++;
+                }
+                if (!employeeRows.isEmpty()) {
+                    warmOne(employeeRows, loadedAt, counts);
+                }
+            }
+        });
+        logger.info("Warmed CTC timeline cache with {} employees ({} CTC versions read) in {} ms",
+                counts[0], counts[1], System.currentTimeMillis() - start);
+    }
+
+    // Cache one employee's rows; false once the cache is full or a CTC changed while loading (the rest fills in lazily)
+    private boolean warmOne(List<CTCSalaryRow> employeeRows, long loadedAt, long[] counts) {
+        if (timelines.size() >= maxEmployees || generation.get() != loadedAt) {
+            return false;
+        }
+        timelines.putIfAbsent(employeeRows.get(0).getEmployeeId(), Timeline.of(employeeRows));
+        counts[0]++;
+        return true;
+    }
+
+    private void evict(Set<Long> employeeIds) {
+        for (Long employeeId : employeeIds) {
+            if (timelines.remove(employeeId) != null) {
+                invalidations.increment();
+            }
+        }
+    }
+
+    private static boolean changedInCurrentTransaction(Long employeeId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return false;
+        }
+        Object changed = TransactionSynchronizationManager.getResource(CHANGED_RESOURCE);
+        return changed != null && ((Set<?>) changed).contains(employeeId);
+    }
+
+    /**
+     * One employee's CTC versions ordered by (effectiveFrom, ctcId); immutable once built
+     */
+    private static final class Timeline {
+
+        private final LocalDate[] effectiveFrom;
+        private final CTCSalaryRow[] rows;
+
+        private Timeline(LocalDate[] effectiveFrom, CTCSalaryRow[] rows) {
+            this.effectiveFrom = effectiveFrom;
+            this.rows = rows;
+        }
+
+        // Rows must already be in (effectiveFrom, ctcId) order
+        static Timeline of(List<CTCSalaryRow> sorted) {
+            List<CTCSalaryRow> rows = new ArrayList<>(sorted);
+            LocalDate[] dates = new LocalDate[rows.size()];
+            for (int i = 0; i < dates.length; i++) {
+                dates[i] = rows.get(i).getEffectiveFrom();
+            }
+            return new Timeline(dates, rows.toArray(new CTCSalaryRow[0]));
+        }
+
+        int size() {
+            return rows.length;
+        }
+
+        // Last version starting on or before the date
+        CTCSalaryRow effectiveAt(LocalDate date) {
+            int low = 0;
+            int high = effectiveFrom.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (effectiveFrom[mid].isAfter(date)) {
+                    high = mid;
+                } else {
+                    low = mid + 1;
+                }
+            }
+            return low == 0 ? null : rows[low - 1];
+        }
+    }
+}
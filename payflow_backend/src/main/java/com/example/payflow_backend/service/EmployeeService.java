@@ -1,5 +1,6 @@
 package com.example.payflow_backend.service;
 
+import com.example.payflow_backend.dto.EmployeeListItem;
 import com.example.payflow_backend.model.Employee;
 import com.example.payflow_backend.repository.EmployeeRepository;
 import org.springframework.security.core.GrantedAuthority;
@@ -37,6 +38,16 @@ public class EmployeeService {
         return repo.findAll();
     }
 
+    // ✅ Get all employees for listing (profile columns only)
+    public List<EmployeeListItem> getAllListItems() {
+        return repo.findListItems();
+    }
+
+    // ✅ Get a manager's active employees for listing
+    public List<EmployeeListItem> getListItemsByManager(Long managerId) {
+        return repo.findListItemsByManager(managerId);
+    }
+
     // ✅ Check if email exists
     public boolean existsByEmail(String email) {
         return repo.existsByEmail(email);
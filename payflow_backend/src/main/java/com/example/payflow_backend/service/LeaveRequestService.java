@@ -19,11 +19,14 @@ public class LeaveRequestService {
     private final LeaveRequestRepository leaveRepo;
     private final EmployeeRepository employeeRepo;
     private final EmailService emailService; // ✅ Add this
+    private final PayrollDirtyTracker payrollDirtyTracker;
 
-    public LeaveRequestService(LeaveRequestRepository leaveRepo, EmployeeRepository employeeRepo, EmailService emailService) {
+    public LeaveRequestService(LeaveRequestRepository leaveRepo, EmployeeRepository employeeRepo, EmailService emailService,
+                               PayrollDirtyTracker payrollDirtyTracker) {
         this.leaveRepo = leaveRepo;
         this.employeeRepo = employeeRepo;
         this.emailService = emailService;
+        this.payrollDirtyTracker = payrollDirtyTracker;
     }
 
     public LeaveRequest applyLeave(Long empId, LeaveRequest leave) {
@@ -83,6 +86,7 @@ public class LeaveRequestService {
 
         Employee e = leave.getEmployee();
         long leaveDays = ChronoUnit.DAYS.between(leave.getStartDate(), leave.getEndDate()) + 1;
+        int extraLeavesBefore = e.getExtraLeavesThisMonth();
 
         if (status == LeaveStatus.APPROVED) {
             // Get current month and year
@@ -133,6 +137,11 @@ public class LeaveRequestService {
         leave.setStatus(status);
         LeaveRequest updatedLeave = leaveRepo.save(leave);
 
+        // Unpaid days feed the payroll of the leave's month(s); flag those already generated
+        if (e.getExtraLeavesThisMonth() != extraLeavesBefore) {
+            payrollDirtyTracker.markLeaveChange(e.getEmployeeId(), leave.getStartDate(), leave.getEndDate());
+        }
+
         // ✅ Send email after saving
         String subject = "Leave Request " + status.name();
 
@@ -0,0 +1,62 @@
+package com.example.payflow_backend.service;
+
+import java.math.BigDecimal;
+
+/**
+ * Fixed-point money arithmetic on amounts held as a long number of paise (scale 2).
+ * Reproduces the BigDecimal HALF_UP rounding used by CTC and PayrollCalculator exactly,
+ * without allocating per operation, for the bulk generation hot path.
+ */
+public final class PaiseMath {
+
+    // Up to 16 integer digits, so sums and per-day products of column values cannot overflow
+    private static final int MAX_INTEGER_DIGITS = 16;
+
+    private PaiseMath() {
+    }
+
+    /**
+     * Whether an amount is a whole number of paise small enough for the long path
+     */
+    public static boolean isExact(BigDecimal amount) {
+        return amount == null
+                || (amount.scale() <= 2 && amount.precision() - amount.scale() <= MAX_INTEGER_DIGITS);
+    }
+
+    /**
+     * Amount in paise; null counts as zero. Only valid when isExact(amount).
+     */
+    public static long toPaise(BigDecimal amount) {
+        return amount == null ? 0L : amount.movePointRight(2).longValueExact();
+    }
+
+    public static BigDecimal toBigDecimal(long paise) {
+        return BigDecimal.valueOf(paise, 2);
+    }
+
+    /**
+     * paise / divisor rounded to whole paise, half away from zero.
+     * Same result as amount.divide(BigDecimal.valueOf(divisor), 2, RoundingMode.HALF_UP).
+     */
+    public static long divideHalfUp(long paise, int divisor) {
+        if (divisor <= 0) {
+            throw new IllegalArgumentException("Divisor must be positive: " + divisor);
+        }
+        long quotient = paise / divisor;
+        long remainder = paise % divisor;
+        if (Math.abs(remainder) * 2 >= divisor) {
+            quotient += paise < 0 ? -1 : 1;
+        }
+        return quotient;
+    }
+
+    /**
+     * Same as CTC.getNetMonthlySalary for a non-null total CTC: each annual amount is
+     * rounded to a monthly figure on its own, then PF and gratuity are subtracted.
+     */
+    public static long netMonthlySalary(long totalCtcPaise, long pfContributionPaise, long gratuityPaise) {
+        return divideHalfUp(totalCtcPaise, 12)
+                - divideHalfUp(pfContributionPaise, 12)
+                - divideHalfUp(gratuityPaise, 12);
+    }
+}
@@ -0,0 +1,167 @@
+package com.example.payflow_backend.service;
+
+import com.example.payflow_backend.dto.PayrollGenerationResult;
+import com.example.payflow_backend.dto.PayrollPartitionResult;
+import com.example.payflow_backend.repository.EmployeeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs month-wide payroll generation as independent employee-ID partitions on a
+ * bounded executor. Every partition is its own transaction, so a failure only rolls
+ * back that partition and no single transaction spans the whole company.
+ */
+@Service
+public class PartitionedPayrollRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(PartitionedPayrollRunner.class);
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private PayrollBulkService payrollBulkService;
+
+    // Partitions processed concurrently; keep below the connection pool size
+    @Value("${payflow.payroll.parallelism:4}")
+    private int parallelism;
+
+    // Active employees per partition
+    @Value("${payflow.payroll.partition-size:2000}")
+    private int partitionSize;
+
+    /**
+     * Generate payroll for all active employees for a month, partition by partition
+     */
+    public PayrollGenerationResult run(String month) {
+        long start = System.currentTimeMillis();
+        YearMonth.parse(month); // fail fast on a bad month before spawning work
+
+        List<EmployeeRange> ranges = partition(employeeRepository.findActiveEmployeeIds(), partitionSize);
+        logger.info("Partitioned payroll for {}: {} partitions of up to {} employees",
+                month, ranges.size(), partitionSize);
+
+        List<PayrollPartitionResult> partitions = runRanges(month, ranges);
+        return aggregate(month, partitions, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Run the given ranges concurrently, each in its own transaction.
+     * Results are returned in range order; a failed range carries its error instead of throwing.
+     */
+    public List<PayrollPartitionResult> runRanges(String month, List<EmployeeRange> ranges) {
+        int threads = Math.max(1, Math.min(parallelism, ranges.size()));
+        List<PayrollPartitionResult> partitions = new ArrayList<>(ranges.size());
+        try (ExecutorService executor = Executors.newFixedThreadPool(threads,
+                Thread.ofVirtual().name("payroll-partition-", 0).factory())) {
+            List<Future<PayrollPartitionResult>> futures = new ArrayList<>(ranges.size());
+            for (int i = 0; i < ranges.size(); i++) {
+                int index = i;
+                futures.add(executor.submit(() -> runPartition(index, ranges.get(index), month)));
+            }
+            for (Future<PayrollPartitionResult> future : futures) {
+                partitions.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Payroll run for " + month + " was interrupted", e);
+        } catch (ExecutionException e) {
+            // runPartition catches its own failures, so this is unexpected
+            throw new RuntimeException("Payroll run for " + month + " failed: " + e.getCause().getMessage(), e.getCause());
+        }
+        return partitions;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public int getPartitionSize() {
+        return partitionSize;
+    }
+
+    /**
+     * Cut an ordered list of employee IDs into inclusive ranges of at most size employees
+     */
+    public static List<EmployeeRange> partition(List<Long> sortedIds, int size) {
+        List<EmployeeRange> ranges = new ArrayList<>();
+        for (int from = 0; from < sortedIds.size(); from += size) {
+            int to = Math.min(from + size, sortedIds.size()) - 1;
+            ranges.add(new EmployeeRange(sortedIds.get(from), sortedIds.get(to), to - from + 1));
+        }
+        return ranges;
+    }
+
+    private PayrollPartitionResult runPartition(int index, EmployeeRange range, String month) {
+        long start = System.currentTimeMillis();
+        try {
+            PayrollGenerationResult result = payrollBulkService.generateForRange(month, range.getFromId(), range.getToId());
+            return PayrollPartitionResult.builder()
+                    .partition(index)
+                    .fromEmployeeId(range.getFromId())
+                    .toEmployeeId(range.getToId())
+                    .employees(range.getEmployees())
+                    .generated(result.getGenerated())
+                    .skippedExisting(result.getSkippedExisting())
+                    .skippedNoCtc(result.getSkippedNoCtc())
+                    .failed(result.getFailed())
+                    .durationMs(System.currentTimeMillis() - start)
+                    .build();
+        } catch (Exception e) {
+            logger.error("Payroll partition {} ({}..{}) for {} rolled back: {}",
+                    index, range.getFromId(), range.getToId(), month, e.getMessage(), e);
+            return PayrollPartitionResult.builder()
+                    .partition(index)
+                    .fromEmployeeId(range.getFromId())
+                    .toEmployeeId(range.getToId())
+                    .employees(range.getEmployees())
+                    .failed(range.getEmployees())
+                    .durationMs(System.currentTimeMillis() - start)
+                    .error(e.getMessage())
+                    .build();
+        }
+    }
+
+    private PayrollGenerationResult aggregate(String month, List<PayrollPartitionResult> partitions, long durationMs) {
+        int generated = 0;
+        int skippedExisting = 0;
+        int skippedNoCtc = 0;
+        int failed = 0;
+        for (PayrollPartitionResult partition : partitions) {
+            generated += partition.getGenerated();
+            skippedExisting += partition.getSkippedExisting();
+            skippedNoCtc += partition.getSkippedNoCtc();
+            failed += partition.getFailed();
+        }
+        logger.info("Partitioned payroll for {} finished: {} generated, {} already present, {} without CTC, {} failed in {} ms",
+                month, generated, skippedExisting, skippedNoCtc, failed, durationMs);
+        return PayrollGenerationResult.builder()
+                .month(month)
+                .generated(generated)
+                .skippedExisting(skippedExisting)
+                .skippedNoCtc(skippedNoCtc)
+                .failed(failed)
+                .durationMs(durationMs)
+                .partitions(partitions)
+                .build();
+    }
+
+    // Inclusive employee ID range
+    @lombok.Value
+    public static class EmployeeRange {
+        Long fromId;
+        Long toId;
+        int employees;
+    }
+}
@@ -0,0 +1,415 @@
+package com.example.payflow_backend.service;
+
+import com.example.payflow_backend.dto.PayrollArchiveResult;
+import com.example.payflow_backend.dto.PayrollListItem;
+import com.example.payflow_backend.model.PayrollArchiveMonth;
+import com.example.payflow_backend.model.PayrollMonthSummary;
+import com.example.payflow_backend.repository.PayrollArchiveMonthRepository;
+import com.example.payflow_backend.repository.PayrollMonthSummaryRepository;
+import com.example.payflow_backend.repository.PayrollRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Moves finalized payroll months older than the archive horizon out of the payroll table into
+ * one gzip file of JSON lines per month, so the table only holds the months still being worked on.
+ * Archived rows are still returned by the employee history listings and the employee/month lookup.
+ * Month summaries and rollups are left in place; they already hold the month's final totals.
+ * <p>
+ * This takes the place of partitioning the payroll table by month. MySQL requires every unique key
+ * of a partitioned table, the primary key included, to contain the partitioning column, and does not
+ * allow foreign keys on it; payroll is keyed by id alone and references employee. Hot-month reads go
+ * through the (month, id) and month_key indexes of a table that only holds hot months.
+ * <p>
+ * Each file is a series of gzip members of archive-block-rows rows in employee order, with a sidecar index
+ * holding the first employee ID and byte offset of every member, so a lookup inflates one member.
+ */
+@Service
+public class PayrollArchiveService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PayrollArchiveService.class);
+
+    private static final String INDEX_SUFFIX = ".idx";
+
+    @Autowired
+    private PayrollRepository payrollRepository;
+
+    @Autowired
+    private PayrollArchiveMonthRepository archiveMonthRepository;
+
+    @Autowired
+    private PayrollMonthSummaryRepository summaryRepository;
+
+    @Autowired
+    private PayrollRollupService payrollRollupService;
+
+    @Autowired
+    private PayrollLatestService payrollLatestService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${payflow.payroll.archive-dir:payroll-archive}")
+    private String archiveDir;
+
+    // Months at least this old (and fully COMPLETED or CANCELLED) are archived
+    @Value("${payflow.payroll.archive-horizon-months:24}")
+    private int horizonMonths;
+
+    // Rows per gzip member; a lookup inflates about this many rows
+    @Value("${payflow.payroll.archive-block-rows:128}")
+    private int blockRows;
+
+    /**
+     * Archive every finalized month older than the horizon, oldest first, one transaction per month
+     */
+    public PayrollArchiveResult archiveColdMonths() {
+        long start = System.currentTimeMillis();
+        List<String> months = summaryRepository.findArchivableMonths(horizon().toString());
+        List<String> archived = new ArrayList<>(months.size());
+        long rows = 0;
+        long bytes = 0;
+        for (String month : months) {
+            PayrollArchiveMonth entry = transactionTemplate.execute(status -> archive(month));
+            archived.add(month);
+            rows += entry.getRowCount();
+            bytes += entry.getFileSize();
+        }
+        long durationMs = System.currentTimeMillis() - start;
+        if (!archived.isEmpty()) {
+            logger.info("Archived {} payrolls of {} months ({} bytes) in {} ms", rows, archived.size(), bytes, durationMs);
+        }
+        return PayrollArchiveResult.builder()
+                .months(archived)
+                .rows(rows)
+                .bytes(bytes)
+                .durationMs(durationMs)
+                .build();
+    }
+
+    /**
+     * Archive one month; it must be older than the horizon and have nothing PENDING or PROCESSED
+     */
+    public PayrollArchiveResult archiveMonth(String month) {
+        YearMonth.parse(month); // validate format
+        long start = System.currentTimeMillis();
+        PayrollArchiveMonth entry = transactionTemplate.execute(status -> archive(month));
+        return PayrollArchiveResult.builder()
+                .months(List.of(month))
+                .rows(entry.getRowCount())
+                .bytes(entry.getFileSize())
+                .durationMs(System.currentTimeMillis() - start)
+                .build();
+    }
+
+    public List<PayrollArchiveMonth> getArchivedMonths() {
+        return archiveMonthRepository.findAllByOrderByMonthAsc();
+    }
+
+    public boolean isArchived(String month) {
+        return archiveMonthRepository.existsById(month);
+    }
+
+    /**
+     * Reject writes to a month whose payrolls now live in the archive. Up-front check only; the
+     * summary update every writer makes repeats it under the month lock that archiving takes.
+     */
+    public void assertNotArchived(String month) {
+        if (isArchived(month)) {
+            throw new IllegalArgumentException("Payroll for month " + month + " is archived and can no longer be changed");
+        }
+    }
+
+    /**
+     * An employee's archived payrolls, newest month first
+     */
+    public List<PayrollListItem> findArchivedByEmployee(Long employeeId) {
+        List<PayrollListItem> rows = new ArrayList<>();
+        for (PayrollArchiveMonth entry : archiveMonthRepository.findCoveringEmployee(employeeId)) {
+            rows.addAll(readEmployee(entry, employeeId));
+        }
+        return rows;
+    }
+
+    /**
+     * An employee's payroll for an archived month, if the month is archived and has one
+     */
+    public Optional<PayrollListItem> findArchived(Long employeeId, String month) {
+        return archiveMonthRepository.findById(month)
+                .filter(entry -> entry.getMinEmployeeId() <= employeeId && entry.getMaxEmployeeId() >= employeeId)
+                .flatMap(entry -> readEmployee(entry, employeeId).stream().findFirst());
+    }
+
+    // Inflates from the last member starting before the employee until the rows pass it
+    private List<PayrollListItem> readEmployee(PayrollArchiveMonth entry, Long employeeId) {
+        Path file = directory().resolve(entry.getFileName());
+        List<PayrollListItem> rows = new ArrayList<>();
+        try (InputStream in = Files.newInputStream(file)) {
+            in.skipNBytes(startOffset(file, employeeId));
+            BufferedReader reader = new BufferedReader(new InputStreamReader(new GZIPInputStream(in), StandardCharsets.UTF_8));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                PayrollListItem row = objectMapper.readValue(line, PayrollListItem.class);
+                int order = Long.compare(row.getEmployee().getEmployeeId(), employeeId);
+                if (order == 0) {
+                    rows.add(row);
+                } else if (order > 0) {
+                    break; // rows are in employee order
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read payroll archive " + file, e);
+        }
+        return rows;
+    }
+
+    // Offset of the member that may hold the employee's first row; 0 (read from the start) without an index
+    private static long startOffset(Path file, Long employeeId) throws IOException {
+        Path index = file.resolveSibling(file.getFileName() + INDEX_SUFFIX);
+        if (!Files.exists(index)) {
+            return 0;
+        }
+        long offset = 0;
+        try (BufferedReader reader = Files.newBufferedReader(index, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] block = line.split("\t");
+                // A member starting at the employee may follow one that ends with the employee's rows
+                if (Long.parseLong(block[0]) >= employeeId) {
+                    break;
+                }
+                offset = Long.parseLong(block[1]);
+            }
+        }
+        return offset;
+    }
+
+    private PayrollArchiveMonth archive(String month) {
+        // Payroll writers hold the month's summary row until they commit, so the month cannot change under us
+        PayrollMonthSummary summary = summaryRepository.lockByMonth(month)
+                .filter(locked -> locked.getTotalEmployees() > 0)
+                .orElseThrow(() -> new IllegalArgumentException("No payrolls for month " + month));
+        if (isArchived(month)) {
+            throw new IllegalArgumentException("Payroll for month " + month + " is already archived");
+        }
+        if (!YearMonth.parse(month).isBefore(horizon())) {
+            throw new IllegalArgumentException("Month " + month + " is within the " + horizonMonths + "-month archive horizon");
+        }
+        if (summary.getPendingCount() + summary.getProcessedCount() > 0) {
+            throw new IllegalStateException("Month " + month + " still has PENDING or PROCESSED payrolls");
+        }
+        // The rollup is read from the payroll rows, so it must be current before they go
+        if (!summary.getChangeCount().equals(summary.getRollupChangeCount())) {
+            payrollRollupService.refreshMonth(month);
+        }
+
+        Path directory = directory();
+        String fileName = "payroll-" + month + ".jsonl.gz";
+        Path target = directory.resolve(fileName);
+        Path partial = directory.resolve(fileName + ".part");
+        Path index = directory.resolve(fileName + INDEX_SUFFIX);
+        Path partialIndex = directory.resolve(fileName + INDEX_SUFFIX + ".part");
+        Totals totals = new Totals();
+        StringBuilder blocks = new StringBuilder();
+        try {
+            Files.createDirectories(directory);
+            try (PositionOutputStream out = new PositionOutputStream(new BufferedOutputStream(
+                    Files.newOutputStream(partial, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING), 64 * 1024));
+                 Stream<PayrollListItem> rows = payrollRepository.streamListItemsByMonth(month)) {
+                Writer writer = null;
+                for (PayrollListItem row : (Iterable<PayrollListItem>) rows::iterator) {
+                    if (totals.rows % blockRows == 0) {
+                        if (writer != null) {
+                            writer.close(); // ends the member, leaves the file open
+                        }
+                        blocks.append(row.getEmployee().getEmployeeId()).append('\t').append(out.position).append('\n');
+                        writer = new BufferedWriter(new OutputStreamWriter(
+                                new GZIPOutputStream(new MemberOutputStream(out), 64 * 1024), StandardCharsets.UTF_8));
+                    }
+                    writer.write(objectMapper.writeValueAsString(row));
+                    writer.write('\n');
+                    totals.add(row);
+                }
+                if (writer != null) {
+                    writer.close();
+                }
+            }
+            Files.writeString(partialIndex, blocks, StandardCharsets.UTF_8);
+            if (totals.rows != summary.getTotalEmployees() || totals.net.compareTo(summary.getTotalNetSalary()) != 0) {
+                throw new IllegalStateException("Payrolls of " + month + " do not match the month summary ("
+                        + totals.rows + " rows, net " + totals.net + "); rebuild the summary before archiving");
+            }
+            force(partialIndex);
+            force(partial);
+            // In place before the commit, so a committed archive entry always has its file and index
+            Files.move(partialIndex, index, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            deleteOnRollback(index);
+            Files.move(partial, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            deleteOnRollback(target);
+        } catch (IOException | RuntimeException e) {
+            deleteQuietly(partial);
+            deleteQuietly(partialIndex);
+            if (e instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new UncheckedIOException("Could not write payroll archive for " + month, (IOException) e);
+        }
+
+        int deleted = jdbcTemplate.update("DELETE FROM payroll WHERE month = ?", month);
+        if (deleted != totals.rows) {
+            throw new IllegalStateException("Archived " + totals.rows + " payrolls of " + month + " but " + deleted + " were deleted");
+        }
+        payrollLatestService.recordMonthRemoved(month);
+
+        long fileSize;
+        try {
+            fileSize = Files.size(target);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        PayrollArchiveMonth entry = archiveMonthRepository.save(PayrollArchiveMonth.builder()
+                .month(month)
+                .fileName(fileName)
+                .rowCount(totals.rows)
+                .totalNetSalary(totals.net)
+                .minEmployeeId(totals.minEmployeeId)
+                .maxEmployeeId(totals.maxEmployeeId)
+                .fileSize(fileSize)
+                .archivedAt(LocalDateTime.now())
+                .build());
+        logger.info("Archived {} payrolls of {} to {} ({} bytes)", totals.rows, month, fileName, fileSize);
+        return entry;
+    }
+
+    private Path directory() {
+        return Paths.get(archiveDir).toAbsolutePath();
+    }
+
+    private static void force(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+    }
+
+    // Oldest month that is still kept in the payroll table
+    private YearMonth horizon() {
+        return YearMonth.now().minusMonths(horizonMonths);
+    }
+
+    private void deleteOnRollback(Path file) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    deleteQuietly(file);
+                }
+            }
+        });
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Could not delete payroll archive file {}: {}", file, e.getMessage());
+        }
+    }
+
+    // Counts the bytes written to the file, which is the offset where the next gzip member starts
+    private static class PositionOutputStream extends FilterOutputStream {
+        long position;
+
+        PositionOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            position++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            position += len;
+        }
+    }
+
+    // Lets a gzip member be closed without closing the file it is written to
+    private static class MemberOutputStream extends FilterOutputStream {
+
+        MemberOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+
+    private static class Totals {
+        long rows;
+        BigDecimal net = BigDecimal.ZERO;
+        Long minEmployeeId;
+        Long maxEmployeeId;
+
+        void add(PayrollListItem row) {
+            Long employeeId = row.getEmployee().getEmployeeId();
+            rows++;
+            net = net.add(row.getNetSalary());
+            if (minEmployeeId == null) {
+                minEmployeeId = employeeId;
+            }
+            maxEmployeeId = employeeId;
+        }
+    }
+}
@@ -0,0 +1,370 @@
+package com.example.payflow_backend.service;
+
+import com.example.payflow_backend.dto.CTCSalaryRow;
+import com.example.payflow_backend.dto.PayrollBackfillResult;
+import com.example.payflow_backend.dto.PayrollEmployeeRow;
+import com.example.payflow_backend.dto.PayrollGenerationResult;
+import com.example.payflow_backend.model.Employee;
+import com.example.payflow_backend.model.Payroll;
+import com.example.payflow_backend.model.PayrollBackfillRun;
+import com.example.payflow_backend.model.PayrollRunStatus;
+import com.example.payflow_backend.repository.CTCRepository;
+import com.example.payflow_backend.repository.EmployeeRepository;
+import com.example.payflow_backend.repository.PayrollBackfillRunRepository;
+import com.example.payflow_backend.repository.PayrollJdbcRepository;
+import com.example.payflow_backend.repository.PayrollRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Generates payroll for a range of months, e.g. when onboarding an acquired company.
+ * Employees are processed in ID partitions; each partition's CTC timeline is loaded once
+ * and every month is computed from it, while the previous month's batch is written on a
+ * writer thread. Memory is bounded by one partition's timeline plus two month batches.
+ * The employee's extra-leave counter only describes the running month, so it is applied
+ * to that month alone; earlier months are generated without unpaid days, as no record
+ * of them survives the monthly reset.
+ *
+ * Backfills submitted through the API run as background jobs recorded in
+ * {@link PayrollBackfillRun}; the caller polls the job for its counts.
+ */
+@Service
+public class PayrollBackfillService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PayrollBackfillService.class);
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private CTCRepository ctcRepository;
+
+    @Autowired
+    private PayrollRepository payrollRepository;
+
+    @Autowired
+    private PayrollJdbcRepository payrollJdbcRepository;
+
+    @Autowired
+    private PayrollCalculator payrollCalculator;
+
+    @Autowired
+    private PayrollMonthSummaryService payrollMonthSummaryService;
+
+    @Autowired
+    private PayrollLatestService payrollLatestService;
+
+    @Autowired
+    private PayrollArchiveService payrollArchiveService;
+
+    @Autowired
+    private PayrollLedgerService payrollLedgerService;
+
+    @Autowired
+    private PayrollBackfillRunRepository payrollBackfillRunRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    // Active employees per partition, shared with partitioned runs
+    @Value("${payflow.payroll.partition-size:2000}")
+    private int partitionSize;
+
+    // Longest range one backfill may cover
+    @Value("${payflow.payroll.backfill-max-months:36}")
+    private int maxMonths;
+
+    // Drives background backfills; each one also starts its own writer thread
+    private final ExecutorService jobExecutor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("payroll-backfill-", 0).factory());
+
+    /**
+     * Generate payroll for every month in [fromMonth, toMonth]. Employee-months that already have a
+     * payroll are skipped, so a failed backfill can simply be run again.
+     */
+    public PayrollBackfillResult backfill(String fromMonth, String toMonth) {
+        return backfill(fromMonth, toMonth, validatedRange(fromMonth, toMonth), null);
+    }
+
+    /**
+     * Validate the range, record a backfill job and run it in the background.
+     * Returns the job immediately; its counts are filled in as it runs.
+     */
+    public PayrollBackfillRun submitBackfill(String fromMonth, String toMonth, String triggeredBy) {
+        List<YearMonth> months = validatedRange(fromMonth, toMonth);
+        PayrollBackfillRun run = payrollBackfillRunRepository.save(PayrollBackfillRun.builder()
+                .fromMonth(months.get(0).toString())
+                .toMonth(months.get(months.size() - 1).toString())
+                .triggeredBy(triggeredBy)
+                .build());
+        Long runId = run.getId();
+        jobExecutor.submit(() -> execute(runId, months));
+        return run;
+    }
+
+    public PayrollBackfillRun getBackfillRun(Long runId) {
+        return payrollBackfillRunRepository.findById(runId)
+                .orElseThrow(() -> new RuntimeException("Payroll backfill not found with ID: " + runId));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Interrupted backfills are marked FAILED on the next startup; running them again skips committed rows
+        jobExecutor.shutdownNow();
+    }
+
+    /**
+     * Backfills still marked RUNNING at startup were interrupted by a shutdown or crash
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void markInterruptedBackfills() {
+        for (PayrollBackfillRun run : payrollBackfillRunRepository.findByStatus(PayrollRunStatus.RUNNING)) {
+            payrollBackfillRunRepository.fail(run.getId(), "Interrupted by application shutdown; "
+                    + "submit the backfill again to generate the remaining months", LocalDateTime.now());
+            logger.warn("Payroll backfill {} ({}..{}) was interrupted", run.getId(), run.getFromMonth(), run.getToMonth());
+        }
+    }
+
+    private void execute(Long runId, List<YearMonth> months) {
+        PayrollBackfillRun run = getBackfillRun(runId);
+        try {
+            PayrollBackfillResult result = backfill(run.getFromMonth(), run.getToMonth(), months, runId);
+            payrollBackfillRunRepository.complete(runId, result.getGenerated(), result.getSkippedExisting(),
+                    result.getSkippedNoCtc(), result.getFailed(), LocalDateTime.now());
+        } catch (Exception e) {
+            logger.error("Payroll backfill {} ({}..{}) failed: {}", runId, run.getFromMonth(), run.getToMonth(),
+                    e.getMessage(), e);
+            String error = e.getMessage() != null && e.getMessage().length() > 1000
+                    ? e.getMessage().substring(0, 1000) : e.getMessage();
+            payrollBackfillRunRepository.fail(runId, error, LocalDateTime.now());
+        }
+    }
+
+    private List<YearMonth> validatedRange(String fromMonth, String toMonth) {
+        List<YearMonth> months = monthRange(YearMonth.parse(fromMonth), YearMonth.parse(toMonth));
+        for (YearMonth month : months) {
+            payrollArchiveService.assertNotArchived(month.toString());
+        }
+        return months;
+    }
+
+    // runId, when set, is the background job whose partition progress is recorded
+    private PayrollBackfillResult backfill(String fromMonth, String toMonth, List<YearMonth> months, Long runId) {
+        long start = System.currentTimeMillis();
+        LocalDate timelineAsOf = PayrollCalculator.ctcAsOfDate(months.get(months.size() - 1));
+
+        Map<YearMonth, PayrollGenerationResult> results = new HashMap<>();
+        for (YearMonth month : months) {
+            results.put(month, PayrollGenerationResult.builder().month(month.toString()).build());
+        }
+
+        List<Long> activeIds = employeeRepository.findActiveEmployeeIds();
+        List<PartitionedPayrollRunner.EmployeeRange> ranges = PartitionedPayrollRunner.partition(activeIds, partitionSize);
+        logger.info("Backfilling payroll {}..{} for {} employees in {} partitions",
+                fromMonth, toMonth, activeIds.size(), ranges.size());
+        if (runId != null) {
+            payrollBackfillRunRepository.start(runId, activeIds.size(), ranges.size(), LocalDateTime.now());
+        }
+
+        try (ExecutorService writer = Executors.newSingleThreadExecutor(Thread.ofVirtual().name("payroll-backfill-writer").factory())) {
+            PendingWrite pending = null;
+            for (PartitionedPayrollRunner.EmployeeRange range : ranges) {
+                List<PayrollEmployeeRow> employees = employeeRepository.findActivePayrollRows(range.getFromId(), range.getToId());
+                Map<Long, List<CTCSalaryRow>> timelines = loadTimelines(timelineAsOf, range.getFromId(), range.getToId());
+
+                for (YearMonth month : months) {
+                    long computeStart = System.currentTimeMillis();
+                    PayrollGenerationResult result = results.get(month);
+                    List<Payroll> payrolls = buildMonth(month, employees, timelines,
+                            new HashSet<>(payrollRepository.findEmployeeIdsByMonth(month.toString(), range.getFromId(), range.getToId())),
+                            result);
+                    result.setDurationMs(result.getDurationMs() + System.currentTimeMillis() - computeStart);
+
+                    // At most one batch is in flight, so the next month computes while this one is written
+                    complete(pending, results);
+                    pending = payrolls.isEmpty() ? null : new PendingWrite(month, payrolls.size(), writer.submit(() -> write(payrolls)));
+                }
+                logger.info("Backfill partition {}..{} computed for {} months", range.getFromId(), range.getToId(), months.size());
+                if (runId != null) {
+                    payrollBackfillRunRepository.advancePartition(runId, LocalDateTime.now());
+                }
+            }
+            complete(pending, results);
+        }
+
+        List<PayrollGenerationResult> perMonth = new ArrayList<>(months.size());
+        PayrollBackfillResult total = PayrollBackfillResult.builder()
+                .fromMonth(fromMonth)
+                .toMonth(toMonth)
+                .employees(activeIds.size())
+                .partitions(ranges.size())
+                .months(perMonth)
+                .build();
+        for (YearMonth month : months) {
+            PayrollGenerationResult result = results.get(month);
+            perMonth.add(result);
+            total.setGenerated(total.getGenerated() + result.getGenerated());
+            total.setSkippedExisting(total.getSkippedExisting() + result.getSkippedExisting());
+            total.setSkippedNoCtc(total.getSkippedNoCtc() + result.getSkippedNoCtc());
+            total.setFailed(total.getFailed() + result.getFailed());
+        }
+        total.setDurationMs(System.currentTimeMillis() - start);
+        logger.info("Payroll backfill {}..{} finished: {} generated, {} already present, {} without CTC, {} failed in {} ms",
+                fromMonth, toMonth, total.getGenerated(), total.getSkippedExisting(), total.getSkippedNoCtc(),
+                total.getFailed(), total.getDurationMs());
+        return total;
+    }
+
+    private List<YearMonth> monthRange(YearMonth from, YearMonth to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("Backfill start " + from + " is after its end " + to);
+        }
+        if (to.isAfter(YearMonth.now())) {
+            throw new IllegalArgumentException("Cannot backfill future month " + to);
+        }
+        long count = from.until(to, ChronoUnit.MONTHS) + 1;
+        if (count > maxMonths) {
+            throw new IllegalArgumentException("Backfill covers " + count + " months; at most " + maxMonths + " are allowed");
+        }
+        List<YearMonth> months = new ArrayList<>((int) count);
+        for (YearMonth month = from; !month.isAfter(to); month = month.plusMonths(1)) {
+            months.add(month);
+        }
+        return months;
+    }
+
+    /**
+     * CTC versions per employee, oldest first
+     */
+    private Map<Long, List<CTCSalaryRow>> loadTimelines(LocalDate asOf, Long fromId, Long toId) {
+        Map<Long, List<CTCSalaryRow>> timelines = new HashMap<>();
+        for (CTCSalaryRow row : ctcRepository.findSalaryTimelineRowsAsOf(asOf, fromId, toId)) {
+            timelines.computeIfAbsent(row.getEmployeeId(), id -> new ArrayList<>(2)).add(row);
+        }
+        return timelines;
+    }
+
+    private List<Payroll> buildMonth(YearMonth month, List<PayrollEmployeeRow> employees,
+                                     Map<Long, List<CTCSalaryRow>> timelines, Set<Long> existing,
+                                     PayrollGenerationResult result) {
+        LocalDate asOf = PayrollCalculator.ctcAsOfDate(month);
+        int totalWorkingDays = month.lengthOfMonth();
+        boolean runningMonth = month.equals(YearMonth.now());
+        List<Payroll> payrolls = new ArrayList<>(employees.size());
+        for (PayrollEmployeeRow row : employees) {
+            if (existing.contains(row.getEmployeeId())) {
+                result.setSkippedExisting(result.getSkippedExisting() + 1);
+                continue;
+            }
+            CTCSalaryRow salary = effectiveAt(timelines.get(row.getEmployeeId()), asOf);
+            if (salary == null) {
+                result.setSkippedNoCtc(result.getSkippedNoCtc() + 1);
+                continue;
+            }
+            try {
+                int unpaidLeaves = runningMonth ? row.getExtraLeavesThisMonth() : 0;
+                payrolls.add(payrollCalculator.buildPayroll(employeeRef(row), month.toString(), totalWorkingDays,
+                        salary, unpaidLeaves));
+            } catch (Exception e) {
+                result.setFailed(result.getFailed() + 1);
+                logger.error("Error backfilling payroll for employee {} in {}: {}", row.getEmployeeId(), month, e.getMessage());
+            }
+        }
+        return payrolls;
+    }
+
+    // Last version effective by the date; rows are ordered by effectiveFrom then ctcId
+    static CTCSalaryRow effectiveAt(List<CTCSalaryRow> timeline, LocalDate asOf) {
+        if (timeline == null) {
+            return null;
+        }
+        CTCSalaryRow effective = null;
+        for (CTCSalaryRow row : timeline) {
+            if (row.getEffectiveFrom().isAfter(asOf)) {
+                break;
+            }
+            effective = row;
+        }
+        return effective;
+    }
+
+    // One month batch of one partition, committed on its own
+    private WriteResult write(List<Payroll> payrolls) {
+        long start = System.currentTimeMillis();
+        int inserted = transactionTemplate.execute(status -> {
+            // Rows another run inserted since the existence check are skipped by the unique key
+            List<Payroll> rows = payrollJdbcRepository.insertIgnoringDuplicates(payrolls);
+            payrollMonthSummaryService.recordInserted(rows);
+            payrollLatestService.recordInserted(rows);
+            payrollLedgerService.recordGenerated(rows);
+            return rows.size();
+        });
+        return new WriteResult(inserted, System.currentTimeMillis() - start);
+    }
+
+    private void complete(PendingWrite pending, Map<YearMonth, PayrollGenerationResult> results) {
+        if (pending == null) {
+            return;
+        }
+        PayrollGenerationResult result = results.get(pending.getMonth());
+        try {
+            WriteResult written = pending.getFuture().get();
+            result.setGenerated(result.getGenerated() + written.getInserted());
+            result.setSkippedExisting(result.getSkippedExisting() + pending.getRows() - written.getInserted());
+            result.setDurationMs(result.getDurationMs() + written.getDurationMs());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Payroll backfill was interrupted while writing " + pending.getMonth(), e);
+        } catch (ExecutionException e) {
+            // Earlier batches stay committed; rerunning the backfill skips them
+            throw new RuntimeException("Payroll backfill failed writing " + pending.getMonth() + ": "
+                    + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    // Id-only reference; rows are written through JDBC, which reads just the id
+    private Employee employeeRef(PayrollEmployeeRow row) {
+        return Employee.builder()
+                .employeeId(row.getEmployeeId())
+                .extraLeavesThisMonth(row.getExtraLeavesThisMonth())
+                .department(row.getDepartment())
+                .designation(row.getDesignation())
+                .build();
+    }
+
+    // Month batch handed to the writer, with its row count
+    @lombok.Value
+    private static class PendingWrite {
+        YearMonth month;
+        int rows;
+        Future<WriteResult> future;
+    }
+
+    @lombok.Value
+    private static class WriteResult {
+        int inserted;
+        long durationMs;
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.payflow_backend.service;
+
+import com.example.payflow_backend.dto.CTCSalaryRow;
+import com.example.payflow_backend.dto.PayrollEmployeeRow;
+import com.example.payflow_backend.dto.PayrollGenerationResult;
+import com.example.payflow_backend.model.Employee;
+import com.example.payflow_backend.model.Payroll;
+import com.example.payflow_backend.repository.CTCRepository;
+import com.example.payflow_backend.repository.EmployeeRepository;
+import com.example.payflow_backend.repository.PayrollJdbcRepository;
+import com.example.payflow_backend.repository.PayrollRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Set-based payroll generation for a whole month.
+ * Inputs are loaded with a few queries, rows are computed in memory by
+ * {@link PayrollCalculator} and written with JDBC batch inserts.
+ */
+@Service
+public class PayrollBulkService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PayrollBulkService.class);
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private CTCRepository ctcRepository;
+
+    @Autowired
+    private PayrollRepository payrollRepository;
+
+    @Autowired
+    private PayrollJdbcRepository payrollJdbcRepository;
+
+    @Autowired
+    private PayrollCalculator payrollCalculator;
+
+    @Autowired
+    private PayrollMonthSummaryService payrollMonthSummaryService;
+
+    @Autowired
+    private PayrollLatestService payrollLatestService;
+
+    @Autowired
+    private PayrollArchiveService payrollArchiveService;
+
+    @Autowired
+    private PayrollLedgerService payrollLedgerService;
+
+    /**
+     * Generate payroll for every active employee with a CTC that does not have one for the month yet
+     */
+    @Transactional
+    public PayrollGenerationResult generateForMonth(String month) {
+        return generateForRange(month, 0L, Long.MAX_VALUE);
+    }
+
+    /**
+     * Same as generateForMonth, restricted to employee IDs in [fromId, toId].
+     * Runs in its own transaction when called outside one, so each range commits independently.
+     */
+    @Transactional
+    public PayrollGenerationResult generateForRange(String month, Long fromId, Long toId) {
+        long start = System.currentTimeMillis();
+        YearMonth yearMonth = YearMonth.parse(month);
+        payrollArchiveService.assertNotArchived(month);
+        int totalWorkingDays = yearMonth.lengthOfMonth();
+
+        List<PayrollEmployeeRow> employees = employeeRepository.findActivePayrollRows(fromId, toId);
+        Map<Long, CTCSalaryRow> salaries = loadSalaries(yearMonth, fromId, toId);
+        Set<Long> existing = new HashSet<>(payrollRepository.findEmployeeIdsByMonth(month, fromId, toId));
+
+        List<Payroll> payrolls = new ArrayList<>(employees.size());
+        int skippedExisting = 0;
+        int skippedNoCtc = 0;
+        int failed = 0;
+
+        for (PayrollEmployeeRow row : employees) {
+            if (existing.contains(row.getEmployeeId())) {
+                skippedExisting++;
+                continue;
+            }
+            CTCSalaryRow salary = salaries.get(row.getEmployeeId());
+            if (salary == null) {
+                skippedNoCtc++;
+                continue;
+            }
+            try {
+                payrolls.add(payrollCalculator.buildPayroll(employeeRef(row), month, totalWorkingDays,
+                        salary, row.getExtraLeavesThisMonth()));
+            } catch (Exception e) {
+                failed++;
+                logger.error("Error generating payroll for employee {}: {}", row.getEmployeeId(), e.getMessage());
+            }
+        }
+
+        // A run that overlaps this one may have inserted some rows since the existence check
+        List<Payroll> inserted = payrollJdbcRepository.insertIgnoringDuplicates(payrolls);
+        payrollMonthSummaryService.recordInserted(inserted);
+        payrollLatestService.recordInserted(inserted);
+        payrollLedgerService.recordGenerated(inserted);
+        int generated = inserted.size();
+        skippedExisting += payrolls.size() - generated;
+        long durationMs = System.currentTimeMillis() - start;
+        logger.info("Bulk payroll for {} (employees {}..{}): {} generated, {} already present, {} without CTC, {} failed in {} ms",
+                month, fromId, toId, generated, skippedExisting, skippedNoCtc, failed, durationMs);
+
+        return PayrollGenerationResult.builder()
+                .month(month)
+                .generated(generated)
+                .skippedExisting(skippedExisting)
+                .skippedNoCtc(skippedNoCtc)
+                .failed(failed)
+                .durationMs(durationMs)
+                .build();
+    }
+
+    /**
+     * Effective CTC per employee for the month, keeping the highest ctcId on effective-date ties
+     */
+    private Map<Long, CTCSalaryRow> loadSalaries(YearMonth yearMonth, Long fromId, Long toId) {
+        Map<Long, CTCSalaryRow> salaries = new HashMap<>();
+        // Rows arrive ordered by employee then ctcId, so the last one wins
+        for (CTCSalaryRow row : ctcRepository.findEffectiveSalaryRowsAsOf(PayrollCalculator.ctcAsOfDate(yearMonth), fromId, toId)) {
+            salaries.put(row.getEmployeeId(), row);
+        }
+        return salaries;
+    }
+
+    // Id-only reference; bulk rows are written through JDBC, which reads just the id
+    private Employee employeeRef(PayrollEmployeeRow row) {
+        return Employee.builder()
+                .employeeId(row.getEmployeeId())
+                .extraLeavesThisMonth(row.getExtraLeavesThisMonth())
+                .department(row.getDepartment())
+                .designation(row.getDesignation())
+                .build();
+    }
+}
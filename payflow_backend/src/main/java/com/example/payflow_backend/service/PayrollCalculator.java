@@ -0,0 +1,119 @@
+package com.example.payflow_backend.service;
+
+import com.example.payflow_backend.dto.CTCSalaryRow;
+import com.example.payflow_backend.model.Employee;
+import com.example.payflow_backend.model.Payroll;
+import com.example.payflow_backend.model.PayrollStatus;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+/**
+ * Pure payroll arithmetic shared by the per-employee and the bulk generation paths,
+ * so both produce identical Payroll rows for the same inputs.
+ */
+@Component
+public class PayrollCalculator {
+
+    /**
+     * Date used to pick the effective CTC for a payroll month:
+     * the last day of the month, or today if the month is still running.
+     */
+    public static LocalDate ctcAsOfDate(YearMonth yearMonth) {
+        LocalDate monthEnd = yearMonth.atEndOfMonth();
+        LocalDate today = LocalDate.now();
+        return monthEnd.isAfter(today) ? today : monthEnd;
+    }
+
+    /**
+     * Build (but do not save) a payroll record for an employee
+     */
+    public Payroll buildPayroll(Employee employee, String month, BigDecimal grossSalary, int unpaidLeaves) {
+        // Parse month to get total working days
+        YearMonth yearMonth = YearMonth.parse(month);
+        int totalWorkingDays = yearMonth.lengthOfMonth();
+
+        // Calculate per day salary
+        BigDecimal perDaySalary = grossSalary.divide(BigDecimal.valueOf(totalWorkingDays), 2, RoundingMode.HALF_UP);
+
+        // Calculate leave deduction
+        BigDecimal leaveDeduction = perDaySalary.multiply(BigDecimal.valueOf(unpaidLeaves));
+
+        // Calculate net salary
+        BigDecimal netSalary = grossSalary.subtract(leaveDeduction);
+
+        // Ensure net salary is not negative
+        if (netSalary.compareTo(BigDecimal.ZERO) < 0) {
+            netSalary = BigDecimal.ZERO;
+        }
+
+        return Payroll.builder()
+                .employee(employee)
+                .month(month)
+                .department(orgUnit(employee.getDepartment()))
+                .designation(orgUnit(employee.getDesignation()))
+                .grossSalary(grossSalary)
+                .leaveDeduction(leaveDeduction)
+                .netSalary(netSalary)
+                .totalWorkingDays(totalWorkingDays)
+                .unpaidLeaves(unpaidLeaves)
+                .perDaySalary(perDaySalary)
+                .status(PayrollStatus.PROCESSED)
+                .processedBy(processedBy())
+                .build();
+    }
+
+    /**
+     * Build a payroll from a bulk-loaded CTC row. Uses long paise arithmetic when the
+     * amounts allow it and falls back to the BigDecimal path otherwise; both give equal rows.
+     */
+    public Payroll buildPayroll(Employee employee, String month, int totalWorkingDays, CTCSalaryRow salary, int unpaidLeaves) {
+        if (salary.isPaiseExact()) {
+            try {
+                return buildPayrollFromPaise(employee, month, totalWorkingDays, salary.getNetMonthlySalaryPaise(), unpaidLeaves);
+            } catch (ArithmeticException e) {
+                // Leave deduction overflowed a long; the BigDecimal path has no such limit
+            }
+        }
+        return buildPayroll(employee, month, salary.getNetMonthlySalary(), unpaidLeaves);
+    }
+
+    /**
+     * Long paise counterpart of buildPayroll, bit-for-bit equal to it for the same gross salary.
+     * totalWorkingDays must be the length of the month.
+     */
+    public Payroll buildPayrollFromPaise(Employee employee, String month, int totalWorkingDays, long grossPaise, int unpaidLeaves) {
+        long perDayPaise = PaiseMath.divideHalfUp(grossPaise, totalWorkingDays);
+        long leaveDeductionPaise = Math.multiplyExact(perDayPaise, (long) unpaidLeaves);
+        long netPaise = Math.subtractExact(grossPaise, leaveDeductionPaise);
+
+        return Payroll.builder()
+                .employee(employee)
+                .month(month)
+                .department(orgUnit(employee.getDepartment()))
+                .designation(orgUnit(employee.getDesignation()))
+                .grossSalary(PaiseMath.toBigDecimal(grossPaise))
+                .leaveDeduction(PaiseMath.toBigDecimal(leaveDeductionPaise))
+                // BigDecimal.ZERO rather than 0.00, exactly like the clamp in buildPayroll
+                .netSalary(netPaise < 0 ? BigDecimal.ZERO : PaiseMath.toBigDecimal(netPaise))
+                .totalWorkingDays(totalWorkingDays)
+                .unpaidLeaves(unpaidLeaves)
+                .perDaySalary(PaiseMath.toBigDecimal(perDayPaise))
+                .status(PayrollStatus.PROCESSED)
+                .processedBy(processedBy())
+                .build();
+    }
+
+    // Who a generated payroll is recorded as processed by
+    private static String processedBy() {
+        return "system"; // TODO: Get from security context
+    }
+
+    // Empty rather than null when the employee has none, so null only marks rows written before the snapshot columns
+    private static String orgUnit(String value) {
+        return value != null ? value : "";
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.payflow_backend.service;
+
+import com.example.payflow_backend.model.PayrollDirtyMark;
+import com.example.payflow_backend.model.PayrollDirtyMark.DirtyReason;
+import com.example.payflow_backend.model.YearMonthKeyConverter;
+import com.example.payflow_backend.repository.PayrollDirtyMarkRepository;
+import com.example.payflow_backend.repository.PayrollRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Records which already generated (employee, month) payrolls are affected by a change
+ * to their inputs, so PayrollRecomputeService can re-derive just those rows.
+ */
+@Service
+@Transactional
+public class PayrollDirtyTracker {
+
+    // Every generated month of one employee from a month key on
+    private static final String MARK_CTC_CHANGE_SQL =
+            "INSERT INTO payroll_dirty_mark (employee_id, month, reason, created_at) " +
+            "SELECT p.employee_id, p.month, ?, ? FROM payroll p WHERE p.employee_id = ? AND p.month_key >= ?";
+
+    @Autowired
+    private PayrollRepository payrollRepository;
+
+    @Autowired
+    private PayrollDirtyMarkRepository dirtyMarkRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * A CTC effective from the given date was created, changed or removed.
+     * Every generated month from that date's month onwards may now use a different CTC.
+     */
+    public int markCtcChange(Long employeeId, LocalDate effectiveFrom, DirtyReason reason) {
+        if (employeeId == null || effectiveFrom == null) {
+            return 0;
+        }
+        List<String> months = payrollRepository.findMonthsByEmployeeFrom(employeeId, YearMonth.from(effectiveFrom));
+        months.forEach(month -> mark(employeeId, month, reason));
+        return months.size();
+    }
+
+    /**
+     * Bulk form of markCtcChange for many employees, each with the earliest effective date that
+     * changed: one batched INSERT ... SELECT per employee.
+     * Returns the number of marks added.
+     */
+    public long markCtcChanges(Map<Long, LocalDate> effectiveFromByEmployee, DirtyReason reason) {
+        if (effectiveFromByEmployee.isEmpty()) {
+            return 0;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Map.Entry<Long, LocalDate>> entries = new ArrayList<>(effectiveFromByEmployee.entrySet());
+        int[] counts = jdbcTemplate.batchUpdate(MARK_CTC_CHANGE_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                Map.Entry<Long, LocalDate> entry = entries.get(i);
+                ps.setString(1, reason.name());
+                ps.setTimestamp(2, now);
+                ps.setLong(3, entry.getKey());
+                ps.setInt(4, YearMonthKeyConverter.toKey(YearMonth.from(entry.getValue())));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return entries.size();
+            }
+        });
+        long marked = 0;
+        for (int count : counts) {
+            marked += Math.max(count, 0);
+        }
+        return marked;
+    }
+
+    /**
+     * Unpaid leave days changed for an employee by a leave from startDate to endDate.
+     * Every generated month the leave falls in is marked; returns the number of months marked.
+     */
+    public int markLeaveChange(Long employeeId, LocalDate startDate, LocalDate endDate) {
+        int marked = 0;
+        for (YearMonth month = YearMonth.from(startDate); !month.isAfter(YearMonth.from(endDate)); month = month.plusMonths(1)) {
+            String monthStr = month.toString();
+            if (payrollRepository.existsByEmployee_EmployeeIdAndMonth(employeeId, monthStr)) {
+                mark(employeeId, monthStr, DirtyReason.LEAVE_APPROVED);
+                marked++;
+            }
+        }
+        return marked;
+    }
+
+    /**
+     * Pending marks, oldest month first
+     */
+    @Transactional(readOnly = true)
+    public List<PayrollDirtyMark> getPendingMarks() {
+        return dirtyMarkRepository.findAllByOrderByMonthAscEmployeeIdAsc();
+    }
+
+    private void mark(Long employeeId, String month, DirtyReason reason) {
+        // Always a new mark, even if the pair is already pending: a recompute running now may have
+        // read its inputs before this change and only deletes the marks it read itself
+        dirtyMarkRepository.save(PayrollDirtyMark.builder()
+                .employeeId(employeeId)
+                .month(month)
+                .reason(reason)
+                .build());
+    }
+}
@@ -0,0 +1,492 @@
+package com.example.payflow_backend.service;
+
+import com.example.payflow_backend.dto.PayrollDisbursementResult;
+import com.example.payflow_backend.model.PayrollStatus;
+import com.example.payflow_backend.repository.PayrollJdbcRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Writes the bank salary disbursement file for a month's PROCESSED payrolls and moves them
+ * to COMPLETED. Rows are streamed in employee order through a cursor into one reusable
+ * buffer and written with channel writes, so memory stays flat for any headcount.
+ * The cursor runs outside any transaction; status changes commit per batch once the batch's
+ * records are on disk. The file only appears under its final name once finished, and a run that
+ * fails part way publishes it cut back to the batches that committed.
+ */
+@Service
+public class PayrollDisbursementService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PayrollDisbursementService.class);
+
+    public enum Format {
+        FIXED("txt"),
+        CSV("csv");
+
+        private final String extension;
+
+        Format(String extension) {
+            this.extension = extension;
+        }
+    }
+
+    private static final String SELECT_SQL =
+            "SELECT p.id, p.employee_id, p.net_salary, e.full_name, e.bank_account_number, e.bank_ifsc " +
+            "FROM payroll p JOIN employee e ON e.employee_id = p.employee_id " +
+            "WHERE p.month = ? AND p.status = 'PROCESSED' ORDER BY p.employee_id, p.id";
+
+    private static final Pattern IFSC = Pattern.compile("[A-Z]{4}0[A-Z0-9]{6}");
+    private static final Pattern FILE_NAME = Pattern.compile("disbursement-\\d{4}-\\d{2}-\\d{8}-\\d{6}\\.(txt|csv)");
+    private static final DateTimeFormatter STAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    // Fixed-width detail layout: type, payroll id, employee id, account, IFSC, name, amount in paise
+    private static final int ACCOUNT_WIDTH = 34;
+    private static final int NAME_WIDTH = 40;
+    private static final int RECORD_LENGTH = 1 + 12 + 10 + ACCOUNT_WIDTH + 11 + NAME_WIDTH + 15;
+    private static final long HASH_MODULUS = 1_000_000_000_000_000_000L;
+    private static final int MAX_REPORTED_REJECTIONS = 100;
+    private static final long MAX_AMOUNT_PAISE = 999_999_999_999_999L;
+
+    private static final String MAX_NET_SQL =
+            "SELECT MAX(net_salary) FROM payroll WHERE month = ? AND status = 'PROCESSED'";
+
+    @Autowired
+    private PayrollJdbcRepository payrollJdbcRepository;
+
+    @Autowired
+    private PayrollMonthSummaryService payrollMonthSummaryService;
+
+    @Autowired
+    private PayrollLedgerService payrollLedgerService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final JdbcTemplate cursorJdbcTemplate;
+
+    @Value("${payflow.payroll.batch-size:500}")
+    private int batchSize;
+
+    @Value("${payflow.payroll.disbursement-dir:disbursements}")
+    private String disbursementDir;
+
+    @Autowired
+    public PayrollDisbursementService(DataSource dataSource, @Value("${payflow.payroll.export-fetch-size:1000}") int fetchSize) {
+        this.cursorJdbcTemplate = new JdbcTemplate(dataSource);
+        this.cursorJdbcTemplate.setFetchSize(fetchSize);
+    }
+
+    /**
+     * Generate the disbursement file for a month and complete the payrolls it pays.
+     * Payrolls with nothing to pay or no usable bank account are left PROCESSED and reported.
+     */
+    public PayrollDisbursementResult generate(String month, Format format) throws IOException {
+        YearMonth.parse(month);
+        long start = System.currentTimeMillis();
+        if (format == Format.FIXED) {
+            assertAmountsFit(month);
+        }
+
+        Path directory = Paths.get(disbursementDir).toAbsolutePath();
+        Files.createDirectories(directory);
+        String fileName = "disbursement-" + month + "-" + LocalDateTime.now().format(STAMP) + "." + format.extension;
+        Path target = directory.resolve(fileName);
+        Path partial = directory.resolve(fileName + ".part");
+
+        Totals totals = new Totals();
+        Batch batch = new Batch(batchSize);
+        RuntimeException failure = null;
+
+        try (FileChannel channel = FileChannel.open(partial, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            RecordWriter writer = new RecordWriter(channel);
+            try {
+                writeHeader(writer, format, month);
+                writer.flush();
+                totals.committedPosition = channel.position();
+
+                cursorJdbcTemplate.query(SELECT_SQL, rs -> {
+                    long payrollId = rs.getLong(1);
+                    long employeeId = rs.getLong(2);
+                    BigDecimal net = rs.getBigDecimal(3);
+                    String account = rs.getString(5);
+                    String ifsc = rs.getString(6);
+
+                    if (!isUsableAccount(account, ifsc)) {
+                        totals.rejected.add(payrollId);
+                        return;
+                    }
+                    long paise = PaiseMath.toPaise(net);
+                    if (paise <= 0) {
+                        // Nothing to pay, so no record and no completion
+                        totals.zeroAmount.add(payrollId);
+                        return;
+                    }
+                    try {
+                        writeDetail(writer, format, payrollId, employeeId, account, ifsc, rs.getString(4), paise);
+                        batch.add(payrollId, account, paise);
+                        if (batch.isFull()) {
+                            commitBatch(month, writer, channel, batch, totals);
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }, month);
+                commitBatch(month, writer, channel, batch, totals);
+            } catch (IOException e) {
+                failure = new UncheckedIOException(e);
+            } catch (RuntimeException e) {
+                failure = e;
+            }
+
+            if (failure != null) {
+                if (totals.completed == 0) {
+                    // Nothing committed, so nothing to publish
+                    if (failure instanceof UncheckedIOException io) {
+                        throw io.getCause();
+                    }
+                    throw failure;
+                }
+                // Cut the file back to the batches that committed, so it pays exactly the COMPLETED payrolls
+                writer.discard();
+                channel.truncate(totals.committedPosition);
+                channel.position(totals.committedPosition);
+            }
+            writeTrailer(writer, format, totals);
+            writer.flush();
+            channel.force(true);
+        } catch (IOException | RuntimeException e) {
+            if (totals.completed > 0) {
+                // The committed batches' records were forced to the file before their payrolls were
+                // COMPLETED, and this file is the only record of those payments, so it must stay
+                throw new IllegalStateException("Disbursement for " + month + " completed " + totals.completed
+                        + " payrolls but its file could not be finished; their records are in " + partial
+                        + ": " + e.getMessage(), e);
+            }
+            deleteQuietly(partial);
+            throw e;
+        }
+        try {
+            // Only now under its final name, so a published file is always complete
+            Files.move(partial, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // Payrolls are already COMPLETED; the finished file is still at the .part path
+            throw new IllegalStateException("Could not publish disbursement file " + partial + ": " + e.getMessage(), e);
+        }
+
+        long durationMs = System.currentTimeMillis() - start;
+        if (failure != null) {
+            logger.error("Disbursement for {} stopped after {} payrolls; {} pays those and the rest stay PROCESSED",
+                    month, totals.completed, fileName, failure);
+            throw new IllegalStateException("Disbursement for " + month + " stopped after " + totals.completed
+                    + " payrolls (" + failure.getMessage() + "); " + fileName + " pays those and the rest stay PROCESSED",
+                    failure);
+        }
+        logger.info("Disbursement file {} for {}: {} records, control total {}, {} completed, {} zero, {} rejected in {} ms",
+                fileName, month, totals.records, PaiseMath.toBigDecimal(totals.controlTotalPaise),
+                totals.completed, totals.zeroAmount.count, totals.rejected.count, durationMs);
+        return PayrollDisbursementResult.builder()
+                .month(month)
+                .format(format.name())
+                .fileName(fileName)
+                .records(totals.records)
+                .controlTotal(PaiseMath.toBigDecimal(totals.controlTotalPaise))
+                .hashTotal(totals.hashTotal)
+                .completed(totals.completed)
+                .zeroAmount(totals.zeroAmount.count)
+                .zeroAmountPayrollIds(totals.zeroAmount.ids)
+                .rejected(totals.rejected.count)
+                .rejectedPayrollIds(totals.rejected.ids)
+                .durationMs(durationMs)
+                .build();
+    }
+
+    /**
+     * Path of a generated file, validated so callers cannot escape the disbursement directory
+     */
+    public Path resolveFile(String fileName) {
+        if (!FILE_NAME.matcher(fileName).matches()) {
+            throw new IllegalArgumentException("Invalid disbursement file name: " + fileName);
+        }
+        return Paths.get(disbursementDir).toAbsolutePath().resolve(fileName);
+    }
+
+    /**
+     * Put a batch's records on disk, then complete its payrolls in their own transaction.
+     * Records go first, so a committed batch is never missing from the file.
+     */
+    private void commitBatch(String month, RecordWriter writer, FileChannel channel, Batch batch, Totals totals)
+            throws IOException {
+        if (batch.count == 0) {
+            return;
+        }
+        writer.flush();
+        channel.force(false);
+        transactionTemplate.executeWithoutResult(status -> complete(month, batch.ids, batch.count));
+        totals.commit(batch, channel.position());
+        batch.clear();
+    }
+
+    // One conditional UPDATE per batch; anything short of the full batch means a concurrent change
+    private void complete(String month, long[] ids, int count) {
+        int changed = payrollJdbcRepository.transitionStatus(ids, count, PayrollStatus.PROCESSED, PayrollStatus.COMPLETED);
+        if (changed != count) {
+            throw new IllegalStateException("Payroll statuses changed while the disbursement file was being generated; "
+                    + (count - changed) + " of " + count + " payrolls were no longer PROCESSED");
+        }
+        payrollLedgerService.recordStatusChanged(month, ids, count);
+        payrollMonthSummaryService.recordStatusChanged(month, PayrollStatus.PROCESSED, PayrollStatus.COMPLETED, changed);
+    }
+
+    // The fixed-width amount field holds 15 digits of paise; checked before anything is written
+    private void assertAmountsFit(String month) {
+        BigDecimal largest = cursorJdbcTemplate.queryForObject(MAX_NET_SQL, BigDecimal.class, month);
+        if (largest != null && PaiseMath.toPaise(largest) > MAX_AMOUNT_PAISE) {
+            throw new IllegalStateException("Net salary " + largest + " in " + month
+                    + " does not fit the 15-digit amount field of the fixed-width file; no file was written");
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Could not delete partial disbursement file {}: {}", file, e.getMessage());
+        }
+    }
+
+    private static boolean isUsableAccount(String account, String ifsc) {
+        if (account == null || ifsc == null || account.isBlank() || account.length() > ACCOUNT_WIDTH) {
+            return false;
+        }
+        for (int i = 0; i < account.length(); i++) {
+            char c = account.charAt(i);
+            if ((c < '0' || c > '9') && (c < 'A' || c > 'Z')) {
+                return false;
+            }
+        }
+        return IFSC.matcher(ifsc).matches();
+    }
+
+    private static void writeHeader(RecordWriter writer, Format format, String month) throws IOException {
+        String today = LocalDate.now().format(DateTimeFormatter.BASIC_ISO_DATE);
+        writer.reserve(RECORD_LENGTH + 2);
+        if (format == Format.CSV) {
+            writer.text("H,").text(today).text(",").text(month).newline();
+            writer.text("recordType,payrollId,employeeId,accountNumber,ifsc,name,amount").newline();
+        } else {
+            writer.text("H").text(today).text(month.replace("-", ""));
+            writer.spaces(RECORD_LENGTH - 1 - 8 - 6).newline();
+        }
+    }
+
+    private static void writeDetail(RecordWriter writer, Format format, long payrollId, long employeeId,
+                                    String account, String ifsc, String name, long paise) throws IOException {
+        writer.reserve(RECORD_LENGTH * 2);
+        if (format == Format.CSV) {
+            writer.text("D,").number(payrollId, 0).text(",").number(employeeId, 0).text(",")
+                    .text(account).text(",").text(ifsc).text(",").name(name, NAME_WIDTH, false).text(",")
+                    .number(paise / 100, 0).text(".").number(paise % 100, 2).newline();
+        } else {
+            writer.text("D").number(payrollId, 12).number(employeeId, 10)
+                    .padded(account, ACCOUNT_WIDTH).text(ifsc).name(name, NAME_WIDTH, true)
+                    .number(paise, 15).newline();
+        }
+    }
+
+    private static void writeTrailer(RecordWriter writer, Format format, Totals totals) throws IOException {
+        writer.reserve(RECORD_LENGTH * 2);
+        if (format == Format.CSV) {
+            writer.text("T,").number(totals.records, 0).text(",")
+                    .number(totals.controlTotalPaise / 100, 0).text(".").number(totals.controlTotalPaise % 100, 2)
+                    .text(",").number(totals.hashTotal, 0).newline();
+        } else {
+            writer.text("T").number(totals.records, 9).number(totals.controlTotalPaise, 18).number(totals.hashTotal, 18);
+            writer.spaces(RECORD_LENGTH - 1 - 9 - 18 - 18).newline();
+        }
+    }
+
+    // Count, control total and hash total of the records in the file so far
+    private static class Totals {
+        int records;
+        long controlTotalPaise;
+        long hashTotal;
+        int completed;
+        // End of the last committed batch's records
+        long committedPosition;
+        final Skipped zeroAmount = new Skipped();
+        final Skipped rejected = new Skipped();
+
+        void add(String account, long paise) {
+            records++;
+            controlTotalPaise = Math.addExact(controlTotalPaise, paise);
+            // Last 18 digits of the numeric account number
+            long value = 0;
+            for (int i = 0; i < account.length(); i++) {
+                char c = account.charAt(i);
+                if (c >= '0' && c <= '9') {
+                    value = (value % (HASH_MODULUS / 10)) * 10 + (c - '0');
+                }
+            }
+            hashTotal = (hashTotal + value) % HASH_MODULUS;
+        }
+
+        void commit(Batch batch, long position) {
+            records += batch.totals.records;
+            controlTotalPaise = Math.addExact(controlTotalPaise, batch.totals.controlTotalPaise);
+            hashTotal = (hashTotal + batch.totals.hashTotal) % HASH_MODULUS;
+            completed += batch.count;
+            committedPosition = position;
+        }
+    }
+
+    // Payrolls written to the file but not completed yet
+    private static class Batch {
+        final long[] ids;
+        int count;
+        Totals totals = new Totals();
+
+        Batch(int size) {
+            ids = new long[size];
+        }
+
+        void add(long payrollId, String account, long paise) {
+            ids[count++] = payrollId;
+            totals.add(account, paise);
+        }
+
+        boolean isFull() {
+            return count == ids.length;
+        }
+
+        void clear() {
+            count = 0;
+            totals = new Totals();
+        }
+    }
+
+    // Payrolls left PROCESSED, with the first IDs for the response
+    private static class Skipped {
+        int count;
+        final List<Long> ids = new ArrayList<>();
+
+        void add(long payrollId) {
+            count++;
+            if (ids.size() < MAX_REPORTED_REJECTIONS) {
+                ids.add(payrollId);
+            }
+        }
+    }
+
+    /**
+     * ASCII record builder over one reusable direct buffer, drained to the channel when full
+     */
+    private static class RecordWriter {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+
+        RecordWriter(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        // Make room for a whole record so records are never split across drains needlessly
+        void reserve(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+        }
+
+        RecordWriter text(String value) {
+            for (int i = 0; i < value.length(); i++) {
+                buffer.put((byte) value.charAt(i));
+            }
+            return this;
+        }
+
+        RecordWriter padded(String value, int width) {
+            text(value);
+            return spaces(width - value.length());
+        }
+
+        // Printable ASCII only, without the CSV separator; truncated, and padded when fixed
+        RecordWriter name(String value, int width, boolean pad) {
+            int written = 0;
+            if (value != null) {
+                for (int i = 0; i < value.length() && written < width; i++) {
+                    char c = value.charAt(i);
+                    buffer.put((byte) (c >= 0x20 && c < 0x7f && c != ',' && c != '"' ? c : ' '));
+                    written++;
+                }
+            }
+            return pad ? spaces(width - written) : this;
+        }
+
+        // Non-negative number, zero-padded to width digits (0 for no padding); never wider than width
+        RecordWriter number(long value, int width) {
+            int digits = 1;
+            for (long v = value / 10; v > 0; v /= 10) {
+                digits++;
+            }
+            if (width > 0 && digits > width) {
+                throw new IllegalStateException(value + " does not fit a " + width + "-digit field of the disbursement file");
+            }
+            int length = Math.max(width, digits);
+            int position = buffer.position();
+            long v = value;
+            for (int i = length - 1; i >= 0; i--) {
+                buffer.put(position + i, (byte) ('0' + v % 10));
+                v /= 10;
+            }
+            buffer.position(position + length);
+            return this;
+        }
+
+        RecordWriter spaces(int count) {
+            for (int i = 0; i < count; i++) {
+                buffer.put((byte) ' ');
+            }
+            return this;
+        }
+
+        RecordWriter newline() {
+            buffer.put((byte) '\r').put((byte) '\n');
+            return this;
+        }
+
+        // Drop what was built since the last flush
+        void discard() {
+            buffer.clear();
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+}
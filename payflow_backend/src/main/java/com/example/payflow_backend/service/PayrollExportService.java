@@ -0,0 +1,371 @@
+package com.example.payflow_backend.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Streams payroll rows for a month range as CSV or XLSX.
+ * Rows are read through a forward-only cursor with a fixed fetch size and written straight
+ * to the output, so memory use does not depend on the number of payrolls.
+ */
+@Service
+public class PayrollExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PayrollExportService.class);
+
+    public enum Format {
+        CSV("text/csv", "csv"),
+        XLSX("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", "xlsx");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    /**
+     * Exportable columns; the request name is the camelCase form of the constant
+     */
+    public enum Column {
+        PAYROLL_ID("p.id", Kind.INTEGER),
+        EMPLOYEE_ID("p.employee_id", Kind.INTEGER),
+        EMPLOYEE_NAME("e.full_name", Kind.TEXT),
+        EMAIL("e.email", Kind.TEXT),
+        // As the payroll was generated, not the employee's current placement
+        DEPARTMENT("NULLIF(p.department, '')", Kind.TEXT),
+        DESIGNATION("NULLIF(p.designation, '')", Kind.TEXT),
+        MONTH("p.month", Kind.TEXT),
+        GROSS_SALARY("p.gross_salary", Kind.DECIMAL),
+        PER_DAY_SALARY("p.per_day_salary", Kind.DECIMAL),
+        TOTAL_WORKING_DAYS("p.total_working_days", Kind.INTEGER),
+        UNPAID_LEAVES("p.unpaid_leaves", Kind.INTEGER),
+        LEAVE_DEDUCTION("p.leave_deduction", Kind.DECIMAL),
+        NET_SALARY("p.net_salary", Kind.DECIMAL),
+        STATUS("p.status", Kind.TEXT),
+        PROCESSED_BY("p.processed_by", Kind.TEXT),
+        CREATED_AT("p.created_at", Kind.TIMESTAMP);
+
+        private final String sql;
+        private final Kind kind;
+
+        Column(String sql, Kind kind) {
+            this.sql = sql;
+            this.kind = kind;
+        }
+
+        public String header() {
+            StringBuilder name = new StringBuilder();
+            for (String part : name().toLowerCase(Locale.ROOT).split("_")) {
+                name.append(name.isEmpty() ? part : Character.toUpperCase(part.charAt(0)) + part.substring(1));
+            }
+            return name.toString();
+        }
+
+        public static Column fromHeader(String header) {
+            for (Column column : values()) {
+                if (column.header().equalsIgnoreCase(header.trim())) {
+                    return column;
+                }
+            }
+            throw new IllegalArgumentException("Unknown export column: " + header);
+        }
+
+        // Read as text, or null for SQL NULL
+        String read(ResultSet rs, int index) throws SQLException {
+            return switch (kind) {
+                case DECIMAL -> {
+                    BigDecimal value = rs.getBigDecimal(index);
+                    yield value != null ? value.toPlainString() : null;
+                }
+                case TIMESTAMP -> {
+                    Timestamp value = rs.getTimestamp(index);
+                    yield value != null ? value.toLocalDateTime().withNano(0).toString().replace('T', ' ') : null;
+                }
+                default -> rs.getString(index);
+            };
+        }
+
+        boolean numeric() {
+            return kind == Kind.INTEGER || kind == Kind.DECIMAL;
+        }
+    }
+
+    private enum Kind {
+        TEXT,
+        INTEGER,
+        DECIMAL,
+        TIMESTAMP
+    }
+
+    public static final List<Column> DEFAULT_COLUMNS = List.of(
+            Column.EMPLOYEE_ID, Column.EMPLOYEE_NAME, Column.DEPARTMENT, Column.MONTH, Column.GROSS_SALARY,
+            Column.UNPAID_LEAVES, Column.LEAVE_DEDUCTION, Column.NET_SALARY, Column.STATUS);
+
+    // Dedicated template: the fetch size must not leak into the shared one
+    private final JdbcTemplate cursorJdbcTemplate;
+
+    @Autowired
+    public PayrollExportService(DataSource dataSource, @Value("${payflow.payroll.export-fetch-size:1000}") int fetchSize) {
+        this.cursorJdbcTemplate = new JdbcTemplate(dataSource);
+        this.cursorJdbcTemplate.setFetchSize(fetchSize);
+    }
+
+    /**
+     * Write every payroll with a month in [fromMonth, toMonth] to out, ordered by month then employee.
+     * out is finished (and its gzip trailer written) but not closed.
+     */
+    public long export(String fromMonth, String toMonth, Format format, List<Column> columns, boolean gzip, OutputStream out)
+            throws IOException {
+        if (YearMonth.parse(fromMonth).isAfter(YearMonth.parse(toMonth))) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        long start = System.currentTimeMillis();
+        GZIPOutputStream gzipOut = gzip ? new GZIPOutputStream(out, 64 * 1024) : null;
+        OutputStream target = gzipOut != null ? gzipOut : out;
+
+        RowSink sink = format == Format.XLSX ? new XlsxSink(target, columns) : new CsvSink(target, columns);
+        String sql = "SELECT " + columns.stream().map(c -> c.sql).collect(Collectors.joining(", ")) +
+                " FROM payroll p JOIN employee e ON e.employee_id = p.employee_id" +
+                " WHERE p.month BETWEEN ? AND ? ORDER BY p.month, p.employee_id";
+
+        long[] rows = {0};
+        String[] values = new String[columns.size()];
+        try {
+            sink.begin();
+            cursorJdbcTemplate.query(sql, rs -> {
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = columns.get(i).read(rs, i + 1);
+                }
+                try {
+                    sink.row(values);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                rows[0]++;
+            }, fromMonth, toMonth);
+            sink.end();
+        } catch (UncheckedIOException e) {
+            // Usually the client went away mid-download
+            throw e.getCause();
+        }
+        if (gzipOut != null) {
+            gzipOut.finish();
+        }
+        out.flush();
+        logger.info("Exported {} payrolls for {}..{} as {}{} in {} ms",
+                rows[0], fromMonth, toMonth, format, gzip ? " (gzip)" : "", System.currentTimeMillis() - start);
+        return rows[0];
+    }
+
+    private interface RowSink {
+        void begin() throws IOException;
+
+        void row(String[] values) throws IOException;
+
+        void end() throws IOException;
+    }
+
+    private static class CsvSink implements RowSink {
+        private final Writer writer;
+        private final List<Column> columns;
+
+        CsvSink(OutputStream out, List<Column> columns) {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+            this.columns = columns;
+        }
+
+        @Override
+        public void begin() throws IOException {
+            List<String> headers = new ArrayList<>(columns.size());
+            columns.forEach(column -> headers.add(column.header()));
+            row(headers.toArray(new String[0]));
+        }
+
+        @Override
+        public void row(String[] values) throws IOException {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writeCsvField(writer, values[i]);
+            }
+            writer.write("\r\n");
+        }
+
+        @Override
+        public void end() throws IOException {
+            writer.flush();
+        }
+    }
+
+    // RFC 4180 quoting, plus a leading quote against spreadsheet formula injection;
+    // tab and carriage return are on OWASP's list too, as spreadsheets strip them before the formula
+    static void writeCsvField(Writer writer, String value) throws IOException {
+        if (value == null || value.isEmpty()) {
+            return;
+        }
+        boolean formula = "=+-@\t\r".indexOf(value.charAt(0)) >= 0 && !isNegativeNumber(value);
+        boolean quote = formula || value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        if (formula) {
+            writer.write('\'');
+        }
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    private static boolean isNegativeNumber(String value) {
+        for (int i = 1; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if ((c < '0' || c > '9') && c != '.') {
+                return false;
+            }
+        }
+        return value.length() > 1 && value.charAt(0) == '-';
+    }
+
+    /**
+     * Minimal single-sheet SpreadsheetML package written entry by entry,
+     * with inline strings so no shared-string table has to be held in memory.
+     */
+    private static class XlsxSink implements RowSink {
+        private final ZipOutputStream zip;
+        private final Writer writer;
+        private final List<Column> columns;
+
+        XlsxSink(OutputStream out, List<Column> columns) {
+            this.zip = new ZipOutputStream(out, StandardCharsets.UTF_8);
+            this.writer = new BufferedWriter(new OutputStreamWriter(zip, StandardCharsets.UTF_8), 64 * 1024);
+            this.columns = columns;
+        }
+
+        @Override
+        public void begin() throws IOException {
+            entry("[Content_Types].xml",
+                    "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>" +
+                    "<Types xmlns=\"http://schemas.openxmlformats.org/package/2006/content-types\">" +
+                    "<Default Extension=\"rels\" ContentType=\"application/vnd.openxmlformats-package.relationships+xml\"/>" +
+                    "<Default Extension=\"xml\" ContentType=\"application/xml\"/>" +
+                    "<Override PartName=\"/xl/workbook.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.sheet.main+xml\"/>" +
+                    "<Override PartName=\"/xl/worksheets/sheet1.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.worksheet+xml\"/>" +
+                    "</Types>");
+            entry("_rels/.rels",
+                    "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>" +
+                    "<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">" +
+                    "<Relationship Id=\"rId1\" Type=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships/officeDocument\" Target=\"xl/workbook.xml\"/>" +
+                    "</Relationships>");
+            entry("xl/workbook.xml",
+                    "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>" +
+                    "<workbook xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\" " +
+                    "xmlns:r=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships\">" +
+                    "<sheets><sheet name=\"Payroll\" sheetId=\"1\" r:id=\"rId1\"/></sheets></workbook>");
+            entry("xl/_rels/workbook.xml.rels",
+                    "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>" +
+                    "<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">" +
+                    "<Relationship Id=\"rId1\" Type=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships/worksheet\" Target=\"worksheets/sheet1.xml\"/>" +
+                    "</Relationships>");
+
+            zip.putNextEntry(new ZipEntry("xl/worksheets/sheet1.xml"));
+            writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>" +
+                    "<worksheet xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\"><sheetData>");
+            writer.write("<row>");
+            for (Column column : columns) {
+                inlineString(column.header());
+            }
+            writer.write("</row>");
+        }
+
+        @Override
+        public void row(String[] values) throws IOException {
+            writer.write("<row>");
+            for (int i = 0; i < values.length; i++) {
+                String value = values[i];
+                if (value == null) {
+                    writer.write("<c/>");
+                } else if (columns.get(i).numeric()) {
+                    writer.write("<c><v>");
+                    writer.write(value);
+                    writer.write("</v></c>");
+                } else {
+                    inlineString(value);
+                }
+            }
+            writer.write("</row>");
+        }
+
+        @Override
+        public void end() throws IOException {
+            writer.write("</sheetData></worksheet>");
+            writer.flush();
+            zip.closeEntry();
+            zip.finish();
+        }
+
+        private void entry(String name, String content) throws IOException {
+            zip.putNextEntry(new ZipEntry(name));
+            zip.write(content.getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+        }
+
+        private void inlineString(String value) throws IOException {
+            writer.write("<c t=\"inlineStr\"><is><t>");
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                switch (c) {
+                    case '&' -> writer.write("&amp;");
+                    case '<' -> writer.write("&lt;");
+                    case '>' -> writer.write("&gt;");
+                    case '"' -> writer.write("&quot;");
+                    default -> {
+                        // Control characters other than tab and newlines are not allowed in XML
+                        if (c >= 0x20 || c == '\t' || c == '\n' || c == '\r') {
+                            writer.write(c);
+                        }
+                    }
+                }
+            }
+            writer.write("</t></is></c>");
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.example.payflow_backend.service;
+
+import com.example.payflow_backend.dto.PayrollLatestRepairResult;
+import com.example.payflow_backend.model.Payroll;
+import com.example.payflow_backend.model.YearMonthKeyConverter;
+import com.example.payflow_backend.repository.EmployeeLatestPayrollRepository;
+import com.example.payflow_backend.repository.PayrollRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps employee_latest_payroll pointing at each employee's newest payroll month. Writers call
+ * the record* methods inside their own transaction; repair rebuilds the pointers from history.
+ */
+@Service
+public class PayrollLatestService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PayrollLatestService.class);
+
+    // Only ever moves a pointer forward, so concurrent writers can apply in any order
+    private static final String ADVANCE_SQL =
+            "INSERT INTO employee_latest_payroll (employee_id, month_key, updated_at) VALUES (?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE month_key = GREATEST(month_key, VALUES(month_key)), updated_at = VALUES(updated_at)";
+
+    // Guarded by the month read, so a pointer a concurrent insert moved meanwhile is left alone
+    private static final String LOWER_SQL =
+            "UPDATE employee_latest_payroll SET month_key = ?, updated_at = ? WHERE employee_id = ? AND month_key = ?";
+
+    // Keeps IN lists well below driver and optimizer limits
+    private static final int CHUNK_SIZE = 1000;
+
+    private static final String REMOVE_SQL =
+            "DELETE FROM employee_latest_payroll WHERE employee_id = ? AND month_key = ?";
+
+    @Autowired
+    private EmployeeLatestPayrollRepository latestRepository;
+
+    @Autowired
+    private PayrollRepository payrollRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordInserted(Payroll payroll) {
+        jdbcTemplate.update(ADVANCE_SQL, payroll.getEmployee().getEmployeeId(),
+                YearMonthKeyConverter.toKey(payroll.getMonth()), Timestamp.valueOf(LocalDateTime.now()));
+    }
+
+    /**
+     * Record a batch of inserted rows; one batched upsert per distinct employee
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordInserted(Collection<Payroll> payrolls) {
+        Map<Long, Integer> newest = new HashMap<>();
+        for (Payroll payroll : payrolls) {
+            newest.merge(payroll.getEmployee().getEmployeeId(), YearMonthKeyConverter.toKey(payroll.getMonth()), Math::max);
+        }
+        advance(newest);
+    }
+
+    /**
+     * Point the employee back at their newest remaining payroll once a deleted one was the latest
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordDeleted(Payroll payroll) {
+        Long employeeId = payroll.getEmployee().getEmployeeId();
+        Integer deleted = YearMonthKeyConverter.toKey(payroll.getMonth());
+        // A JPQL query, so the pending delete is flushed before the MAX is read
+        Integer remaining = YearMonthKeyConverter.toKey(payrollRepository.findLatestMonthKey(employeeId));
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        if (remaining == null) {
+            jdbcTemplate.update(REMOVE_SQL, employeeId, deleted);
+        } else if (remaining < deleted) {
+            jdbcTemplate.update(LOWER_SQL, remaining, now, employeeId, deleted);
+        }
+    }
+
+    /**
+     * Re-point employees whose latest payroll was in a month that was just removed as a whole
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordMonthRemoved(String month) {
+        Integer removed = YearMonthKeyConverter.toKey(month);
+        List<Long> employeeIds = jdbcTemplate.queryForList(
+                "SELECT employee_id FROM employee_latest_payroll WHERE month_key = ?", Long.class, removed);
+        if (employeeIds.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.update("DELETE FROM employee_latest_payroll WHERE month_key = ?", removed);
+        // Their newest remaining month, if they have one
+        Map<Long, Integer> remaining = new HashMap<>();
+        for (int from = 0; from < employeeIds.size(); from += CHUNK_SIZE) {
+            List<Long> chunk = employeeIds.subList(from, Math.min(from + CHUNK_SIZE, employeeIds.size()));
+            jdbcTemplate.query("SELECT employee_id, MAX(month_key) FROM payroll WHERE employee_id IN ("
+                            + String.join(", ", Collections.nCopies(chunk.size(), "?")) + ") GROUP BY employee_id",
+                    rs -> {
+                        remaining.put(rs.getLong(1), rs.getInt(2));
+                    }, chunk.toArray());
+        }
+        advance(remaining);
+    }
+
+    /**
+     * Compare every pointer with the newest month in payroll history and fix the ones that differ
+     */
+    @Transactional
+    public PayrollLatestRepairResult repair() {
+        long start = System.currentTimeMillis();
+        Map<Long, Integer> actual = new HashMap<>();
+        // Index-only: a scan of (employee_id, month_key)
+        jdbcTemplate.query("SELECT employee_id, MAX(month_key) FROM payroll WHERE month_key IS NOT NULL GROUP BY employee_id",
+                rs -> {
+                    actual.put(rs.getLong(1), rs.getInt(2));
+                });
+        Map<Long, Integer> stored = new HashMap<>();
+        jdbcTemplate.query("SELECT employee_id, month_key FROM employee_latest_payroll",
+                rs -> {
+                    stored.put(rs.getLong(1), rs.getInt(2));
+                });
+
+        Map<Long, Integer> advance = new HashMap<>();
+        List<Object[]> lower = new ArrayList<>();
+        List<Object[]> remove = new ArrayList<>();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        actual.forEach((employeeId, month) -> {
+            Integer current = stored.get(employeeId);
+            if (current == null || current < month) {
+                advance.put(employeeId, month);
+            } else if (current > month) {
+                lower.add(new Object[]{month, now, employeeId, current});
+            }
+        });
+        stored.forEach((employeeId, month) -> {
+            if (!actual.containsKey(employeeId)) {
+                remove.add(new Object[]{employeeId, month});
+            }
+        });
+        advance(advance);
+        jdbcTemplate.batchUpdate(LOWER_SQL, lower);
+        jdbcTemplate.batchUpdate(REMOVE_SQL, remove);
+
+        PayrollLatestRepairResult result = PayrollLatestRepairResult.builder()
+                .employees(actual.size())
+                .advanced(advance.size())
+                .lowered(lower.size())
+                .removed(remove.size())
+                .durationMs(System.currentTimeMillis() - start)
+                .build();
+        if (advance.size() + lower.size() + remove.size() > 0) {
+            logger.info("Repaired latest-payroll pointers: {} advanced, {} lowered, {} removed of {} employees in {} ms",
+                    result.getAdvanced(), result.getLowered(), result.getRemoved(), result.getEmployees(), result.getDurationMs());
+        }
+        return result;
+    }
+
+    /**
+     * Build the pointers on first start, after month keys are filled in
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE + 2)
+    @Transactional
+    public void buildIfEmpty() {
+        if (latestRepository.count() == 0) {
+            repair();
+        }
+    }
+
+    private void advance(Map<Long, Integer> newest) {
+        if (newest.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> args = new ArrayList<>(newest.size());
+        newest.forEach((employeeId, month) -> args.add(new Object[]{employeeId, month, now}));
+        jdbcTemplate.batchUpdate(ADVANCE_SQL, args);
+    }
+}
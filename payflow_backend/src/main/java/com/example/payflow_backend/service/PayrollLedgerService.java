@@ -0,0 +1,385 @@
+package com.example.payflow_backend.service;
+
+import com.example.payflow_backend.dto.PayrollLedgerReplay;
+import com.example.payflow_backend.dto.PayrollLedgerState;
+import com.example.payflow_backend.model.Payroll;
+import com.example.payflow_backend.model.PayrollLedgerEntry;
+import com.example.payflow_backend.model.PayrollLedgerEvent;
+import com.example.payflow_backend.model.PayrollLedgerSnapshot;
+import com.example.payflow_backend.model.PayrollStatus;
+import com.example.payflow_backend.repository.PayrollLedgerRepository;
+import com.example.payflow_backend.repository.PayrollLedgerSnapshotRepository;
+import com.example.payflow_backend.repository.PayrollMonthSummaryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Append-only ledger of payroll events. Writers call the record* methods inside their own
+ * transaction, after the month summary delta; every entry holds the payroll's full state after
+ * the event. Periodic per-month snapshots fold the ledger up to an entry, so the current or any
+ * past state of a month is rebuilt from the nearest snapshot plus the entries after it.
+ */
+@Service
+public class PayrollLedgerService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PayrollLedgerService.class);
+
+    private static final String INSERT_SQL =
+            "INSERT INTO payroll_ledger (month, employee_id, payroll_id, event, status, gross_salary, leave_deduction, " +
+            "net_salary, per_day_salary, total_working_days, unpaid_leaves, recorded_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // Entries copied from the payroll rows as they are after a set-based change; a WHERE clause is appended
+    private static final String INSERT_FROM_PAYROLL_SQL =
+            "INSERT INTO payroll_ledger (month, employee_id, payroll_id, event, status, gross_salary, leave_deduction, " +
+            "net_salary, per_day_salary, total_working_days, unpaid_leaves, recorded_at) " +
+            "SELECT p.month, p.employee_id, p.id, ?, p.status, p.gross_salary, p.leave_deduction, " +
+            "p.net_salary, p.per_day_salary, p.total_working_days, p.unpaid_leaves, ? FROM payroll p WHERE ";
+
+    private static final String STATE_COLUMNS =
+            "employee_id, payroll_id, event, status, gross_salary, leave_deduction, net_salary, per_day_salary, " +
+            "total_working_days, unpaid_leaves, recorded_at";
+
+    private static final String INSERT_SNAPSHOT_ROW_SQL =
+            "INSERT INTO payroll_ledger_snapshot_row (snapshot_id, employee_id, payroll_id, last_event, status, " +
+            "gross_salary, leave_deduction, net_salary, per_day_salary, total_working_days, unpaid_leaves, recorded_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // Months with at least ? entries after their newest snapshot
+    private static final String DUE_MONTHS_SQL =
+            "SELECT l.month FROM payroll_ledger l WHERE l.id > COALESCE((SELECT MAX(s.last_entry_id) " +
+            "FROM payroll_ledger_snapshot s WHERE s.month = l.month), 0) " +
+            "GROUP BY l.month HAVING COUNT(*) >= ? ORDER BY l.month";
+
+    // Keeps IN lists well below driver and optimizer limits
+    private static final int CHUNK_SIZE = 1000;
+
+    @Autowired
+    private PayrollLedgerRepository ledgerRepository;
+
+    @Autowired
+    private PayrollLedgerSnapshotRepository snapshotRepository;
+
+    @Autowired
+    private PayrollMonthSummaryRepository summaryRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${payflow.payroll.batch-size:500}")
+    private int batchSize;
+
+    // Entries after the newest snapshot before the periodic job takes a new one
+    @Value("${payflow.payroll.ledger-snapshot-min-entries:1000}")
+    private int snapshotMinEntries;
+
+    /**
+     * Record one payroll as it is after the event (for DELETED, as it was before the delete)
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(PayrollLedgerEvent event, Payroll payroll) {
+        record(event, List.of(payroll));
+    }
+
+    /**
+     * Record payrolls changed from objects that carry their id; rows go out in JDBC batches
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(PayrollLedgerEvent event, Collection<Payroll> payrolls) {
+        if (payrolls.isEmpty()) {
+            return;
+        }
+        TreeSet<String> months = new TreeSet<>();
+        for (Payroll payroll : payrolls) {
+            months.add(payroll.getMonth());
+        }
+        lockMonths(months);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_SQL, payrolls, batchSize, (ps, payroll) -> {
+            ps.setString(1, payroll.getMonth());
+            ps.setLong(2, payroll.getEmployee().getEmployeeId());
+            ps.setLong(3, payroll.getId());
+            ps.setString(4, event.name());
+            ps.setString(5, payroll.getStatus().name());
+            ps.setBigDecimal(6, payroll.getGrossSalary());
+            ps.setBigDecimal(7, payroll.getLeaveDeduction());
+            ps.setBigDecimal(8, payroll.getNetSalary());
+            ps.setBigDecimal(9, payroll.getPerDaySalary());
+            ps.setInt(10, payroll.getTotalWorkingDays());
+            ps.setInt(11, payroll.getUnpaidLeaves());
+            ps.setTimestamp(12, now);
+        });
+    }
+
+    /**
+     * Record rows a bulk insert just wrote; the JDBC insert does not return their ids, so the
+     * entries are copied from the payroll table by (month, employee)
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordGenerated(Collection<Payroll> payrolls) {
+        Map<String, List<Long>> employeesByMonth = new TreeMap<>();
+        for (Payroll payroll : payrolls) {
+            employeesByMonth.computeIfAbsent(payroll.getMonth(), month -> new ArrayList<>())
+                    .add(payroll.getEmployee().getEmployeeId());
+        }
+        lockMonths(employeesByMonth.keySet());
+        employeesByMonth.forEach((month, employeeIds) ->
+                copyRows(PayrollLedgerEvent.GENERATED, "p.month = ? AND p.employee_id", month, employeeIds));
+    }
+
+    /**
+     * Record an employee's payroll for a month as it is now, after an upsert replaced it
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordCurrent(PayrollLedgerEvent event, Long employeeId, String month) {
+        lockMonths(List.of(month));
+        jdbcTemplate.update(INSERT_FROM_PAYROLL_SQL + "p.employee_id = ? AND p.month = ?",
+                event.name(), Timestamp.valueOf(LocalDateTime.now()), employeeId, month);
+    }
+
+    /**
+     * Record the payrolls a month-wide (or department-wide) transition moved; they are the rows
+     * in the target status stamped with the transition's updated_at
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordTransitioned(String month, String department, PayrollStatus to, LocalDateTime updatedAt) {
+        lockMonths(List.of(month));
+        String where = "p.month = ? AND p.status = ? AND p.updated_at = ?";
+        List<Object> args = new ArrayList<>(List.of(PayrollLedgerEvent.STATUS_CHANGED.name(),
+                Timestamp.valueOf(LocalDateTime.now()), month, to.name(), Timestamp.valueOf(updatedAt)));
+        if (department != null) {
+            where += " AND p.department = ?";
+            args.add(department);
+        }
+        jdbcTemplate.update(INSERT_FROM_PAYROLL_SQL + where, args.toArray());
+    }
+
+    /**
+     * Record the status change of the given payrolls of a month, read back from their rows
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordStatusChanged(String month, Collection<Long> payrollIds) {
+        if (payrollIds.isEmpty()) {
+            return;
+        }
+        lockMonths(List.of(month));
+        copyRows(PayrollLedgerEvent.STATUS_CHANGED, "p.id", null, new ArrayList<>(payrollIds));
+    }
+
+    /**
+     * Same, for the first count ids of a reused batch array
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordStatusChanged(String month, long[] payrollIds, int count) {
+        List<Long> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ids.add(payrollIds[i]);
+        }
+        recordStatusChanged(month, ids);
+    }
+
+    /**
+     * An employee's payroll events, oldest first; every month when month is null
+     */
+    @Transactional(readOnly = true)
+    public List<PayrollLedgerEntry> getHistory(Long employeeId, String month) {
+        if (month != null) {
+            YearMonth.parse(month); // validate format
+        }
+        return ledgerRepository.findHistory(employeeId, month);
+    }
+
+    /**
+     * A month's payrolls as the ledger has them now, or as they were at asOf
+     */
+    @Transactional(readOnly = true)
+    public PayrollLedgerReplay replayMonth(String month, LocalDateTime asOf) {
+        YearMonth.parse(month); // validate format
+        long start = System.currentTimeMillis();
+        PayrollLedgerSnapshot snapshot = (asOf == null
+                ? snapshotRepository.findFirstByMonthOrderByLastEntryIdDesc(month)
+                : snapshotRepository.findFirstByMonthAndCreatedAtLessThanEqualOrderByLastEntryIdDesc(month, asOf))
+                .orElse(null);
+        Map<Long, PayrollLedgerState> state = loadSnapshot(snapshot);
+        int replayed = replayTail(month, state, snapshot != null ? snapshot.getLastEntryId() : 0L, null, asOf);
+        return PayrollLedgerReplay.builder()
+                .month(month)
+                .asOf(asOf)
+                .snapshotId(snapshot != null ? snapshot.getId() : null)
+                .snapshotEntryId(snapshot != null ? snapshot.getLastEntryId() : null)
+                .replayedEntries(replayed)
+                .payrolls(new ArrayList<>(state.values()))
+                .durationMs(System.currentTimeMillis() - start)
+                .build();
+    }
+
+    /**
+     * Snapshot every month with enough entries since its newest snapshot, one transaction per month
+     */
+    public List<PayrollLedgerSnapshot> snapshotDueMonths() {
+        List<String> months = jdbcTemplate.queryForList(DUE_MONTHS_SQL, String.class, snapshotMinEntries);
+        List<PayrollLedgerSnapshot> taken = new ArrayList<>(months.size());
+        for (String month : months) {
+            PayrollLedgerSnapshot snapshot = transactionTemplate.execute(status -> snapshot(month));
+            if (snapshot != null) {
+                taken.add(snapshot);
+            }
+        }
+        return taken;
+    }
+
+    /**
+     * Snapshot one month now; empty when nothing was recorded since its newest snapshot
+     */
+    public List<PayrollLedgerSnapshot> snapshotMonth(String month) {
+        YearMonth.parse(month); // validate format
+        PayrollLedgerSnapshot snapshot = transactionTemplate.execute(status -> snapshot(month));
+        return snapshot != null ? List.of(snapshot) : List.of();
+    }
+
+    private PayrollLedgerSnapshot snapshot(String month) {
+        // Appenders hold the month's summary row until they commit, so no lower entry id can still appear
+        lockMonths(List.of(month));
+        Long lastEntryId = jdbcTemplate.queryForObject(
+                "SELECT MAX(id) FROM payroll_ledger WHERE month = ?", Long.class, month);
+        PayrollLedgerSnapshot previous = snapshotRepository.findFirstByMonthOrderByLastEntryIdDesc(month).orElse(null);
+        if (lastEntryId == null || (previous != null && previous.getLastEntryId() >= lastEntryId)) {
+            return null;
+        }
+        long start = System.currentTimeMillis();
+        Map<Long, PayrollLedgerState> state = loadSnapshot(previous);
+        int replayed = replayTail(month, state, previous != null ? previous.getLastEntryId() : 0L, lastEntryId, null);
+
+        PayrollLedgerSnapshot snapshot = snapshotRepository.saveAndFlush(PayrollLedgerSnapshot.builder()
+                .month(month)
+                .lastEntryId(lastEntryId)
+                .rowCount(state.size())
+                .createdAt(LocalDateTime.now())
+                .build());
+        jdbcTemplate.batchUpdate(INSERT_SNAPSHOT_ROW_SQL, state.values(), batchSize, (ps, row) -> {
+            ps.setLong(1, snapshot.getId());
+            ps.setLong(2, row.getEmployeeId());
+            ps.setLong(3, row.getPayrollId());
+            ps.setString(4, row.getLastEvent().name());
+            ps.setString(5, row.getStatus().name());
+            ps.setBigDecimal(6, row.getGrossSalary());
+            ps.setBigDecimal(7, row.getLeaveDeduction());
+            ps.setBigDecimal(8, row.getNetSalary());
+            ps.setBigDecimal(9, row.getPerDaySalary());
+            ps.setInt(10, row.getTotalWorkingDays());
+            ps.setInt(11, row.getUnpaidLeaves());
+            ps.setTimestamp(12, Timestamp.valueOf(row.getRecordedAt()));
+        });
+        logger.info("Payroll ledger snapshot {} for {}: {} payrolls up to entry {} ({} entries replayed) in {} ms",
+                snapshot.getId(), month, state.size(), lastEntryId, replayed, System.currentTimeMillis() - start);
+        return snapshot;
+    }
+
+    /**
+     * Copy payroll rows into the ledger by an IN list on column, in chunks; month, when given, is bound first
+     */
+    private void copyRows(PayrollLedgerEvent event, String column, String month, List<Long> ids) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        for (int from = 0; from < ids.size(); from += CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + CHUNK_SIZE, ids.size()));
+            List<Object> args = new ArrayList<>(chunk.size() + 3);
+            args.add(event.name());
+            args.add(now);
+            if (month != null) {
+                args.add(month);
+            }
+            args.addAll(chunk);
+            jdbcTemplate.update(INSERT_FROM_PAYROLL_SQL + column + " IN ("
+                    + String.join(", ", Collections.nCopies(chunk.size(), "?")) + ")", args.toArray());
+        }
+    }
+
+    private Map<Long, PayrollLedgerState> loadSnapshot(PayrollLedgerSnapshot snapshot) {
+        Map<Long, PayrollLedgerState> state = new TreeMap<>();
+        if (snapshot == null) {
+            return state;
+        }
+        jdbcTemplate.query("SELECT " + STATE_COLUMNS.replace("event", "last_event")
+                        + " FROM payroll_ledger_snapshot_row WHERE snapshot_id = ?",
+                rs -> {
+                    PayrollLedgerState row = readState(rs, snapshot.getMonth());
+                    state.put(row.getEmployeeId(), row);
+                }, snapshot.getId());
+        return state;
+    }
+
+    /**
+     * Apply the month's entries in (afterId, upToId], optionally only those recorded by asOf; returns how many
+     */
+    private int replayTail(String month, Map<Long, PayrollLedgerState> state, long afterId, Long upToId, LocalDateTime asOf) {
+        StringBuilder sql = new StringBuilder("SELECT " + STATE_COLUMNS + " FROM payroll_ledger WHERE month = ? AND id > ?");
+        List<Object> args = new ArrayList<>(List.of(month, afterId));
+        if (upToId != null) {
+            sql.append(" AND id <= ?");
+            args.add(upToId);
+        }
+        if (asOf != null) {
+            sql.append(" AND recorded_at <= ?");
+            args.add(Timestamp.valueOf(asOf));
+        }
+        sql.append(" ORDER BY id");
+        int[] replayed = {0};
+        jdbcTemplate.query(sql.toString(), rs -> {
+            PayrollLedgerState entry = readState(rs, month);
+            replayed[0]++;
+            if (entry.getLastEvent() == PayrollLedgerEvent.DELETED) {
+                state.remove(entry.getEmployeeId());
+                return;
+            }
+            state.put(entry.getEmployeeId(), entry);
+        }, args.toArray());
+        return replayed[0];
+    }
+
+    private static PayrollLedgerState readState(ResultSet rs, String month) throws SQLException {
+        return PayrollLedgerState.builder()
+                .employeeId(rs.getLong(1))
+                .payrollId(rs.getLong(2))
+                .month(month)
+                .lastEvent(PayrollLedgerEvent.valueOf(rs.getString(3)))
+                .status(PayrollStatus.valueOf(rs.getString(4)))
+                .grossSalary(rs.getBigDecimal(5))
+                .leaveDeduction(rs.getBigDecimal(6))
+                .netSalary(rs.getBigDecimal(7))
+                .perDaySalary(rs.getBigDecimal(8))
+                .totalWorkingDays(rs.getInt(9))
+                .unpaidLeaves(rs.getInt(10))
+                .recordedAt(rs.getTimestamp(11).toLocalDateTime())
+                .build();
+    }
+
+    // Months in sorted order, so two appenders spanning the same months cannot deadlock on them
+    private void lockMonths(Collection<String> months) {
+        for (String month : months) {
+            summaryRepository.lockByMonth(month);
+        }
+    }
+}
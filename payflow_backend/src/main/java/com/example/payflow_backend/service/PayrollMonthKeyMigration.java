@@ -0,0 +1,61 @@
+package com.example.payflow_backend.service;
+
+import com.example.payflow_backend.repository.PayrollRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * Fills payroll.month_key, department and designation for rows written before those columns
+ * existed. Schema update adds the columns empty; every write since sets them, so after this runs
+ * once it is only a cheap check.
+ */
+@Component
+public class PayrollMonthKeyMigration {
+
+    private static final Logger logger = LoggerFactory.getLogger(PayrollMonthKeyMigration.class);
+
+    @Autowired
+    private PayrollRepository payrollRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    // Before anything reads payrolls by month key
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE + 1)
+    public void fillMonthKeys() {
+        List<String> months = payrollRepository.findMonthsWithoutMonthKey();
+        int filled = 0;
+        // One transaction per month keeps each UPDATE bounded to a month's rows
+        for (String month : months) {
+            filled += transactionTemplate.execute(status -> payrollRepository.fillMonthKey(month, YearMonth.parse(month)));
+        }
+        if (filled > 0) {
+            logger.info("Filled month_key on {} payrolls across {} months", filled, months.size());
+        }
+    }
+
+    // Before the rollup is read or refreshed
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE + 1)
+    public void fillOrgSnapshots() {
+        List<String> months = payrollRepository.findMonthsWithoutOrgSnapshot();
+        int filled = 0;
+        for (String month : months) {
+            filled += transactionTemplate.execute(status -> payrollRepository.fillOrgSnapshot(month));
+        }
+        if (filled > 0) {
+            logger.info("Filled department and designation on {} payrolls across {} months", filled, months.size());
+        }
+    }
+}
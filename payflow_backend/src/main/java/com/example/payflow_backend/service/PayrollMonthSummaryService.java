@@ -0,0 +1,292 @@
+package com.example.payflow_backend.service;
+
+import com.example.payflow_backend.dto.PayrollAmountsRow;
+import com.example.payflow_backend.dto.PayrollSummaryGroup;
+import com.example.payflow_backend.dto.PayrollSummaryMismatch;
+import com.example.payflow_backend.model.Payroll;
+import com.example.payflow_backend.model.PayrollArchiveMonth;
+import com.example.payflow_backend.model.PayrollMonthSummary;
+import com.example.payflow_backend.model.PayrollStatus;
+import com.example.payflow_backend.repository.PayrollArchiveMonthRepository;
+import com.example.payflow_backend.repository.PayrollMonthSummaryRepository;
+import com.example.payflow_backend.repository.PayrollRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeSet;
+
+/**
+ * Keeps payroll_month_summary in step with the payroll table so the monthly summary is a
+ * primary-key read. Writers call the record* methods inside their own transaction; rebuild
+ * and check recompute the totals from the raw rows.
+ */
+@Service
+public class PayrollMonthSummaryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PayrollMonthSummaryService.class);
+
+    @Autowired
+    private PayrollMonthSummaryRepository summaryRepository;
+
+    @Autowired
+    private PayrollRepository payrollRepository;
+
+    @Autowired
+    private PayrollArchiveMonthRepository archiveMonthRepository;
+
+    /**
+     * Stored totals for a month; all zero when nothing was generated
+     */
+    @Transactional(readOnly = true)
+    public PayrollMonthSummary getSummary(String month) {
+        return summaryRepository.findById(month)
+                .orElseGet(() -> PayrollMonthSummary.builder().month(month).build());
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordInserted(Payroll payroll) {
+        Delta delta = new Delta();
+        delta.add(payroll, 1);
+        apply(payroll.getMonth(), delta);
+    }
+
+    /**
+     * Record a batch of inserted rows with one update per month
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordInserted(Collection<Payroll> payrolls) {
+        Map<String, Delta> deltas = new LinkedHashMap<>();
+        for (Payroll payroll : payrolls) {
+            deltas.computeIfAbsent(payroll.getMonth(), month -> new Delta()).add(payroll, 1);
+        }
+        deltas.forEach(this::apply);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordDeleted(Payroll payroll) {
+        Delta delta = new Delta();
+        delta.add(payroll, -1);
+        apply(payroll.getMonth(), delta);
+    }
+
+    /**
+     * Record count payrolls of a month moving from one status to another
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordStatusChanged(String month, PayrollStatus from, PayrollStatus to, long count) {
+        if (from == to || count == 0) {
+            return;
+        }
+        Delta delta = new Delta();
+        delta.count(from, -count);
+        delta.count(to, count);
+        apply(month, delta);
+    }
+
+    /**
+     * Record recomputed amounts replacing the stored ones of the same rows (status unchanged)
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordAmountsChanged(String month, Collection<PayrollAmountsRow> before, Collection<Payroll> after) {
+        if (after.isEmpty()) {
+            return;
+        }
+        Delta delta = new Delta();
+        for (PayrollAmountsRow row : before) {
+            delta.gross = delta.gross.subtract(row.getGrossSalary());
+            delta.deductions = delta.deductions.subtract(row.getLeaveDeduction());
+            delta.net = delta.net.subtract(row.getNetSalary());
+            delta.unpaidLeaves -= row.getUnpaidLeaves();
+        }
+        for (Payroll payroll : after) {
+            delta.gross = delta.gross.add(payroll.getGrossSalary());
+            delta.deductions = delta.deductions.add(payroll.getLeaveDeduction());
+            delta.net = delta.net.add(payroll.getNetSalary());
+            delta.unpaidLeaves += payroll.getUnpaidLeaves();
+        }
+        apply(month, delta);
+    }
+
+    /**
+     * Recompute a month's totals from its payroll rows and overwrite the stored row.
+     * The month row is locked first, so writers committing meanwhile add their deltas on top.
+     * READ_COMMITTED because the aggregate must see every writer that committed before the lock
+     * was granted; under REPEATABLE READ it would read the snapshot fixed by the first statement.
+     */
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    public PayrollMonthSummary rebuild(String month) {
+        // An archived month's rows are gone from the payroll table; its summary holds the final totals
+        if (archiveMonthRepository.existsById(month)) {
+            return getSummary(month);
+        }
+        apply(month, new Delta()); // creates and locks the row
+        PayrollMonthSummary actual = computeFromPayrolls(month);
+        PayrollMonthSummary stored = summaryRepository.findById(month).orElseThrow();
+        copyTotals(actual, stored);
+        stored.setUpdatedAt(LocalDateTime.now());
+        return summaryRepository.save(stored);
+    }
+
+    /**
+     * Rebuild every month that has payrolls and drop summaries of months that no longer do
+     */
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    public List<PayrollMonthSummary> rebuildAll() {
+        List<String> months = payrollRepository.findDistinctMonths();
+        for (PayrollMonthSummary summary : summaryRepository.findAll()) {
+            if (!months.contains(summary.getMonth()) && !archiveMonthRepository.existsById(summary.getMonth())) {
+                summaryRepository.delete(summary);
+            }
+        }
+        List<PayrollMonthSummary> rebuilt = new ArrayList<>(months.size());
+        for (String month : months) {
+            rebuilt.add(rebuild(month));
+        }
+        logger.info("Rebuilt payroll month summaries for {} months", rebuilt.size());
+        return rebuilt;
+    }
+
+    /**
+     * Compare every stored summary with totals recomputed from the payroll table
+     */
+    @Transactional(readOnly = true)
+    public List<PayrollSummaryMismatch> check() {
+        TreeSet<String> months = new TreeSet<>(payrollRepository.findDistinctMonths());
+        Map<String, PayrollMonthSummary> stored = new LinkedHashMap<>();
+        for (PayrollMonthSummary summary : summaryRepository.findAllByOrderByMonthAsc()) {
+            stored.put(summary.getMonth(), summary);
+            months.add(summary.getMonth());
+        }
+        for (PayrollArchiveMonth archived : archiveMonthRepository.findAll()) {
+            months.remove(archived.getMonth());
+        }
+
+        List<PayrollSummaryMismatch> mismatches = new ArrayList<>();
+        for (String month : months) {
+            PayrollMonthSummary actual = computeFromPayrolls(month);
+            PayrollMonthSummary current = stored.get(month);
+            boolean consistent = current != null
+                    ? current.sameTotals(actual)
+                    : actual.getTotalEmployees() == 0;
+            if (!consistent) {
+                mismatches.add(PayrollSummaryMismatch.builder().month(month).stored(current).actual(actual).build());
+            }
+        }
+        if (!mismatches.isEmpty()) {
+            logger.warn("Payroll month summary out of date for {} of {} months", mismatches.size(), months.size());
+        }
+        return mismatches;
+    }
+
+    /**
+     * Build summaries for months generated before the table existed
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    public void backfillMissingMonths() {
+        List<String> missing = payrollRepository.findMonthsWithoutSummary();
+        for (String month : missing) {
+            rebuild(month);
+        }
+        if (!missing.isEmpty()) {
+            logger.info("Backfilled payroll month summaries for {}", missing);
+        }
+    }
+
+    private PayrollMonthSummary computeFromPayrolls(String month) {
+        PayrollMonthSummary summary = PayrollMonthSummary.builder().month(month).build();
+        Delta delta = new Delta();
+        // A handful of (department, status) rows per month
+        for (PayrollSummaryGroup group : payrollRepository.summarizeMonthByDepartmentAndStatus(month)) {
+            delta.employees += group.getTotalEmployees();
+            delta.gross = delta.gross.add(group.getTotalGrossSalary());
+            delta.deductions = delta.deductions.add(group.getTotalLeaveDeductions());
+            delta.net = delta.net.add(group.getTotalNetSalary());
+            delta.unpaidLeaves += group.getTotalUnpaidLeaves();
+            delta.count(group.getStatus(), group.getTotalEmployees());
+        }
+        summary.setTotalEmployees(delta.employees);
+        summary.setTotalGrossSalary(delta.gross);
+        summary.setTotalLeaveDeductions(delta.deductions);
+        summary.setTotalNetSalary(delta.net);
+        summary.setTotalUnpaidLeaves(delta.unpaidLeaves);
+        summary.setPendingCount(delta.pending);
+        summary.setProcessedCount(delta.processed);
+        summary.setCompletedCount(delta.completed);
+        summary.setCancelledCount(delta.cancelled);
+        return summary;
+    }
+
+    private static void copyTotals(PayrollMonthSummary from, PayrollMonthSummary to) {
+        to.setTotalEmployees(from.getTotalEmployees());
+        to.setTotalGrossSalary(from.getTotalGrossSalary());
+        to.setTotalLeaveDeductions(from.getTotalLeaveDeductions());
+        to.setTotalNetSalary(from.getTotalNetSalary());
+        to.setTotalUnpaidLeaves(from.getTotalUnpaidLeaves());
+        to.setPendingCount(from.getPendingCount());
+        to.setProcessedCount(from.getProcessedCount());
+        to.setCompletedCount(from.getCompletedCount());
+        to.setCancelledCount(from.getCancelledCount());
+    }
+
+    private void apply(String month, Delta delta) {
+        summaryRepository.applyDelta(month, delta.employees, delta.gross, delta.deductions, delta.net,
+                delta.unpaidLeaves, delta.pending, delta.processed, delta.completed, delta.cancelled,
+                LocalDateTime.now());
+        // Archiving holds the month row while it moves the month out, so with the row locked the
+        // month is either archived already or cannot be until this writer commits
+        if (archiveMonthRepository.lockByMonth(month).isPresent()) {
+            throw new IllegalArgumentException("Payroll for month " + month + " is archived and can no longer be changed");
+        }
+    }
+
+    // Signed change to one month's totals
+    private static class Delta {
+        long employees;
+        BigDecimal gross = BigDecimal.ZERO;
+        BigDecimal deductions = BigDecimal.ZERO;
+        BigDecimal net = BigDecimal.ZERO;
+        long unpaidLeaves;
+        long pending;
+        long processed;
+        long completed;
+        long cancelled;
+
+        void add(Payroll payroll, int sign) {
+            BigDecimal factor = BigDecimal.valueOf(sign);
+            employees += sign;
+            gross = gross.add(payroll.getGrossSalary().multiply(factor));
+            deductions = deductions.add(Optional.ofNullable(payroll.getLeaveDeduction()).orElse(BigDecimal.ZERO).multiply(factor));
+            net = net.add(payroll.getNetSalary().multiply(factor));
+            unpaidLeaves += (long) sign * Optional.ofNullable(payroll.getUnpaidLeaves()).orElse(0);
+            count(payroll.getStatus(), sign);
+        }
+
+        void count(PayrollStatus status, long n) {
+            if (status == null) {
+                return;
+            }
+            switch (status) {
+                case PENDING -> pending += n;
+                case PROCESSED -> processed += n;
+                case COMPLETED -> completed += n;
+                case CANCELLED -> cancelled += n;
+            }
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package com.example.payflow_backend.service;
+
+import com.example.payflow_backend.dto.CTCSalaryRow;
+import com.example.payflow_backend.dto.PayrollAmountChange;
+import com.example.payflow_backend.dto.PayrollAmountsRow;
+import com.example.payflow_backend.dto.PayrollEmployeeRow;
+import com.example.payflow_backend.dto.PayrollRecomputeResult;
+import com.example.payflow_backend.dto.PayrollRegenerationResult;
+import com.example.payflow_backend.model.Employee;
+import com.example.payflow_backend.model.Payroll;
+import com.example.payflow_backend.model.PayrollLedgerEvent;
+import com.example.payflow_backend.model.PayrollStatus;
+import com.example.payflow_backend.repository.CTCRepository;
+import com.example.payflow_backend.repository.EmployeeRepository;
+import com.example.payflow_backend.repository.PayrollDirtyMarkRepository;
+import com.example.payflow_backend.repository.PayrollJdbcRepository;
+import com.example.payflow_backend.repository.PayrollRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Re-derives only the payrolls marked dirty by {@link PayrollDirtyTracker}, or every payroll
+ * of a month, in batch. Rows whose amounts come out the same are left untouched; COMPLETED
+ * and CANCELLED payrolls are never rewritten.
+ *
+ * Unpaid leave days are only known live for the running month (the employee's counter is reset
+ * on the 1st), so every earlier month is recomputed with the unpaid days it already holds.
+ */
+@Service
+public class PayrollRecomputeService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PayrollRecomputeService.class);
+
+    // Keeps IN lists well below driver and optimizer limits
+    private static final int CHUNK_SIZE = 1000;
+
+    @Autowired
+    private PayrollDirtyMarkRepository dirtyMarkRepository;
+
+    @Autowired
+    private PayrollRepository payrollRepository;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private CTCRepository ctcRepository;
+
+    @Autowired
+    private PayrollJdbcRepository payrollJdbcRepository;
+
+    @Autowired
+    private PayrollCalculator payrollCalculator;
+
+    @Autowired
+    private PayrollMonthSummaryService payrollMonthSummaryService;
+
+    @Autowired
+    private PayrollLedgerService payrollLedgerService;
+
+    /**
+     * Recompute every dirty payroll
+     */
+    @Transactional
+    public PayrollRecomputeResult recomputeDirty() {
+        return recompute(dirtyMarkRepository.findDirtyMonths());
+    }
+
+    /**
+     * Recompute the dirty payrolls of one month
+     */
+    @Transactional
+    public PayrollRecomputeResult recomputeDirty(String month) {
+        YearMonth.parse(month); // validate format
+        return recompute(List.of(month));
+    }
+
+    /**
+     * Recompute every payroll of a month and rewrite only the rows whose amounts changed,
+     * reporting old and new amounts of each. A dry run computes the same report without writing.
+     */
+    @Transactional
+    public PayrollRegenerationResult regenerateMonth(String month, boolean dryRun) {
+        YearMonth.parse(month); // validate format
+        long start = System.currentTimeMillis();
+        Counts counts = new Counts();
+        List<PayrollAmountChange> changes = new ArrayList<>();
+
+        List<Long> employeeIds = payrollRepository.findEmployeeIdsByMonth(month);
+        for (int from = 0; from < employeeIds.size(); from += CHUNK_SIZE) {
+            List<Long> chunk = employeeIds.subList(from, Math.min(from + CHUNK_SIZE, employeeIds.size()));
+            // These pairs are about to be made current, so the marks pending for them are settled too
+            List<Long> markIds = dryRun ? List.of() : dirtyMarkRepository.findIdsByMonthAndEmployeeIds(month, chunk);
+            recomputeChunk(month, chunk, counts, changes, !dryRun);
+            if (!markIds.isEmpty()) {
+                dirtyMarkRepository.deleteConsumed(markIds);
+            }
+        }
+
+        long durationMs = System.currentTimeMillis() - start;
+        logger.info("Regenerated payrolls for {}{}: {} checked, {} changed, {} unchanged, {} locked, {} skipped in {} ms",
+                month, dryRun ? " (dry run)" : "", counts.pairs, changes.size(), counts.unchanged, counts.locked,
+                counts.skipped, durationMs);
+        return PayrollRegenerationResult.builder()
+                .month(month)
+                .dryRun(dryRun)
+                .checked(counts.pairs)
+                .updated(counts.updated)
+                .unchanged(counts.unchanged)
+                .locked(counts.locked)
+                .skipped(counts.skipped)
+                .changes(changes)
+                .durationMs(durationMs)
+                .build();
+    }
+
+    private PayrollRecomputeResult recompute(List<String> months) {
+        long start = System.currentTimeMillis();
+        Counts counts = new Counts();
+
+        for (String month : months) {
+            List<Long> employeeIds = dirtyMarkRepository.findDirtyEmployeeIds(month);
+            for (int from = 0; from < employeeIds.size(); from += CHUNK_SIZE) {
+                List<Long> chunk = employeeIds.subList(from, Math.min(from + CHUNK_SIZE, employeeIds.size()));
+                // Only the marks read here are deleted; a change committing while we run
+                // leaves a new mark behind for the next pass
+                List<Long> markIds = dirtyMarkRepository.findIdsByMonthAndEmployeeIds(month, chunk);
+                recomputeChunk(month, chunk, counts, null, true);
+                if (!markIds.isEmpty()) {
+                    dirtyMarkRepository.deleteConsumed(markIds);
+                }
+            }
+        }
+
+        long durationMs = System.currentTimeMillis() - start;
+        if (counts.pairs > 0) {
+            logger.info("Recomputed dirty payrolls for {}: {} pairs, {} updated, {} unchanged, {} locked, {} skipped in {} ms",
+                    months, counts.pairs, counts.updated, counts.unchanged, counts.locked, counts.skipped, durationMs);
+        }
+        return PayrollRecomputeResult.builder()
+                .months(months)
+                .dirtyPairs(counts.pairs)
+                .updated(counts.updated)
+                .unchanged(counts.unchanged)
+                .locked(counts.locked)
+                .skipped(counts.skipped)
+                .durationMs(durationMs)
+                .build();
+    }
+
+    /**
+     * Recompute one chunk of a month's employees. Changed rows are added to changes when it is
+     * given, and written only when write is set.
+     */
+    private void recomputeChunk(String month, List<Long> employeeIds, Counts counts,
+                                List<PayrollAmountChange> changes, boolean write) {
+        counts.pairs += employeeIds.size();
+
+        Map<Long, PayrollAmountsRow> stored = new HashMap<>();
+        // Locked when writing, so the summary delta is taken against what gets replaced
+        List<PayrollAmountsRow> storedRows = write
+                ? payrollRepository.lockAmountsByMonthAndEmployeeIds(month, employeeIds)
+                : payrollRepository.findAmountsByMonthAndEmployeeIds(month, employeeIds);
+        for (PayrollAmountsRow row : storedRows) {
+            stored.put(row.getEmployeeId(), row);
+        }
+        Map<Long, PayrollEmployeeRow> employees = new HashMap<>();
+        for (PayrollEmployeeRow row : employeeRepository.findPayrollRowsByIds(employeeIds)) {
+            employees.put(row.getEmployeeId(), row);
+        }
+        Map<Long, CTCSalaryRow> salaries = new HashMap<>();
+        // Ordered by employee then ctcId, so the last row wins ties like in bulk generation
+        for (CTCSalaryRow row : ctcRepository.findEffectiveSalaryRowsAsOfForEmployees(
+                PayrollCalculator.ctcAsOfDate(YearMonth.parse(month)), employeeIds)) {
+            salaries.put(row.getEmployeeId(), row);
+        }
+
+        YearMonth yearMonth = YearMonth.parse(month);
+        boolean runningMonth = yearMonth.equals(YearMonth.now());
+        int totalWorkingDays = yearMonth.lengthOfMonth();
+        List<Payroll> changed = new ArrayList<>();
+        List<PayrollAmountsRow> replaced = new ArrayList<>();
+        for (Long employeeId : employeeIds) {
+            PayrollAmountsRow current = stored.get(employeeId);
+            PayrollEmployeeRow employee = employees.get(employeeId);
+            CTCSalaryRow salary = salaries.get(employeeId);
+            if (current == null || employee == null || salary == null) {
+                counts.skipped++;
+                continue;
+            }
+            if (current.getStatus() == PayrollStatus.COMPLETED || current.getStatus() == PayrollStatus.CANCELLED) {
+                counts.locked++;
+                continue;
+            }
+            int unpaidLeaves = runningMonth ? employee.getExtraLeavesThisMonth()
+                    : current.getUnpaidLeaves() != null ? current.getUnpaidLeaves() : 0;
+            Payroll recomputed = payrollCalculator.buildPayroll(
+                    Employee.builder().employeeId(employeeId).build(), month, totalWorkingDays,
+                    salary, unpaidLeaves);
+            if (sameAmounts(current, recomputed)) {
+                counts.unchanged++;
+            } else {
+                recomputed.setId(current.getId());
+                recomputed.setStatus(current.getStatus());
+                changed.add(recomputed);
+                replaced.add(current);
+                if (changes != null) {
+                    changes.add(PayrollAmountChange.builder()
+                            .payrollId(current.getId())
+                            .employeeId(employeeId)
+                            .before(current)
+                            .after(amountsOf(recomputed, employeeId))
+                            .build());
+                }
+            }
+        }
+        if (write) {
+            counts.updated += payrollJdbcRepository.batchUpdateAmounts(changed);
+            payrollMonthSummaryService.recordAmountsChanged(month, replaced, changed);
+            payrollLedgerService.record(PayrollLedgerEvent.RECOMPUTED, changed);
+        }
+    }
+
+    private static PayrollAmountsRow amountsOf(Payroll payroll, Long employeeId) {
+        return new PayrollAmountsRow(payroll.getId(), employeeId, payroll.getGrossSalary(), payroll.getLeaveDeduction(),
+                payroll.getNetSalary(), payroll.getPerDaySalary(), payroll.getTotalWorkingDays(),
+                payroll.getUnpaidLeaves(), payroll.getStatus());
+    }
+
+    /**
+     * Whether a stored row already holds the amounts a recomputation produced
+     */
+    static boolean sameAmounts(PayrollAmountsRow stored, Payroll recomputed) {
+        return sameAmount(stored.getGrossSalary(), recomputed.getGrossSalary())
+                && sameAmount(stored.getLeaveDeduction(), recomputed.getLeaveDeduction())
+                && sameAmount(stored.getNetSalary(), recomputed.getNetSalary())
+                && sameAmount(stored.getPerDaySalary(), recomputed.getPerDaySalary())
+                && Objects.equals(stored.getTotalWorkingDays(), recomputed.getTotalWorkingDays())
+                && Objects.equals(stored.getUnpaidLeaves(), recomputed.getUnpaidLeaves());
+    }
+
+    private static boolean sameAmount(BigDecimal a, BigDecimal b) {
+        return a == null ? b == null : b != null && a.compareTo(b) == 0;
+    }
+
+    private static class Counts {
+        int pairs;
+        int updated;
+        int unchanged;
+        int locked;
+        int skipped;
+    }
+}
@@ -0,0 +1,178 @@
+package com.example.payflow_backend.service;
+
+import com.example.payflow_backend.dto.PayrollRollupSlice;
+import com.example.payflow_backend.dto.PayrollRunProgress;
+import com.example.payflow_backend.model.PayrollMonthSummary;
+import com.example.payflow_backend.model.PayrollRollup;
+import com.example.payflow_backend.repository.PayrollMonthSummaryRepository;
+import com.example.payflow_backend.repository.PayrollRollupRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Department x designation x month payroll rollup.
+ * A month's cells are rebuilt from its payrolls only when the month changed since they were
+ * built (tracked through payroll_month_summary.change_count), after every run and periodically,
+ * so range queries read a few pre-aggregated rows per month. Each cell is keyed by the department
+ * and designation recorded on the payroll row, so a transfer never moves a past month's totals.
+ */
+@Service
+public class PayrollRollupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PayrollRollupService.class);
+
+    public enum Dimension {
+        MONTH,
+        DEPARTMENT,
+        DESIGNATION
+    }
+
+    @Autowired
+    private PayrollRollupRepository rollupRepository;
+
+    @Autowired
+    private PayrollMonthSummaryRepository summaryRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    /**
+     * Totals for months in [fromMonth, toMonth], grouped by the given dimensions
+     * (none gives a single grand total) and optionally filtered to one department or designation.
+     * Read-only: months changed since their cells were built are aggregated from their payrolls
+     * here, and their cells are rebuilt after runs and by the periodic refresh instead.
+     */
+    @Transactional(readOnly = true)
+    public List<PayrollRollupSlice> query(String fromMonth, String toMonth, Set<Dimension> groupBy,
+                                          String department, String designation) {
+        if (YearMonth.parse(fromMonth).isAfter(YearMonth.parse(toMonth))) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        Set<String> staleMonths = staleMonths(fromMonth, toMonth);
+        List<PayrollRollupSlice> cells = new ArrayList<>();
+        for (PayrollRollup cell : rollupRepository.findCells(fromMonth, toMonth, department, designation)) {
+            if (!staleMonths.contains(cell.getMonth())) {
+                cells.add(PayrollRollupSlice.builder()
+                        .month(cell.getMonth())
+                        .department(cell.getDepartment())
+                        .designation(cell.getDesignation())
+                        .employeeCount(cell.getEmployeeCount())
+                        .totalGrossSalary(cell.getTotalGrossSalary())
+                        .totalLeaveDeductions(cell.getTotalLeaveDeductions())
+                        .totalNetSalary(cell.getTotalNetSalary())
+                        .totalUnpaidLeaves(cell.getTotalUnpaidLeaves())
+                        .build());
+            }
+        }
+        if (!staleMonths.isEmpty()) {
+            cells.addAll(rollupRepository.aggregateMonths(staleMonths, department, designation));
+        }
+
+        boolean byMonth = groupBy.contains(Dimension.MONTH);
+        boolean byDepartment = groupBy.contains(Dimension.DEPARTMENT);
+        boolean byDesignation = groupBy.contains(Dimension.DESIGNATION);
+
+        Map<List<String>, PayrollRollupSlice> slices = new LinkedHashMap<>();
+        for (PayrollRollupSlice cell : cells) {
+            String month = byMonth ? cell.getMonth() : null;
+            String cellDepartment = byDepartment ? cell.getDepartment() : null;
+            String cellDesignation = byDesignation ? cell.getDesignation() : null;
+            PayrollRollupSlice slice = slices.computeIfAbsent(Arrays.asList(month, cellDepartment, cellDesignation),
+                    key -> PayrollRollupSlice.builder()
+                            .month(month)
+                            .department(cellDepartment)
+                            .designation(cellDesignation)
+                            .totalGrossSalary(BigDecimal.ZERO)
+                            .totalLeaveDeductions(BigDecimal.ZERO)
+                            .totalNetSalary(BigDecimal.ZERO)
+                            .build());
+            slice.setEmployeeCount(slice.getEmployeeCount() + cell.getEmployeeCount());
+            slice.setTotalGrossSalary(slice.getTotalGrossSalary().add(cell.getTotalGrossSalary()));
+            slice.setTotalLeaveDeductions(slice.getTotalLeaveDeductions().add(cell.getTotalLeaveDeductions()));
+            slice.setTotalNetSalary(slice.getTotalNetSalary().add(cell.getTotalNetSalary()));
+            slice.setTotalUnpaidLeaves(slice.getTotalUnpaidLeaves() + cell.getTotalUnpaidLeaves());
+        }
+
+        List<PayrollRollupSlice> result = new ArrayList<>(slices.values());
+        Comparator<String> nullsFirst = Comparator.nullsFirst(Comparator.naturalOrder());
+        result.sort(Comparator.comparing(PayrollRollupSlice::getMonth, nullsFirst)
+                .thenComparing(PayrollRollupSlice::getDepartment, nullsFirst)
+                .thenComparing(PayrollRollupSlice::getDesignation, nullsFirst));
+        return result;
+    }
+
+    /**
+     * Rebuild the cells of every month in the range whose payrolls changed since its last build
+     */
+    @Transactional
+    public int refreshStale(String fromMonth, String toMonth) {
+        Set<String> months = staleMonths(fromMonth, toMonth);
+        for (String month : months) {
+            refreshMonth(month);
+        }
+        return months.size();
+    }
+
+    /**
+     * Rebuild the cells of every month whose payrolls changed since its last build
+     */
+    @Transactional
+    public int refreshAllStale() {
+        return refreshStale("0000-01", "9999-12");
+    }
+
+    /**
+     * Rebuild one month's cells from its payroll rows
+     */
+    @Transactional
+    public void refreshMonth(String month) {
+        // Lock first: payroll writers hold this row until they commit, so the aggregate sees their rows
+        PayrollMonthSummary summary = summaryRepository.lockByMonth(month).orElse(null);
+        rollupRepository.deleteByMonth(month);
+        int cells = rollupRepository.insertMonthFromPayrolls(month);
+        if (summary != null) {
+            summary.setRollupChangeCount(summary.getChangeCount());
+        }
+        logger.debug("Rebuilt payroll rollup for {}: {} cells", month, cells);
+    }
+
+    // Months whose cells no longer match their payrolls, including months whose payrolls are all gone
+    private Set<String> staleMonths(String fromMonth, String toMonth) {
+        Set<String> months = new TreeSet<>(summaryRepository.findMonthsWithStaleRollup(fromMonth, toMonth));
+        months.addAll(rollupRepository.findOrphanedMonths(fromMonth, toMonth));
+        return months;
+    }
+
+    /**
+     * Refresh a month as soon as a payroll run for it stops executing
+     */
+    @EventListener
+    public void onRunProgress(PayrollRunProgress progress) {
+        if (progress.isExecuting()) {
+            return;
+        }
+        try {
+            // Own transaction, so a failed refresh never touches the publishing run
+            transactionTemplate.executeWithoutResult(status -> refreshMonth(progress.getMonth()));
+        } catch (Exception e) {
+            // Queries rebuild stale months anyway, so the run itself must not fail here
+            logger.warn("Could not refresh payroll rollup for {}: {}", progress.getMonth(), e.getMessage());
+        }
+    }
+}
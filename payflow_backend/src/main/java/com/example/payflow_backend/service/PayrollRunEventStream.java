@@ -0,0 +1,132 @@
+package com.example.payflow_backend.service;
+
+import com.example.payflow_backend.dto.PayrollRunProgress;
+import com.example.payflow_backend.model.PayrollRunStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+
+/**
+ * Fans payroll run progress events out to server-sent-event subscribers.
+ * Streams complete once the run leaves the RUNNING state.
+ */
+@Component
+public class PayrollRunEventStream {
+
+    private static final Logger logger = LoggerFactory.getLogger(PayrollRunEventStream.class);
+
+    // Long enough for a full month run; the stream completes earlier when the run ends
+    private static final long EMITTER_TIMEOUT_MS = 60 * 60 * 1000L;
+
+    private final Map<Long, List<Subscriber>> subscribers = new ConcurrentHashMap<>();
+
+    /**
+     * Subscribe to a run; its current progress is sent immediately. The subscriber is registered
+     * before that progress is read, so a run ending in between still completes the stream.
+     */
+    public SseEmitter subscribe(Long jobId, Supplier<PayrollRunProgress> currentProgress) {
+        SseEmitter emitter = new SseEmitter(EMITTER_TIMEOUT_MS);
+        Subscriber subscriber = new Subscriber(emitter);
+        subscribers.compute(jobId, (id, list) -> {
+            List<Subscriber> registered = list != null ? list : new CopyOnWriteArrayList<>();
+            registered.add(subscriber);
+            return registered;
+        });
+        emitter.onCompletion(() -> remove(jobId, subscriber));
+        emitter.onTimeout(() -> remove(jobId, subscriber));
+        emitter.onError(e -> remove(jobId, subscriber));
+
+        PayrollRunProgress current;
+        try {
+            current = currentProgress.get();
+        } catch (RuntimeException e) {
+            remove(jobId, subscriber);
+            throw e;
+        }
+        if (!subscriber.deliver(current, isTerminal(current))) {
+            remove(jobId, subscriber);
+        }
+        return emitter;
+    }
+
+    @EventListener
+    public void onProgress(PayrollRunProgress progress) {
+        List<Subscriber> registered = subscribers.get(progress.getJobId());
+        if (registered == null) {
+            return;
+        }
+        boolean terminal = isTerminal(progress);
+        for (Subscriber subscriber : registered) {
+            if (!subscriber.deliver(progress, terminal)) {
+                remove(progress.getJobId(), subscriber);
+            }
+        }
+    }
+
+    // Subscribers registered for a job, for tests and diagnostics
+    int subscriberCount(Long jobId) {
+        List<Subscriber> registered = subscribers.get(jobId);
+        return registered != null ? registered.size() : 0;
+    }
+
+    private boolean isTerminal(PayrollRunProgress progress) {
+        return progress.getStatus() != PayrollRunStatus.RUNNING || !progress.isExecuting();
+    }
+
+    // Drops a subscriber, and its job's list once empty, atomically with registration
+    private void remove(Long jobId, Subscriber subscriber) {
+        subscribers.computeIfPresent(jobId, (id, list) -> {
+            list.remove(subscriber);
+            return list.isEmpty() ? null : list;
+        });
+    }
+
+    /**
+     * One SSE client. Deliveries are serialized and stop once its stream is completed, so a
+     * terminal event racing with the initial progress is never sent to a closed emitter.
+     */
+    private static final class Subscriber {
+
+        private final SseEmitter emitter;
+
+        private boolean done;
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        // Send progress, completing the stream on a terminal one; false once the subscriber is finished
+        synchronized boolean deliver(PayrollRunProgress progress, boolean terminal) {
+            if (done) {
+                return false;
+            }
+            try {
+                emitter.send(SseEmitter.event()
+                        .name("progress")
+                        .id(progress.getJobId() + "-" + progress.getProcessed())
+                        .data(progress));
+            } catch (IOException | IllegalStateException e) {
+                // Client went away
+                logger.debug("Dropping payroll run subscriber for job {}: {}", progress.getJobId(), e.getMessage());
+                done = true;
+                emitter.completeWithError(e);
+                return false;
+            }
+            if (terminal) {
+                done = true;
+                emitter.complete();
+                return false;
+            }
+            return true;
+        }
+    }
+}
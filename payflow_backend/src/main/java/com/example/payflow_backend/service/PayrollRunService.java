@@ -0,0 +1,366 @@
+package com.example.payflow_backend.service;
+
+import com.example.payflow_backend.dto.PayrollPartitionResult;
+import com.example.payflow_backend.dto.PayrollRunProgress;
+import com.example.payflow_backend.model.PayrollRun;
+import com.example.payflow_backend.model.PayrollRunStatus;
+import com.example.payflow_backend.repository.EmployeeRepository;
+import com.example.payflow_backend.repository.PayrollRunRepository;
+import com.example.payflow_backend.service.PartitionedPayrollRunner.EmployeeRange;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Resumable month-wide payroll runs.
+ *
+ * A run walks active employees in ascending ID order in waves of
+ * parallelism x partition-size employees. Each wave's partitions commit
+ * independently, then the run's cursor is advanced past the longest prefix of
+ * partitions that succeeded. After a crash, pause or partition failure the run
+ * resumes from that cursor; a partly committed wave is simply re-run, and its
+ * already generated rows are skipped by the bulk duplicate check.
+ *
+ * Runs double as background jobs: the submit methods return as soon as the run
+ * is claimed, and progress is published as {@link PayrollRunProgress} events.
+ *
+ * Several instances may share the database. A claimed run records its owner instance,
+ * which refreshes the run's heartbeat while executing it; only a RUNNING run whose
+ * heartbeat went stale is taken to be interrupted and marked FAILED (resumable).
+ */
+@Service
+public class PayrollRunService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PayrollRunService.class);
+
+    private static final Set<PayrollRunStatus> UNFINISHED =
+            EnumSet.of(PayrollRunStatus.RUNNING, PayrollRunStatus.PAUSED, PayrollRunStatus.FAILED);
+
+    // A RUNNING run is executing somewhere (or is flipped to FAILED once its heartbeat is stale), so it cannot be claimed again
+    private static final Set<PayrollRunStatus> RESUMABLE = EnumSet.of(PayrollRunStatus.PAUSED, PayrollRunStatus.FAILED);
+
+    @Autowired
+    private PayrollRunRepository payrollRunRepository;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private PartitionedPayrollRunner partitionedPayrollRunner;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private PayrollArchiveService payrollArchiveService;
+
+    // Runs currently executing in this JVM, with when the current execution started and its starting count
+    private final Map<Long, long[]> activeRuns = new ConcurrentHashMap<>();
+
+    // Owner recorded on the runs this instance claims; unique per process start
+    private final String instanceId = ManagementFactory.getRuntimeMXBean().getName() + "/"
+            + UUID.randomUUID().toString().substring(0, 8);
+
+    // A RUNNING run whose heartbeat is older than this is taken to be interrupted; well above the heartbeat interval
+    @Value("${payflow.payroll.run-stale-after-ms:120000}")
+    private long staleAfterMs;
+
+    // Drives background runs; the partition work itself happens on the partitioned runner's pool
+    private final ExecutorService jobExecutor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("payroll-run-", 0).factory());
+
+    /**
+     * Create a run for the month, or return the unfinished one if there already is one.
+     * Concurrent callers (on any instance) get the same run: the open-month unique key lets only one insert win.
+     */
+    public PayrollRun createOrGetUnfinishedRun(String month, String triggeredBy) {
+        YearMonth.parse(month); // validate format
+        payrollArchiveService.assertNotArchived(month);
+        Optional<PayrollRun> unfinished = payrollRunRepository.findFirstByMonthAndStatusInOrderByIdDesc(month, UNFINISHED);
+        if (unfinished.isPresent()) {
+            return unfinished.get();
+        }
+        PayrollRun run = PayrollRun.builder()
+                .month(month)
+                .openMonth(month)
+                .status(PayrollRunStatus.PAUSED) // becomes RUNNING when executed
+                .totalEmployees((int) employeeRepository.countByIsActiveTrueAndEmployeeIdGreaterThan(0L))
+                .triggeredBy(triggeredBy)
+                .build();
+        try {
+            return payrollRunRepository.saveAndFlush(run);
+        } catch (DataIntegrityViolationException e) {
+            // Another request opened the month's run between our lookup and insert
+            return payrollRunRepository.findFirstByMonthAndStatusInOrderByIdDesc(month, UNFINISHED)
+                    .orElseThrow(() -> e);
+        }
+    }
+
+    /**
+     * Start a run for the month (resuming the unfinished one, if any) and execute it to the end
+     */
+    public PayrollRun startRun(String month, String triggeredBy) {
+        PayrollRun run = createOrGetUnfinishedRun(month, triggeredBy);
+        return resumeRun(run.getId());
+    }
+
+    /**
+     * Resume a paused, failed or interrupted run from its checkpoint and execute it to the end
+     */
+    public PayrollRun resumeRun(Long runId) {
+        claim(runId);
+        executeClaimed(runId);
+        return getRun(runId);
+    }
+
+    /**
+     * Start a run for the month in the background and return it immediately.
+     * If the month's run is already executing, here or on another instance, that run is returned instead.
+     */
+    public PayrollRun submitRun(String month, String triggeredBy) {
+        PayrollRun run = createOrGetUnfinishedRun(month, triggeredBy);
+        if (run.getStatus() == PayrollRunStatus.RUNNING || isExecuting(run.getId())) {
+            return run;
+        }
+        return submitResume(run.getId());
+    }
+
+    /**
+     * Resume a run in the background and return it immediately
+     */
+    public PayrollRun submitResume(Long runId) {
+        claim(runId);
+        try {
+            jobExecutor.submit(() -> executeClaimed(runId));
+        } catch (RuntimeException e) {
+            activeRuns.remove(runId);
+            throw e;
+        }
+        return getRun(runId);
+    }
+
+    /**
+     * Ask a running run to stop after its current wave
+     */
+    public PayrollRun pauseRun(Long runId) {
+        int changed = payrollRunRepository.transition(runId, EnumSet.of(PayrollRunStatus.RUNNING),
+                PayrollRunStatus.PAUSED, LocalDateTime.now());
+        PayrollRun run = getRun(runId);
+        if (changed == 0) {
+            throw new IllegalArgumentException("Payroll run " + runId + " is not running (status " + run.getStatus() + ")");
+        }
+        logger.info("Payroll run {} for {} paused at employee {}", runId, run.getMonth(), run.getCursorEmployeeId());
+        publish(run);
+        return run;
+    }
+
+    public PayrollRun getRun(Long runId) {
+        return payrollRunRepository.findById(runId)
+                .orElseThrow(() -> new RuntimeException("Payroll run not found with ID: " + runId));
+    }
+
+    public List<PayrollRun> getRunsForMonth(String month) {
+        return payrollRunRepository.findByMonthOrderByIdDesc(month);
+    }
+
+    public boolean isExecuting(Long runId) {
+        return activeRuns.containsKey(runId);
+    }
+
+    /**
+     * Progress of a run, with an ETA based on the throughput of its current execution
+     */
+    public PayrollRunProgress getProgress(Long runId) {
+        return toProgress(getRun(runId));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Interrupted runs stop sending heartbeats, are marked FAILED once stale and can be resumed
+        jobExecutor.shutdownNow();
+    }
+
+    /**
+     * Confirm that the runs executing in this instance are still alive
+     */
+    public void heartbeat() {
+        if (!activeRuns.isEmpty()) {
+            payrollRunRepository.heartbeat(activeRuns.keySet(), instanceId, LocalDateTime.now());
+        }
+    }
+
+    /**
+     * RUNNING runs whose owner stopped sending heartbeats were interrupted by a shutdown or crash;
+     * mark them FAILED so they show up as resumable. Runs still executing on a live instance are left alone.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void markInterruptedRuns() {
+        LocalDateTime staleBefore = LocalDateTime.now().minusNanos(staleAfterMs * 1_000_000);
+        for (PayrollRun run : payrollRunRepository.findStaleRunning(staleBefore)) {
+            int changed = payrollRunRepository.failStale(run.getId(),
+                    "Interrupted at employee " + run.getCursorEmployeeId() + "; owner " + run.getOwner()
+                            + " stopped sending heartbeats", staleBefore, LocalDateTime.now());
+            if (changed > 0) {
+                logger.warn("Payroll run {} for {} was interrupted on {}; resume it to continue from employee {}",
+                        run.getId(), run.getMonth(), run.getOwner(), run.getCursorEmployeeId());
+            }
+        }
+    }
+
+    // Mark the run as executing here and flip it to RUNNING; fails if it is running, executing or finished
+    private void claim(Long runId) {
+        PayrollRun current = getRun(runId);
+        if (activeRuns.putIfAbsent(runId, new long[]{System.currentTimeMillis(), current.getProcessedEmployees()}) != null) {
+            throw new IllegalArgumentException("Payroll run " + runId + " is already executing");
+        }
+        int changed = payrollRunRepository.claim(runId, RESUMABLE, instanceId, LocalDateTime.now());
+        if (changed == 0) {
+            activeRuns.remove(runId);
+            throw new IllegalArgumentException("Payroll run " + runId + " cannot be resumed from status " + current.getStatus());
+        }
+    }
+
+    private void executeClaimed(Long runId) {
+        try {
+            execute(runId);
+        } finally {
+            activeRuns.remove(runId);
+            payrollRunRepository.findById(runId).ifPresent(this::publish);
+        }
+    }
+
+    private void execute(Long runId) {
+        PayrollRun run = getRun(runId);
+        String month = run.getMonth();
+        int waveSize = partitionedPayrollRunner.getPartitionSize() * Math.max(1, partitionedPayrollRunner.getParallelism());
+        logger.info("Payroll run {} for {} executing from employee {}", runId, month, run.getCursorEmployeeId());
+
+        // Remaining work may have changed since the run was created or paused. Status is only ever
+        // changed by conditional updates, so a pause committed meanwhile is never written over.
+        long remaining = employeeRepository.countByIsActiveTrueAndEmployeeIdGreaterThan(run.getCursorEmployeeId());
+        payrollRunRepository.startExecution(runId, (int) remaining, LocalDateTime.now());
+
+        try {
+            while (true) {
+                run = getRun(runId);
+                if (run.getStatus() != PayrollRunStatus.RUNNING) {
+                    logger.info("Payroll run {} stopped with status {}", runId, run.getStatus());
+                    return;
+                }
+                List<Long> ids = employeeRepository.findActiveEmployeeIdsAfter(run.getCursorEmployeeId(), PageRequest.of(0, waveSize));
+                if (ids.isEmpty()) {
+                    finish(runId, PayrollRunStatus.COMPLETED, null);
+                    return;
+                }
+
+                List<EmployeeRange> ranges = PartitionedPayrollRunner.partition(ids, partitionedPayrollRunner.getPartitionSize());
+                List<PayrollPartitionResult> results = partitionedPayrollRunner.runRanges(month, ranges);
+                String error = checkpoint(runId, results);
+                if (error != null) {
+                    finish(runId, PayrollRunStatus.FAILED, error);
+                    return;
+                }
+            }
+        } catch (Exception e) {
+            logger.error("Payroll run {} for {} failed: {}", runId, month, e.getMessage(), e);
+            finish(runId, PayrollRunStatus.FAILED, e.getMessage());
+        }
+    }
+
+    /**
+     * Advance the cursor past the committed prefix of a wave; returns the first partition error, if any
+     */
+    private String checkpoint(Long runId, List<PayrollPartitionResult> results) {
+        Long cursor = null;
+        int processed = 0, generated = 0, skipped = 0, failed = 0;
+        String error = null;
+        for (PayrollPartitionResult result : results) {
+            if (result.getError() != null) {
+                error = "Partition " + result.getFromEmployeeId() + ".." + result.getToEmployeeId() + ": " + result.getError();
+                break;
+            }
+            cursor = result.getToEmployeeId();
+            processed += result.getEmployees();
+            generated += result.getGenerated();
+            skipped += result.getSkippedExisting() + result.getSkippedNoCtc();
+            failed += result.getFailed();
+        }
+        if (cursor != null) {
+            payrollRunRepository.advanceCheckpoint(runId, cursor, processed, generated, skipped, failed, LocalDateTime.now());
+            payrollRunRepository.findById(runId).ifPresent(this::publish);
+        }
+        return error;
+    }
+
+    // Move a RUNNING run to COMPLETED or FAILED; a run paused in the meantime stays paused
+    private void finish(Long runId, PayrollRunStatus status, String error) {
+        LocalDateTime now = LocalDateTime.now();
+        int changed = status == PayrollRunStatus.COMPLETED
+                ? payrollRunRepository.complete(runId, now)
+                : payrollRunRepository.fail(runId, error != null && error.length() > 1000 ? error.substring(0, 1000) : error, now);
+        PayrollRun run = getRun(runId);
+        if (changed == 0) {
+            logger.info("Payroll run {} for {} was {} before it could be marked {}{}", runId, run.getMonth(),
+                    run.getStatus(), status, error != null ? " (error: " + error + ")" : "");
+            return;
+        }
+        logger.info("Payroll run {} for {} {}: {} processed, {} generated, {} skipped, {} failed",
+                run.getId(), run.getMonth(), status, run.getProcessedEmployees(),
+                run.getGeneratedCount(), run.getSkippedCount(), run.getFailedCount());
+    }
+
+    private void publish(PayrollRun run) {
+        eventPublisher.publishEvent(toProgress(run));
+    }
+
+    private PayrollRunProgress toProgress(PayrollRun run) {
+        long[] execution = activeRuns.get(run.getId());
+        int total = run.getTotalEmployees();
+        int processed = run.getProcessedEmployees();
+        Long etaSeconds = null;
+        if (execution != null && run.getStatus() == PayrollRunStatus.RUNNING) {
+            long elapsedMs = System.currentTimeMillis() - execution[0];
+            long done = processed - execution[1];
+            if (done > 0 && elapsedMs > 0) {
+                etaSeconds = Math.max(0, total - processed) * elapsedMs / done / 1000;
+            }
+        }
+        return PayrollRunProgress.builder()
+                .jobId(run.getId())
+                .month(run.getMonth())
+                .status(run.getStatus())
+                .executing(execution != null)
+                .totalEmployees(total)
+                .processed(processed)
+                .generated(run.getGeneratedCount())
+                .skipped(run.getSkippedCount())
+                .failed(run.getFailedCount())
+                .percentComplete(total > 0 ? Math.min(100.0, processed * 100.0 / total) : 100.0)
+                .etaSeconds(etaSeconds)
+                .lastError(run.getLastError())
+                .startedAt(run.getStartedAt())
+                .finishedAt(run.getFinishedAt())
+                .build();
+    }
+}
@@ -1,5 +1,7 @@
 package com.example.payflow_backend.service;
 
+import com.example.payflow_backend.dto.PayrollGenerationResult;
+import com.example.payflow_backend.model.PayrollRun;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -8,7 +10,6 @@ import org.springframework.stereotype.Service;
 
 import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
-import java.util.List;
 
 @Service
 public class PayrollScheduledService {
@@ -18,6 +19,21 @@ public class PayrollScheduledService {
     @Autowired
     private PayrollService payrollService;
 
+    @Autowired
+    private PayrollRunService payrollRunService;
+
+    @Autowired
+    private PayrollRecomputeService payrollRecomputeService;
+
+    @Autowired
+    private PayrollArchiveService payrollArchiveService;
+
+    @Autowired
+    private PayrollLedgerService payrollLedgerService;
+
+    @Autowired
+    private PayrollRollupService payrollRollupService;
+
     /**
      * Scheduled task to generate payroll for all employees
      * Runs on the last day of every month at 11:30 PM
@@ -37,16 +53,86 @@ public class PayrollScheduledService {
             
             logger.info("Starting automatic payroll generation for month: {}", monthStr);
             
-            List<com.example.payflow_backend.model.Payroll> payrolls = payrollService.generatePayrollForAllEmployees(monthStr);
+            // Checkpointed run: resumes an unfinished run for the month instead of starting over
+            PayrollRun run = payrollRunService.startRun(monthStr, "scheduler");
             
-            logger.info("Successfully generated payroll for {} employees for month: {}", 
-                       payrolls.size(), monthStr);
+            logger.info("Payroll run {} for month {} ended with status {}: {} generated, {} skipped, {} failed", 
+                       run.getId(), monthStr, run.getStatus(), run.getGeneratedCount(), run.getSkippedCount(), run.getFailedCount());
             
         } catch (Exception e) {
             logger.error("Error occurred during automatic payroll generation: {}", e.getMessage(), e);
         }
     }
 
+    /**
+     * Periodically re-derive payrolls whose CTC or leave inputs changed after generation.
+     * Only dirty (employee, month) pairs are touched, so an idle pass is a single query.
+     */
+    @Scheduled(fixedDelayString = "${payflow.payroll.recompute-interval-ms:300000}",
+               initialDelayString = "${payflow.payroll.recompute-interval-ms:300000}")
+    public void recomputeDirtyPayrolls() {
+        try {
+            payrollRecomputeService.recomputeDirty();
+        } catch (Exception e) {
+            logger.error("Error occurred during payroll recomputation: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Keep the heartbeat of payroll runs executing here fresh, and fail runs whose owner stopped
+     * sending one, so they can be resumed. Must run well within payflow.payroll.run-stale-after-ms.
+     */
+    @Scheduled(fixedDelayString = "${payflow.payroll.run-heartbeat-interval-ms:15000}")
+    public void heartbeatPayrollRuns() {
+        try {
+            payrollRunService.heartbeat();
+            payrollRunService.markInterruptedRuns();
+        } catch (Exception e) {
+            logger.error("Error occurred during payroll run heartbeat: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Move finalized months older than the archive horizon out of the payroll table.
+     * Runs early on the 2nd of every month, after the previous month's payroll has been generated.
+     */
+    @Scheduled(cron = "${payflow.payroll.archive-cron:0 30 2 2 * ?}")
+    public void archiveColdPayrollMonths() {
+        try {
+            payrollArchiveService.archiveColdMonths();
+        } catch (Exception e) {
+            logger.error("Error occurred during payroll archiving: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Snapshot payroll months whose ledger grew enough since their last snapshot,
+     * so rebuilding a month only replays a short tail of events.
+     */
+    @Scheduled(fixedDelayString = "${payflow.payroll.ledger-snapshot-interval-ms:3600000}",
+               initialDelayString = "${payflow.payroll.ledger-snapshot-interval-ms:3600000}")
+    public void snapshotPayrollLedger() {
+        try {
+            payrollLedgerService.snapshotDueMonths();
+        } catch (Exception e) {
+            logger.error("Error occurred during payroll ledger snapshot: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Rebuild rollup cells of months changed outside a payroll run (recomputes, status changes),
+     * which rollup queries otherwise aggregate from the payroll rows on every read.
+     */
+    @Scheduled(fixedDelayString = "${payflow.payroll.rollup-refresh-interval-ms:300000}",
+               initialDelayString = "${payflow.payroll.rollup-refresh-interval-ms:300000}")
+    public void refreshPayrollRollup() {
+        try {
+            payrollRollupService.refreshAllStale();
+        } catch (Exception e) {
+            logger.error("Error occurred during payroll rollup refresh: {}", e.getMessage(), e);
+        }
+    }
+
     /**
      * Manual trigger for testing payroll generation
      * This method can be used for testing - remove @Scheduled annotation in production
@@ -59,10 +145,10 @@ public class PayrollScheduledService {
             
             logger.info("TEST: Starting payroll generation for month: {}", monthStr);
             
-            List<com.example.payflow_backend.model.Payroll> payrolls = payrollService.generatePayrollForAllEmployees(monthStr);
+            PayrollGenerationResult result = payrollService.generatePayrollForAllEmployees(monthStr);
             
             logger.info("TEST: Successfully generated payroll for {} employees for month: {}", 
-                       payrolls.size(), monthStr);
+                       result.getGenerated(), monthStr);
             
         } catch (Exception e) {
             logger.error("TEST: Error occurred during payroll generation: {}", e.getMessage(), e);
@@ -1,81 +1,145 @@
 package com.example.payflow_backend.service;
 
+import com.example.payflow_backend.dto.PayrollAmountsRow;
+import com.example.payflow_backend.dto.PayrollGenerationResult;
+import com.example.payflow_backend.dto.PayrollListFilter;
+import com.example.payflow_backend.dto.PayrollListItem;
+import com.example.payflow_backend.dto.PayrollPage;
+import com.example.payflow_backend.dto.PayrollStatusTransitionRequest;
+import com.example.payflow_backend.dto.PayrollStatusTransitionResult;
+import com.example.payflow_backend.dto.PayrollSummaryGroup;
 import com.example.payflow_backend.model.*;
+import com.example.payflow_backend.repository.PayrollJdbcRepository;
 import com.example.payflow_backend.repository.PayrollRepository;
 import com.example.payflow_backend.repository.EmployeeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 @Transactional
 public class PayrollService {
 
+    private static final Logger logger = LoggerFactory.getLogger(PayrollService.class);
+
+    // Requested payroll IDs per IN list in a bulk status transition
+    private static final int STATUS_TRANSITION_CHUNK = 1000;
+
+    // Payroll listing page sizes
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int MAX_PAGE_SIZE = 500;
+
+    private static final Comparator<PayrollListItem> PAGE_ORDER =
+            Comparator.comparing(PayrollListItem::getMonth).thenComparing(PayrollListItem::getId).reversed();
+
     @Autowired
     private PayrollRepository payrollRepository;
 
+    @Autowired
+    private PayrollJdbcRepository payrollJdbcRepository;
+
     @Autowired
     private EmployeeRepository employeeRepository;
 
     @Autowired
     private CTCService ctcService;
 
+    @Autowired
+    private PayrollCalculator payrollCalculator;
+
+    @Autowired
+    private PayrollBulkService payrollBulkService;
+
+    @Autowired
+    private PartitionedPayrollRunner partitionedPayrollRunner;
+
+    @Autowired
+    private PayrollMonthSummaryService payrollMonthSummaryService;
+
+    @Autowired
+    private PayrollLatestService payrollLatestService;
+
+    @Autowired
+    private PayrollArchiveService payrollArchiveService;
+
+    @Autowired
+    private PayrollLedgerService payrollLedgerService;
+
     /**
      * Generate payroll for a specific employee and month
      */
     public Payroll generatePayrollForEmployee(Long employeeId, String month) {
-        // Check if payroll already exists for this employee and month
-        if (payrollRepository.existsByEmployee_EmployeeIdAndMonth(employeeId, month)) {
-            throw new IllegalArgumentException("Payroll already exists for employee " + employeeId + " for month " + month);
-        }
-
-        // Get employee
         Employee employee = employeeRepository.findById(employeeId)
                 .orElseThrow(() -> new RuntimeException("Employee not found with ID: " + employeeId));
+        payrollArchiveService.assertNotArchived(month);
 
-        // Get current CTC for the employee
-        BigDecimal netMonthlySalary = ctcService.getNetMonthlySalaryByEmployeeId(employeeId);
+        // The unique (employee_id, month) key rejects a duplicate, even one inserted concurrently
+        try {
+            return calculateAndSavePayroll(employee, month, netMonthlySalaryFor(employeeId, month));
+        } catch (DataIntegrityViolationException e) {
+            throw new IllegalArgumentException("Payroll already exists for employee " + employeeId + " for month " + month);
+        }
+    }
+
+    /**
+     * Net monthly salary from the CTC effective for the payroll month (same as-of date as bulk generation)
+     */
+    private BigDecimal netMonthlySalaryFor(Long employeeId, String month) {
+        LocalDate asOfDate = PayrollCalculator.ctcAsOfDate(YearMonth.parse(month));
+        BigDecimal netMonthlySalary = ctcService.getNetMonthlySalaryByEmployeeIdAsOf(employeeId, asOfDate);
         if (netMonthlySalary.equals(BigDecimal.ZERO)) {
             throw new IllegalArgumentException("No CTC found for employee " + employeeId);
         }
+        return netMonthlySalary;
+    }
 
-        // Calculate payroll
-        return calculateAndSavePayroll(employee, month, netMonthlySalary);
+    /**
+     * Generate payroll for all employees for a specific month, in independently committed partitions
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public PayrollGenerationResult generatePayrollForAllEmployees(String month) {
+        return generatePayrollForAllEmployees(month, true);
     }
 
     /**
-     * Generate payroll for all employees for a specific month
+     * Generate payroll for all employees for a specific month.
+     * Partitioned runs commit per employee-ID partition; otherwise the month is one set-based transaction.
      */
-    public List<Payroll> generatePayrollForAllEmployees(String month) {
-        List<Employee> allEmployees = employeeRepository.findAll();
-        return allEmployees.stream()
-                .filter(Employee::getIsActive) // Only process active employees
-                .filter(emp -> ctcService.hasCTC(emp.getEmployeeId())) // Only employees with CTC
-                .filter(emp -> !payrollRepository.existsByEmployee_EmployeeIdAndMonth(emp.getEmployeeId(), month)) // Avoid duplicates
-                .map(employee -> {
-                    try {
-                        BigDecimal netMonthlySalary = ctcService.getNetMonthlySalaryByEmployeeId(employee.getEmployeeId());
-                        return calculateAndSavePayroll(employee, month, netMonthlySalary);
-                    } catch (Exception e) {
-                        System.err.println("Error generating payroll for employee " + employee.getEmployeeId() + ": " + e.getMessage());
-                        return null;
-                    }
-                })
-                .filter(java.util.Objects::nonNull)
-                .toList();
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public PayrollGenerationResult generatePayrollForAllEmployees(String month, boolean partitioned) {
+        return partitioned
+                ? partitionedPayrollRunner.run(month)
+                : payrollBulkService.generateForMonth(month);
     }
 
     /**
      * Generate payroll for previous month automatically
      */
-    public List<Payroll> generatePayrollForPreviousMonth() {
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public PayrollGenerationResult generatePayrollForPreviousMonth() {
         YearMonth previousMonth = YearMonth.now().minusMonths(1);
         String monthStr = previousMonth.format(DateTimeFormatter.ofPattern("yyyy-MM"));
         return generatePayrollForAllEmployees(monthStr);
@@ -85,42 +149,13 @@ public class PayrollService {
      * Calculate and save payroll for an employee
      */
     private Payroll calculateAndSavePayroll(Employee employee, String month, BigDecimal grossSalary) {
-        // Parse month to get total working days
-        YearMonth yearMonth = YearMonth.parse(month);
-        int totalWorkingDays = yearMonth.lengthOfMonth();
-
-        // Get unpaid leaves (extraLeavesThisMonth from employee)
-        int unpaidLeaves = employee.getExtraLeavesThisMonth();
-
-        // Calculate per day salary
-        BigDecimal perDaySalary = grossSalary.divide(BigDecimal.valueOf(totalWorkingDays), 2, RoundingMode.HALF_UP);
-
-        // Calculate leave deduction
-        BigDecimal leaveDeduction = perDaySalary.multiply(BigDecimal.valueOf(unpaidLeaves));
-
-        // Calculate net salary
-        BigDecimal netSalary = grossSalary.subtract(leaveDeduction);
-
-        // Ensure net salary is not negative
-        if (netSalary.compareTo(BigDecimal.ZERO) < 0) {
-            netSalary = BigDecimal.ZERO;
-        }
-
-        // Create payroll record
-        Payroll payroll = Payroll.builder()
-                .employee(employee)
-                .month(month)
-                .grossSalary(grossSalary)
-                .leaveDeduction(leaveDeduction)
-                .netSalary(netSalary)
-                .totalWorkingDays(totalWorkingDays)
-                .unpaidLeaves(unpaidLeaves)
-                .perDaySalary(perDaySalary)
-                .status(PayrollStatus.PROCESSED)
-                .processedBy("system") // TODO: Get from security context
-                .build();
-
-        return payrollRepository.save(payroll);
+        // Unpaid leaves are the extra leaves taken this month
+        Payroll payroll = payrollCalculator.buildPayroll(employee, month, grossSalary, employee.getExtraLeavesThisMonth());
+        Payroll saved = payrollRepository.save(payroll);
+        payrollMonthSummaryService.recordInserted(saved);
+        payrollLatestService.recordInserted(saved);
+        payrollLedgerService.record(PayrollLedgerEvent.GENERATED, saved);
+        return saved;
     }
 
     /**
@@ -138,17 +173,56 @@ public class PayrollService {
     }
 
     /**
-     * Get all payroll records for an employee
+     * Get an employee's payroll for a month that has been moved to the archive
+     */
+    public Optional<PayrollListItem> getArchivedPayroll(Long employeeId, String month) {
+        return payrollArchiveService.findArchived(employeeId, month);
+    }
+
+    /**
+     * Get all payroll records for an employee, as list rows, including archived months
+     */
+    public List<PayrollListItem> getPayrollByEmployee(Long employeeId) {
+        List<PayrollListItem> history = new ArrayList<>(payrollRepository.findListItemsByEmployee(employeeId));
+        List<PayrollListItem> archived = payrollArchiveService.findArchivedByEmployee(employeeId);
+        if (!archived.isEmpty()) {
+            history.addAll(archived);
+            history.sort(Comparator.comparing(PayrollListItem::getMonth).reversed());
+        }
+        return history;
+    }
+
+    /**
+     * Get all payroll records for a specific month, as list rows
+     */
+    public List<PayrollListItem> getPayrollByMonth(String month) {
+        return payrollRepository.findListItemsByMonth(month);
+    }
+
+    /**
+     * Payroll rows for months from..to (inclusive), newest month first
      */
-    public List<Payroll> getPayrollByEmployee(Long employeeId) {
-        return payrollRepository.findByEmployee_EmployeeIdOrderByMonthDesc(employeeId);
+    public List<PayrollListItem> getPayrollByMonthRange(String from, String to) {
+        YearMonth start = YearMonth.parse(from);
+        YearMonth end = YearMonth.parse(to);
+        if (start.isAfter(end)) {
+            throw new IllegalArgumentException("Range start " + from + " is after its end " + to);
+        }
+        return payrollRepository.findByMonthRange(start, end);
     }
 
     /**
-     * Get all payroll records for a specific month
+     * Each employee's most recent payroll row
      */
-    public List<Payroll> getPayrollByMonth(String month) {
-        return payrollRepository.findByMonth(month);
+    public List<PayrollListItem> getLatestPayrolls() {
+        return payrollRepository.findLatestPayrollForAllEmployees();
+    }
+
+    /**
+     * An employee's most recent payroll
+     */
+    public Optional<Payroll> getLatestPayrollForEmployee(Long employeeId) {
+        return payrollRepository.findFirstByEmployee_EmployeeIdOrderByMonthKeyDesc(employeeId);
     }
 
     /**
@@ -158,6 +232,88 @@ public class PayrollService {
         return payrollRepository.findAll();
     }
 
+    /**
+     * One keyset page of payroll records, newest month first. The cursor is the position of the
+     * previous page's last row, so deep pages cost the same as the first one.
+     */
+    @Transactional(readOnly = true)
+    public PayrollPage getPayrollPage(PayrollListFilter filter) {
+        int limit = filter.getLimit() == null ? DEFAULT_PAGE_SIZE : filter.getLimit();
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        String cursorMonth = null;
+        Long cursorId = null;
+        if (filter.getCursor() != null && !filter.getCursor().isBlank()) {
+            String[] position = decodeCursor(filter.getCursor());
+            cursorMonth = position[0];
+            cursorId = Long.valueOf(position[1]);
+        }
+        String department = filter.getDepartment() == null || filter.getDepartment().isBlank()
+                ? null : filter.getDepartment().trim();
+
+        // One extra row tells whether another page follows
+        List<PayrollListItem> rows = payrollRepository.findPage(filter.getMonth(), filter.getEmployeeId(), filter.getStatus(),
+                department, filter.getMinNetSalary(), filter.getMaxNetSalary(), cursorMonth, cursorId,
+                PageRequest.of(0, limit + 1));
+        if (filter.getEmployeeId() != null) {
+            rows = withArchived(rows, filter, department, cursorMonth, cursorId, limit + 1);
+        }
+        String nextCursor = null;
+        if (rows.size() > limit) {
+            rows = rows.subList(0, limit);
+            PayrollListItem last = rows.get(limit - 1);
+            nextCursor = encodeCursor(last.getMonth(), last.getId());
+        }
+        return PayrollPage.builder()
+                .items(rows)
+                .limit(limit)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    // An employee's pages also cover archived months; the employee has at most one archived row per month.
+    // Archived rows keep the department they were generated under, which the filter matches as for live rows.
+    private List<PayrollListItem> withArchived(List<PayrollListItem> rows, PayrollListFilter filter, String department,
+                                               String cursorMonth, Long cursorId, int size) {
+        List<PayrollListItem> archived = payrollArchiveService.findArchivedByEmployee(filter.getEmployeeId()).stream()
+                .filter(row -> filter.getMonth() == null || filter.getMonth().equals(row.getMonth()))
+                .filter(row -> filter.getStatus() == null || filter.getStatus() == row.getStatus())
+                .filter(row -> department == null || department.equals(row.getEmployee().getDepartment()))
+                .filter(row -> filter.getMinNetSalary() == null || row.getNetSalary().compareTo(filter.getMinNetSalary()) >= 0)
+                .filter(row -> filter.getMaxNetSalary() == null || row.getNetSalary().compareTo(filter.getMaxNetSalary()) <= 0)
+                .filter(row -> cursorMonth == null || row.getMonth().compareTo(cursorMonth) < 0
+                        || (row.getMonth().equals(cursorMonth) && row.getId() < cursorId))
+                .toList();
+        if (archived.isEmpty()) {
+            return rows;
+        }
+        List<PayrollListItem> merged = new ArrayList<>(rows);
+        merged.addAll(archived);
+        merged.sort(PAGE_ORDER);
+        return merged.size() > size ? merged.subList(0, size) : merged;
+    }
+
+    static String encodeCursor(String month, Long id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((month + ":" + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    // [month, id] of an opaque cursor
+    static String[] decodeCursor(String cursor) {
+        try {
+            String[] position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":");
+            if (position.length != 2) {
+                throw new IllegalArgumentException();
+            }
+            YearMonth.parse(position[0]);
+            Long.parseLong(position[1]);
+            return position;
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+
     /**
      * Update payroll status
      */
@@ -165,65 +321,191 @@ public class PayrollService {
         Payroll payroll = payrollRepository.findById(payrollId)
                 .orElseThrow(() -> new RuntimeException("Payroll not found with ID: " + payrollId));
         
+        PayrollStatus previousStatus = payroll.getStatus();
+        if (previousStatus == status) {
+            return payroll;
+        }
+        if (!previousStatus.canTransitionTo(status)) {
+            throw new IllegalStateException("Payroll " + payrollId + " cannot move from " + previousStatus + " to " + status);
+        }
         payroll.setStatus(status);
-        return payrollRepository.save(payroll);
+        Payroll saved = payrollRepository.save(payroll);
+        payrollMonthSummaryService.recordStatusChanged(saved.getMonth(), previousStatus, status, 1);
+        payrollLedgerService.record(PayrollLedgerEvent.STATUS_CHANGED, saved);
+        return saved;
+    }
+
+    /**
+     * Move a month's payrolls from one status to another with set-based conditional UPDATEs.
+     * Rows not in the from status are left alone; requested IDs that did not move are reported back.
+     */
+    public PayrollStatusTransitionResult transitionStatus(PayrollStatusTransitionRequest request) {
+        long start = System.currentTimeMillis();
+        String month = request.getMonth();
+        PayrollStatus from = request.getFrom();
+        PayrollStatus to = request.getTo();
+        if (month == null || from == null || to == null) {
+            throw new IllegalArgumentException("month, from and to are required");
+        }
+        YearMonth.parse(month);
+        if (!from.canTransitionTo(to)) {
+            throw new IllegalArgumentException("Transition from " + from + " to " + to + " is not allowed; "
+                    + from + " can move to " + from.allowedTransitions());
+        }
+        String department = request.getDepartment() == null || request.getDepartment().isBlank()
+                ? null : request.getDepartment().trim();
+        // Microsecond precision, so the ledger can find the moved rows by their stored updated_at
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+
+        int requested = 0;
+        List<Long> movedIds = new ArrayList<>();
+        int updated;
+        List<Long> rejectedIds = new ArrayList<>();
+        if (request.getPayrollIds() == null) {
+            updated = department == null
+                    ? payrollRepository.transitionMonth(month, from, to, now)
+                    : payrollRepository.transitionMonthForDepartment(month, department, from, to, now);
+        } else {
+            List<Long> ids = new ArrayList<>(new LinkedHashSet<>(request.getPayrollIds()));
+            requested = ids.size();
+            updated = 0;
+            for (int i = 0; i < ids.size(); i += STATUS_TRANSITION_CHUNK) {
+                List<Long> chunk = ids.subList(i, Math.min(i + STATUS_TRANSITION_CHUNK, ids.size()));
+                Set<Long> eligible = new HashSet<>(payrollRepository.lockTransitionCandidates(chunk, month, department, from));
+                if (!eligible.isEmpty()) {
+                    updated += payrollRepository.transitionIds(eligible, from, to, now);
+                    movedIds.addAll(eligible);
+                }
+                for (Long id : chunk) {
+                    if (!eligible.contains(id)) {
+                        rejectedIds.add(id);
+                    }
+                }
+            }
+        }
+        payrollMonthSummaryService.recordStatusChanged(month, from, to, updated);
+        if (request.getPayrollIds() == null) {
+            if (updated > 0) {
+                payrollLedgerService.recordTransitioned(month, department, to, now);
+            }
+        } else {
+            payrollLedgerService.recordStatusChanged(month, movedIds);
+        }
+
+        long durationMs = System.currentTimeMillis() - start;
+        logger.info("Moved {} payrolls for {}{} from {} to {} in {} ms ({} rejected)", updated, month,
+                department != null ? " (" + department + ")" : "", from, to, durationMs, rejectedIds.size());
+        return PayrollStatusTransitionResult.builder()
+                .month(month)
+                .from(from)
+                .to(to)
+                .department(department)
+                .requested(requested)
+                .updated(updated)
+                .rejectedIds(rejectedIds)
+                .durationMs(durationMs)
+                .build();
     }
 
     /**
      * Delete payroll record
      */
     public void deletePayroll(Long payrollId) {
-        if (!payrollRepository.existsById(payrollId)) {
-            throw new RuntimeException("Payroll not found with ID: " + payrollId);
-        }
-        payrollRepository.deleteById(payrollId);
+        Payroll payroll = payrollRepository.findById(payrollId)
+                .orElseThrow(() -> new RuntimeException("Payroll not found with ID: " + payrollId));
+        payrollRepository.delete(payroll);
+        payrollMonthSummaryService.recordDeleted(payroll);
+        payrollLatestService.recordDeleted(payroll);
+        payrollLedgerService.record(PayrollLedgerEvent.DELETED, payroll);
     }
 
     /**
-     * Regenerate payroll for specific employee and month (replaces existing)
+     * Regenerate payroll for specific employee and month (replaces existing).
+     * A single upsert on (employee_id, month): the existing row keeps its id and gets the new amounts.
      */
     public Payroll regeneratePayrollForEmployee(Long employeeId, String month) {
-        // Delete existing payroll if exists
-        Optional<Payroll> existingPayroll = payrollRepository.findByEmployee_EmployeeIdAndMonth(employeeId, month);
-        existingPayroll.ifPresent(payroll -> payrollRepository.delete(payroll));
+        Employee employee = employeeRepository.findById(employeeId)
+                .orElseThrow(() -> new RuntimeException("Employee not found with ID: " + employeeId));
+        payrollArchiveService.assertNotArchived(month);
+        Payroll payroll = payrollCalculator.buildPayroll(employee, month, netMonthlySalaryFor(employeeId, month),
+                employee.getExtraLeavesThisMonth());
+
+        // Locks the current row, if any, so the summary delta is taken against what gets replaced
+        Optional<PayrollAmountsRow> existing = payrollRepository.lockAmountsByEmployeeAndMonth(employeeId, month);
+        // The upsert moves the row to PROCESSED, so it must be a move the status graph allows;
+        // a COMPLETED payroll has been paid and must not get new amounts to be paid again
+        if (existing.isPresent() && existing.get().getStatus() != payroll.getStatus()
+                && !existing.get().getStatus().canTransitionTo(payroll.getStatus())) {
+            throw new IllegalStateException("Payroll for employee " + employeeId + " and month " + month + " is "
+                    + existing.get().getStatus() + " and can no longer be regenerated");
+        }
+        boolean inserted = payrollJdbcRepository.upsert(payroll);
+        if (existing.isPresent()) {
+            PayrollAmountsRow before = existing.get();
+            payrollMonthSummaryService.recordAmountsChanged(month, List.of(before), List.of(payroll));
+            if (before.getStatus() != payroll.getStatus()) {
+                payrollMonthSummaryService.recordStatusChanged(month, before.getStatus(), payroll.getStatus(), 1);
+            }
+        } else if (inserted) {
+            payrollMonthSummaryService.recordInserted(payroll);
+            payrollLatestService.recordInserted(payroll);
+        } else {
+            // Another request inserted the row after our read; its amounts are unknown here
+            throw new IllegalStateException("Payroll for employee " + employeeId + " and month " + month
+                    + " was generated concurrently; retry the regeneration");
+        }
+        payrollLedgerService.recordCurrent(existing.isPresent() ? PayrollLedgerEvent.REGENERATED : PayrollLedgerEvent.GENERATED,
+                employeeId, month);
 
-        // Generate new payroll
-        return generatePayrollForEmployee(employeeId, month);
+        return payrollRepository.findByEmployee_EmployeeIdAndMonth(employeeId, month).orElseThrow();
     }
 
     /**
      * Get payroll summary statistics for a month
      */
+    @Transactional(readOnly = true)
     public PayrollSummary getPayrollSummaryForMonth(String month) {
-        List<Payroll> payrolls = payrollRepository.findByMonth(month);
-        
-        BigDecimal totalGrossSalary = payrolls.stream()
-                .map(Payroll::getGrossSalary)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        
-        BigDecimal totalLeaveDeductions = payrolls.stream()
-                .map(Payroll::getLeaveDeduction)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        
-        BigDecimal totalNetSalary = payrolls.stream()
-                .map(Payroll::getNetSalary)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        
-        int totalEmployees = payrolls.size();
-        int totalUnpaidLeaves = payrolls.stream()
-                .mapToInt(Payroll::getUnpaidLeaves)
-                .sum();
+        // Primary-key read of the materialized totals kept by PayrollMonthSummaryService
+        PayrollMonthSummary totals = payrollMonthSummaryService.getSummary(month);
 
         return PayrollSummary.builder()
                 .month(month)
-                .totalEmployees(totalEmployees)
-                .totalGrossSalary(totalGrossSalary)
-                .totalLeaveDeductions(totalLeaveDeductions)
-                .totalNetSalary(totalNetSalary)
-                .totalUnpaidLeaves(totalUnpaidLeaves)
+                .totalEmployees(Math.toIntExact(totals.getTotalEmployees()))
+                .totalGrossSalary(totals.getTotalGrossSalary())
+                .totalLeaveDeductions(totals.getTotalLeaveDeductions())
+                .totalNetSalary(totals.getTotalNetSalary())
+                .totalUnpaidLeaves(Math.toIntExact(totals.getTotalUnpaidLeaves()))
                 .build();
     }
 
+    /**
+     * Payroll totals for a month broken down by department, status or both.
+     * One grouped query; coarser groupings are rolled up from its few rows.
+     */
+    @Transactional(readOnly = true)
+    public List<PayrollSummaryGroup> getPayrollSummaryBreakdown(String month, boolean byDepartment, boolean byStatus) {
+        List<PayrollSummaryGroup> rows = payrollRepository.summarizeMonthByDepartmentAndStatus(month);
+        if (byDepartment && byStatus) {
+            return rows;
+        }
+
+        Map<Object, PayrollSummaryGroup> groups = new LinkedHashMap<>();
+        for (PayrollSummaryGroup row : rows) {
+            String department = byDepartment ? row.getDepartment() : null;
+            PayrollStatus status = byStatus ? row.getStatus() : null;
+            Object key = byDepartment ? department : status;
+            PayrollSummaryGroup group = groups.get(key);
+            if (group == null) {
+                groups.put(key, new PayrollSummaryGroup(department, status, row.getTotalEmployees(),
+                        row.getTotalGrossSalary(), row.getTotalLeaveDeductions(), row.getTotalNetSalary(),
+                        row.getTotalUnpaidLeaves()));
+            } else {
+                group.add(row);
+            }
+        }
+        return new ArrayList<>(groups.values());
+    }
+
     // Inner class for payroll summary
     @lombok.Data
     @lombok.Builder
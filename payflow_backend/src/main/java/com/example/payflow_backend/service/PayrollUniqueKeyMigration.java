@@ -0,0 +1,118 @@
+package com.example.payflow_backend.service;
+
+import com.example.payflow_backend.model.PayrollStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Owns payroll's unique (employee_id, month) key; the entity does not declare it, because schema
+ * update would try to add it before duplicates are gone. Runs once all beans exist and before the
+ * web server and schedulers start, so no request can insert a duplicate between the cleanup and
+ * the ALTER. Of each duplicate group the row furthest along (COMPLETED, then PROCESSED, ...) is
+ * kept, newest first.
+ */
+@Component
+public class PayrollUniqueKeyMigration implements SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(PayrollUniqueKeyMigration.class);
+
+    static final String CONSTRAINT_NAME = "uk_payroll_employee_month";
+
+    // Which duplicate survives: lower rank wins
+    private static final List<PayrollStatus> KEEP_ORDER =
+            List.of(PayrollStatus.COMPLETED, PayrollStatus.PROCESSED, PayrollStatus.PENDING, PayrollStatus.CANCELLED);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PayrollMonthSummaryService payrollMonthSummaryService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        ensureUniqueKey();
+    }
+
+    void ensureUniqueKey() {
+        if (hasUniqueKey()) {
+            return;
+        }
+        // The cleanup and its summary rebuild commit together; MySQL commits DDL on its own anyway
+        transactionTemplate.executeWithoutResult(status -> {
+            for (String month : removeDuplicates()) {
+                payrollMonthSummaryService.rebuild(month);
+            }
+        });
+        jdbcTemplate.execute("ALTER TABLE payroll ADD CONSTRAINT " + CONSTRAINT_NAME + " UNIQUE (employee_id, month)");
+        logger.info("Added unique key {} on payroll (employee_id, month)", CONSTRAINT_NAME);
+    }
+
+    private boolean hasUniqueKey() {
+        return Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            Map<String, Set<String>> uniqueIndexes = new HashMap<>();
+            try (ResultSet rs = metaData.getIndexInfo(connection.getCatalog(), connection.getSchema(), "payroll", true, false)) {
+                while (rs.next()) {
+                    String index = rs.getString("INDEX_NAME");
+                    String column = rs.getString("COLUMN_NAME");
+                    if (index != null && column != null) {
+                        uniqueIndexes.computeIfAbsent(index, name -> new HashSet<>()).add(column.toLowerCase());
+                    }
+                }
+            }
+            return uniqueIndexes.containsValue(Set.of("employee_id", "month"));
+        }));
+    }
+
+    /**
+     * Delete all but one payroll per (employee, month); returns the months touched
+     */
+    private Set<String> removeDuplicates() {
+        Set<String> months = new TreeSet<>();
+        List<Map<String, Object>> groups = jdbcTemplate.queryForList(
+                "SELECT employee_id, month FROM payroll GROUP BY employee_id, month HAVING COUNT(*) > 1");
+        int deleted = 0;
+        for (Map<String, Object> group : groups) {
+            Long employeeId = ((Number) group.get("employee_id")).longValue();
+            String month = (String) group.get("month");
+            List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                    "SELECT id, status FROM payroll WHERE employee_id = ? AND month = ? ORDER BY id DESC", employeeId, month);
+            Map<String, Object> keep = rows.get(0);
+            for (Map<String, Object> row : rows) {
+                if (rank(row) < rank(keep)) {
+                    keep = row;
+                }
+            }
+            deleted += jdbcTemplate.update("DELETE FROM payroll WHERE employee_id = ? AND month = ? AND id <> ?",
+                    employeeId, month, keep.get("id"));
+            months.add(month);
+        }
+        if (deleted > 0) {
+            logger.warn("Removed {} duplicate payrolls across {} (employee, month) pairs in {}", deleted, groups.size(), months);
+        }
+        return months;
+    }
+
+    private static int rank(Map<String, Object> row) {
+        int rank = KEEP_ORDER.indexOf(PayrollStatus.valueOf((String) row.get("status")));
+        return rank < 0 ? KEEP_ORDER.size() : rank;
+    }
+}
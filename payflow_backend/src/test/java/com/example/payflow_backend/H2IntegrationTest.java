@@ -0,0 +1,88 @@
+package com.example.payflow_backend;
+
+import com.example.payflow_backend.model.CTC;
+import com.example.payflow_backend.model.Employee;
+import com.example.payflow_backend.repository.EmployeeRepository;
+import com.example.payflow_backend.service.CTCService;
+import com.example.payflow_backend.service.CTCTimelineCache;
+import jakarta.mail.Session;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.mockito.Mockito.when;
+
+/**
+ * Base for tests that run the real services against the in-memory H2 database of the "h2" profile.
+ * All such tests share one application context; every table is emptied before each test,
+ * and mail is captured by a mock instead of being sent.
+ */
+@SpringBootTest
+@ActiveProfiles("h2")
+public abstract class H2IntegrationTest {
+
+    @Autowired
+    protected JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    protected EmployeeRepository employeeRepository;
+
+    @Autowired
+    protected CTCService ctcService;
+
+    @Autowired
+    private CTCTimelineCache ctcTimelineCache;
+
+    @MockitoBean
+    protected JavaMailSender mailSender;
+
+    @BeforeEach
+    void resetState() {
+        when(mailSender.createMimeMessage()).thenAnswer(invocation -> new MimeMessage((Session) null));
+        List<String> tables = jdbcTemplate.queryForList(
+                "SELECT table_name FROM information_schema.tables WHERE table_schema = 'public' AND table_type = 'BASE TABLE'",
+                String.class);
+        jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY FALSE");
+        try {
+            for (String table : tables) {
+                jdbcTemplate.execute("TRUNCATE TABLE " + table);
+            }
+        } finally {
+            jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY TRUE");
+        }
+        ctcTimelineCache.invalidateAll();
+    }
+
+    protected Employee employee(String name, String department, int extraLeavesThisMonth) {
+        return employeeRepository.save(Employee.builder()
+                .fullName(name)
+                .email(name.toLowerCase() + "@payflow.test")
+                .department(department)
+                .designation("Engineer")
+                .extraLeavesThisMonth(extraLeavesThisMonth)
+                .build());
+    }
+
+    // Straight to the column: saving a detached Employee would orphan-remove its CTCs
+    protected void setExtraLeaves(Employee employee, int extraLeavesThisMonth) {
+        jdbcTemplate.update("UPDATE employee SET extra_leaves_this_month = ? WHERE employee_id = ?",
+                extraLeavesThisMonth, employee.getEmployeeId());
+    }
+
+    // A CTC whose net monthly salary is basicSalary / 12, as no other component is set
+    protected CTC ctc(Employee employee, LocalDate effectiveFrom, long basicSalary) {
+        return ctcService.createCTC(employee.getEmployeeId(), CTC.builder()
+                .effectiveFrom(effectiveFrom)
+                .basicSalary(BigDecimal.valueOf(basicSalary))
+                .build());
+    }
+}
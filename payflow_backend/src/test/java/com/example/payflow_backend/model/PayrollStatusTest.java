@@ -0,0 +1,41 @@
+package com.example.payflow_backend.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PayrollStatusTest {
+
+    @Test
+    void allowedTransitionsFormTheStatusGraph() {
+        assertEquals(EnumSet.of(PayrollStatus.PROCESSED, PayrollStatus.CANCELLED), PayrollStatus.PENDING.allowedTransitions());
+        assertEquals(EnumSet.of(PayrollStatus.PENDING, PayrollStatus.COMPLETED, PayrollStatus.CANCELLED),
+                PayrollStatus.PROCESSED.allowedTransitions());
+        assertTrue(PayrollStatus.COMPLETED.allowedTransitions().isEmpty());
+        assertEquals(EnumSet.of(PayrollStatus.PENDING), PayrollStatus.CANCELLED.allowedTransitions());
+    }
+
+    @Test
+    void canTransitionToFollowsAllowedTransitions() {
+        for (PayrollStatus from : PayrollStatus.values()) {
+            for (PayrollStatus to : PayrollStatus.values()) {
+                assertEquals(from.allowedTransitions().contains(to), from.canTransitionTo(to), from + " -> " + to);
+            }
+        }
+    }
+
+    @Test
+    void noStatusMovesToItselfAndCompletedIsTerminal() {
+        for (PayrollStatus status : PayrollStatus.values()) {
+            assertFalse(status.canTransitionTo(status), status.name());
+            assertFalse(PayrollStatus.COMPLETED.canTransitionTo(status), status.name());
+        }
+        // Paid payrolls are reached only through PROCESSED
+        assertFalse(PayrollStatus.PENDING.canTransitionTo(PayrollStatus.COMPLETED));
+        assertFalse(PayrollStatus.CANCELLED.canTransitionTo(PayrollStatus.PROCESSED));
+    }
+}
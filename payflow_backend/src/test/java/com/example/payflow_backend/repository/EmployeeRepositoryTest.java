@@ -0,0 +1,49 @@
+package com.example.payflow_backend.repository;
+
+import com.example.payflow_backend.H2IntegrationTest;
+import com.example.payflow_backend.dto.EmployeeListItem;
+import com.example.payflow_backend.model.Admin;
+import com.example.payflow_backend.model.Employee;
+import com.example.payflow_backend.model.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class EmployeeRepositoryTest extends H2IntegrationTest {
+
+    @Autowired
+    private AdminRepository adminRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void listItemsCarryManagerSummaryAndFilterByManager() {
+        Admin admin = new Admin();
+        admin.setUsername("root");
+        admin.setEmail("root@payflow.test");
+        admin.setPasswordHash("x");
+        User manager = userRepository.save(User.builder().username("lead").email("lead@payflow.test")
+                .passwordHash("x").role("MANAGER").isActive(true).isTempPassword(false).createdBy(adminRepository.save(admin)).build());
+        Employee managed = employee("Managed", "ENG", 0);
+        Employee inactive = employee("Inactive", "ENG", 0);
+        Employee unmanaged = employee("Unmanaged", "HR", 0);
+        jdbcTemplate.update("UPDATE employee SET manager_id = ? WHERE employee_id IN (?, ?)",
+                manager.getUserId(), managed.getEmployeeId(), inactive.getEmployeeId());
+        jdbcTemplate.update("UPDATE employee SET is_active = false WHERE employee_id = ?", inactive.getEmployeeId());
+
+        List<EmployeeListItem> all = employeeRepository.findListItems();
+        assertEquals(List.of(managed.getEmployeeId(), inactive.getEmployeeId(), unmanaged.getEmployeeId()),
+                all.stream().map(EmployeeListItem::getEmployeeId).toList());
+        assertEquals("lead", all.get(0).getManager().getUsername());
+        assertEquals("ENG", all.get(0).getDepartment());
+        assertNull(all.get(2).getManager());
+
+        assertEquals(List.of(managed.getEmployeeId()), employeeRepository.findListItemsByManager(manager.getUserId())
+                .stream().map(EmployeeListItem::getEmployeeId).toList());
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.payflow_backend.repository;
+
+import com.example.payflow_backend.H2IntegrationTest;
+import com.example.payflow_backend.model.Employee;
+import com.example.payflow_backend.model.Payroll;
+import com.example.payflow_backend.model.PayrollStatus;
+import com.example.payflow_backend.service.PayrollCalculator;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PayrollJdbcRepositoryTest extends H2IntegrationTest {
+
+    private static final String MONTH = "2025-06";
+
+    @Autowired
+    private PayrollJdbcRepository payrollJdbcRepository;
+
+    private final PayrollCalculator payrollCalculator = new PayrollCalculator();
+
+    @Test
+    void insertSkipsExistingRowsAndReturnsOnlyNewOnes() {
+        List<Employee> employees = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            employees.add(employee("Jdbc" + i, "ENG", 0));
+        }
+        // Batch size 3: the second call's chunks are all-new, mixed and all-existing
+        List<Payroll> first = payrollJdbcRepository.insertIgnoringDuplicates(List.of(
+                payroll(employees.get(3), "100000"), payroll(employees.get(4), "100000"), payroll(employees.get(5), "100000")));
+        assertEquals(3, first.size());
+
+        List<Payroll> batch = new ArrayList<>();
+        for (Employee employee : employees) {
+            batch.add(payroll(employee, "200000"));
+        }
+        List<Payroll> inserted = payrollJdbcRepository.insertIgnoringDuplicates(batch);
+
+        assertEquals(List.of(employees.get(0).getEmployeeId(), employees.get(1).getEmployeeId(),
+                        employees.get(2).getEmployeeId(), employees.get(6).getEmployeeId()),
+                inserted.stream().map(payroll -> payroll.getEmployee().getEmployeeId()).toList());
+        assertEquals(7, count());
+        // Skipped rows keep their original amounts
+        assertEquals(0, new BigDecimal("100000").compareTo(jdbcTemplate.queryForObject(
+                "SELECT gross_salary FROM payroll WHERE employee_id = ?", BigDecimal.class, employees.get(4).getEmployeeId())));
+    }
+
+    @Test
+    void upsertReportsWhetherItInserted() {
+        Employee employee = employee("Upsert", "ENG", 0);
+
+        assertTrue(payrollJdbcRepository.upsert(payroll(employee, "100000")));
+        assertFalse(payrollJdbcRepository.upsert(payroll(employee, "150000")));
+
+        assertEquals(1, count());
+        assertEquals(0, new BigDecimal("150000").compareTo(jdbcTemplate.queryForObject(
+                "SELECT gross_salary FROM payroll WHERE employee_id = ?", BigDecimal.class, employee.getEmployeeId())));
+    }
+
+    private Payroll payroll(Employee employee, String netMonthlySalary) {
+        Payroll payroll = payrollCalculator.buildPayroll(employee, MONTH, new BigDecimal(netMonthlySalary), 0);
+        payroll.setStatus(PayrollStatus.PROCESSED);
+        return payroll;
+    }
+
+    private int count() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM payroll", Integer.class);
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.payflow_backend.service;
+
+import com.example.payflow_backend.H2IntegrationTest;
+import com.example.payflow_backend.dto.CTCImportError;
+import com.example.payflow_backend.dto.CTCImportResult;
+import com.example.payflow_backend.model.Employee;
+import com.example.payflow_backend.service.CTCImportService.Field;
+import com.example.payflow_backend.service.CTCImportService.ParsedRow;
+import com.example.payflow_backend.service.CTCImportService.RawLine;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CTCImportServiceTest extends H2IntegrationTest {
+
+    private static final String HEADER = "employeeId,effectiveFrom,basicSalary,allowances";
+
+    @Autowired
+    private CTCImportService ctcImportService;
+
+    @Test
+    void splitLineHandlesQuoting() {
+        assertEquals(List.of("1", "2025-01-01", "100"), CTCImportService.splitLine("1,2025-01-01,100"));
+        assertEquals(List.of("1", "", ""), CTCImportService.splitLine("1,,"));
+        assertEquals(List.of("a,b", "say \"hi\"", ""), CTCImportService.splitLine("\"a,b\",\"say \"\"hi\"\"\",\"\""));
+        assertThrows(IllegalArgumentException.class, () -> CTCImportService.splitLine("1,\"open"));
+    }
+
+    @Test
+    void headerIsMatchedCaseInsensitivelyAndChecked() {
+        Map<Field, Integer> columns = CTCImportService.parseHeader("EMPLOYEEID, basicsalary ,effectiveFrom");
+        assertEquals(Map.of(Field.EMPLOYEE_ID, 0, Field.BASIC_SALARY, 1, Field.EFFECTIVE_FROM, 2), columns);
+
+        assertThrows(IllegalArgumentException.class, () -> CTCImportService.parseHeader(HEADER + ",salary"));
+        assertThrows(IllegalArgumentException.class, () -> CTCImportService.parseHeader(HEADER + ",Allowances"));
+        assertThrows(IllegalArgumentException.class, () -> CTCImportService.parseHeader("employeeId,effectiveFrom"));
+    }
+
+    @Test
+    void parseValidatesEachField() {
+        ParsedRow row = parse("7, 2025-04-01 ,1000.50,");
+        assertNull(row.getError());
+        assertEquals(7L, row.getEmployeeId());
+        assertEquals(LocalDate.of(2025, 4, 1), row.getCtc().getEffectiveFrom());
+        assertEquals(0, BigDecimal.ZERO.compareTo(row.getCtc().getAllowances()));
+        assertEquals(0, new BigDecimal("1000.50").compareTo(row.getCtc().getTotalCtc()));
+        assertEquals(0, new BigDecimal("1500").compareTo(parse("7,2025-04-01,1000,500").getCtc().getTotalCtc()));
+
+        assertEquals("Expected 4 columns but found 3", parse("7,2025-04-01,1000").getError());
+        assertEquals("Invalid employeeId 'x'", parse("x,2025-04-01,1000,0").getError());
+        assertEquals("Invalid effectiveFrom '2025-13-01'. Use YYYY-MM-DD", parse("7,2025-13-01,1000,0").getError());
+        assertEquals("basicSalary is required", parse("7,2025-04-01,,0").getError());
+        assertEquals("Invalid basicSalary 'abc'", parse("7,2025-04-01,abc,0").getError());
+        assertEquals("allowances must not be negative", parse("7,2025-04-01,1000,-1").getError());
+        assertTrue(parse("7,2025-04-01,1000.123,0").getError().contains("more than 2 decimals"));
+        assertTrue(parse("7,2025-04-01,12345678901,0").getError().contains("too large"));
+        // Each component fits DECIMAL(12,2), their sum does not
+        assertTrue(parse("7,2025-04-01,9000000000,9000000000").getError().startsWith("totalCtc"));
+        // The employee ID is kept for the error report even when the row is rejected
+        assertEquals("7", parse("7,bad,1000,0").getEmployeeIdText());
+    }
+
+    @Test
+    void invalidLinesAreReportedAndTheRestImported() throws IOException {
+        Employee first = employee("ImportA", "ENG", 0);
+        Employee second = employee("ImportB", "ENG", 0);
+        String csv = HEADER + "\n"
+                + first.getEmployeeId() + ",2025-01-01,1200000,0\n"
+                + "\n"
+                + second.getEmployeeId() + ",2025-02-30,1200000,0\n"
+                + "999999,2025-01-01,1200000,0\n"
+                + second.getEmployeeId() + ",2025-03-01,1200000,\"120000\"\n";
+
+        CTCImportResult dryRun = ctcImportService.importCsv(stream(csv), true, "test");
+        assertEquals(0, ctcCount());
+        CTCImportResult result = ctcImportService.importCsv(stream(csv), false, "test");
+
+        for (CTCImportResult outcome : List.of(dryRun, result)) {
+            assertEquals(4, outcome.getRows());
+            assertEquals(2, outcome.getImported());
+            assertEquals(2, outcome.getFailed());
+            // Line numbers count the header and the blank line
+            assertEquals(List.of(4L, 5L), outcome.getErrors().stream().map(CTCImportError::getLine).toList());
+            assertEquals("Employee not found with ID: 999999", outcome.getErrors().get(1).getError());
+        }
+        assertEquals(2, ctcCount());
+        assertEquals(2, historyCount());
+    }
+
+    @Test
+    void failedChunkRejectsItsRowsAndKeepsCommittedChunks() throws IOException {
+        StringBuilder csv = new StringBuilder(HEADER + "\n");
+        for (int i = 0; i < 8; i++) {
+            Employee employee = employee("Chunk" + i, "ENG", 0);
+            // Chunk size 4; the seventh row trips the constraint below, failing the second chunk
+            csv.append(employee.getEmployeeId()).append(",2025-01-01,").append(i == 6 ? "777" : "1200000").append(",0\n");
+        }
+        jdbcTemplate.execute("ALTER TABLE ctc_details ADD CONSTRAINT test_ck_basic CHECK (basic_salary <> 777)");
+        CTCImportResult result;
+        try {
+            result = ctcImportService.importCsv(stream(csv.toString()), false, "test");
+        } finally {
+            jdbcTemplate.execute("ALTER TABLE ctc_details DROP CONSTRAINT test_ck_basic");
+        }
+
+        assertEquals(8, result.getRows());
+        assertEquals(4, result.getImported());
+        assertEquals(4, result.getFailed());
+        assertEquals(List.of(6L, 7L, 8L, 9L), result.getErrors().stream().map(CTCImportError::getLine).toList());
+        assertTrue(result.getErrors().stream().allMatch(error -> error.getError().startsWith("Not imported")));
+        assertEquals(4, ctcCount());
+        assertEquals(4, historyCount());
+    }
+
+    @Test
+    void badHeaderOrEmptyFileFailsTheWholeImport() {
+        assertThrows(IllegalArgumentException.class, () -> ctcImportService.importCsv(stream(""), false, "test"));
+        assertThrows(IllegalArgumentException.class,
+                () -> ctcImportService.importCsv(stream("employeeId,basicSalary\n1,100\n"), false, "test"));
+    }
+
+    private static ParsedRow parse(String line) {
+        return CTCImportService.parse(new RawLine(2, line), CTCImportService.parseHeader(HEADER));
+    }
+
+    private static ByteArrayInputStream stream(String csv) {
+        return new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private int ctcCount() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM ctc_details", Integer.class);
+    }
+
+    private int historyCount() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM ctc_history", Integer.class);
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.payflow_backend.service;
+
+import com.example.payflow_backend.H2IntegrationTest;
+import com.example.payflow_backend.dto.CTCTimelineCacheStats;
+import com.example.payflow_backend.model.Employee;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Timelines are cached from what is committed, whatever the calling transaction can see.
+ */
+class CTCTimelineCacheTest extends H2IntegrationTest {
+
+    @Autowired
+    private CTCTimelineCache ctcTimelineCache;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void missesLoadOutsideTheCallersTransaction() {
+        Employee employee = employee("Snapshot", "ENG", 0);
+        ctc(employee, LocalDate.of(2024, 1, 1), 1_200_000);
+        LocalDate date = LocalDate.of(2025, 1, 1);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            // A view only this transaction has; a timeline loaded through it would go stale once it ends
+            jdbcTemplate.update("UPDATE ctc_details SET effective_from = ? WHERE employee_id = ?",
+                    LocalDate.of(2030, 1, 1), employee.getEmployeeId());
+            ctcTimelineCache.invalidateAll();
+            assertTrue(ctcTimelineCache.effectiveAt(employee.getEmployeeId(), date).isPresent());
+            status.setRollbackOnly();
+        });
+
+        assertTrue(ctcTimelineCache.effectiveAt(employee.getEmployeeId(), date).isPresent());
+    }
+
+    @Test
+    void warmingStopsAtTheSizeLimit() {
+        Employee first = employee("WarmFirst", "ENG", 0);
+        ctc(first, LocalDate.of(2024, 1, 1), 1_200_000);
+        ctc(first, LocalDate.of(2025, 1, 1), 2_400_000);
+        Employee second = employee("WarmSecond", "ENG", 0);
+        ctc(second, LocalDate.of(2024, 1, 1), 1_200_000);
+        ctc(employee("WarmThird", "ENG", 0), LocalDate.of(2024, 1, 1), 1_200_000);
+        ctcTimelineCache.invalidateAll();
+
+        ReflectionTestUtils.setField(ctcTimelineCache, "warmOnStartup", true);
+        ReflectionTestUtils.setField(ctcTimelineCache, "maxEmployees", 2);
+        try {
+            ctcTimelineCache.warm();
+        } finally {
+            ReflectionTestUtils.setField(ctcTimelineCache, "warmOnStartup", false);
+            ReflectionTestUtils.setField(ctcTimelineCache, "maxEmployees", 200_000);
+        }
+
+        CTCTimelineCacheStats stats = ctcTimelineCache.getStats();
+        assertEquals(2, stats.getEmployees());
+        assertEquals(3, stats.getEntries());
+        assertEquals(0, ctcTimelineCache.effectiveAt(second.getEmployeeId(), LocalDate.of(2025, 6, 1))
+                .orElseThrow().getEffectiveFrom().compareTo(LocalDate.of(2024, 1, 1)));
+    }
+}
@@ -0,0 +1,192 @@
+package com.example.payflow_backend.service;
+
+import com.example.payflow_backend.dto.CTCSalaryRow;
+import com.example.payflow_backend.model.CTC;
+import com.example.payflow_backend.model.Employee;
+import com.example.payflow_backend.model.Payroll;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.YearMonth;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that the long paise path gives exactly the same values (and scales) as the
+ * BigDecimal implementation it replaces in bulk runs.
+ */
+class PaiseMathTest {
+
+    // Largest amount a precision 12, scale 2 column can hold, in paise
+    private static final long MAX_COLUMN_PAISE = 999_999_999_999L;
+
+    private static final int[] DIVISORS = {12, 28, 29, 30, 31};
+
+    // February in a common and a leap year, then a 30 and a 31 day month
+    private static final String[] MONTHS = {"2025-02", "2024-02", "2025-04", "2025-05"};
+
+    private final PayrollCalculator calculator = new PayrollCalculator();
+
+    private final Employee employee = Employee.builder().employeeId(1L).build();
+
+    @Test
+    void divideHalfUpMatchesBigDecimalForEveryRemainder() {
+        for (int divisor : DIVISORS) {
+            for (long paise = -100_000; paise <= 100_000; paise++) {
+                assertDivision(paise, divisor);
+            }
+            for (long base : new long[]{MAX_COLUMN_PAISE, Long.MAX_VALUE / 2, Long.MAX_VALUE, Long.MIN_VALUE + 1}) {
+                for (long offset = 0; offset < 2L * divisor; offset++) {
+                    assertDivision(base - offset, divisor);
+                    assertDivision(-(base - offset), divisor);
+                }
+            }
+        }
+    }
+
+    @Test
+    void netMonthlySalaryMatchesCtcForAllResidues() {
+        // Rounding depends only on each amount modulo 12, so every residue combination is covered
+        long[] bases = {0, 12, 1_200_000, MAX_COLUMN_PAISE - 23};
+        for (long base : bases) {
+            for (int total = 0; total < 24; total++) {
+                for (int pf = 0; pf < 24; pf++) {
+                    for (int gratuity = 0; gratuity < 24; gratuity++) {
+                        assertNetMonthly(base + total, base / 2 + pf, base / 3 + gratuity);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void netMonthlySalaryMatchesCtcForRandomAmounts() {
+        Random random = new Random(42);
+        for (int i = 0; i < 500_000; i++) {
+            long total = randomPaise(random);
+            assertNetMonthly(total, randomPaise(random) % (total + 1), randomPaise(random) % (total + 1));
+        }
+    }
+
+    @Test
+    void netMonthlySalaryTreatsMissingPfAndGratuityAsZero() {
+        for (long total = 0; total < 1_000; total++) {
+            CTCSalaryRow row = new CTCSalaryRow(1L, 1L, BigDecimal.valueOf(total, 2), null, null);
+            assertTrue(row.isPaiseExact());
+            assertEquals(row.getNetMonthlySalary(), PaiseMath.toBigDecimal(row.getNetMonthlySalaryPaise()));
+        }
+    }
+
+    @Test
+    void payrollMatchesBigDecimalPathForSmallSalariesAndAllLeaveCounts() {
+        for (String month : MONTHS) {
+            for (int leaves = 0; leaves <= 31; leaves++) {
+                for (long gross = 0; gross <= 40_000; gross++) {
+                    assertPayroll(month, gross, leaves);
+                }
+            }
+        }
+    }
+
+    @Test
+    void payrollMatchesBigDecimalPathForRandomSalaries() {
+        Random random = new Random(7);
+        for (int i = 0; i < 500_000; i++) {
+            String month = MONTHS[random.nextInt(MONTHS.length)];
+            assertPayroll(month, randomPaise(random) / 12, random.nextInt(40));
+        }
+    }
+
+    @Test
+    void payrollClampsNegativeNetSalaryLikeBigDecimalPath() {
+        // More unpaid days than the month has drives the net below zero
+        for (String month : MONTHS) {
+            for (int leaves = 32; leaves <= 100; leaves++) {
+                for (long gross = 0; gross <= 5_000; gross++) {
+                    assertPayroll(month, gross, leaves);
+                }
+            }
+        }
+    }
+
+    @Test
+    void salaryRowPathMatchesOriginalPipeline() {
+        Random random = new Random(11);
+        for (int i = 0; i < 200_000; i++) {
+            long total = randomPaise(random);
+            CTCSalaryRow row = new CTCSalaryRow(1L, 1L, BigDecimal.valueOf(total, 2),
+                    BigDecimal.valueOf(randomPaise(random) % (total + 1), 2),
+                    BigDecimal.valueOf(randomPaise(random) % (total + 1), 2));
+            String month = MONTHS[random.nextInt(MONTHS.length)];
+            int leaves = random.nextInt(32);
+            assertSamePayroll(calculator.buildPayroll(employee, month, row.getNetMonthlySalary(), leaves),
+                    calculator.buildPayroll(employee, month, lengthOf(month), row, leaves));
+        }
+    }
+
+    @Test
+    void amountsFinerThanPaiseFallBackToBigDecimal() {
+        CTCSalaryRow row = new CTCSalaryRow(1L, 1L, new BigDecimal("1234567.895"), new BigDecimal("100.00"), null);
+        assertFalse(row.isPaiseExact());
+        assertSamePayroll(calculator.buildPayroll(employee, "2025-05", row.getNetMonthlySalary(), 3),
+                calculator.buildPayroll(employee, "2025-05", 31, row, 3));
+    }
+
+    @Test
+    void isExactAcceptsTrailingScalesUpToTwo() {
+        assertTrue(PaiseMath.isExact(new BigDecimal("10")));
+        assertTrue(PaiseMath.isExact(new BigDecimal("10.5")));
+        assertTrue(PaiseMath.isExact(new BigDecimal("1E+3")));
+        assertEquals(100_000L, PaiseMath.toPaise(new BigDecimal("1E+3")));
+        assertFalse(PaiseMath.isExact(new BigDecimal("10.001")));
+        assertFalse(PaiseMath.isExact(new BigDecimal("1E+20")));
+    }
+
+    private void assertDivision(long paise, int divisor) {
+        BigDecimal expected = BigDecimal.valueOf(paise, 2).divide(BigDecimal.valueOf(divisor), 2, RoundingMode.HALF_UP);
+        assertEquals(expected, PaiseMath.toBigDecimal(PaiseMath.divideHalfUp(paise, divisor)),
+                () -> paise + " / " + divisor);
+    }
+
+    private void assertNetMonthly(long total, long pf, long gratuity) {
+        BigDecimal expected = CTC.builder()
+                .totalCtc(BigDecimal.valueOf(total, 2))
+                .pfContribution(BigDecimal.valueOf(pf, 2))
+                .gratuity(BigDecimal.valueOf(gratuity, 2))
+                .build()
+                .getNetMonthlySalary();
+        assertEquals(expected, PaiseMath.toBigDecimal(PaiseMath.netMonthlySalary(total, pf, gratuity)),
+                () -> "total=" + total + " pf=" + pf + " gratuity=" + gratuity);
+    }
+
+    private void assertPayroll(String month, long gross, int leaves) {
+        assertSamePayroll(calculator.buildPayroll(employee, month, BigDecimal.valueOf(gross, 2), leaves),
+                calculator.buildPayrollFromPaise(employee, month, lengthOf(month), gross, leaves));
+    }
+
+    // equals, not compareTo: scales must match too
+    private static void assertSamePayroll(Payroll expected, Payroll actual) {
+        String context = expected.getMonth() + " gross=" + expected.getGrossSalary() + " leaves=" + expected.getUnpaidLeaves();
+        assertEquals(expected.getGrossSalary(), actual.getGrossSalary(), context);
+        assertEquals(expected.getPerDaySalary(), actual.getPerDaySalary(), context);
+        assertEquals(expected.getLeaveDeduction(), actual.getLeaveDeduction(), context);
+        assertEquals(expected.getNetSalary(), actual.getNetSalary(), context);
+        assertEquals(expected.getTotalWorkingDays(), actual.getTotalWorkingDays(), context);
+        assertEquals(expected.getUnpaidLeaves(), actual.getUnpaidLeaves(), context);
+        assertEquals(expected.getMonth(), actual.getMonth(), context);
+        assertEquals(expected.getStatus(), actual.getStatus(), context);
+        assertEquals(expected.getProcessedBy(), actual.getProcessedBy(), context);
+    }
+
+    private static long randomPaise(Random random) {
+        return (long) (random.nextDouble() * MAX_COLUMN_PAISE);
+    }
+
+    private static int lengthOf(String month) {
+        return YearMonth.parse(month).lengthOfMonth();
+    }
+}
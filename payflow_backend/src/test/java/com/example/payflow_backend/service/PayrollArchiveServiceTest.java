@@ -0,0 +1,212 @@
+package com.example.payflow_backend.service;
+
+import com.example.payflow_backend.H2IntegrationTest;
+import com.example.payflow_backend.dto.PayrollListFilter;
+import com.example.payflow_backend.dto.PayrollListItem;
+import com.example.payflow_backend.dto.PayrollPage;
+import com.example.payflow_backend.dto.PayrollStatusTransitionRequest;
+import com.example.payflow_backend.model.Employee;
+import com.example.payflow_backend.model.Payroll;
+import com.example.payflow_backend.model.PayrollStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Archived payrolls leave the payroll table but stay readable through every employee lookup,
+ * and a month is either fully archived or untouched.
+ */
+class PayrollArchiveServiceTest extends H2IntegrationTest {
+
+    @Autowired
+    private PayrollArchiveService payrollArchiveService;
+
+    @Autowired
+    private PayrollService payrollService;
+
+    @Autowired
+    private PayrollMonthSummaryService monthSummaryService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${payflow.payroll.archive-dir}")
+    private String archiveDir;
+
+    @BeforeEach
+    void clearArchiveDir() throws IOException {
+        Path directory = Paths.get(archiveDir);
+        if (Files.exists(directory)) {
+            try (Stream<Path> files = Files.list(directory)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    Files.delete(file);
+                }
+            }
+        }
+    }
+
+    @Test
+    void archivedRowsReadBackFromEveryBlock() {
+        List<Employee> employees = withCtc("Block", 5);
+        Map<Long, Payroll> generated = new HashMap<>();
+        for (Employee employee : employees) {
+            generated.put(employee.getEmployeeId(), payrollService.generatePayrollForEmployee(employee.getEmployeeId(), "2022-02"));
+        }
+        complete("2022-02");
+
+        payrollArchiveService.archiveMonth("2022-02");
+
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM payroll WHERE month = '2022-02'", Integer.class));
+        // Two rows per block in tests: members start at the 1st, 3rd and 5th employee
+        assertEquals(3, lines(archiveFile("2022-02.jsonl.gz.idx")).size());
+        for (Employee employee : employees) {
+            Payroll payroll = generated.get(employee.getEmployeeId());
+            PayrollListItem archived = payrollService.getArchivedPayroll(employee.getEmployeeId(), "2022-02").orElseThrow();
+            assertEquals(payroll.getId(), archived.getId());
+            assertEquals(0, payroll.getNetSalary().compareTo(archived.getNetSalary()));
+            assertEquals(PayrollStatus.COMPLETED, archived.getStatus());
+
+            List<PayrollListItem> history = payrollService.getPayrollByEmployee(employee.getEmployeeId());
+            assertEquals(List.of(payroll.getId()), history.stream().map(PayrollListItem::getId).toList());
+        }
+        assertTrue(payrollService.getArchivedPayroll(employees.get(0).getEmployeeId(), "2022-03").isEmpty());
+    }
+
+    @Test
+    void readsFilesWrittenWithoutAnIndex() throws IOException {
+        List<Employee> employees = withCtc("Unindexed", 3);
+        payrollService.generatePayrollForAllEmployees("2022-04", false);
+        complete("2022-04");
+        payrollArchiveService.archiveMonth("2022-04");
+
+        Files.delete(archiveFile("2022-04.jsonl.gz.idx"));
+
+        for (Employee employee : employees) {
+            assertTrue(payrollService.getArchivedPayroll(employee.getEmployeeId(), "2022-04").isPresent());
+        }
+    }
+
+    @Test
+    void employeePagesIncludeArchivedMonths() {
+        Employee employee = withCtc("Paged", 1).get(0);
+        payrollService.generatePayrollForEmployee(employee.getEmployeeId(), "2022-01");
+        payrollService.generatePayrollForEmployee(employee.getEmployeeId(), "2022-02");
+        payrollService.generatePayrollForEmployee(employee.getEmployeeId(), "2022-03");
+        complete("2022-02");
+        payrollArchiveService.archiveMonth("2022-02");
+
+        List<String> months = new ArrayList<>();
+        String cursor = null;
+        do {
+            PayrollPage page = payrollService.getPayrollPage(PayrollListFilter.builder()
+                    .employeeId(employee.getEmployeeId()).limit(1).cursor(cursor).build());
+            page.getItems().forEach(item -> months.add(item.getMonth()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertEquals(List.of("2022-03", "2022-02", "2022-01"), months);
+        assertTrue(payrollService.getPayrollPage(PayrollListFilter.builder()
+                .employeeId(employee.getEmployeeId()).status(PayrollStatus.PROCESSED).month("2022-02").build())
+                .getItems().isEmpty());
+    }
+
+    @Test
+    void rolledBackArchiveKeepsRowsAndRemovesItsFiles() {
+        List<Employee> employees = withCtc("RolledBack", 3);
+        payrollService.generatePayrollForAllEmployees("2022-05", false);
+        complete("2022-05");
+
+        transactionTemplate.executeWithoutResult(status -> {
+            payrollArchiveService.archiveMonth("2022-05");
+            assertTrue(Files.exists(archiveFile("2022-05.jsonl.gz")));
+            status.setRollbackOnly();
+        });
+
+        assertFalse(Files.exists(archiveFile("2022-05.jsonl.gz")));
+        assertFalse(Files.exists(archiveFile("2022-05.jsonl.gz.idx")));
+        assertFalse(payrollArchiveService.isArchived("2022-05"));
+        assertEquals(3, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM payroll WHERE month = '2022-05'", Integer.class));
+        assertEquals(employees.size(), jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM employee_latest_payroll WHERE month_key = 202205", Integer.class));
+    }
+
+    @Test
+    void mismatchedSummaryLeavesNoFile() {
+        withCtc("Mismatch", 2);
+        payrollService.generatePayrollForAllEmployees("2022-06", false);
+        complete("2022-06");
+        jdbcTemplate.update("UPDATE payroll_month_summary SET total_net_salary = total_net_salary + 1 WHERE month = '2022-06'");
+
+        assertThrows(IllegalStateException.class, () -> payrollArchiveService.archiveMonth("2022-06"));
+
+        assertFalse(Files.exists(archiveFile("2022-06.jsonl.gz")));
+        assertFalse(Files.exists(archiveFile("2022-06.jsonl.gz.part")));
+        assertEquals(2, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM payroll WHERE month = '2022-06'", Integer.class));
+    }
+
+    @Test
+    void writesToAnArchivedMonthAreRejected() {
+        Employee employee = withCtc("Archived", 1).get(0);
+        payrollService.generatePayrollForEmployee(employee.getEmployeeId(), "2022-07");
+        complete("2022-07");
+        payrollArchiveService.archiveMonth("2022-07");
+        Employee joiner = withCtc("Joiner", 1).get(0);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> payrollService.generatePayrollForEmployee(joiner.getEmployeeId(), "2022-07"));
+        // A writer that passed the up-front check before the archive committed is stopped at the summary update
+        assertThrows(IllegalArgumentException.class, () -> transactionTemplate.executeWithoutResult(status ->
+                monthSummaryService.recordStatusChanged("2022-07", PayrollStatus.COMPLETED, PayrollStatus.CANCELLED, 1)));
+        assertEquals(1L, monthSummaryService.getSummary("2022-07").getCompletedCount());
+        assertNull(payrollService.getPayrollByEmployeeAndMonth(joiner.getEmployeeId(), "2022-07").orElse(null));
+    }
+
+    private void complete(String month) {
+        payrollService.transitionStatus(PayrollStatusTransitionRequest.builder()
+                .month(month).from(PayrollStatus.PROCESSED).to(PayrollStatus.COMPLETED).build());
+    }
+
+    private Path archiveFile(String suffix) {
+        return Paths.get(archiveDir).resolve("payroll-" + suffix);
+    }
+
+    private static List<String> lines(Path file) {
+        try {
+            return Files.readAllLines(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private List<Employee> withCtc(String name, int count) {
+        List<Employee> employees = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Employee employee = employee(name + i, "ENG", 0);
+            ctc(employee, LocalDate.of(2020, 1, 1), 1_200_000);
+            employees.add(employee);
+        }
+        employees.sort(Comparator.comparing(Employee::getEmployeeId));
+        return employees;
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.payflow_backend.service;
+
+import com.example.payflow_backend.H2IntegrationTest;
+import com.example.payflow_backend.dto.PayrollBackfillResult;
+import com.example.payflow_backend.model.Employee;
+import com.example.payflow_backend.model.Payroll;
+import com.example.payflow_backend.model.PayrollBackfillRun;
+import com.example.payflow_backend.model.PayrollRunStatus;
+import com.example.payflow_backend.repository.PayrollRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PayrollBackfillServiceTest extends H2IntegrationTest {
+
+    @Autowired
+    private PayrollBackfillService payrollBackfillService;
+
+    @Autowired
+    private PayrollRepository payrollRepository;
+
+    @Test
+    void liveLeaveCounterIsChargedToTheRunningMonthOnly() {
+        String current = YearMonth.now().toString();
+        String previous = YearMonth.now().minusMonths(1).toString();
+        Employee employee = employee("Backfill", "ENG", 2);
+        ctc(employee, LocalDate.of(2020, 1, 1), 1_200_000);
+
+        PayrollBackfillResult result = payrollBackfillService.backfill(previous, current);
+
+        assertEquals(2, result.getGenerated());
+        assertEquals(0, payroll(employee, previous).getUnpaidLeaves());
+        assertEquals(2, payroll(employee, current).getUnpaidLeaves());
+    }
+
+    @Test
+    void rerunSkipsExistingMonths() {
+        Employee withCtc = employee("Rerun", "ENG", 0);
+        ctc(withCtc, LocalDate.of(2025, 1, 1), 1_200_000);
+        employee("NoCtc", "ENG", 0);
+
+        PayrollBackfillResult first = payrollBackfillService.backfill("2025-01", "2025-03");
+        PayrollBackfillResult second = payrollBackfillService.backfill("2025-01", "2025-03");
+
+        assertEquals(3, first.getGenerated());
+        assertEquals(3, first.getSkippedNoCtc());
+        assertEquals(0, second.getGenerated());
+        assertEquals(3, second.getSkippedExisting());
+    }
+
+    @Test
+    void submittedBackfillRunsInTheBackgroundAndRecordsItsCounts() throws InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            ctc(employee("Job" + i, "ENG", 0), LocalDate.of(2025, 1, 1), 1_200_000);
+        }
+
+        PayrollBackfillRun submitted = payrollBackfillService.submitBackfill("2025-01", "2025-02", "test");
+        PayrollBackfillRun run = awaitFinished(submitted.getId());
+
+        assertEquals(PayrollRunStatus.COMPLETED, run.getStatus());
+        assertEquals(3, run.getEmployees());
+        // Partition size 2
+        assertEquals(2, run.getTotalPartitions());
+        assertEquals(2, run.getProcessedPartitions());
+        assertEquals(6, run.getGeneratedCount());
+        assertEquals(0, run.getSkippedExistingCount());
+    }
+
+    @Test
+    void invalidRangeIsRejectedWhenSubmitted() {
+        assertThrows(IllegalArgumentException.class,
+                () -> payrollBackfillService.submitBackfill("2025-03", "2025-01", "test"));
+        assertThrows(IllegalArgumentException.class, () -> payrollBackfillService.submitBackfill(
+                "2025-01", YearMonth.now().plusMonths(1).toString(), "test"));
+    }
+
+    private PayrollBackfillRun awaitFinished(Long runId) throws InterruptedException {
+        for (int i = 0; i < 200; i++) {
+            PayrollBackfillRun run = payrollBackfillService.getBackfillRun(runId);
+            if (run.getStatus() != PayrollRunStatus.RUNNING) {
+                return run;
+            }
+            Thread.sleep(50);
+        }
+        throw new AssertionError("Backfill " + runId + " did not finish");
+    }
+
+    private Payroll payroll(Employee employee, String month) {
+        return payrollRepository.findByEmployee_EmployeeIdAndMonth(employee.getEmployeeId(), month).orElseThrow();
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.payflow_backend.service;
+
+import com.example.payflow_backend.H2IntegrationTest;
+import com.example.payflow_backend.model.Employee;
+import com.example.payflow_backend.model.LeaveRequest;
+import com.example.payflow_backend.model.LeaveStatus;
+import com.example.payflow_backend.model.PayrollDirtyMark;
+import com.example.payflow_backend.model.PayrollDirtyMark.DirtyReason;
+import com.example.payflow_backend.repository.PayrollRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PayrollDirtyTrackerTest extends H2IntegrationTest {
+
+    @Autowired
+    private PayrollDirtyTracker payrollDirtyTracker;
+
+    @Autowired
+    private PayrollRecomputeService payrollRecomputeService;
+
+    @Autowired
+    private PayrollService payrollService;
+
+    @Autowired
+    private PayrollRepository payrollRepository;
+
+    @Autowired
+    private LeaveRequestService leaveRequestService;
+
+    @Test
+    void leaveMarksEveryGeneratedMonthItSpans() {
+        Employee employee = employee("Span", "ENG", 0);
+        ctc(employee, LocalDate.of(2025, 1, 1), 1_200_000);
+        for (String month : List.of("2025-03", "2025-04", "2025-05")) {
+            payrollService.generatePayrollForEmployee(employee.getEmployeeId(), month);
+        }
+
+        int marked = payrollDirtyTracker.markLeaveChange(employee.getEmployeeId(),
+                LocalDate.of(2025, 3, 30), LocalDate.of(2025, 4, 2));
+
+        assertEquals(2, marked);
+        assertEquals(List.of("2025-03", "2025-04"), pendingMonths(employee));
+    }
+
+    @Test
+    void everyFlagAddsItsOwnMarkAndOneRecomputeSettlesThemAll() {
+        Employee employee = employee("Twice", "ENG", 0);
+        ctc(employee, LocalDate.of(2025, 1, 1), 1_200_000);
+        payrollService.generatePayrollForEmployee(employee.getEmployeeId(), "2025-04");
+
+        // A second change to a pair already pending must not be folded into the mark a running
+        // recompute may be about to delete
+        payrollDirtyTracker.markLeaveChange(employee.getEmployeeId(), LocalDate.of(2025, 4, 1), LocalDate.of(2025, 4, 1));
+        payrollDirtyTracker.markLeaveChange(employee.getEmployeeId(), LocalDate.of(2025, 4, 7), LocalDate.of(2025, 4, 7));
+        assertEquals(List.of("2025-04", "2025-04"), pendingMonths(employee));
+
+        assertEquals(1, payrollRecomputeService.recomputeDirty().getDirtyPairs());
+        assertTrue(payrollDirtyTracker.getPendingMarks().isEmpty());
+    }
+
+    @Test
+    void ctcChangeMarksGeneratedMonthsFromItsEffectiveMonth() {
+        Employee employee = employee("Ctc", "ENG", 0);
+        ctc(employee, LocalDate.of(2025, 1, 1), 1_200_000);
+        for (String month : List.of("2025-03", "2025-04", "2025-05")) {
+            payrollService.generatePayrollForEmployee(employee.getEmployeeId(), month);
+        }
+
+        ctc(employee, LocalDate.of(2025, 4, 15), 2_400_000);
+
+        assertEquals(List.of("2025-04", "2025-05"), pendingMonths(employee));
+        assertTrue(payrollDirtyTracker.getPendingMarks().stream().allMatch(m -> m.getReason() == DirtyReason.CTC_CREATED));
+
+        // April's CTC as of its last day is the new one, as is May's; both are rewritten and the marks consumed
+        assertEquals(2, payrollRecomputeService.recomputeDirty().getUpdated());
+        assertTrue(payrollDirtyTracker.getPendingMarks().isEmpty());
+    }
+
+    @Test
+    void approvedUnpaidLeaveIsRecomputedIntoTheRunningMonth() {
+        String month = YearMonth.now().toString();
+        Employee employee = employee("Leave", "ENG", 0);
+        ctc(employee, LocalDate.of(2025, 1, 1), 1_200_000);
+        payrollService.generatePayrollForEmployee(employee.getEmployeeId(), month);
+
+        // No leave balance, so both days are unpaid
+        LeaveRequest leave = new LeaveRequest();
+        leave.setStartDate(LocalDate.now().withDayOfMonth(1));
+        leave.setEndDate(LocalDate.now().withDayOfMonth(2));
+        leave.setReason("test");
+        leave = leaveRequestService.applyLeave(employee.getEmployeeId(), leave);
+        leaveRequestService.updateStatus(leave.getId(), LeaveStatus.APPROVED);
+
+        assertEquals(List.of(month), pendingMonths(employee));
+        assertEquals(1, payrollRecomputeService.recomputeDirty().getUpdated());
+        assertEquals(2, payrollRepository.findByEmployee_EmployeeIdAndMonth(employee.getEmployeeId(), month)
+                .orElseThrow().getUnpaidLeaves());
+    }
+
+    private List<String> pendingMonths(Employee employee) {
+        return payrollDirtyTracker.getPendingMarks().stream()
+                .filter(mark -> mark.getEmployeeId().equals(employee.getEmployeeId()))
+                .map(PayrollDirtyMark::getMonth)
+                .toList();
+    }
+}
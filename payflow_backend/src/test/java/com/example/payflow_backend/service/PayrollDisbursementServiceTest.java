@@ -0,0 +1,83 @@
+package com.example.payflow_backend.service;
+
+import com.example.payflow_backend.H2IntegrationTest;
+import com.example.payflow_backend.dto.PayrollDisbursementResult;
+import com.example.payflow_backend.model.Employee;
+import com.example.payflow_backend.model.PayrollMonthSummary;
+import com.example.payflow_backend.model.PayrollStatus;
+import com.example.payflow_backend.repository.PayrollRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PayrollDisbursementServiceTest extends H2IntegrationTest {
+
+    // 31 days
+    private static final String MONTH = "2025-03";
+
+    @Autowired
+    private PayrollDisbursementService payrollDisbursementService;
+
+    @Autowired
+    private PayrollService payrollService;
+
+    @Autowired
+    private PayrollMonthSummaryService payrollMonthSummaryService;
+
+    @Autowired
+    private PayrollRepository payrollRepository;
+
+    @Test
+    void paysInBatchesAndLeavesZeroAndUnbankedPayrollsProcessed() throws Exception {
+        // Five payable employees span two batches of three
+        for (int i = 0; i < 5; i++) {
+            bankedEmployee("Paid" + i, 0, "10000000" + i);
+        }
+        Employee zero = bankedEmployee("Zero", 31, "200000001");
+        Employee unbanked = employee("Unbanked", "ENG", 0);
+        ctc(unbanked, LocalDate.of(2025, 1, 1), 1_200_000);
+        payrollService.generatePayrollForAllEmployees(MONTH, false);
+
+        PayrollDisbursementResult result = payrollDisbursementService.generate(MONTH, PayrollDisbursementService.Format.FIXED);
+
+        assertEquals(5, result.getRecords());
+        assertEquals(5, result.getCompleted());
+        assertEquals(0, new BigDecimal("500000.00").compareTo(result.getControlTotal()));
+        assertEquals(List.of(payrollId(zero)), result.getZeroAmountPayrollIds());
+        assertEquals(List.of(payrollId(unbanked)), result.getRejectedPayrollIds());
+        assertEquals(PayrollStatus.PROCESSED, status(zero));
+        assertEquals(PayrollStatus.PROCESSED, status(unbanked));
+
+        List<String> lines = Files.readAllLines(payrollDisbursementService.resolveFile(result.getFileName()));
+        assertEquals(5, lines.stream().filter(line -> line.startsWith("D")).count());
+        assertTrue(lines.get(lines.size() - 1).startsWith("T000000005"));
+
+        PayrollMonthSummary summary = payrollMonthSummaryService.getSummary(MONTH);
+        assertEquals(5, summary.getCompletedCount());
+        assertEquals(2, summary.getProcessedCount());
+        assertTrue(payrollMonthSummaryService.check().isEmpty());
+    }
+
+    private Employee bankedEmployee(String name, int extraLeaves, String account) {
+        Employee employee = employee(name, "ENG", extraLeaves);
+        jdbcTemplate.update("UPDATE employee SET bank_account_number = ?, bank_ifsc = 'HDFC0001234' WHERE employee_id = ?",
+                account, employee.getEmployeeId());
+        ctc(employee, LocalDate.of(2025, 1, 1), 1_200_000);
+        return employee;
+    }
+
+    private Long payrollId(Employee employee) {
+        return payrollRepository.findByEmployee_EmployeeIdAndMonth(employee.getEmployeeId(), MONTH).orElseThrow().getId();
+    }
+
+    private PayrollStatus status(Employee employee) {
+        return payrollRepository.findByEmployee_EmployeeIdAndMonth(employee.getEmployeeId(), MONTH).orElseThrow().getStatus();
+    }
+}
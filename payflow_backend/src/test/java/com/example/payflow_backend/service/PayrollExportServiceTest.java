@@ -0,0 +1,46 @@
+package com.example.payflow_backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PayrollExportServiceTest {
+
+    @Test
+    void plainValuesAreWrittenAsIs() throws IOException {
+        assertEquals("", csv(null));
+        assertEquals("", csv(""));
+        assertEquals("2025-06", csv("2025-06"));
+        assertEquals("45000.50", csv("45000.50"));
+        assertEquals("-120.75", csv("-120.75"));
+    }
+
+    @Test
+    void separatorsQuotesAndLineBreaksAreQuoted() throws IOException {
+        assertEquals("\"Doe, Jane\"", csv("Doe, Jane"));
+        assertEquals("\"say \"\"hi\"\"\"", csv("say \"hi\""));
+        assertEquals("\"line1\nline2\"", csv("line1\nline2"));
+        assertEquals("\"a\rb\"", csv("a\rb"));
+    }
+
+    @Test
+    void formulaPrefixesAreNeutralized() throws IOException {
+        assertEquals("\"'=SUM(A1:A9)\"", csv("=SUM(A1:A9)"));
+        assertEquals("\"'+1\"", csv("+1"));
+        assertEquals("\"'@cmd\"", csv("@cmd"));
+        assertEquals("\"'-1+2\"", csv("-1+2"));
+        assertEquals("\"'=HYPERLINK(\"\"x\"\")\"", csv("=HYPERLINK(\"x\")"));
+        assertEquals("\"'\t=1+2\"", csv("\t=1+2"));
+        assertEquals("\"'\r=1+2\"", csv("\r=1+2"));
+        assertEquals("\"'\t5\"", csv("\t5"));
+    }
+
+    private static String csv(String value) throws IOException {
+        StringWriter writer = new StringWriter();
+        PayrollExportService.writeCsvField(writer, value);
+        return writer.toString();
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.payflow_backend.service;
+
+import com.example.payflow_backend.H2IntegrationTest;
+import com.example.payflow_backend.dto.PayrollLatestRepairResult;
+import com.example.payflow_backend.dto.PayrollStatusTransitionRequest;
+import com.example.payflow_backend.model.Employee;
+import com.example.payflow_backend.model.Payroll;
+import com.example.payflow_backend.model.PayrollStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * The latest-payroll pointers move with every insert and delete; after each, they must
+ * equal what repair would rebuild from payroll history.
+ */
+class PayrollLatestServiceTest extends H2IntegrationTest {
+
+    @Autowired
+    private PayrollLatestService payrollLatestService;
+
+    @Autowired
+    private PayrollService payrollService;
+
+    @Autowired
+    private PayrollArchiveService payrollArchiveService;
+
+    @Test
+    void insertsMoveThePointerForwardOnly() {
+        Employee employee = withCtc("Forward");
+        payrollService.generatePayrollForEmployee(employee.getEmployeeId(), "2025-05");
+        payrollService.generatePayrollForEmployee(employee.getEmployeeId(), "2025-03");
+        assertEquals(202505, pointer(employee));
+
+        payrollService.generatePayrollForAllEmployees("2025-06", false);
+        assertEquals(202506, pointer(employee));
+        assertRepaired();
+    }
+
+    @Test
+    void deletingTheLatestLowersOrRemovesThePointer() {
+        Employee employee = withCtc("Delete");
+        Payroll march = payrollService.generatePayrollForEmployee(employee.getEmployeeId(), "2025-03");
+        Payroll may = payrollService.generatePayrollForEmployee(employee.getEmployeeId(), "2025-05");
+
+        payrollService.deletePayroll(march.getId());
+        assertEquals(202505, pointer(employee));
+        payrollService.generatePayrollForEmployee(employee.getEmployeeId(), "2025-03");
+        payrollService.deletePayroll(may.getId());
+        assertEquals(202503, pointer(employee));
+        assertRepaired();
+
+        payrollService.deletePayroll(payrollService.getPayrollByEmployeeAndMonth(employee.getEmployeeId(), "2025-03")
+                .orElseThrow().getId());
+        assertNull(pointer(employee));
+        assertRepaired();
+    }
+
+    @Test
+    void archivingAMonthRepointsItsEmployees() {
+        Employee both = withCtc("Both");
+        Employee onlyLast = withCtc("OnlyLast");
+        payrollService.generatePayrollForEmployee(both.getEmployeeId(), "2022-01");
+        payrollService.generatePayrollForAllEmployees("2022-02", false);
+        payrollService.transitionStatus(PayrollStatusTransitionRequest.builder()
+                .month("2022-02").from(PayrollStatus.PROCESSED).to(PayrollStatus.COMPLETED).build());
+
+        payrollArchiveService.archiveMonth("2022-02");
+
+        assertEquals(202201, pointer(both));
+        assertNull(pointer(onlyLast));
+        assertRepaired();
+    }
+
+    @Test
+    void repairFixesDriftedPointers() {
+        Employee ahead = withCtc("Ahead");
+        Employee behind = withCtc("Behind");
+        Employee stale = withCtc("Stale");
+        payrollService.generatePayrollForAllEmployees("2025-04", false);
+        payrollService.generatePayrollForAllEmployees("2025-05", false);
+        jdbcTemplate.update("UPDATE employee_latest_payroll SET month_key = 202512 WHERE employee_id = ?", ahead.getEmployeeId());
+        jdbcTemplate.update("UPDATE employee_latest_payroll SET month_key = 202504 WHERE employee_id = ?", behind.getEmployeeId());
+        jdbcTemplate.update("DELETE FROM payroll WHERE employee_id = ?", stale.getEmployeeId());
+
+        PayrollLatestRepairResult result = payrollLatestService.repair();
+
+        assertEquals(1, result.getAdvanced());
+        assertEquals(1, result.getLowered());
+        assertEquals(1, result.getRemoved());
+        assertEquals(202505, pointer(ahead));
+        assertEquals(202505, pointer(behind));
+        assertNull(pointer(stale));
+        assertRepaired();
+    }
+
+    // Repair finds nothing to change
+    private void assertRepaired() {
+        Map<Long, Integer> before = pointers();
+        PayrollLatestRepairResult result = payrollLatestService.repair();
+        assertEquals(0, result.getAdvanced() + result.getLowered() + result.getRemoved(), result::toString);
+        assertEquals(before, pointers());
+    }
+
+    private Integer pointer(Employee employee) {
+        List<Integer> months = jdbcTemplate.queryForList(
+                "SELECT month_key FROM employee_latest_payroll WHERE employee_id = ?", Integer.class, employee.getEmployeeId());
+        return months.isEmpty() ? null : months.get(0);
+    }
+
+    private Map<Long, Integer> pointers() {
+        Map<Long, Integer> pointers = new HashMap<>();
+        jdbcTemplate.query("SELECT employee_id, month_key FROM employee_latest_payroll",
+                rs -> {
+                    pointers.put(rs.getLong(1), rs.getInt(2));
+                });
+        return pointers;
+    }
+
+    private Employee withCtc(String name) {
+        Employee employee = employee(name, "ENG", 0);
+        ctc(employee, LocalDate.of(2020, 1, 1), 1_200_000);
+        return employee;
+    }
+}
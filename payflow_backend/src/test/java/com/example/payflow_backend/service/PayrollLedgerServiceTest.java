@@ -0,0 +1,154 @@
+package com.example.payflow_backend.service;
+
+import com.example.payflow_backend.H2IntegrationTest;
+import com.example.payflow_backend.dto.PayrollLedgerReplay;
+import com.example.payflow_backend.dto.PayrollLedgerState;
+import com.example.payflow_backend.dto.PayrollStatusTransitionRequest;
+import com.example.payflow_backend.model.Employee;
+import com.example.payflow_backend.model.PayrollLedgerEntry;
+import com.example.payflow_backend.model.PayrollLedgerEvent;
+import com.example.payflow_backend.model.PayrollLedgerSnapshot;
+import com.example.payflow_backend.model.PayrollStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Replaying a month's ledger, from scratch or from a snapshot, must give the payroll table's rows.
+ */
+class PayrollLedgerServiceTest extends H2IntegrationTest {
+
+    private static final String MONTH = "2025-06";
+
+    @Autowired
+    private PayrollLedgerService payrollLedgerService;
+
+    @Autowired
+    private PayrollService payrollService;
+
+    @Autowired
+    private PayrollRecomputeService payrollRecomputeService;
+
+    private final List<Employee> employees = new ArrayList<>();
+
+    @BeforeEach
+    void generateMonth() {
+        employees.clear();
+        for (int i = 0; i < 4; i++) {
+            Employee employee = employee("Ledger" + i, i < 2 ? "ENG" : "HR", i);
+            ctc(employee, LocalDate.of(2025, 1, 1), 1_200_000);
+            employees.add(employee);
+        }
+        payrollService.generatePayrollForAllEmployees(MONTH, false);
+    }
+
+    @Test
+    void replayWithoutSnapshotMatchesTheTable() {
+        changeEverything();
+
+        PayrollLedgerReplay replay = payrollLedgerService.replayMonth(MONTH, null);
+
+        assertNull(replay.getSnapshotId());
+        assertEquals(table(), replayed(replay));
+    }
+
+    @Test
+    void replayFromSnapshotMatchesTheTable() {
+        payrollService.updatePayrollStatus(payrollId(1), PayrollStatus.PENDING);
+        List<PayrollLedgerSnapshot> snapshots = payrollLedgerService.snapshotMonth(MONTH);
+        assertEquals(1, snapshots.size());
+        // Nothing new since, so no second snapshot
+        assertEquals(List.of(), payrollLedgerService.snapshotMonth(MONTH));
+
+        changeEverything();
+        PayrollLedgerReplay replay = payrollLedgerService.replayMonth(MONTH, null);
+
+        assertEquals(snapshots.get(0).getId(), replay.getSnapshotId());
+        assertEquals(ledgerEntriesAfter(snapshots.get(0).getLastEntryId()), replay.getReplayedEntries());
+        assertEquals(table(), replayed(replay));
+    }
+
+    @Test
+    void replayAsOfReturnsTheEarlierState() throws InterruptedException {
+        payrollService.updatePayrollStatus(payrollId(1), PayrollStatus.PENDING);
+        Map<Long, String> before = table();
+        Thread.sleep(5);
+        LocalDateTime asOf = LocalDateTime.now();
+        Thread.sleep(5);
+
+        changeEverything();
+
+        assertEquals(before, replayed(payrollLedgerService.replayMonth(MONTH, asOf)));
+    }
+
+    @Test
+    void historyListsAnEmployeesEventsOldestFirst() {
+        changeEverything();
+
+        List<PayrollLedgerEvent> events = payrollLedgerService.getHistory(employees.get(3).getEmployeeId(), MONTH)
+                .stream().map(PayrollLedgerEntry::getEvent).toList();
+
+        assertEquals(List.of(PayrollLedgerEvent.GENERATED, PayrollLedgerEvent.STATUS_CHANGED,
+                PayrollLedgerEvent.DELETED, PayrollLedgerEvent.GENERATED), events);
+    }
+
+    // One write of each kind the ledger records
+    private void changeEverything() {
+        payrollService.updatePayrollStatus(payrollId(0), PayrollStatus.PENDING);
+        payrollService.transitionStatus(PayrollStatusTransitionRequest.builder()
+                .month(MONTH).from(PayrollStatus.PROCESSED).to(PayrollStatus.PENDING).department("HR").build());
+        payrollService.transitionStatus(PayrollStatusTransitionRequest.builder()
+                .month(MONTH).from(PayrollStatus.PENDING).to(PayrollStatus.PROCESSED)
+                .payrollIds(List.of(payrollId(2))).build());
+        ctc(employees.get(1), LocalDate.of(2025, 6, 1), 2_400_000);
+        payrollRecomputeService.recomputeDirty();
+        payrollService.deletePayroll(payrollId(3));
+        payrollService.regeneratePayrollForEmployee(employees.get(3).getEmployeeId(), MONTH);
+    }
+
+    // Per employee: payroll id, status and amounts as the table has them
+    private Map<Long, String> table() {
+        Map<Long, String> rows = new TreeMap<>();
+        jdbcTemplate.query("SELECT employee_id, id, status, gross_salary, leave_deduction, net_salary, unpaid_leaves "
+                        + "FROM payroll WHERE month = ?",
+                rs -> {
+                    rows.put(rs.getLong(1), describe(rs.getLong(2), rs.getString(3), rs.getBigDecimal(4).toPlainString(),
+                            rs.getBigDecimal(5).toPlainString(), rs.getBigDecimal(6).toPlainString(), rs.getInt(7)));
+                }, MONTH);
+        return rows;
+    }
+
+    private static Map<Long, String> replayed(PayrollLedgerReplay replay) {
+        Map<Long, String> rows = new TreeMap<>();
+        for (PayrollLedgerState state : replay.getPayrolls()) {
+            rows.put(state.getEmployeeId(), describe(state.getPayrollId(), state.getStatus().name(),
+                    state.getGrossSalary().toPlainString(), state.getLeaveDeduction().toPlainString(),
+                    state.getNetSalary().toPlainString(), state.getUnpaidLeaves()));
+        }
+        return rows;
+    }
+
+    private static String describe(long id, String status, String gross, String deduction, String net, int unpaidLeaves) {
+        return id + " " + status + " " + gross + " " + deduction + " " + net + " " + unpaidLeaves;
+    }
+
+    private int ledgerEntriesAfter(Long entryId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM payroll_ledger WHERE month = ? AND id > ?",
+                Integer.class, MONTH, entryId);
+    }
+
+    private Long payrollId(int employee) {
+        return payrollService.getPayrollByEmployeeAndMonth(employees.get(employee).getEmployeeId(), MONTH)
+                .orElseThrow().getId();
+    }
+}
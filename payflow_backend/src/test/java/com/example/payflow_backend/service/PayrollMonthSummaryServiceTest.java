@@ -0,0 +1,165 @@
+package com.example.payflow_backend.service;
+
+import com.example.payflow_backend.H2IntegrationTest;
+import com.example.payflow_backend.dto.PayrollStatusTransitionRequest;
+import com.example.payflow_backend.model.Employee;
+import com.example.payflow_backend.model.Payroll;
+import com.example.payflow_backend.model.PayrollMonthSummary;
+import com.example.payflow_backend.model.PayrollStatus;
+import com.example.payflow_backend.repository.PayrollRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The materialized month summary is maintained by deltas on every payroll write;
+ * after each kind of write it must equal a rebuild from the payroll table.
+ */
+class PayrollMonthSummaryServiceTest extends H2IntegrationTest {
+
+    private static final String MONTH = "2025-06";
+
+    @Autowired
+    private PayrollMonthSummaryService payrollMonthSummaryService;
+
+    @Autowired
+    private PayrollService payrollService;
+
+    @Autowired
+    private PayrollRecomputeService payrollRecomputeService;
+
+    @Autowired
+    private PayrollRepository payrollRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final List<Employee> employees = new ArrayList<>();
+
+    @BeforeEach
+    void generateMonth() {
+        employees.clear();
+        for (int i = 0; i < 5; i++) {
+            Employee employee = employee("Sum" + i, i < 3 ? "ENG" : "HR", i % 3);
+            ctc(employee, LocalDate.of(2025, 1, 1), 600_000 + 120_000L * i);
+            employees.add(employee);
+        }
+        payrollService.generatePayrollForAllEmployees(MONTH, false);
+    }
+
+    @Test
+    void bulkGenerationIsCounted() {
+        PayrollMonthSummary summary = assertConsistent();
+        assertEquals(5, summary.getTotalEmployees());
+        assertEquals(5, summary.getProcessedCount());
+        assertEquals(0 + 1 + 2 + 0 + 1, summary.getTotalUnpaidLeaves());
+    }
+
+    @Test
+    void statusChangesMoveCounts() {
+        payrollService.updatePayrollStatus(payroll(0).getId(), PayrollStatus.COMPLETED);
+        payrollService.transitionStatus(PayrollStatusTransitionRequest.builder()
+                .month(MONTH).from(PayrollStatus.PROCESSED).to(PayrollStatus.PENDING).department("HR").build());
+
+        PayrollMonthSummary summary = assertConsistent();
+        assertEquals(1, summary.getCompletedCount());
+        assertEquals(2, summary.getPendingCount());
+        assertEquals(2, summary.getProcessedCount());
+    }
+
+    @Test
+    void recomputedAmountsReplaceTheOldOnes() {
+        ctc(employees.get(1), LocalDate.of(2025, 6, 1), 2_400_000);
+        assertEquals(1, payrollRecomputeService.recomputeDirty().getUpdated());
+
+        assertConsistent();
+    }
+
+    @Test
+    void regenerationDeletionAndReinsertion() {
+        payrollService.updatePayrollStatus(payroll(2).getId(), PayrollStatus.PENDING);
+        ctc(employees.get(2), LocalDate.of(2025, 6, 1), 1_800_000);
+        // Replaces amounts and moves the row back to PROCESSED
+        payrollService.regeneratePayrollForEmployee(employees.get(2).getEmployeeId(), MONTH);
+        assertEquals(0, assertConsistent().getPendingCount());
+
+        payrollService.deletePayroll(payroll(3).getId());
+        assertEquals(4, assertConsistent().getTotalEmployees());
+
+        payrollService.regeneratePayrollForEmployee(employees.get(3).getEmployeeId(), MONTH);
+        assertEquals(5, assertConsistent().getTotalEmployees());
+    }
+
+    @Test
+    void rebuildWaitingOnAWriterCountsItsRows() throws Exception {
+        Employee late = employee("Late", "ENG", 0);
+        ctc(late, LocalDate.of(2025, 1, 1), 1_200_000);
+        CountDownLatch written = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            // The writer has inserted its payroll and holds the month row until told to commit
+            Future<?> writer = executor.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+                payrollService.generatePayrollForEmployee(late.getEmployeeId(), MONTH);
+                written.countDown();
+                await(commit);
+            }));
+            assertTrue(written.await(10, TimeUnit.SECONDS));
+            Future<PayrollMonthSummary> rebuild = executor.submit(() -> payrollMonthSummaryService.rebuild(MONTH));
+            awaitBlockedSession();
+            commit.countDown();
+            writer.get(10, TimeUnit.SECONDS);
+
+            // The rebuild read the payroll table only after the writer committed, so its row is in
+            assertEquals(6, rebuild.get(10, TimeUnit.SECONDS).getTotalEmployees());
+            assertEquals(6, assertConsistent().getTotalEmployees());
+        } finally {
+            commit.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    private void awaitBlockedSession() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM information_schema.sessions WHERE blocker_id IS NOT NULL", Integer.class) == 0) {
+            assertTrue(System.currentTimeMillis() < deadline, "rebuild never waited on the writer");
+            Thread.sleep(10);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Stored totals equal a rebuild from the payroll rows; returns the stored summary
+    private PayrollMonthSummary assertConsistent() {
+        assertTrue(payrollMonthSummaryService.check().isEmpty());
+        PayrollMonthSummary stored = payrollMonthSummaryService.getSummary(MONTH);
+        PayrollMonthSummary rebuilt = payrollMonthSummaryService.rebuild(MONTH);
+        assertTrue(stored.sameTotals(rebuilt), () -> "stored " + stored + " but rebuilt " + rebuilt);
+        return stored;
+    }
+
+    private Payroll payroll(int employee) {
+        return payrollRepository.findByEmployee_EmployeeIdAndMonth(employees.get(employee).getEmployeeId(), MONTH)
+                .orElseThrow();
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.payflow_backend.service;
+
+import com.example.payflow_backend.H2IntegrationTest;
+import com.example.payflow_backend.dto.PayrollAmountsRow;
+import com.example.payflow_backend.dto.PayrollRecomputeResult;
+import com.example.payflow_backend.dto.PayrollRegenerationResult;
+import com.example.payflow_backend.model.Employee;
+import com.example.payflow_backend.model.Payroll;
+import com.example.payflow_backend.model.PayrollStatus;
+import com.example.payflow_backend.repository.PayrollRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PayrollRecomputeServiceTest extends H2IntegrationTest {
+
+    // 31 days, long past: its unpaid days can no longer be read from the employee
+    private static final String PAST_MONTH = "2025-03";
+
+    @Autowired
+    private PayrollRecomputeService payrollRecomputeService;
+
+    @Autowired
+    private PayrollService payrollService;
+
+    @Autowired
+    private PayrollRepository payrollRepository;
+
+    @Autowired
+    private PayrollDirtyTracker payrollDirtyTracker;
+
+    @Test
+    void ctcChangeOnPastMonthKeepsItsLeaveDeduction() {
+        Employee employee = employee("Past", "ENG", 2);
+        ctc(employee, LocalDate.of(2025, 1, 1), 1_200_000);
+        Payroll generated = payrollService.generatePayrollForEmployee(employee.getEmployeeId(), PAST_MONTH);
+        assertEquals(2, generated.getUnpaidLeaves());
+        assertAmount("6451.62", generated.getLeaveDeduction());
+
+        // The counter has since been reset, then a backdated raise marks March dirty
+        setExtraLeaves(employee, 0);
+        ctc(employee, LocalDate.of(2025, 2, 1), 2_400_000);
+        PayrollRecomputeResult result = payrollRecomputeService.recomputeDirty();
+
+        assertEquals(1, result.getUpdated());
+        Payroll recomputed = payroll(employee, PAST_MONTH);
+        assertAmount("200000.00", recomputed.getGrossSalary());
+        assertEquals(2, recomputed.getUnpaidLeaves());
+        assertAmount("12903.22", recomputed.getLeaveDeduction());
+        assertAmount("187096.78", recomputed.getNetSalary());
+    }
+
+    @Test
+    void runningMonthReadsTheLiveLeaveCounter() {
+        String month = YearMonth.now().toString();
+        Employee employee = employee("Current", "ENG", 1);
+        ctc(employee, LocalDate.of(2025, 1, 1), 1_200_000);
+        payrollService.generatePayrollForEmployee(employee.getEmployeeId(), month);
+
+        setExtraLeaves(employee, 3);
+        ctc(employee, YearMonth.now().atDay(1), 2_400_000);
+        payrollRecomputeService.recomputeDirty(month);
+
+        Payroll recomputed = payroll(employee, month);
+        assertEquals(3, recomputed.getUnpaidLeaves());
+        assertAmount("200000.00", recomputed.getGrossSalary());
+    }
+
+    @Test
+    void dryRunRegenerationOfPastMonthReportsStoredLeavesAndWritesNothing() {
+        Employee raised = employee("Raised", "ENG", 2);
+        Employee untouched = employee("Untouched", "ENG", 1);
+        ctc(raised, LocalDate.of(2025, 1, 1), 1_200_000);
+        ctc(untouched, LocalDate.of(2025, 1, 1), 1_200_000);
+        payrollService.generatePayrollForAllEmployees(PAST_MONTH, false);
+        // Counters since moved on; only the raise changes March's amounts
+        setExtraLeaves(raised, 5);
+        setExtraLeaves(untouched, 4);
+        ctc(raised, LocalDate.of(2025, 2, 1), 2_400_000);
+
+        PayrollRegenerationResult result = payrollRecomputeService.regenerateMonth(PAST_MONTH, true);
+
+        assertTrue(result.isDryRun());
+        assertEquals(2, result.getChecked());
+        assertEquals(1, result.getUnchanged());
+        assertEquals(1, result.getChanges().size());
+        PayrollAmountsRow after = result.getChanges().get(0).getAfter();
+        assertEquals(2, after.getUnpaidLeaves());
+        assertAmount("200000.00", after.getGrossSalary());
+        assertAmount("12903.22", after.getLeaveDeduction());
+
+        Payroll stored = payroll(raised, PAST_MONTH);
+        assertAmount("100000.00", stored.getGrossSalary());
+        assertEquals(2, stored.getUnpaidLeaves());
+        assertEquals(1, payroll(untouched, PAST_MONTH).getUnpaidLeaves());
+        assertEquals(1, payrollDirtyTracker.getPendingMarks().size());
+    }
+
+    @Test
+    void sameAmountsIgnoresScaleButNotValues() {
+        Payroll recomputed = new PayrollCalculator().buildPayroll(
+                Employee.builder().employeeId(1L).build(), PAST_MONTH, new BigDecimal("100000.00"), 2);
+
+        assertTrue(PayrollRecomputeService.sameAmounts(amounts(recomputed, "100000", 2), recomputed));
+        assertFalse(PayrollRecomputeService.sameAmounts(amounts(recomputed, "100000.01", 2), recomputed));
+        assertFalse(PayrollRecomputeService.sameAmounts(amounts(recomputed, "100000.00", 1), recomputed));
+        assertFalse(PayrollRecomputeService.sameAmounts(amounts(recomputed, null, 2), recomputed));
+    }
+
+    private static PayrollAmountsRow amounts(Payroll payroll, String grossSalary, int unpaidLeaves) {
+        return new PayrollAmountsRow(1L, 1L, grossSalary != null ? new BigDecimal(grossSalary) : null,
+                payroll.getLeaveDeduction(), payroll.getNetSalary(), payroll.getPerDaySalary(),
+                payroll.getTotalWorkingDays(), unpaidLeaves, PayrollStatus.PROCESSED);
+    }
+
+    private Payroll payroll(Employee employee, String month) {
+        return payrollRepository.findByEmployee_EmployeeIdAndMonth(employee.getEmployeeId(), month).orElseThrow();
+    }
+
+    private static void assertAmount(String expected, BigDecimal actual) {
+        assertEquals(0, new BigDecimal(expected).compareTo(actual), () -> "expected " + expected + " but was " + actual);
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.payflow_backend.service;
+
+import com.example.payflow_backend.H2IntegrationTest;
+import com.example.payflow_backend.dto.PayrollRollupSlice;
+import com.example.payflow_backend.model.Employee;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Rollup cells follow the department each payroll was generated under, whether a month is read
+ * from its stored cells or, while stale, straight from its payroll rows.
+ */
+class PayrollRollupServiceTest extends H2IntegrationTest {
+
+    private static final String BEFORE_TRANSFER = "2025-03";
+
+    private static final String AFTER_TRANSFER = "2025-04";
+
+    @Autowired
+    private PayrollRollupService payrollRollupService;
+
+    @Autowired
+    private PayrollService payrollService;
+
+    @Autowired
+    private PayrollRecomputeService payrollRecomputeService;
+
+    @Test
+    void transferDoesNotMovePastMonths() {
+        Employee moved = employee("Moved", "ENG", 0);
+        Employee stayed = employee("Stayed", "ENG", 0);
+        ctc(moved, LocalDate.of(2025, 1, 1), 1_200_000);
+        ctc(stayed, LocalDate.of(2025, 1, 1), 1_200_000);
+        payrollService.generatePayrollForAllEmployees(BEFORE_TRANSFER, false);
+        payrollRollupService.refreshAllStale();
+
+        jdbcTemplate.update("UPDATE employee SET department = 'HR' WHERE employee_id = ?", moved.getEmployeeId());
+        payrollService.generatePayrollForAllEmployees(AFTER_TRANSFER, false);
+        // A backdated raise and both regeneration paths rewrite March after the transfer
+        ctc(moved, LocalDate.of(2025, 2, 1), 2_400_000);
+        payrollRecomputeService.regenerateMonth(BEFORE_TRANSFER, false);
+        payrollService.regeneratePayrollForEmployee(moved.getEmployeeId(), BEFORE_TRANSFER);
+
+        // March is stale, so it is aggregated from its rows; then the same from rebuilt cells
+        assertDepartments();
+        payrollRollupService.refreshAllStale();
+        assertDepartments();
+    }
+
+    private void assertDepartments() {
+        List<PayrollRollupSlice> slices = payrollRollupService.query(BEFORE_TRANSFER, AFTER_TRANSFER,
+                EnumSet.of(PayrollRollupService.Dimension.MONTH, PayrollRollupService.Dimension.DEPARTMENT), null, null);
+
+        assertEquals(List.of(BEFORE_TRANSFER + "/ENG/2", AFTER_TRANSFER + "/ENG/1", AFTER_TRANSFER + "/HR/1"),
+                slices.stream().map(s -> s.getMonth() + "/" + s.getDepartment() + "/" + s.getEmployeeCount()).toList());
+        assertEquals(0, slices.get(0).getTotalGrossSalary().compareTo(new BigDecimal("300000")));
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.payflow_backend.service;
+
+import com.example.payflow_backend.dto.PayrollRunProgress;
+import com.example.payflow_backend.model.PayrollRunStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PayrollRunEventStreamTest {
+
+    private final PayrollRunEventStream stream = new PayrollRunEventStream();
+
+    @Test
+    void runEndingWhileSubscribingCompletesTheStream() {
+        // The terminal event fires after registration but before the current state is read
+        SseEmitter emitter = stream.subscribe(1L, () -> {
+            stream.onProgress(progress(1L, PayrollRunStatus.COMPLETED, false));
+            return progress(1L, PayrollRunStatus.COMPLETED, false);
+        });
+
+        assertEquals(0, stream.subscriberCount(1L));
+        assertThrows(IllegalStateException.class, () -> emitter.send("late"));
+    }
+
+    @Test
+    void terminalEventReleasesSubscribersOfThatJobOnly() {
+        stream.subscribe(1L, () -> progress(1L, PayrollRunStatus.RUNNING, true));
+        stream.subscribe(1L, () -> progress(1L, PayrollRunStatus.RUNNING, true));
+        stream.subscribe(2L, () -> progress(2L, PayrollRunStatus.RUNNING, true));
+
+        stream.onProgress(progress(1L, PayrollRunStatus.RUNNING, true));
+        assertEquals(2, stream.subscriberCount(1L));
+
+        stream.onProgress(progress(1L, PayrollRunStatus.PAUSED, false));
+        assertEquals(0, stream.subscriberCount(1L));
+        assertEquals(1, stream.subscriberCount(2L));
+
+        // A later subscriber to the finished run is completed at once rather than kept
+        stream.subscribe(1L, () -> progress(1L, PayrollRunStatus.PAUSED, false));
+        assertEquals(0, stream.subscriberCount(1L));
+    }
+
+    @Test
+    void failedProgressLookupLeavesNoSubscriber() {
+        assertThrows(RuntimeException.class, () -> stream.subscribe(3L, () -> {
+            throw new RuntimeException("Payroll run not found with ID: 3");
+        }));
+        assertEquals(0, stream.subscriberCount(3L));
+    }
+
+    private static PayrollRunProgress progress(Long jobId, PayrollRunStatus status, boolean executing) {
+        return PayrollRunProgress.builder()
+                .jobId(jobId)
+                .month("2025-06")
+                .status(status)
+                .executing(executing)
+                .build();
+    }
+}
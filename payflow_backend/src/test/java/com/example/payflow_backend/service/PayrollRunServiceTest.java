@@ -0,0 +1,167 @@
+package com.example.payflow_backend.service;
+
+import com.example.payflow_backend.H2IntegrationTest;
+import com.example.payflow_backend.model.Employee;
+import com.example.payflow_backend.model.PayrollRun;
+import com.example.payflow_backend.model.PayrollRunStatus;
+import com.example.payflow_backend.repository.PayrollRepository;
+import com.example.payflow_backend.repository.PayrollRunRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PayrollRunServiceTest extends H2IntegrationTest {
+
+    private static final String MONTH = "2025-06";
+
+    @Autowired
+    private PayrollRunService payrollRunService;
+
+    @Autowired
+    private PayrollRunRepository payrollRunRepository;
+
+    @Autowired
+    private PayrollRepository payrollRepository;
+
+    private final List<Long> employeeIds = new ArrayList<>();
+
+    @BeforeEach
+    void createEmployees() {
+        employeeIds.clear();
+        // Seven employees are two waves of two partitions of two
+        for (int i = 0; i < 7; i++) {
+            Employee employee = employee("Run" + i, "ENG", 0);
+            ctc(employee, LocalDate.of(2025, 1, 1), 1_200_000);
+            employeeIds.add(employee.getEmployeeId());
+        }
+    }
+
+    @Test
+    void runGeneratesEveryActiveEmployeeAndReleasesTheMonth() {
+        PayrollRun run = payrollRunService.startRun(MONTH, "test");
+
+        assertEquals(PayrollRunStatus.COMPLETED, run.getStatus());
+        assertEquals(7, run.getProcessedEmployees());
+        assertEquals(7, run.getGeneratedCount());
+        assertEquals(employeeIds.get(6), run.getCursorEmployeeId());
+        assertNotNull(run.getFinishedAt());
+        assertNull(run.getOpenMonth());
+        assertEquals(7, payrollRepository.findEmployeeIdsByMonth(MONTH).size());
+
+        // A completed run no longer holds the month, so the next request opens a new one
+        PayrollRun next = payrollRunService.createOrGetUnfinishedRun(MONTH, "test");
+        assertNotEquals(run.getId(), next.getId());
+    }
+
+    @Test
+    void resumedRunContinuesAfterItsCheckpoint() {
+        PayrollRun run = payrollRunService.createOrGetUnfinishedRun(MONTH, "test");
+        // As if a first execution committed the first three employees and was then paused
+        payrollRunRepository.advanceCheckpoint(run.getId(), employeeIds.get(2), 3, 3, 0, 0, LocalDateTime.now());
+
+        PayrollRun resumed = payrollRunService.resumeRun(run.getId());
+
+        assertEquals(PayrollRunStatus.COMPLETED, resumed.getStatus());
+        assertEquals(7, resumed.getProcessedEmployees());
+        assertEquals(7, resumed.getTotalEmployees());
+        assertEquals(3 + 4, resumed.getGeneratedCount());
+        assertEquals(Set.copyOf(employeeIds.subList(3, 7)), Set.copyOf(payrollRepository.findEmployeeIdsByMonth(MONTH)));
+    }
+
+    @Test
+    void pauseStopsARunningRunAndResumeFinishesIt() {
+        PayrollRun run = payrollRunService.createOrGetUnfinishedRun(MONTH, "test");
+        payrollRunRepository.transition(run.getId(), EnumSet.of(PayrollRunStatus.PAUSED), PayrollRunStatus.RUNNING, LocalDateTime.now());
+
+        PayrollRun paused = payrollRunService.pauseRun(run.getId());
+        assertEquals(PayrollRunStatus.PAUSED, paused.getStatus());
+        assertThrows(IllegalArgumentException.class, () -> payrollRunService.pauseRun(run.getId()));
+
+        assertEquals(PayrollRunStatus.COMPLETED, payrollRunService.resumeRun(run.getId()).getStatus());
+        assertEquals(7, payrollRepository.findEmployeeIdsByMonth(MONTH).size());
+    }
+
+    @Test
+    void runningRunCannotBeClaimedAgain() {
+        PayrollRun run = payrollRunService.createOrGetUnfinishedRun(MONTH, "test");
+        // Executing on another instance: RUNNING in the database, unknown to this JVM
+        payrollRunRepository.transition(run.getId(), EnumSet.of(PayrollRunStatus.PAUSED), PayrollRunStatus.RUNNING, LocalDateTime.now());
+
+        assertThrows(IllegalArgumentException.class, () -> payrollRunService.resumeRun(run.getId()));
+        PayrollRun submitted = payrollRunService.submitRun(MONTH, "test");
+        assertEquals(run.getId(), submitted.getId());
+        assertEquals(PayrollRunStatus.RUNNING, submitted.getStatus());
+        assertTrue(payrollRepository.findEmployeeIdsByMonth(MONTH).isEmpty());
+    }
+
+    @Test
+    void onlyRunsWithAStaleHeartbeatAreMarkedInterrupted() {
+        PayrollRun live = payrollRunService.createOrGetUnfinishedRun(MONTH, "test");
+        PayrollRun stale = payrollRunService.createOrGetUnfinishedRun("2025-07", "test");
+        // Both claimed by another instance; only one of them is still checking in
+        payrollRunRepository.claim(live.getId(), EnumSet.of(PayrollRunStatus.PAUSED), "other", LocalDateTime.now());
+        payrollRunRepository.claim(stale.getId(), EnumSet.of(PayrollRunStatus.PAUSED), "other", LocalDateTime.now().minusHours(1));
+
+        payrollRunService.markInterruptedRuns();
+
+        assertEquals(PayrollRunStatus.RUNNING, payrollRunService.getRun(live.getId()).getStatus());
+        PayrollRun failed = payrollRunService.getRun(stale.getId());
+        assertEquals(PayrollRunStatus.FAILED, failed.getStatus());
+        assertNotNull(failed.getLastError());
+        assertThrows(IllegalArgumentException.class, () -> payrollRunService.resumeRun(live.getId()));
+        assertEquals(PayrollRunStatus.COMPLETED, payrollRunService.resumeRun(stale.getId()).getStatus());
+    }
+
+    @Test
+    void finishingDoesNotOverwriteAConcurrentPause() {
+        PayrollRun run = payrollRunService.createOrGetUnfinishedRun(MONTH, "test");
+
+        // The run was paused after the executor last read it
+        assertEquals(0, payrollRunRepository.complete(run.getId(), LocalDateTime.now()));
+        assertEquals(0, payrollRunRepository.fail(run.getId(), "boom", LocalDateTime.now()));
+        assertEquals(0, payrollRunRepository.startExecution(run.getId(), 7, LocalDateTime.now()));
+
+        PayrollRun stored = payrollRunService.getRun(run.getId());
+        assertEquals(PayrollRunStatus.PAUSED, stored.getStatus());
+        assertNull(stored.getLastError());
+        assertEquals(MONTH, stored.getOpenMonth());
+    }
+
+    @Test
+    void concurrentRequestsShareOneRun() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Callable<Long>> requests = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                requests.add(() -> payrollRunService.createOrGetUnfinishedRun(MONTH, "test").getId());
+            }
+            Set<Long> runIds = new HashSet<>();
+            for (Future<Long> future : executor.invokeAll(requests)) {
+                runIds.add(future.get());
+            }
+            assertEquals(1, runIds.size());
+            assertEquals(1, payrollRunService.getRunsForMonth(MONTH).size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package com.example.payflow_backend.service;
+
+import com.example.payflow_backend.H2IntegrationTest;
+import com.example.payflow_backend.dto.PayrollListFilter;
+import com.example.payflow_backend.dto.PayrollListItem;
+import com.example.payflow_backend.dto.PayrollPage;
+import com.example.payflow_backend.dto.PayrollStatusTransitionRequest;
+import com.example.payflow_backend.dto.PayrollStatusTransitionResult;
+import com.example.payflow_backend.dto.PayrollSummaryGroup;
+import com.example.payflow_backend.model.Employee;
+import com.example.payflow_backend.model.Payroll;
+import com.example.payflow_backend.model.PayrollStatus;
+import com.example.payflow_backend.repository.PayrollRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PayrollServiceTest extends H2IntegrationTest {
+
+    private static final String MONTH = "2025-06";
+
+    @Autowired
+    private PayrollService payrollService;
+
+    @Autowired
+    private PayrollRepository payrollRepository;
+
+    @Test
+    void transitionByIdsRejectsWhatItCannotMove() {
+        Payroll eng = generate(employee("Eng", "ENG", 0), MONTH);
+        Payroll completed = generate(employee("Paid", "ENG", 0), MONTH);
+        Payroll hr = generate(employee("Hr", "HR", 0), MONTH);
+        Payroll otherMonth = generate(employee("May", "ENG", 0), "2025-05");
+        payrollService.updatePayrollStatus(completed.getId(), PayrollStatus.COMPLETED);
+        long unknown = otherMonth.getId() + 1000;
+
+        PayrollStatusTransitionResult result = payrollService.transitionStatus(PayrollStatusTransitionRequest.builder()
+                .month(MONTH).from(PayrollStatus.PROCESSED).to(PayrollStatus.PENDING).department("ENG")
+                .payrollIds(List.of(eng.getId(), completed.getId(), hr.getId(), otherMonth.getId(), unknown, eng.getId()))
+                .build());
+
+        assertEquals(5, result.getRequested());
+        assertEquals(1, result.getUpdated());
+        assertEquals(List.of(completed.getId(), hr.getId(), otherMonth.getId(), unknown), result.getRejectedIds());
+        assertEquals(PayrollStatus.PENDING, status(eng));
+        assertEquals(PayrollStatus.COMPLETED, status(completed));
+        assertEquals(PayrollStatus.PROCESSED, status(hr));
+        assertEquals(PayrollStatus.PROCESSED, status(otherMonth));
+    }
+
+    @Test
+    void transitionOutsideTheStatusGraphIsRefused() {
+        Payroll payroll = generate(employee("Graph", "ENG", 0), MONTH);
+
+        assertThrows(IllegalArgumentException.class, () -> payrollService.transitionStatus(
+                PayrollStatusTransitionRequest.builder()
+                        .month(MONTH).from(PayrollStatus.PROCESSED).to(PayrollStatus.PROCESSED).build()));
+        assertThrows(IllegalArgumentException.class, () -> payrollService.transitionStatus(
+                PayrollStatusTransitionRequest.builder()
+                        .month(MONTH).from(PayrollStatus.COMPLETED).to(PayrollStatus.PENDING).build()));
+        assertEquals(PayrollStatus.PROCESSED, status(payroll));
+    }
+
+    @Test
+    void paidOrCancelledPayrollIsNotRegenerated() {
+        Employee paidEmployee = employee("Paid", "ENG", 0);
+        Payroll paid = generate(paidEmployee, MONTH);
+        payrollService.updatePayrollStatus(paid.getId(), PayrollStatus.COMPLETED);
+        Employee cancelledEmployee = employee("Cancelled", "ENG", 0);
+        Payroll cancelled = generate(cancelledEmployee, MONTH);
+        payrollService.updatePayrollStatus(cancelled.getId(), PayrollStatus.CANCELLED);
+        ctc(paidEmployee, LocalDate.of(2025, 6, 1), 2_400_000);
+
+        assertThrows(IllegalStateException.class,
+                () -> payrollService.regeneratePayrollForEmployee(paidEmployee.getEmployeeId(), MONTH));
+        assertThrows(IllegalStateException.class,
+                () -> payrollService.regeneratePayrollForEmployee(cancelledEmployee.getEmployeeId(), MONTH));
+
+        Payroll stored = payrollRepository.findById(paid.getId()).orElseThrow();
+        assertEquals(PayrollStatus.COMPLETED, stored.getStatus());
+        assertEquals(0, paid.getNetSalary().compareTo(stored.getNetSalary()));
+        assertEquals(PayrollStatus.CANCELLED, status(cancelled));
+    }
+
+    @Test
+    void cursorRoundTripsAndRejectsGarbage() {
+        String cursor = PayrollService.encodeCursor("2025-06", 42L);
+
+        assertArrayEquals(new String[]{"2025-06", "42"}, PayrollService.decodeCursor(cursor));
+        for (String invalid : List.of("%%%", encode("2025-06"), encode("2025-13:1"), encode("2025-06:x"),
+                encode("2025-06:1:2"))) {
+            assertThrows(IllegalArgumentException.class, () -> PayrollService.decodeCursor(invalid), invalid);
+        }
+    }
+
+    @Test
+    void keysetPagesWalkEveryMatchingRowOnce() {
+        List<Employee> employees = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Employee employee = employee("Page" + i, i % 2 == 0 ? "ENG" : "HR", 0);
+            // Net salaries 100000..140000
+            ctc(employee, LocalDate.of(2025, 1, 1), 1_200_000 + 120_000L * i);
+            employees.add(employee);
+        }
+        for (String month : List.of("2025-04", "2025-05", "2025-06")) {
+            payrollService.generatePayrollForAllEmployees(month, false);
+        }
+        Payroll pending = payrollRepository.findByEmployee_EmployeeIdAndMonth(employees.get(2).getEmployeeId(), "2025-05")
+                .orElseThrow();
+        payrollService.updatePayrollStatus(pending.getId(), PayrollStatus.PENDING);
+        List<Payroll> all = payrollRepository.findAll();
+
+        assertPages(PayrollListFilter.builder().build(), all, row -> true);
+        assertPages(PayrollListFilter.builder().month("2025-05").build(), all, row -> row.getMonth().equals("2025-05"));
+        assertPages(PayrollListFilter.builder().department(" ENG ").build(), all,
+                row -> row.getEmployee().getDepartment().equals("ENG"));
+        assertPages(PayrollListFilter.builder().status(PayrollStatus.PENDING).build(), all,
+                row -> row.getId().equals(pending.getId()));
+        assertPages(PayrollListFilter.builder().employeeId(employees.get(1).getEmployeeId()).build(), all,
+                row -> row.getEmployee().getEmployeeId().equals(employees.get(1).getEmployeeId()));
+        assertPages(PayrollListFilter.builder().minNetSalary(new BigDecimal("110000")).maxNetSalary(new BigDecimal("130000"))
+                        .department("ENG").build(), all,
+                row -> row.getEmployee().getDepartment().equals("ENG")
+                        && row.getNetSalary().compareTo(new BigDecimal("110000")) >= 0
+                        && row.getNetSalary().compareTo(new BigDecimal("130000")) <= 0);
+    }
+
+    @Test
+    void transferredEmployeesPayrollsStayInTheGeneratingDepartment() {
+        Employee moved = employee("Moved", "ENG", 0);
+        Payroll payroll = generate(moved, MONTH);
+        jdbcTemplate.update("UPDATE employee SET department = 'HR' WHERE employee_id = ?", moved.getEmployeeId());
+
+        List<PayrollSummaryGroup> breakdown = payrollService.getPayrollSummaryBreakdown(MONTH, true, false);
+        assertEquals(List.of("ENG"), breakdown.stream().map(PayrollSummaryGroup::getDepartment).toList());
+        PayrollPage eng = payrollService.getPayrollPage(PayrollListFilter.builder().department("ENG").build());
+        assertEquals(List.of(payroll.getId()), eng.getItems().stream().map(PayrollListItem::getId).toList());
+        assertEquals("ENG", eng.getItems().get(0).getEmployee().getDepartment());
+        assertTrue(payrollService.getPayrollPage(PayrollListFilter.builder().department("HR").build()).getItems().isEmpty());
+
+        payrollService.transitionStatus(PayrollStatusTransitionRequest.builder()
+                .month(MONTH).from(PayrollStatus.PROCESSED).to(PayrollStatus.PENDING).department("HR").build());
+        assertEquals(PayrollStatus.PROCESSED, status(payroll));
+        payrollService.transitionStatus(PayrollStatusTransitionRequest.builder()
+                .month(MONTH).from(PayrollStatus.PROCESSED).to(PayrollStatus.PENDING).department("ENG").build());
+        assertEquals(PayrollStatus.PENDING, status(payroll));
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM payroll_ledger WHERE payroll_id = ? AND status = 'PENDING'", Integer.class, payroll.getId()));
+    }
+
+    @Test
+    void invalidPageRequestsAreRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> payrollService.getPayrollPage(PayrollListFilter.builder().limit(0).build()));
+        assertThrows(IllegalArgumentException.class,
+                () -> payrollService.getPayrollPage(PayrollListFilter.builder().cursor("not a cursor").build()));
+    }
+
+    // Walks the filter two rows at a time; the pages must hold exactly the matching rows, newest month first
+    private void assertPages(PayrollListFilter filter, List<Payroll> all, Predicate<Payroll> matches) {
+        List<Long> expected = all.stream()
+                .filter(matches)
+                .sorted(Comparator.comparing(Payroll::getMonth).thenComparing(Payroll::getId).reversed())
+                .map(Payroll::getId)
+                .toList();
+        List<Long> walked = new ArrayList<>();
+        filter.setLimit(2);
+        PayrollPage page;
+        do {
+            page = payrollService.getPayrollPage(filter);
+            walked.addAll(page.getItems().stream().map(PayrollListItem::getId).toList());
+            filter.setCursor(page.getNextCursor());
+        } while (page.getNextCursor() != null);
+
+        assertEquals(expected, walked, filter.toString());
+        assertNull(page.getNextCursor());
+    }
+
+    private static String encode(String position) {
+        return Base64.getUrlEncoder().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Payroll generate(Employee employee, String month) {
+        ctc(employee, LocalDate.of(2025, 1, 1), 1_200_000);
+        return payrollService.generatePayrollForEmployee(employee.getEmployeeId(), month);
+    }
+
+    private PayrollStatus status(Payroll payroll) {
+        return payrollRepository.findById(payroll.getId()).orElseThrow().getStatus();
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.payflow_backend.service;
+
+import com.example.payflow_backend.H2IntegrationTest;
+import com.example.payflow_backend.model.Employee;
+import com.example.payflow_backend.model.PayrollStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PayrollUniqueKeyMigrationTest extends H2IntegrationTest {
+
+    private static final String MONTH = "2025-06";
+
+    @Autowired
+    private PayrollUniqueKeyMigration payrollUniqueKeyMigration;
+
+    @Autowired
+    private PayrollMonthSummaryService payrollMonthSummaryService;
+
+    @Test
+    void duplicatesAreRemovedBeforeTheKeyIsAdded() {
+        Employee paid = employee("Paid", "ENG", 0);
+        Employee pending = employee("Pending", "ENG", 0);
+        jdbcTemplate.execute("ALTER TABLE payroll DROP CONSTRAINT " + PayrollUniqueKeyMigration.CONSTRAINT_NAME);
+        try {
+            insert(paid, PayrollStatus.PENDING);
+            insert(paid, PayrollStatus.COMPLETED);
+            insert(paid, PayrollStatus.PROCESSED);
+            insert(pending, PayrollStatus.PENDING);
+            insert(pending, PayrollStatus.PENDING);
+        } finally {
+            payrollUniqueKeyMigration.ensureUniqueKey();
+        }
+
+        List<Long> kept = jdbcTemplate.queryForList("SELECT id FROM payroll ORDER BY employee_id", Long.class);
+        assertEquals(2, kept.size());
+        assertEquals(List.of(PayrollStatus.COMPLETED.name(), PayrollStatus.PENDING.name()),
+                jdbcTemplate.queryForList("SELECT status FROM payroll ORDER BY employee_id", String.class));
+        // Of equal statuses the newest row survives
+        assertEquals(kept.get(1), jdbcTemplate.queryForObject(
+                "SELECT MAX(id) FROM payroll WHERE employee_id = ?", Long.class, pending.getEmployeeId()));
+        assertTrue(payrollMonthSummaryService.check().isEmpty());
+        assertEquals(2, payrollMonthSummaryService.getSummary(MONTH).getTotalEmployees());
+        assertThrows(DataIntegrityViolationException.class, () -> insert(paid, PayrollStatus.PENDING));
+    }
+
+    private long insert(Employee employee, PayrollStatus status) {
+        LocalDateTime now = LocalDateTime.now();
+        jdbcTemplate.update("INSERT INTO payroll (employee_id, month, month_key, gross_salary, leave_deduction, net_salary, "
+                        + "created_at, updated_at, total_working_days, unpaid_leaves, per_day_salary, status) "
+                        + "VALUES (?, ?, 202506, 100000, 0, 100000, ?, ?, 30, 0, 3333.33, ?)",
+                employee.getEmployeeId(), MONTH, now, now, status.name());
+        return jdbcTemplate.queryForObject("SELECT MAX(id) FROM payroll", Long.class);
+    }
+}
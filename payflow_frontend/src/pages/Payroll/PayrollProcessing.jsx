@@ -91,8 +91,14 @@ export default function PayrollProcessing() {
       });
 
       if (res.ok) {
-        const data = await res.json();
-        toast.success(`Payroll generated for ${data.employeesProcessed} employees`);
+        // Generation runs in the background; poll the job until it stops
+        const job = await res.json();
+        const progress = await waitForPayrollJob(job.statusUrl);
+        if (progress.status === "COMPLETED") {
+          toast.success(`Payroll generated for ${progress.generated} employees`);
+        } else {
+          toast.error(progress.lastError || `Payroll run ${progress.status.toLowerCase()}`);
+        }
         fetchPayrollData(selectedMonth);
       } else {
         const errorData = await res.json();
@@ -106,6 +112,20 @@ export default function PayrollProcessing() {
     }
   };
 
+  const waitForPayrollJob = async (statusUrl) => {
+    while (true) {
+      await new Promise((resolve) => setTimeout(resolve, 1000));
+      const res = await fetch(statusUrl, { credentials: "include" });
+      if (!res.ok) {
+        throw new Error("Failed to fetch payroll job status");
+      }
+      const progress = await res.json();
+      if (progress.status !== "RUNNING" || !progress.executing) {
+        return progress;
+      }
+    }
+  };
+
   // Generate payroll for specific employee
   const handleGeneratePayrollEmployee = async () => {
     if (!selectedMonth || !selectedEmployee) {